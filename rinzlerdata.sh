@@ -2,5 +2,5 @@
 
 mkdir target/classes/bnorm/Rinzler.data/
 cp lib/sine.table target/classes/bnorm/Rinzler.data/sine.table
-cp lib/tangent.table target/classes/bnorm/Rinzler.data/tangnet.table
+cp lib/tangent.table target/classes/bnorm/Rinzler.data/tangent.table
 cp lib/acosine.table target/classes/bnorm/Rinzler.data/acosine.table
@@ -0,0 +1,147 @@
+package bnorm.manage;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bnorm.robots.RobotFactory;
+import bnorm.robots.RobotSnapshotFactory;
+import robocode.Robot;
+import robocode.ScannedRobotEvent;
+
+/**
+ * Benchmarks for feeding a synthetic stream of {@link ScannedRobotEvent}s through {@link RobotManager#inEvent}. Each
+ * benchmark invocation is one tick of a melee battle: every enemy is scanned once. The manager is replaced every
+ * {@link #ROUND_TICKS} ticks so the history, and the memory used, stays bounded.
+ *
+ * @author Brian Norman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RobotManagerBenchmark {
+
+   private static final int ROUND_TICKS = 10000;
+
+   private static final int SCANS = 256;
+
+   @Param({"1", "10"})
+   private int enemies;
+
+   private BenchRobot robot;
+   private RobotSnapshotFactory snapshotFactory;
+   private RobotFactory robotFactory;
+   private RobotManager manager;
+   private ScannedRobotEvent[][] scans;
+   private int scan;
+
+   @Setup
+   public void setup() {
+      Random random = new Random(42);
+
+      robot = new BenchRobot();
+      snapshotFactory = new RobotSnapshotFactory();
+      robotFactory = new RobotFactory(snapshotFactory);
+      manager = RobotManager.create(robot, robotFactory, snapshotFactory);
+
+      scans = new ScannedRobotEvent[SCANS][enemies];
+      for (int i = 0; i < SCANS; i++) {
+         for (int j = 0; j < enemies; j++) {
+            scans[i][j] = new ScannedRobotEvent("Enemy " + j, 100.0, random.nextDouble() * 2.0 * Math.PI - Math.PI,
+                                                100.0 + random.nextDouble() * 600.0,
+                                                random.nextDouble() * 2.0 * Math.PI,
+                                                random.nextDouble() * 16.0 - 8.0);
+         }
+      }
+   }
+
+   /**
+    * Scans every enemy once and advances the battle by one tick.
+    */
+   @Benchmark
+   public Object inEventTick() {
+      for (ScannedRobotEvent event : nextTick()) {
+         manager.inEvent(event);
+      }
+      return manager;
+   }
+
+   /**
+    * Scans every enemy once inside a single turn and advances the battle by one tick.
+    */
+   @Benchmark
+   public Object inEventTurn() {
+      ScannedRobotEvent[] events = nextTick();
+      manager.beginTurn();
+      for (ScannedRobotEvent event : events) {
+         manager.inEvent(event);
+      }
+      manager.endTurn();
+      return manager;
+   }
+
+   private ScannedRobotEvent[] nextTick() {
+      if (++robot.time > ROUND_TICKS) {
+         robot.time = 1;
+         manager = RobotManager.create(robot, robotFactory, snapshotFactory);
+      }
+
+      scan = (scan + 1) & (SCANS - 1);
+      for (ScannedRobotEvent event : scans[scan]) {
+         event.setTime(robot.time);
+      }
+      return scans[scan];
+   }
+
+   /**
+    * A robot standing still in the middle of the battlefield, so the manager can be run outside of a battle.
+    */
+   static final class BenchRobot extends Robot {
+
+      private long time;
+
+      @Override
+      public String getName() {
+         return "Benchmark";
+      }
+
+      @Override
+      public long getTime() {
+         return time;
+      }
+
+      @Override
+      public double getX() {
+         return 400.0;
+      }
+
+      @Override
+      public double getY() {
+         return 300.0;
+      }
+
+      @Override
+      public double getHeading() {
+         return 0.0;
+      }
+
+      @Override
+      public int getRoundNum() {
+         return 0;
+      }
+   }
+}
@@ -0,0 +1,97 @@
+package bnorm.robots;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for recording and looking up the history of a {@link Robot}. Every benchmark is run against histories of
+ * one thousand, ten thousand and one hundred thousand ticks of a single round.
+ *
+ * @author Brian Norman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RobotBenchmark {
+
+   private static final int LOOKUPS = 1024;
+
+   @Param({"1000", "10000", "100000"})
+   private int history;
+
+   private IRobotSnapshot[] snapshots;
+   private long[] times;
+   private Robot robot;
+   private int lookup;
+
+   @Setup
+   public void setup() {
+      Random random = new Random(42);
+
+      snapshots = new IRobotSnapshot[history];
+      double x = 400.0;
+      double y = 300.0;
+      for (int i = 0; i < history; i++) {
+         double heading = random.nextDouble() * 2.0 * Math.PI;
+         double velocity = random.nextDouble() * 16.0 - 8.0;
+         x = Math.max(18.0, Math.min(782.0, x + Math.sin(heading) * velocity));
+         y = Math.max(18.0, Math.min(582.0, y + Math.cos(heading) * velocity));
+         snapshots[i] = new RobotSnapshot("Enemy", x, y, 100.0, heading, velocity, i + 1, 0);
+      }
+
+      robot = fill();
+
+      times = new long[LOOKUPS];
+      for (int i = 0; i < LOOKUPS; i++) {
+         times[i] = 1 + random.nextInt(history);
+      }
+   }
+
+   /**
+    * Records the whole history, in order, into a new robot.
+    */
+   @Benchmark
+   public Object add() {
+      return fill();
+   }
+
+   /**
+    * Looks up a random time in the history.
+    */
+   @Benchmark
+   public Object getSnapshotRandom() {
+      lookup = (lookup + 1) & (LOOKUPS - 1);
+      return robot.getSnapshot(times[lookup]);
+   }
+
+   /**
+    * Looks up the most recent time in the history, which is the common case while the round is running.
+    */
+   @Benchmark
+   public Object getSnapshotRecent() {
+      return robot.getSnapshot(history);
+   }
+
+   private Robot fill() {
+      Robot r = new Enemy("Enemy");
+      for (IRobotSnapshot snapshot : snapshots) {
+         r.add(snapshot);
+      }
+      return r;
+   }
+}
@@ -0,0 +1,54 @@
+package bnorm.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the number formatting in {@link Format}, which is used every tick while debug graphics are painted.
+ *
+ * @author Brian Norman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+
+   private double value = -123.456789;
+
+   @Benchmark
+   public String dec0() {
+      return Format.dec0(value);
+   }
+
+   @Benchmark
+   public String dec1() {
+      return Format.dec1(value);
+   }
+
+   @Benchmark
+   public String dec2() {
+      return Format.dec2(value);
+   }
+
+   @Benchmark
+   public String dec3() {
+      return Format.dec3(value);
+   }
+
+   @Benchmark
+   public String coordinateDec1() {
+      return Format.coordinateDec1(value, -value);
+   }
+}
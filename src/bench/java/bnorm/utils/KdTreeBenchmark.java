@@ -0,0 +1,77 @@
+package bnorm.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for a full {@link KdTree} of six dimensional situations, as held by a gun late in a battle. Each
+ * benchmark adds one situation, which evicts the oldest, or finds the nearest situations to a random query.
+ *
+ * @author Brian Norman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KdTreeBenchmark {
+
+   @Param({"10000", "100000"})
+   private int capacity;
+
+   @Param({"10", "50"})
+   private int k;
+
+   private KdTree<Integer> tree;
+   private Random random;
+   private double[] point;
+   private double[] weights;
+   private List<Integer> result;
+
+   @Setup
+   public void setup() {
+      random = new Random(42);
+      tree = new KdTree<Integer>(6, capacity);
+      point = new double[6];
+      for (int i = 0; i < capacity; i++) {
+         next();
+         tree.add(point, i);
+      }
+      weights = new double[] {1.0, 2.0, 1.0, 0.5, 0.5, 0.25};
+      result = new ArrayList<Integer>(k);
+   }
+
+   private void next() {
+      for (int d = 0; d < point.length; d++) {
+         point[d] = random.nextDouble();
+      }
+   }
+
+   @Benchmark
+   public void add() {
+      next();
+      tree.add(point, 0);
+   }
+
+   @Benchmark
+   public int nearest() {
+      next();
+      result.clear();
+      return tree.nearest(point, weights, k, result);
+   }
+}
@@ -0,0 +1,94 @@
+package bnorm.utils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput benchmarks for {@link Trig} and the projections in {@link Utils} under every {@link Trig.Mode}.
+ *
+ * @author Brian Norman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrigBenchmark {
+
+   private static final int VALUES = 1024;
+
+   @Param({"STRICT", "FAST", "TABLE"})
+   private Trig.Mode mode;
+
+   private double[] angles;
+   private double[] ratios;
+   private int index;
+
+   @Setup
+   public void setup() {
+      Trig.setMode(mode);
+
+      Random random = new Random(42);
+      angles = new double[VALUES];
+      ratios = new double[VALUES];
+      for (int i = 0; i < VALUES; i++) {
+         angles[i] = random.nextDouble() * 4.0 * Math.PI - 2.0 * Math.PI;
+         ratios[i] = random.nextDouble() * 2.0 - 1.0;
+      }
+
+      // Make sure lazily built tables are not part of the measurement
+      Trig.sin(0.0);
+      Trig.tan(0.0);
+      Trig.acos(0.0);
+      Trig.atan(0.0);
+   }
+
+   @TearDown
+   public void tearDown() {
+      Trig.setMode(Trig.Mode.STRICT);
+   }
+
+   @Benchmark
+   public double sin() {
+      return Trig.sin(angles[next()]);
+   }
+
+   @Benchmark
+   public double cos() {
+      return Trig.cos(angles[next()]);
+   }
+
+   @Benchmark
+   public double acos() {
+      return Trig.acos(ratios[next()]);
+   }
+
+   @Benchmark
+   public double atan2() {
+      int i = next();
+      return Trig.atan2(ratios[i], ratios[(i + 1) & (VALUES - 1)]);
+   }
+
+   @Benchmark
+   public double projectX() {
+      return Utils.projectX(400.0, angles[next()], 250.0);
+   }
+
+   private int next() {
+      return index = (index + 1) & (VALUES - 1);
+   }
+}
@@ -0,0 +1,61 @@
+package bnorm.virtual;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bnorm.utils.Trig;
+
+/**
+ * Benchmarks for predicting one candidate path with a {@link MovementPredictor}, as done thousands of times a tick
+ * by wave surfing. The policy orbits a point clockwise, so the path turns every tick and runs into the walls.
+ *
+ * @author Brian Norman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementPredictorBenchmark {
+
+   @Param({"10", "50", "100"})
+   private int ticks;
+
+   private MovementPredictor predictor;
+   private MovementPath path;
+   private IMovementPolicy orbit;
+   private Vector start;
+
+   @Setup
+   public void setup() {
+      predictor = new MovementPredictor(800.0, 600.0);
+      path = new MovementPath(ticks);
+      orbit = new IMovementPolicy() {
+         @Override
+         public void command(MovementPredictor predictor, int tick) {
+            double angle = Trig.angle(predictor.getX() - 400.0, predictor.getY() - 300.0);
+            predictor.setTurnTo(angle + Trig.QUARTER_CIRCLE);
+            predictor.setMove(Double.POSITIVE_INFINITY);
+         }
+      };
+      start = new Vector(100.0, 300.0, 0.0, 8.0);
+   }
+
+   @Benchmark
+   public double predict() {
+      predictor.predict(start, orbit, ticks, path);
+      return path.getX(ticks);
+   }
+}
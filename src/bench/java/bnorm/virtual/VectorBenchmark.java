@@ -0,0 +1,142 @@
+package bnorm.virtual;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import bnorm.utils.Trig;
+import bnorm.utils.Utils;
+
+/**
+ * Benchmarks for creating and reading {@link Vector}s. Each benchmark is run against {@link Vector} and against
+ * {@link BoxedVector}, a copy of the old layout that kept the lazy fields as {@link Double}s, so the allocation rate
+ * reported by <code>-prof gc</code> and the average time can be compared directly.
+ *
+ * @author Brian Norman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorBenchmark {
+
+   private double x;
+   private double y;
+   private double heading;
+   private double velocity;
+
+   private Vector vector;
+   private BoxedVector boxed;
+
+   @Setup
+   public void setup() {
+      x = 400.0;
+      y = 300.0;
+      heading = 1.0;
+      velocity = 8.0;
+
+      vector = new Vector(x, y, heading, velocity);
+      boxed = new BoxedVector(x, y, heading, velocity);
+   }
+
+   @Benchmark
+   public Object createPrimitive() {
+      return new Vector(x, y, heading, velocity);
+   }
+
+   @Benchmark
+   public Object createBoxed() {
+      return new BoxedVector(x, y, heading, velocity);
+   }
+
+   @Benchmark
+   public void createAndReadPrimitive(Blackhole bh) {
+      Vector v = new Vector(x, y, heading, velocity);
+      bh.consume(v.getDeltaX());
+      bh.consume(v.getDeltaY());
+      bh.consume(v.getHeading());
+      bh.consume(v.getVelocity());
+   }
+
+   @Benchmark
+   public void createAndReadBoxed(Blackhole bh) {
+      BoxedVector v = new BoxedVector(x, y, heading, velocity);
+      bh.consume(v.getDeltaX());
+      bh.consume(v.getDeltaY());
+      bh.consume(v.getHeading());
+      bh.consume(v.getVelocity());
+   }
+
+   @Benchmark
+   public void readPrimitive(Blackhole bh) {
+      bh.consume(vector.getDeltaX());
+      bh.consume(vector.getDeltaY());
+      bh.consume(vector.getHeading());
+      bh.consume(vector.getVelocity());
+   }
+
+   @Benchmark
+   public void readBoxed(Blackhole bh) {
+      bh.consume(boxed.getDeltaX());
+      bh.consume(boxed.getDeltaY());
+      bh.consume(boxed.getHeading());
+      bh.consume(boxed.getVelocity());
+   }
+
+   /**
+    * The layout of {@link Vector} before the lazy fields were made primitive. Kept only as a baseline.
+    */
+   static final class BoxedVector extends Point {
+
+      private Double deltaX;
+      private Double deltaY;
+      private Double heading;
+      private Double velocity;
+
+      BoxedVector(double x, double y, double heading, double velocity) {
+         super(x, y);
+         this.heading = heading;
+         this.velocity = velocity;
+      }
+
+      double getDeltaX() {
+         if (deltaX == null) {
+            deltaX = Utils.vectorX(heading, velocity);
+         }
+         return deltaX;
+      }
+
+      double getDeltaY() {
+         if (deltaY == null) {
+            deltaY = Utils.vectorY(heading, velocity);
+         }
+         return deltaY;
+      }
+
+      double getHeading() {
+         if (heading == null) {
+            heading = Trig.angle(deltaX, deltaY);
+         }
+         return heading;
+      }
+
+      double getVelocity() {
+         if (velocity == null) {
+            velocity = Points.dist(0.0, 0.0, deltaX, deltaY);
+         }
+         return velocity;
+      }
+   }
+}
@@ -0,0 +1,76 @@
+package bnorm.virtual;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for checking which of many {@link Wave}s are still active, as done every tick by the guns and the
+ * movement. Half of the waves are fired from the corners of the battlefield so some of them break during the
+ * benchmark.
+ *
+ * @author Brian Norman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaveBenchmark {
+
+   @Param({"10", "100", "1000"})
+   private int count;
+
+   private Wave[] waves;
+   private Point target;
+   private long time;
+
+   @Setup
+   public void setup() {
+      Random random = new Random(42);
+
+      waves = new Wave[count];
+      for (int i = 0; i < count; i++) {
+         double x = (i & 1) == 0 ? random.nextDouble() * 800.0 : 0.0;
+         double y = (i & 1) == 0 ? random.nextDouble() * 600.0 : 0.0;
+         double velocity = 11.0 + random.nextDouble() * 8.5;
+         waves[i] = new Wave(x, y, velocity, random.nextInt(100));
+      }
+      target = new Point(400.0, 300.0);
+      time = 100;
+   }
+
+   @Benchmark
+   public int isActive() {
+      int active = 0;
+      for (Wave wave : waves) {
+         if (wave.isActive(time)) {
+            active++;
+         }
+      }
+      return active;
+   }
+
+   @Benchmark
+   public int isActiveTarget() {
+      int active = 0;
+      for (Wave wave : waves) {
+         if (wave.isActive(time, target)) {
+            active++;
+         }
+      }
+      return active;
+   }
+}
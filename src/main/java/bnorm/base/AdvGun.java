@@ -1,9 +1,13 @@
 package bnorm.base;
 
 import bnorm.robots.IRobotSnapshot;
+import bnorm.stats.GuessFactorStats;
+import bnorm.stats.GuessFactorWave;
 import bnorm.utils.Utils;
+import bnorm.virtual.EscapeAngleCache;
 import robocode.AdvancedRobot;
 import robocode.Bullet;
+import robocode.Rules;
 
 /**
  * An abstract representation of the gun on an {@link AdvancedRobot}. This class allows the the
@@ -153,6 +157,39 @@ public class AdvGun extends Gun {
       setTurnTo(angle(robot));
    }
 
+   /**
+    * Sets the gun of the {@link AdvancedRobot} to turn to the guess factor of a robot snapshot that
+    * the specified statistics say is most likely to hit. The guess factor is turned into an angle
+    * the same way as by a {@link GuessFactorWave} fired at the snapshot with the same power, so
+    * the waves that update the statistics should be fired that way.
+    * <p/>
+    * This call returns immediately, and will not execute until you call
+    * {@link AdvancedRobot#execute() execute()} or take an action that executes.
+    * 
+    * @param robot
+    *           the snapshot for the gun to aim at.
+    * @param power
+    *           the power of the bullet that will be fired.
+    * @param stats
+    *           the guess factor statistics of the robot.
+    * @param features
+    *           the features of the current situation.
+    * @return the angle the gun is turning to, or {@link Double#POSITIVE_INFINITY} if the robot is
+    *         <code>null</code> or dead.
+    */
+   public final double setTurnTo(IRobotSnapshot robot, double power, GuessFactorStats stats, double[] features) {
+      double bearing = angle(robot);
+      if (bearing == Double.POSITIVE_INFINITY) {
+         return bearing;
+      }
+
+      int direction = GuessFactorWave.getDirection(bearing, robot);
+      double escapeAngle = EscapeAngleCache.getMaxEscapeAngle(Rules.getBulletSpeed(power));
+      double angle = Utils.absolute(bearing + direction * stats.getBestGuessFactor(features) * escapeAngle);
+      setTurnTo(angle);
+      return angle;
+   }
+
    // --------------
    // Other Commands
    // --------------
@@ -28,7 +28,7 @@ public class Tank extends Base {
     * The maximum diagonal of the battlefield.
     */
    public static final double MAX_BATTLEFIELD_DIAGONAL =
-           MAX_BATTLEFIELD_WIDTH * MAX_BATTLEFIELD_WIDTH + MAX_BATTLEFIELD_HEIGHT * MAX_BATTLEFIELD_HEIGHT;
+           Math.sqrt(MAX_BATTLEFIELD_WIDTH * MAX_BATTLEFIELD_WIDTH + MAX_BATTLEFIELD_HEIGHT * MAX_BATTLEFIELD_HEIGHT);
 
    /**
     * The maximum turning rate of the robot measured in radians which is 1/18 * PI radians/turn.
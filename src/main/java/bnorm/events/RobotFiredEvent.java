@@ -8,10 +8,36 @@ public class RobotFiredEvent extends Event {
    private IRobotSnapshot snapshot;
    private double firepower;
 
+   /**
+    * The round time the bullet was most likely fired.
+    */
+   private long fireTime;
+
+   /**
+    * How likely it is that the bullet was fired at the fire time, from <code>0</code> to
+    * <code>1</code>.
+    */
+   private double confidence;
+
    public RobotFiredEvent(IRobotSnapshot snapshot, double firepower) {
+      this(snapshot, firepower, snapshot.getTime(), 1.0);
+   }
+
+   /**
+    * Creates a new event for a bullet that was fired at the specified time with the specified
+    * confidence.
+    *
+    * @param snapshot the snapshot of the robot closest to, and not after, the fire time.
+    * @param firepower the power of the bullet.
+    * @param fireTime the round time the bullet was most likely fired.
+    * @param confidence how likely it is that the bullet was fired at the fire time.
+    */
+   public RobotFiredEvent(IRobotSnapshot snapshot, double firepower, long fireTime, double confidence) {
       this.snapshot = snapshot;
       setTime(snapshot.getTime());
       this.firepower = firepower;
+      this.fireTime = fireTime;
+      this.confidence = confidence;
    }
 
    public IRobotSnapshot getSnapshot() {
@@ -21,4 +47,24 @@ public class RobotFiredEvent extends Event {
    public double getFirepower() {
       return firepower;
    }
+
+   /**
+    * Returns the round time the bullet was most likely fired. This is the time of the snapshot
+    * unless some of the ticks before the energy drop were never seen.
+    *
+    * @return the fire time.
+    */
+   public long getFireTime() {
+      return fireTime;
+   }
+
+   /**
+    * Returns how likely it is that the bullet was fired at the fire time, from <code>0</code> to
+    * <code>1</code>.
+    *
+    * @return the confidence of the event.
+    */
+   public double getConfidence() {
+      return confidence;
+   }
 }
@@ -0,0 +1,397 @@
+package bnorm.manage;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Objects;
+
+import bnorm.events.RobotFiredEvent;
+import bnorm.events.RobotFiredListener;
+import bnorm.events.RobotFiredSender;
+import bnorm.robocode.robot.listener.BulletHitEventListener;
+import bnorm.robocode.robot.listener.HitByBulletEventListener;
+import bnorm.robocode.robot.listener.HitRobotEventListener;
+import bnorm.robots.GunHeatTracker;
+import bnorm.robots.IRobot;
+import bnorm.robots.IRobotCursor;
+import bnorm.robots.IRobotSnapshot;
+import robocode.BulletHitEvent;
+import robocode.HitByBulletEvent;
+import robocode.HitRobotEvent;
+import robocode.Rules;
+
+/**
+ * Detects when robots fire by keeping an energy ledger for each of them. Every energy change that
+ * is not a bullet is recorded as it happens: the damage of our bullets that hit the robot, the
+ * energy the robot gets back when its bullets hit us, and the damage of ramming us. Wall hits are
+ * only inferred between snapshots of consecutive ticks, when the robot stopped against a wall, and
+ * at most the damage of the fastest speed the robot could have reached is taken off. Whatever
+ * energy drop is left between two snapshots, if it is a legal bullet power, is a bullet.
+ * <p>
+ * The gun heat of each robot comes from a {@link GunHeatTracker}, which the detector heats for
+ * every bullet it finds. When some ticks before a drop were never seen, the bullet is placed at
+ * the first of those ticks the gun could have fired, and the confidence is spread over every tick
+ * it could have been fired. The confidence is also lowered when the drop had to be
+ * explained by a wall hit or the gun should not have been cool yet.
+ * <p>
+ * The detector listens to the events of a {@link bnorm.robocode.robot.RegisterRobot} and is given
+ * the robots with {@link #update(IRobot)} after their snapshots are added, which the
+ * {@link RobotManager} does for every robot it manages.
+ *
+ * @author Brian Norman
+ */
+public final class FireDetector implements BulletHitEventListener, HitByBulletEventListener, HitRobotEventListener,
+      RobotFiredSender {
+
+   /**
+    * The width of the battlefield of a default battle.
+    */
+   public static final double DEFAULT_BATTLEFIELD_WIDTH = 800.0;
+
+   /**
+    * The height of the battlefield of a default battle.
+    */
+   public static final double DEFAULT_BATTLEFIELD_HEIGHT = 600.0;
+
+   /**
+    * The distance from a wall of the center of a robot that hit the wall.
+    */
+   public static final double WALL_MARGIN = 18.0;
+
+   /**
+    * How much the confidence of a bullet is lowered when a wall hit was inferred.
+    */
+   public static final double WALL_HIT_CONFIDENCE = 0.5;
+
+   /**
+    * How much the confidence of a bullet is lowered when the gun should not have been cool.
+    */
+   public static final double GUN_HEAT_CONFIDENCE = 0.5;
+
+   /**
+    * The tolerance of energy comparisons.
+    */
+   private static final double TOLERANCE = 1.0E-6;
+
+   /**
+    * The tolerance of the position of a robot against a wall, which allows for scan rounding.
+    */
+   private static final double WALL_TOLERANCE = 0.01;
+
+   /**
+    * The ledgers of every robot keyed by name.
+    */
+   private final Map<String, Ledger> ledgers;
+
+   /**
+    * The collection of listeners to notify if a robot fires.
+    */
+   private final Collection<RobotFiredListener> robotFiredListeners;
+
+   /**
+    * The gun heat of every robot.
+    */
+   private final GunHeatTracker heats;
+
+   /**
+    * The width of the battlefield.
+    */
+   private double battleFieldWidth;
+
+   /**
+    * The height of the battlefield.
+    */
+   private double battleFieldHeight;
+
+   /**
+    * Creates a new detector with its own gun heat tracker.
+    */
+   public FireDetector() {
+      this(new GunHeatTracker());
+   }
+
+   /**
+    * Creates a new detector that uses and heats the specified gun heat tracker.
+    *
+    * @param heats the gun heat tracker.
+    * @throws NullPointerException if <code>heats</code> is null.
+    */
+   public FireDetector(GunHeatTracker heats) {
+      this.ledgers = new HashMap<String, Ledger>();
+      this.robotFiredListeners = new LinkedList<RobotFiredListener>();
+      this.heats = Objects.requireNonNull(heats, "GunHeatTracker must not be null.");
+      this.battleFieldWidth = DEFAULT_BATTLEFIELD_WIDTH;
+      this.battleFieldHeight = DEFAULT_BATTLEFIELD_HEIGHT;
+   }
+
+   /**
+    * Returns the gun heat tracker the detector uses and heats, which also holds the gun cooling
+    * rate of the battle.
+    *
+    * @return the gun heat tracker.
+    */
+   public GunHeatTracker getGunHeatTracker() {
+      return heats;
+   }
+
+   /**
+    * Sets the size of the battlefield, such as from <code>getBattleFieldWidth()</code> and
+    * <code>getBattleFieldHeight()</code>, which is needed to tell when a robot hit a wall.
+    *
+    * @param width the width of the battlefield.
+    * @param height the height of the battlefield.
+    * @throws IllegalArgumentException if the battlefield is too small for a robot.
+    */
+   public void setBattleField(double width, double height) {
+      if (!(width > 2 * WALL_MARGIN) || !(height > 2 * WALL_MARGIN)) {
+         throw new IllegalArgumentException("Battlefield must fit a robot (" + width + " x " + height + ").");
+      }
+      this.battleFieldWidth = width;
+      this.battleFieldHeight = height;
+   }
+
+   @Override
+   public void onBulletHitEvent(BulletHitEvent event) {
+      ledger(event.getName()).record(event.getTime(), -Rules.getBulletDamage(event.getBullet().getPower()));
+   }
+
+   @Override
+   public void onHitByBulletEvent(HitByBulletEvent event) {
+      ledger(event.getName()).record(event.getTime(), Rules.getBulletHitBonus(event.getPower()));
+   }
+
+   @Override
+   public void onHitRobotEvent(HitRobotEvent event) {
+      Ledger ledger = ledger(event.getName());
+      ledger.record(event.getTime(), -Rules.ROBOT_HIT_DAMAGE);
+      ledger.rammed = Math.max(ledger.rammed, event.getTime());
+   }
+
+   /**
+    * Checks every snapshot of the specified robot that was added since the last update for an
+    * energy drop that is a bullet.
+    *
+    * @param robot the robot to check.
+    */
+   public void update(IRobot robot) {
+      IRobotSnapshot recent = robot.getSnapshot();
+      if (recent.getRound() < 0) {
+         return;
+      }
+
+      Ledger ledger = ledger(robot.getName());
+      if (ledger.round != recent.getRound()) {
+         ledger.reset(recent.getRound());
+      }
+
+      IRobotCursor movie = robot.getCursor(ledger.time + 1, ledger.round);
+      while (movie.hasNext()) {
+         IRobotSnapshot snapshot = movie.next();
+         if (snapshot.getEnergy() < 0.0) {
+            break;
+         }
+         if (ledger.time >= 0) {
+            check(robot, ledger, snapshot);
+         }
+         ledger.time = snapshot.getTime();
+         ledger.energy = snapshot.getEnergy();
+         ledger.velocity = snapshot.getVelocity();
+      }
+   }
+
+   /**
+    * Forgets every ledger.
+    */
+   public void clear() {
+      ledgers.clear();
+   }
+
+   @Override
+   public void addRobotFiredListener(RobotFiredListener listener) {
+      robotFiredListeners.add(listener);
+   }
+
+   @Override
+   public void removeRobotFiredListener(RobotFiredListener listener) {
+      robotFiredListeners.remove(listener);
+   }
+
+   /**
+    * Checks the energy change between the last snapshot of the ledger and the specified snapshot.
+    *
+    * @param robot the robot of the ledger.
+    * @param ledger the ledger of the robot.
+    * @param snapshot the next snapshot of the robot.
+    */
+   private void check(IRobot robot, Ledger ledger, IRobotSnapshot snapshot) {
+      long start = ledger.time;
+      long end = snapshot.getTime();
+      double expected = ledger.energy + ledger.take(start, end);
+      double confidence = 1.0;
+
+      double drop = expected - snapshot.getEnergy();
+      boolean rammed = ledger.rammed > start && ledger.rammed <= end;
+      if (!rammed && end - start == 1 && snapshot.getVelocity() == 0.0 && isAgainstWall(snapshot)) {
+         // The robot moved at its impact speed before it stopped, which is at most one tick of
+         // acceleration past its last speed
+         double speed = Math.min(Math.abs(ledger.velocity) + Rules.ACCELERATION, Rules.MAX_VELOCITY);
+         double damage = Rules.getWallHitDamage(speed);
+         if (damage > 0.0) {
+            if (drop <= damage + TOLERANCE) {
+               return;
+            }
+            drop -= damage;
+            confidence *= WALL_HIT_CONFIDENCE;
+         }
+      }
+
+      if (drop < Rules.MIN_BULLET_POWER - TOLERANCE || drop > Rules.MAX_BULLET_POWER + TOLERANCE) {
+         return;
+      }
+      double power = Math.min(Math.max(drop, Rules.MIN_BULLET_POWER), Rules.MAX_BULLET_POWER);
+
+      long first = Math.max(start, heats.getReadyTime(robot.getName(), ledger.round));
+      long fireTime;
+      if (first < end) {
+         fireTime = first;
+         confidence /= end - first;
+      } else {
+         fireTime = start;
+         confidence *= GUN_HEAT_CONFIDENCE / (end - start);
+      }
+      heats.fired(robot.getName(), ledger.round, fireTime, power);
+
+      RobotFiredEvent event = new RobotFiredEvent(robot.getSnapshot(fireTime, ledger.round), power, fireTime,
+                                                  confidence);
+      for (RobotFiredListener l : robotFiredListeners) {
+         l.handleRobotFired(event);
+      }
+   }
+
+   /**
+    * Returns if the specified snapshot has the robot touching a wall of the battlefield.
+    *
+    * @param snapshot the snapshot of the robot.
+    * @return if the robot is against a wall.
+    */
+   private boolean isAgainstWall(IRobotSnapshot snapshot) {
+      double margin = WALL_MARGIN + WALL_TOLERANCE;
+      return snapshot.getX() <= margin || snapshot.getX() >= battleFieldWidth - margin
+            || snapshot.getY() <= margin || snapshot.getY() >= battleFieldHeight - margin;
+   }
+
+   /**
+    * Returns the ledger of the robot with the specified name, creating it if needed.
+    *
+    * @param name the name of the robot.
+    * @return the ledger of the robot.
+    */
+   private Ledger ledger(String name) {
+      Ledger ledger = ledgers.get(name);
+      if (ledger == null) {
+         ledger = new Ledger();
+         ledgers.put(name, ledger);
+      }
+      return ledger;
+   }
+
+   /**
+    * The energy ledger of a single robot.
+    */
+   private static final class Ledger {
+
+      /**
+       * The match round of the ledger.
+       */
+      int round = -1;
+
+      /**
+       * The time of the last checked snapshot or <code>-1</code> if there is none.
+       */
+      long time = -1;
+
+      /**
+       * The energy of the last checked snapshot.
+       */
+      double energy;
+
+      /**
+       * The velocity of the last checked snapshot.
+       */
+      double velocity;
+
+      /**
+       * The last time the robot rammed us or was rammed by us.
+       */
+      long rammed = -1;
+
+      /**
+       * The times of the recorded energy changes.
+       */
+      long[] times = new long[4];
+
+      /**
+       * The recorded energy changes.
+       */
+      double[] amounts = new double[4];
+
+      /**
+       * The number of recorded energy changes.
+       */
+      int count;
+
+      /**
+       * Starts the ledger over for a new round.
+       *
+       * @param round the new round.
+       */
+      void reset(int round) {
+         this.round = round;
+         this.time = -1;
+         this.rammed = -1;
+         this.count = 0;
+      }
+
+      /**
+       * Records an energy change at the specified time.
+       *
+       * @param time the time of the change.
+       * @param amount the energy change.
+       */
+      void record(long time, double amount) {
+         if (count == times.length) {
+            times = Arrays.copyOf(times, count * 2);
+            amounts = Arrays.copyOf(amounts, count * 2);
+         }
+         times[count] = time;
+         amounts[count] = amount;
+         count++;
+      }
+
+      /**
+       * Returns the sum of the energy changes after the start time and up to the end time, and
+       * forgets every change up to the end time.
+       *
+       * @param start the start time, excluded.
+       * @param end the end time, included.
+       * @return the sum of the energy changes.
+       */
+      double take(long start, long end) {
+         double sum = 0.0;
+         int kept = 0;
+         for (int i = 0; i < count; i++) {
+            if (times[i] > end) {
+               times[kept] = times[i];
+               amounts[kept] = amounts[i];
+               kept++;
+            } else if (times[i] > start) {
+               sum += amounts[i];
+            }
+         }
+         count = kept;
+         return sum;
+      }
+   }
+}
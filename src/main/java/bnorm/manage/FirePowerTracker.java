@@ -0,0 +1,99 @@
+package bnorm.manage;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import bnorm.events.RobotFiredEvent;
+import bnorm.events.RobotFiredListener;
+import bnorm.events.RobotFoundEvent;
+import bnorm.events.RobotFoundListener;
+import bnorm.stats.FirePowerStats;
+
+/**
+ * Keeps the {@link FirePowerStats} of every robot from the bullets heard by a {@link FireDetector}.
+ * The tracker should be added as a robot fired listener and a robot found listener of the
+ * {@link RobotManager}, and each bullet is weighted by the confidence it was detected with.
+ * <p>
+ * When the tracker is given a {@link KnowledgeStore}, the statistics of each robot are attached
+ * to the store under {@link #SECTION} when the robot is first found, so the fire power habits of
+ * an enemy are restored from earlier battles and saved again when the battle ends.
+ *
+ * @author Brian Norman
+ */
+public final class FirePowerTracker implements RobotFiredListener, RobotFoundListener {
+
+   /**
+    * The name of the knowledge store section the statistics are saved in.
+    */
+   public static final String SECTION = "firepower";
+
+   /**
+    * The number of bullets in the rolling average of each robot.
+    */
+   private final double depth;
+
+   /**
+    * The store the statistics are attached to or <code>null</code>.
+    */
+   private final KnowledgeStore store;
+
+   /**
+    * The statistics of every robot keyed by name.
+    */
+   private final Map<String, FirePowerStats> stats;
+
+   /**
+    * Creates a new tracker whose statistics are not saved.
+    *
+    * @param depth the number of bullets in the rolling average of each robot.
+    * @throws IllegalArgumentException if the depth is not positive.
+    */
+   public FirePowerTracker(double depth) {
+      this(depth, null);
+   }
+
+   /**
+    * Creates a new tracker whose statistics are attached to the specified store.
+    *
+    * @param depth the number of bullets in the rolling average of each robot.
+    * @param store the store to attach the statistics to or <code>null</code>.
+    * @throws IllegalArgumentException if the depth is not positive.
+    */
+   public FirePowerTracker(double depth, KnowledgeStore store) {
+      if (!(depth > 0.0)) {
+         throw new IllegalArgumentException("Depth must be positive (" + depth + ").");
+      }
+      this.depth = depth;
+      this.store = store;
+      this.stats = new HashMap<String, FirePowerStats>();
+   }
+
+   @Override
+   public void handleRobotFound(RobotFoundEvent event) {
+      getStats(event.getRobot().getName());
+   }
+
+   @Override
+   public void handleRobotFired(RobotFiredEvent event) {
+      getStats(event.getSnapshot().getName()).update(event.getFirepower(), event.getConfidence());
+   }
+
+   /**
+    * Returns the statistics of the robot with the specified name, creating them and attaching them
+    * to the store if needed.
+    *
+    * @param name the name of the robot.
+    * @return the statistics of the robot.
+    */
+   public FirePowerStats getStats(String name) {
+      FirePowerStats s = stats.get(name);
+      if (s == null) {
+         s = new FirePowerStats(depth);
+         stats.put(name, s);
+         if (store != null) {
+            store.attach(name, SECTION, s);
+         }
+      }
+      return s;
+   }
+}
@@ -0,0 +1,411 @@
+package bnorm.manage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import bnorm.events.RobotFoundEvent;
+import bnorm.events.RobotFoundListener;
+import bnorm.robocode.robot.listener.BattleEndedEventListener;
+import bnorm.utils.IPersistent;
+import robocode.BattleEndedEvent;
+import robocode.RobocodeFileOutputStream;
+
+/**
+ * A store of what has been learned about each enemy that is kept between battles in the robot data
+ * directory. Each enemy has one gzipped file with named sections, and each section is the saved
+ * form of an {@link IPersistent}: the {@link bnorm.stats.GuessFactorStats} of a gun, the most
+ * recent situations of a {@link bnorm.robots.SituationIndex}, or the fire power habits kept by a
+ * {@link FirePowerTracker}.
+ * <p>
+ * A file is only read the first time its enemy is found, which the store learns by listening to a
+ * {@link RobotManager}. State is then restored with {@link #attach(String, String, IPersistent)},
+ * which also remembers the state so it is saved when the battle ends. Every enemy found during the
+ * battle has its file rewritten, even if nothing was attached, so the file modification times tell
+ * which enemies were seen most recently. Before saving, the files of the enemies that were seen
+ * least recently are deleted until the new files fit in the quota. The quota is shared with every
+ * other file in the directory, which is counted but never deleted. Each file is written under a
+ * temporary name and only replaces the old file once it is complete, so a failed write never
+ * damages what was saved before.
+ * <p>
+ * A file is the {@link #MAGIC} number, the {@link #VERSION}, the enemy name, the number of
+ * sections, and then the name, length and bytes of each section. Sections that are not attached
+ * during a battle are saved again unchanged.
+ *
+ * @author Brian Norman
+ */
+public class KnowledgeStore implements RobotFoundListener, BattleEndedEventListener {
+
+   /**
+    * The magic number at the start of every file, which is the characters <code>KNO1</code>.
+    */
+   public static final int MAGIC = 0x4B4E4F31;
+
+   /**
+    * The version of the file format.
+    */
+   public static final int VERSION = 1;
+
+   /**
+    * The file name extension of every file.
+    */
+   public static final String EXTENSION = ".knowledge";
+
+   /**
+    * The suffix added to the name of a file while it is being written.
+    */
+   private static final String TEMPORARY = ".tmp";
+
+   /**
+    * The directory the files are kept in.
+    */
+   private final File directory;
+
+   /**
+    * The number of bytes the files may take up.
+    */
+   private final long quota;
+
+   /**
+    * The saved sections of each enemy that has been found, keyed by enemy name and then by section
+    * name.
+    */
+   private final Map<String, Map<String, byte[]>> saved;
+
+   /**
+    * The attached state of each enemy, keyed by enemy name and then by section name.
+    */
+   private final Map<String, Map<String, IPersistent>> attached;
+
+   /**
+    * Creates a new store that keeps its files in the specified directory, usually the robot data
+    * directory.
+    *
+    * @param directory the directory to keep the files in.
+    * @param quota the number of bytes the files may take up, usually the data quota of the robot.
+    * @throws NullPointerException if <code>directory</code> is null.
+    * @throws IllegalArgumentException if the quota is negative.
+    */
+   public KnowledgeStore(File directory, long quota) {
+      if (quota < 0) {
+         throw new IllegalArgumentException("Quota must not be negative (" + quota + ").");
+      }
+      this.directory = Objects.requireNonNull(directory, "Directory must not be null.");
+      this.quota = quota;
+      this.saved = new HashMap<String, Map<String, byte[]>>();
+      this.attached = new LinkedHashMap<String, Map<String, IPersistent>>();
+   }
+
+   @Override
+   public void handleRobotFound(RobotFoundEvent event) {
+      load(event.getRobot().getName());
+   }
+
+   @Override
+   public void onBattleEndedEvent(BattleEndedEvent event) {
+      save();
+   }
+
+   /**
+    * Returns if a section was saved for the specified enemy, loading the file of the enemy if
+    * needed.
+    *
+    * @param name the name of the enemy.
+    * @param section the name of the section.
+    * @return if the section was saved.
+    */
+   public boolean contains(String name, String section) {
+      return load(name).containsKey(section);
+   }
+
+   /**
+    * Restores the specified state from the saved section of the specified enemy, loading the file
+    * of the enemy if needed, and remembers the state so it is saved when the battle ends. The state
+    * is left unchanged if the section was never saved or does not fit.
+    *
+    * @param name the name of the enemy.
+    * @param section the name of the section.
+    * @param state the state to restore and save.
+    * @return if the state was restored.
+    * @throws NullPointerException if any argument is null.
+    */
+   public boolean attach(String name, String section, IPersistent state) {
+      Objects.requireNonNull(name, "Name must not be null.");
+      Objects.requireNonNull(section, "Section must not be null.");
+      Objects.requireNonNull(state, "IPersistent must not be null.");
+
+      Map<String, IPersistent> sections = attached.get(name);
+      if (sections == null) {
+         sections = new LinkedHashMap<String, IPersistent>();
+         attached.put(name, sections);
+      }
+      sections.put(section, state);
+
+      byte[] bytes = load(name).get(section);
+      if (bytes == null) {
+         return false;
+      }
+      try {
+         state.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+         return true;
+      } catch (IOException e) {
+         System.err.println("Trouble restoring " + section + " of " + name + ": " + e.getMessage());
+         return false;
+      }
+   }
+
+   /**
+    * Saves every enemy that was found during the battle, along with its attached state. The files
+    * of the enemies that were seen least recently are deleted first until the new files fit in the
+    * quota, and a file that still does not fit is not saved. The old file of an enemy is kept until
+    * its new file has been written in full.
+    *
+    * @return the number of files that were saved.
+    */
+   public int save() {
+      Map<String, byte[]> files = new LinkedHashMap<String, byte[]>();
+      for (Map.Entry<String, Map<String, IPersistent>> entry : attached.entrySet()) {
+         String name = entry.getKey();
+         Map<String, byte[]> sections = load(name);
+         try {
+            for (Map.Entry<String, IPersistent> section : entry.getValue().entrySet()) {
+               ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+               section.getValue().write(new DataOutputStream(bytes));
+               sections.put(section.getKey(), bytes.toByteArray());
+            }
+            files.put(name, encode(name, sections));
+         } catch (IOException e) {
+            System.err.println("Trouble writing knowledge of " + name + ": " + e.getMessage());
+         }
+      }
+      for (Map.Entry<String, Map<String, byte[]>> entry : saved.entrySet()) {
+         String name = entry.getKey();
+         if (!attached.containsKey(name) && !entry.getValue().isEmpty()) {
+            try {
+               files.put(name, encode(name, entry.getValue()));
+            } catch (IOException e) {
+               System.err.println("Trouble writing knowledge of " + name + ": " + e.getMessage());
+            }
+         }
+      }
+
+      // While a new file is written the old file still exists, so each enemy needs room for the
+      // larger of the two, and the file being written needs room for both
+      Set<File> targets = new HashSet<File>();
+      long current = 0;
+      long reserve = 0;
+      long overlap = 0;
+      for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+         File file = getFile(entry.getKey());
+         long length = file.isFile() ? file.length() : 0;
+         targets.add(file);
+         current += length;
+         reserve += Math.max(length, entry.getValue().length);
+         overlap = Math.max(overlap, Math.min(length, entry.getValue().length));
+      }
+      long room = quota - trim(targets, reserve + overlap) - current;
+
+      int count = 0;
+      for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+         String name = entry.getKey();
+         byte[] bytes = entry.getValue();
+         if (bytes.length > room) {
+            System.err.println("Trouble writing knowledge of " + name + ": Quota exceeded.");
+            continue;
+         }
+
+         File file = getFile(name);
+         File temporary = new File(directory, file.getName() + TEMPORARY);
+         long length = file.isFile() ? file.length() : 0;
+         try {
+            try (OutputStream out = open(temporary)) {
+               out.write(bytes);
+            }
+            if (!temporary.renameTo(file) && !(file.delete() && temporary.renameTo(file))) {
+               throw new IOException("Could not replace " + file.getName() + ".");
+            }
+            room += length - bytes.length;
+            count++;
+         } catch (IOException | SecurityException e) {
+            System.err.println("Trouble writing knowledge of " + name + ": " + e.getMessage());
+            temporary.delete();
+         }
+      }
+      return count;
+   }
+
+   /**
+    * Returns the file of the specified enemy. Characters that may not be allowed in file names are
+    * replaced, so the enemy name is also kept inside the file.
+    *
+    * @param name the name of the enemy.
+    * @return the file of the enemy.
+    */
+   public File getFile(String name) {
+      StringBuilder builder = new StringBuilder(name.length() + EXTENSION.length());
+      for (int i = 0; i < name.length(); i++) {
+         char c = name.charAt(i);
+         if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-') {
+            builder.append(c);
+         } else {
+            builder.append('_');
+         }
+      }
+      return new File(directory, builder.append(EXTENSION).toString());
+   }
+
+   /**
+    * Opens a stream to write the specified file. Robots may only write to their data directory
+    * through a {@link RobocodeFileOutputStream}.
+    *
+    * @param file the file to write.
+    * @return the stream.
+    * @throws IOException if the file cannot be opened.
+    */
+   OutputStream open(File file) throws IOException {
+      return new RobocodeFileOutputStream(file);
+   }
+
+   /**
+    * Returns the saved sections of the specified enemy, reading the file of the enemy the first
+    * time. A file that is missing, damaged, of another version or of another enemy is treated as
+    * empty.
+    *
+    * @param name the name of the enemy.
+    * @return the saved sections.
+    */
+   private Map<String, byte[]> load(String name) {
+      Map<String, byte[]> sections = saved.get(name);
+      if (sections == null) {
+         sections = new LinkedHashMap<String, byte[]>();
+         saved.put(name, sections);
+
+         File file = getFile(name);
+         if (file.isFile()) {
+            try {
+               read(file, name, sections);
+            } catch (IOException | SecurityException e) {
+               System.err.println("Trouble reading knowledge of " + name + ": " + file.getName());
+               sections.clear();
+            }
+         }
+      }
+      return sections;
+   }
+
+   /**
+    * Reads the sections of the specified enemy from the specified file.
+    *
+    * @param file the file to read.
+    * @param name the name of the enemy.
+    * @param sections the map to add the sections to.
+    * @throws IOException if the file cannot be read or is not the file of the enemy.
+    */
+   private static void read(File file, String name, Map<String, byte[]> sections) throws IOException {
+      try (DataInputStream in = new DataInputStream(new GZIPInputStream(new FileInputStream(file)))) {
+         if (in.readInt() != MAGIC || in.readInt() != VERSION || !name.equals(in.readUTF())) {
+            throw new IOException("Not a knowledge file (" + file.getName() + ").");
+         }
+
+         int count = in.readInt();
+         for (int i = 0; i < count; i++) {
+            String section = in.readUTF();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            sections.put(section, bytes);
+         }
+      }
+   }
+
+   /**
+    * Returns the contents of the file of the specified enemy with the specified sections.
+    *
+    * @param name the name of the enemy.
+    * @param sections the sections of the file.
+    * @return the contents of the file.
+    * @throws IOException if the sections cannot be compressed.
+    */
+   private static byte[] encode(String name, Map<String, byte[]> sections) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+         out.writeInt(MAGIC);
+         out.writeInt(VERSION);
+         out.writeUTF(name);
+         out.writeInt(sections.size());
+         for (Map.Entry<String, byte[]> section : sections.entrySet()) {
+            out.writeUTF(section.getKey());
+            out.writeInt(section.getValue().length);
+            out.write(section.getValue());
+         }
+      }
+      return bytes.toByteArray();
+   }
+
+   /**
+    * Deletes the least recently modified files, other than the specified files that are about to be
+    * rewritten, until the remaining files and the specified number of new bytes fit in the quota.
+    * Every file in the directory counts against the quota, but only knowledge files are deleted.
+    * Temporary files left by a failed save are always deleted.
+    *
+    * @param targets the files that are about to be rewritten.
+    * @param reserve the number of bytes to make room for.
+    * @return the number of bytes taken up by the remaining files that are not rewritten.
+    */
+   private long trim(final Set<File> targets, long reserve) {
+      File[] all = directory.listFiles(new FileFilter() {
+         @Override
+         public boolean accept(File file) {
+            return file.isFile() && !targets.contains(file);
+         }
+      });
+      if (all == null) {
+         return 0;
+      }
+
+      long total = 0;
+      List<File> files = new ArrayList<File>();
+      for (File file : all) {
+         String name = file.getName();
+         if (name.endsWith(EXTENSION + TEMPORARY) && file.delete()) {
+            continue;
+         }
+         total += file.length();
+         if (name.endsWith(EXTENSION)) {
+            files.add(file);
+         }
+      }
+      Collections.sort(files, new Comparator<File>() {
+         @Override
+         public int compare(File a, File b) {
+            return Long.compare(a.lastModified(), b.lastModified());
+         }
+      });
+
+      for (int i = 0; i < files.size() && total + reserve > quota; i++) {
+         File file = files.get(i);
+         long length = file.length();
+         if (file.delete()) {
+            total -= length;
+         }
+      }
+      return total;
+   }
+}
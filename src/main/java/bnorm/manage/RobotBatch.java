@@ -0,0 +1,79 @@
+package bnorm.manage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import bnorm.robots.IRobot;
+import bnorm.robots.IRobotSnapshot;
+import bnorm.robots.SnapshotMerger;
+import robocode.RobotDeathEvent;
+
+/**
+ * Everything a {@link RobotManager} learned about a single robot during the current turn. A batch is kept for every
+ * robot the manager has heard of and is reused from turn to turn.
+ *
+ * @author Brian Norman
+ */
+final class RobotBatch {
+
+   /**
+    * The name of the robot.
+    */
+   final String name;
+
+   /**
+    * The snapshots of the robot from its own scans collected during the turn, in the order they arrived.
+    */
+   final List<IRobotSnapshot> snapshots;
+
+   /**
+    * The snapshots of the robot relayed by teammates collected during the turn, in the order they arrived.
+    */
+   final List<IRobotSnapshot> relayed;
+
+   /**
+    * The death of the robot collected during the turn or <code>null</code> if the robot did not die.
+    */
+   RobotDeathEvent death;
+
+   /**
+    * The robot or <code>null</code> if the robot has not been created yet.
+    */
+   IRobot robot;
+
+   /**
+    * The merger of the snapshots of the robot or <code>null</code> if the robot has not been created yet.
+    */
+   SnapshotMerger merger;
+
+   /**
+    * If the batch has been added to the batches of the current turn.
+    */
+   boolean pending;
+
+   /**
+    * If the merger of the batch holds snapshots that are not final yet.
+    */
+   boolean merging;
+
+   /**
+    * Creates a new empty batch for the robot with the specified name.
+    *
+    * @param name the name of the robot.
+    */
+   RobotBatch(String name) {
+      this.name = name;
+      this.snapshots = new ArrayList<IRobotSnapshot>(2);
+      this.relayed = new ArrayList<IRobotSnapshot>(2);
+   }
+
+   /**
+    * Removes everything collected during the turn. The robot and its merger are kept.
+    */
+   void clear() {
+      snapshots.clear();
+      relayed.clear();
+      death = null;
+      pending = false;
+   }
+}
@@ -0,0 +1,352 @@
+package bnorm.manage;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import bnorm.robots.IRobot;
+import bnorm.robots.IRobotSnapshot;
+import bnorm.virtual.Points;
+
+/**
+ * A uniform grid over the battlefield that indexes robots by the position of their most recent
+ * snapshot. The grid is updated one robot at a time as snapshots arrive and answers radius,
+ * bounding box and nearest robot queries by only looking at the cells that could contain an
+ * answer.
+ * <p>
+ * Positions outside of the grid are clamped to the closest cell, so the grid is always correct but
+ * only fast for positions inside it.
+ *
+ * @author Brian Norman
+ */
+final class RobotGrid {
+
+   /**
+    * The width and height of a cell.
+    */
+   private final double cellSize;
+
+   /**
+    * The number of cell columns.
+    */
+   private final int columns;
+
+   /**
+    * The number of cell rows.
+    */
+   private final int rows;
+
+   /**
+    * The first entry of each cell, indexed by <code>row * columns + column</code>.
+    */
+   private final Entry[] cells;
+
+   /**
+    * The entry of each indexed robot.
+    */
+   private final Map<IRobot, Entry> entries;
+
+   /**
+    * Creates a new empty grid that covers the specified area.
+    *
+    * @param width the width of the area.
+    * @param height the height of the area.
+    * @param cellSize the width and height of a cell.
+    * @throws IllegalArgumentException if any argument is not positive.
+    */
+   RobotGrid(double width, double height, double cellSize) {
+      if (!(width > 0 && height > 0 && cellSize > 0)) {
+         throw new IllegalArgumentException("Width, height and cell size must be positive (" + width + ", " + height
+               + ", " + cellSize + ").");
+      }
+
+      this.cellSize = cellSize;
+      this.columns = (int) Math.ceil(width / cellSize);
+      this.rows = (int) Math.ceil(height / cellSize);
+      this.cells = new Entry[columns * rows];
+      this.entries = new IdentityHashMap<IRobot, Entry>();
+   }
+
+   /**
+    * Returns the number of indexed robots.
+    *
+    * @return the number of robots.
+    */
+   int size() {
+      return entries.size();
+   }
+
+   /**
+    * Moves the specified robot to the position of its most recent snapshot. A robot whose most
+    * recent snapshot is dead is removed from the grid.
+    *
+    * @param robot the robot to update.
+    */
+   void update(IRobot robot) {
+      IRobotSnapshot snapshot = robot.getSnapshot();
+      Entry e = entries.get(robot);
+      if (snapshot == null || snapshot.getEnergy() < 0) {
+         if (e != null) {
+            unlink(e);
+            entries.remove(robot);
+         }
+         return;
+      }
+
+      if (e == null) {
+         e = new Entry(robot);
+         entries.put(robot, e);
+      }
+      int cell = cell(column(snapshot.getX()), row(snapshot.getY()));
+      e.x = snapshot.getX();
+      e.y = snapshot.getY();
+      if (e.cell != cell) {
+         unlink(e);
+         link(e, cell);
+      }
+   }
+
+   /**
+    * Removes every robot from the grid.
+    */
+   void clear() {
+      for (int i = 0; i < cells.length; i++) {
+         cells[i] = null;
+      }
+      entries.clear();
+   }
+
+   /**
+    * Adds every robot within the specified distance of the specified point to the result.
+    *
+    * @param x the <code>x</code> coordinate of the point.
+    * @param y the <code>y</code> coordinate of the point.
+    * @param radius the distance from the point.
+    * @param result the list to add the robots to.
+    * @return the result.
+    */
+   List<IRobot> within(double x, double y, double radius, List<IRobot> result) {
+      double radiusSq = radius * radius;
+      int minColumn = column(x - radius);
+      int maxColumn = column(x + radius);
+      int maxRow = row(y + radius);
+      for (int row = row(y - radius); row <= maxRow; row++) {
+         for (int column = minColumn; column <= maxColumn; column++) {
+            for (Entry e = cells[cell(column, row)]; e != null; e = e.next) {
+               if (Points.distSq(x, y, e.x, e.y) <= radiusSq) {
+                  result.add(e.robot);
+               }
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Adds every robot inside the specified bounding box, edges included, to the result.
+    *
+    * @param minX the smallest <code>x</code> coordinate of the box.
+    * @param minY the smallest <code>y</code> coordinate of the box.
+    * @param maxX the largest <code>x</code> coordinate of the box.
+    * @param maxY the largest <code>y</code> coordinate of the box.
+    * @param result the list to add the robots to.
+    * @return the result.
+    */
+   List<IRobot> inside(double minX, double minY, double maxX, double maxY, List<IRobot> result) {
+      int minColumn = column(minX);
+      int maxColumn = column(maxX);
+      int maxRow = row(maxY);
+      for (int row = row(minY); row <= maxRow; row++) {
+         for (int column = minColumn; column <= maxColumn; column++) {
+            for (Entry e = cells[cell(column, row)]; e != null; e = e.next) {
+               if (e.x >= minX && e.x <= maxX && e.y >= minY && e.y <= maxY) {
+                  result.add(e.robot);
+               }
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Adds the specified number of robots closest to the specified point to the result, closest
+    * first. Fewer robots are added if the grid does not contain enough.
+    *
+    * @param x the <code>x</code> coordinate of the point.
+    * @param y the <code>y</code> coordinate of the point.
+    * @param k the number of robots to find.
+    * @param result the list to add the robots to.
+    * @return the result.
+    */
+   List<IRobot> nearest(double x, double y, int k, List<IRobot> result) {
+      int n = Math.min(k, entries.size());
+      if (n <= 0) {
+         return result;
+      }
+
+      // The closest robots found so far, sorted by distance
+      Entry[] best = new Entry[n];
+      double[] bestSq = new double[n];
+      int found = 0;
+      int seen = 0;
+
+      int column = column(x);
+      int row = row(y);
+      int rings = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+      for (int ring = 0; ring <= rings && seen < entries.size(); ring++) {
+         for (int r = row - ring; r <= row + ring; r++) {
+            if (r < 0 || r >= rows) {
+               continue;
+            }
+            int step = (r == row - ring || r == row + ring) ? 1 : 2 * ring;
+            for (int c = column - ring; c <= column + ring; c += Math.max(1, step)) {
+               if (c < 0 || c >= columns) {
+                  continue;
+               }
+               for (Entry e = cells[cell(c, r)]; e != null; e = e.next) {
+                  seen++;
+                  double distSq = Points.distSq(x, y, e.x, e.y);
+                  if (found < n || distSq < bestSq[found - 1]) {
+                     int i = found < n ? found++ : n - 1;
+                     while (i > 0 && bestSq[i - 1] > distSq) {
+                        best[i] = best[i - 1];
+                        bestSq[i] = bestSq[i - 1];
+                        i--;
+                     }
+                     best[i] = e;
+                     bestSq[i] = distSq;
+                  }
+               }
+            }
+         }
+
+         // Every cell of the next ring is at least this far from the point
+         double reach = ring * cellSize;
+         if (found == n && bestSq[n - 1] <= reach * reach) {
+            break;
+         }
+      }
+
+      for (int i = 0; i < found; i++) {
+         result.add(best[i].robot);
+      }
+      return result;
+   }
+
+   /**
+    * Returns the column of the specified <code>x</code> coordinate, clamped to the grid.
+    *
+    * @param x the <code>x</code> coordinate.
+    * @return the column.
+    */
+   private int column(double x) {
+      return (int) Math.max(0, Math.min(columns - 1, Math.floor(x / cellSize)));
+   }
+
+   /**
+    * Returns the row of the specified <code>y</code> coordinate, clamped to the grid.
+    *
+    * @param y the <code>y</code> coordinate.
+    * @return the row.
+    */
+   private int row(double y) {
+      return (int) Math.max(0, Math.min(rows - 1, Math.floor(y / cellSize)));
+   }
+
+   /**
+    * Returns the index of the cell at the specified column and row.
+    *
+    * @param column the column of the cell.
+    * @param row the row of the cell.
+    * @return the cell index.
+    */
+   private int cell(int column, int row) {
+      return row * columns + column;
+   }
+
+   /**
+    * Adds the specified entry to the front of the specified cell.
+    *
+    * @param e the entry.
+    * @param cell the cell index.
+    */
+   private void link(Entry e, int cell) {
+      e.cell = cell;
+      e.previous = null;
+      e.next = cells[cell];
+      if (e.next != null) {
+         e.next.previous = e;
+      }
+      cells[cell] = e;
+   }
+
+   /**
+    * Removes the specified entry from its cell, if it is in one.
+    *
+    * @param e the entry.
+    */
+   private void unlink(Entry e) {
+      if (e.cell < 0) {
+         return;
+      }
+
+      if (e.previous != null) {
+         e.previous.next = e.next;
+      } else {
+         cells[e.cell] = e.next;
+      }
+      if (e.next != null) {
+         e.next.previous = e.previous;
+      }
+      e.cell = -1;
+      e.previous = null;
+      e.next = null;
+   }
+
+   /**
+    * A robot in the grid. The entries of a cell form a doubly linked list so a robot can move
+    * between cells in constant time.
+    */
+   private static final class Entry {
+
+      /**
+       * The indexed robot.
+       */
+      private final IRobot robot;
+
+      /**
+       * The <code>x</code> coordinate of the robot.
+       */
+      private double x;
+
+      /**
+       * The <code>y</code> coordinate of the robot.
+       */
+      private double y;
+
+      /**
+       * The cell the entry is in or <code>-1</code> if it is not in one.
+       */
+      private int cell;
+
+      /**
+       * The previous entry of the cell.
+       */
+      private Entry previous;
+
+      /**
+       * The next entry of the cell.
+       */
+      private Entry next;
+
+      /**
+       * Creates a new entry for the specified robot that is not in a cell.
+       *
+       * @param robot the robot.
+       */
+      private Entry(IRobot robot) {
+         this.robot = robot;
+         this.cell = -1;
+      }
+   }
+}
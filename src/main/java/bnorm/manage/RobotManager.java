@@ -1,25 +1,41 @@
 package bnorm.manage;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Objects;
 
+import bnorm.base.Tank;
 import bnorm.events.EventHandler;
+import bnorm.events.RobotFiredEvent;
+import bnorm.events.RobotFiredListener;
+import bnorm.events.RobotFiredSender;
 import bnorm.events.RobotFoundEvent;
 import bnorm.events.RobotFoundListener;
 import bnorm.events.RobotFoundSender;
 import bnorm.messages.Message;
+import bnorm.messages.RobotBatchMessage;
+import bnorm.messages.MessageCodec;
 import bnorm.messages.MessageHandler;
 import bnorm.messages.RobotSnapshotMessage;
+import bnorm.robocode.robot.listener.MessageEventListener;
+import bnorm.robocode.robot.listener.RobotDeathEventListener;
+import bnorm.robocode.robot.listener.ScannedRobotEventListener;
+import bnorm.robocode.robot.listener.TurnListener;
+import bnorm.robots.GunHeatTracker;
 import bnorm.robots.IRobot;
 import bnorm.robots.IRobotFactory;
 import bnorm.robots.IRobotSnapshot;
 import bnorm.robots.IRobotSnapshotFactory;
 import bnorm.robots.RobotFactory;
 import bnorm.robots.RobotSnapshotFactory;
+import bnorm.robots.SnapshotMerger;
 import robocode.Event;
+import robocode.MessageEvent;
 import robocode.Robot;
 import robocode.RobotDeathEvent;
 import robocode.ScannedRobotEvent;
@@ -29,10 +45,45 @@ import robocode.ScannedRobotEvent;
  * represent all the robots in the battle. The {@link RobotManager} does not distinguish between
  * friend and foe so all the robots are stored together. Robots can be accessed by their name and a
  * collection of all the robots can also be returned.
+ * <p>
+ * Events and messages are processed a turn at a time. Between {@link #beginTurn()} and
+ * {@link #endTurn()} the manager only collects {@link ScannedRobotEvent}s, {@link RobotDeathEvent}s,
+ * {@link MessageEvent}s and {@link RobotSnapshotMessage}s, grouped by the name of the robot they
+ * are about. When the turn ends, each robot is looked up once and all of its snapshots are added
+ * together, followed by its death. {@link RobotFoundEvent}s and {@link RobotFiredEvent}s are only
+ * sent after every robot has been updated, so listeners always see the whole turn. A call to
+ * {@link #inEvent(Event)} or {@link #inEvents(Iterable)} outside of a turn is a turn by itself.
+ * <p>
+ * The manager is also a listener of a {@link bnorm.robocode.robot.RegisterRobot}. Once registered,
+ * such as with <code>register(manager)</code>, it is given the scans, deaths and messages of the
+ * robot, and every call to <code>execute()</code> is a turn, so the events the robot gets each
+ * tick are applied together.
+ * <p>
+ * Messages from teammates may be {@link Message} objects or <code>byte[]</code>s encoded by the
+ * {@link MessageCodec} of the sending robot's manager, see {@link #getCodec()}. Encoded messages
+ * are decoded as they are collected. The snapshots of a {@link RobotBatchMessage} are collected
+ * with the rest of the turn, so each robot still takes all of its snapshots in one pass. The
+ * robot's own scans of the latest turn can be shared the same way with {@link #takeScans()}.
+ * <p>
+ * The snapshots of each robot go through a {@link SnapshotMerger}, which puts late relayed
+ * snapshots back in order, prefers the robot's own scans over relayed ones of the same tick, and
+ * only adds a tick to the robot once it is final. The reorder window is <code>0</code> unless
+ * changed with {@link #setReorderWindow(int)}, so every snapshot is added the turn it arrives, and
+ * a relayed snapshot older than the robot's latest snapshot is inserted into its history.
+ * Bullets are detected from the final snapshots by a {@link FireDetector}, which should also be
+ * registered with the robot so it can account for bullet hits and rams, see
+ * {@link #getFireDetector()}. The detector heats the guns of a {@link GunHeatTracker}, which the
+ * manager advances at the end of every turn and tells of the robots found and killed, see
+ * {@link #getGunHeatTracker()}.
+ * <p>
+ * The position of the most recent snapshot of every living robot is kept in a grid over the
+ * battlefield, which is updated as the turns are applied. Robots near a point or inside an area
+ * can be found without looking at every robot.
  *
  * @author Brian Norman
  */
-public final class RobotManager implements EventHandler, MessageHandler, RobotFoundSender {
+public final class RobotManager implements EventHandler, MessageHandler, RobotFoundSender, RobotFiredSender,
+      TurnListener, ScannedRobotEventListener, RobotDeathEventListener, MessageEventListener {
 
    /**
     * The {@link Robot} <code>class</code> that created the {@link RobotManager} instance.
@@ -59,6 +110,81 @@ public final class RobotManager implements EventHandler, MessageHandler, RobotFo
     */
    private final Collection<RobotFoundListener> robotFoundListeners;
 
+   /**
+    * The collection of listeners to notify if a robot fires.
+    */
+   private final Collection<RobotFiredListener> robotFiredListeners;
+
+   /**
+    * The batch of every robot that has been heard of mapped against their name.
+    */
+   private final HashMap<String, RobotBatch> batches_;
+
+   /**
+    * The batches that have something to apply at the end of the current turn.
+    */
+   private final List<RobotBatch> pending_;
+
+   /**
+    * The batches whose merger holds snapshots that are not final yet.
+    */
+   private final List<RobotBatch> merging_;
+
+   /**
+    * The reorder window of the mergers of robots that are found.
+    */
+   private int reorderWindow_;
+
+   /**
+    * The robots found during the current turn.
+    */
+   private final List<IRobot> found_;
+
+   /**
+    * The bullets fired during the current turn.
+    */
+   private final List<RobotFiredEvent> fired_;
+
+   /**
+    * Collects the bullets fired by every robot until the end of the turn.
+    */
+   private final RobotFiredListener firedCollector_;
+
+   /**
+    * The width and height of a cell of the robot grid.
+    */
+   private static final double GRID_CELL_SIZE = 100.0;
+
+   /**
+    * The positions of the living robots.
+    */
+   private final RobotGrid grid_;
+
+   /**
+    * The snapshots of the latest turn that came from the robot's own scans.
+    */
+   private final List<IRobotSnapshot> scans_;
+
+   /**
+    * The detector of the bullets fired by every robot.
+    */
+   private final FireDetector detector_;
+
+   /**
+    * The gun heat of every robot, which is heated by the detector.
+    */
+   private final GunHeatTracker heats_;
+
+   /**
+    * The codec of the messages sent to and from teammates.
+    */
+   private final MessageCodec codec_;
+
+   /**
+    * The number of turns that have begun but not ended.
+    */
+   private int depth_;
+
    /**
     * Returns an instance of the {@link RobotManager} <code>class</code>.
     *
@@ -87,56 +213,280 @@ public final class RobotManager implements EventHandler, MessageHandler, RobotFo
       this.robotFactory_ = robotFactory;
       this.snapshotFactory_ = snapshotFactory;
       this.robotFoundListeners = new LinkedList<RobotFoundListener>();
+      this.robotFiredListeners = new LinkedList<RobotFiredListener>();
+      this.batches_ = new HashMap<String, RobotBatch>();
+      this.pending_ = new ArrayList<RobotBatch>();
+      this.merging_ = new ArrayList<RobotBatch>();
+      this.reorderWindow_ = 0;
+      this.found_ = new ArrayList<IRobot>();
+      this.fired_ = new ArrayList<RobotFiredEvent>();
+      this.firedCollector_ = new RobotFiredListener() {
+         @Override
+         public void handleRobotFired(RobotFiredEvent event) {
+            fired_.add(event);
+         }
+      };
+      this.grid_ = new RobotGrid(Tank.MAX_BATTLEFIELD_WIDTH, Tank.MAX_BATTLEFIELD_HEIGHT, GRID_CELL_SIZE);
+      this.scans_ = new ArrayList<IRobotSnapshot>();
+      this.heats_ = new GunHeatTracker();
+      this.detector_ = new FireDetector(heats_);
+      this.detector_.addRobotFiredListener(firedCollector_);
+      this.codec_ = new MessageCodec(snapshotFactory);
+      this.depth_ = 0;
+   }
+
+   /**
+    * Returns the detector of the bullets fired by every robot. The detector should be registered
+    * with the robot, such as with <code>register(manager.getFireDetector())</code>, so that it
+    * hears about bullet hits and rams, and should be given the battlefield size of the battle.
+    *
+    * @return the fire detector.
+    */
+   public FireDetector getFireDetector() {
+      return detector_;
+   }
+
+   /**
+    * Returns the gun heat tracker of every robot, which predicts when each robot can fire next. It
+    * should be given the gun cooling rate of the battle, such as with
+    * <code>manager.getGunHeatTracker().setCoolingRate(getGunCoolingRate())</code>.
+    *
+    * @return the gun heat tracker.
+    */
+   public GunHeatTracker getGunHeatTracker() {
+      return heats_;
+   }
+
+   /**
+    * Returns the codec used to decode messages from teammates. Messages sent to teammates should be
+    * encoded with the same codec, such as
+    * <code>broadcastMessage(manager.getCodec().encode(message))</code>.
+    *
+    * @return the codec of the messages.
+    */
+   public MessageCodec getCodec() {
+      return codec_;
+   }
+
+   /**
+    * Returns a message with the snapshots of the robot's own scans from the latest turn, so they
+    * can be sent to teammates in one message, and forgets them. Scans from earlier turns that were
+    * never taken are dropped, so this should be called every turn after the events of the turn
+    * have been handled. The message is usually encoded with {@link #getCodec()} so that each
+    * snapshot is sent as a change from the last one sent.
+    *
+    * @return the message of the latest scans or <code>null</code> if there are none.
+    */
+   public RobotBatchMessage takeScans() {
+      if (scans_.isEmpty()) {
+         return null;
+      } else if (scans_.get(0).getTime() != robot_.getTime()) {
+         scans_.clear();
+         return null;
+      }
+      RobotBatchMessage message = new RobotBatchMessage(scans_, robot_.getName(), robot_.getTime());
+      scans_.clear();
+      return message;
+   }
+
+   /**
+    * Sets the number of turns the snapshots of a robot are held so that late snapshots from
+    * teammates can be put in order. Teammate messages arrive a turn after they are sent, so a
+    * window of <code>1</code> merges them in order. The new window applies to every robot,
+    * including the robots that are already known.
+    *
+    * @param window the reorder window in turns.
+    * @throws IllegalArgumentException if the window is negative.
+    */
+   public void setReorderWindow(int window) {
+      if (window < 0) {
+         throw new IllegalArgumentException("Window must not be negative (" + window + ").");
+      }
+      reorderWindow_ = window;
+      for (RobotBatch b : batches_.values()) {
+         if (b.merger != null) {
+            b.merger.setWindow(window);
+         }
+      }
+   }
+
+   /**
+    * Begins a turn. Until the matching call to {@link #endTurn()}, events and messages are only
+    * collected. Turns may be nested, in which case only the outermost turn applies what was
+    * collected.
+    */
+   @Override
+   public void beginTurn() {
+      depth_++;
+   }
+
+   /**
+    * Ends a turn. If this is the outermost turn, everything collected during the turn is applied to
+    * the robots and then the listeners are notified of the robots found and the bullets fired.
+    *
+    * @throws IllegalStateException if no turn has begun.
+    */
+   @Override
+   public void endTurn() {
+      if (depth_ <= 0) {
+         throw new IllegalStateException("Turn must begin before it ends.");
+      } else if (--depth_ > 0) {
+         return;
+      }
+
+      heats_.advance(robot_.getTime(), robot_.getRoundNum());
+      try {
+         for (int i = 0; i < pending_.size(); i++) {
+            apply(pending_.get(i));
+         }
+         merge();
+      } finally {
+         for (int i = 0; i < pending_.size(); i++) {
+            pending_.get(i).clear();
+         }
+         pending_.clear();
+      }
+
+      for (int i = 0; i < found_.size(); i++) {
+         notifyRobotFound(new RobotFoundEvent(found_.get(i)));
+      }
+      found_.clear();
+      for (int i = 0; i < fired_.size(); i++) {
+         notifyRobotFired(fired_.get(i));
+      }
+      fired_.clear();
    }
 
    @Override
    public void inEvent(Event event) {
-      if (event instanceof ScannedRobotEvent) {
-         handleScannedRobotEvent((ScannedRobotEvent) event);
-      } else if (event instanceof RobotDeathEvent) {
-         handleRobotDeathEvent((RobotDeathEvent) event);
+      beginTurn();
+      try {
+         collectEvent(event);
+      } finally {
+         endTurn();
       }
    }
 
    @Override
    public void inEvents(Iterable<? extends Event> events) {
-      for (Event e : events) {
-         inEvent(e);
+      beginTurn();
+      try {
+         for (Event e : events) {
+            collectEvent(e);
+         }
+      } finally {
+         endTurn();
       }
    }
 
+   @Override
+   public void onScannedRobotEvent(ScannedRobotEvent event) {
+      inEvent(event);
+   }
+
+   @Override
+   public void onRobotDeathEvent(RobotDeathEvent event) {
+      inEvent(event);
+   }
+
+   @Override
+   public void onMessageEvent(MessageEvent event) {
+      inEvent(event);
+   }
+
    @Override
    public void inMessage(Message message) {
-      if (message instanceof RobotSnapshotMessage) {
-         handleRobotSnapshotMessage((RobotSnapshotMessage) message);
+      beginTurn();
+      try {
+         collectMessage(message);
+      } finally {
+         endTurn();
       }
    }
 
    @Override
    public void inMessages(Iterable<? extends Message> messages) {
-      for (Message m : messages) {
-         inMessage(m);
+      beginTurn();
+      try {
+         for (Message m : messages) {
+            collectMessage(m);
+         }
+      } finally {
+         endTurn();
+      }
+   }
+
+   /**
+    * Collects the specified event if it is one the manager handles.
+    *
+    * @param event the event to collect.
+    */
+   private void collectEvent(Event event) {
+      if (event instanceof ScannedRobotEvent) {
+         handleScannedRobotEvent((ScannedRobotEvent) event);
+      } else if (event instanceof RobotDeathEvent) {
+         handleRobotDeathEvent((RobotDeathEvent) event);
+      } else if (event instanceof MessageEvent) {
+         handleMessageEvent((MessageEvent) event);
+      }
+   }
+
+   /**
+    * Collects the message of the specified event, decoding it first if it was encoded. Encoded
+    * messages that cannot be decoded are skipped.
+    *
+    * @param event the event to handle.
+    */
+   private void handleMessageEvent(MessageEvent event) {
+      Object message = event.getMessage();
+      if (message instanceof Message) {
+         collectMessage((Message) message);
+      } else if (message instanceof byte[]) {
+         try {
+            collectMessage(codec_.decode(event.getSender(), (byte[]) message));
+         } catch (IOException e) {
+            System.err.println("Trouble decoding message from " + event.getSender() + ": " + e.getMessage());
+         }
+      }
+   }
+
+   /**
+    * Collects the specified message if it is one the manager handles.
+    *
+    * @param message the message to collect.
+    */
+   private void collectMessage(Message message) {
+      if (message instanceof RobotSnapshotMessage) {
+         handleRobotSnapshotMessage((RobotSnapshotMessage) message);
+      } else if (message instanceof RobotBatchMessage) {
+         handleRobotBatchMessage((RobotBatchMessage) message);
       }
    }
 
    /**
     * Processes any {@link ScannedRobotEvent}s that are passed to the {@link RobotManager}. Events
-    * are delegated to the method {@link #handleRobotSnapshot(IRobotSnapshot)}. If the specified
+    * are delegated to the method {@link #handleRobotSnapshot(IRobotSnapshot, boolean)}. If the specified
     * event is <code>null</code> then a {@link NullPointerException} is thrown.
     *
     * @param event the event to handle.
     * @throws NullPointerException if <code>event</code> is <code>null</code>.
-    * @see #handleRobotSnapshot(IRobotSnapshot)
+    * @see #handleRobotSnapshot(IRobotSnapshot, boolean)
     */
    private void handleScannedRobotEvent(ScannedRobotEvent event) {
       Objects.requireNonNull(event, "ScannedRobotEvent must not be null.");
 
-      handleRobotSnapshot(snapshotFactory_.create(event, robot_));
+      IRobotSnapshot snapshot = snapshotFactory_.create(event, robot_);
+      if (!scans_.isEmpty() && scans_.get(0).getTime() != snapshot.getTime()) {
+         scans_.clear();
+      }
+      scans_.add(snapshot);
+      handleRobotSnapshot(snapshot, true);
    }
 
    /**
-    * Processes any {@link RobotDeathEvent}s that are passed to the {@link RobotManager}. If the
-    * specified event is <code>null</code> then a {@link NullPointerException} is thrown.
+    * Processes any {@link RobotDeathEvent}s that are passed to the {@link RobotManager}. The death
+    * is applied after the snapshots of the robot at the end of the turn. If the specified event is
+    * <code>null</code> then a {@link NullPointerException} is thrown.
     *
     * @param event the event to handle.
     * @throws NullPointerException if <code>event</code> is <code>null</code>.
@@ -144,25 +494,40 @@ public final class RobotManager implements EventHandler, MessageHandler, RobotFo
    private void handleRobotDeathEvent(RobotDeathEvent event) {
       Objects.requireNonNull(event, "RobotDeathEvent must not be null.");
 
-      IRobot r = allRobots_.get(event.getName());
-      if (r != null) {
-         r.add(snapshotFactory_.create(event, r.getSnapshot()));
-      }
+      batch(event.getName()).death = event;
    }
 
    /**
     * Processes any {@link RobotSnapshotMessage}s that are passed to the {@link RobotManager}.
-    * Events are delegated to the method {@link #handleRobotSnapshot(IRobotSnapshot)}. If the
+    * Events are delegated to the method {@link #handleRobotSnapshot(IRobotSnapshot, boolean)}. If the
     * specified message is <code>null</code> then a {@link NullPointerException} is thrown.
     *
     * @param message the message to handle.
     * @throws NullPointerException if <code>message</code> is <code>null</code>.
-    * @see #handleRobotSnapshot(IRobotSnapshot)
+    * @see #handleRobotSnapshot(IRobotSnapshot, boolean)
     */
    private void handleRobotSnapshotMessage(RobotSnapshotMessage message) {
       Objects.requireNonNull(message, "RobotSnapshotMessage must not be null.");
 
-      handleRobotSnapshot(message.getSnapshot());
+      handleRobotSnapshot(message.getSnapshot(), false);
+   }
+
+   /**
+    * Processes any {@link RobotBatchMessage}s that are passed to the {@link RobotManager}. Every
+    * snapshot of the batch is delegated to the method {@link #handleRobotSnapshot(IRobotSnapshot, boolean)}.
+    * If the specified message is <code>null</code> then a {@link NullPointerException} is thrown.
+    *
+    * @param message the message to handle.
+    * @throws NullPointerException if <code>message</code> is <code>null</code>.
+    * @see #handleRobotSnapshot(IRobotSnapshot, boolean)
+    */
+   private void handleRobotBatchMessage(RobotBatchMessage message) {
+      Objects.requireNonNull(message, "RobotBatchMessage must not be null.");
+
+      List<IRobotSnapshot> snapshots = message.getSnapshots();
+      for (int i = 0; i < snapshots.size(); i++) {
+         handleRobotSnapshot(snapshots.get(i), false);
+      }
    }
 
    /**
@@ -171,22 +536,131 @@ public final class RobotManager implements EventHandler, MessageHandler, RobotFo
     * that is processing the snapshot then the snapshot is skipped and not processed.
     *
     * @param snapshot the robot snapshot to handle.
+    * @param scanned if the snapshot is from the robot's own scan instead of a teammate.
     * @throws NullPointerException if <code>snapshot</code> is <code>null</code>.
     */
-   private void handleRobotSnapshot(IRobotSnapshot snapshot) {
+   private void handleRobotSnapshot(IRobotSnapshot snapshot, boolean scanned) {
       Objects.requireNonNull(snapshot, "IRobotSnapshot must not be null.");
       if (snapshot.getName().equals(robot_.getName())) {
          // Skip snapshot of myself
          return;
       }
 
-      String name = snapshot.getName();
-      if (allRobots_.containsKey(name)) {
-         allRobots_.get(name).add(snapshot);
+      RobotBatch b = batch(snapshot.getName());
+      if (scanned) {
+         b.snapshots.add(snapshot);
       } else {
-         allRobots_.put(name, robotFactory_.create(snapshot, robot_));
-         notifyRobotFound(new RobotFoundEvent(allRobots_.get(name)));
+         b.relayed.add(snapshot);
+      }
+   }
+
+   /**
+    * Returns the batch of the robot with the specified name and marks it to be applied at the end of
+    * the turn.
+    *
+    * @param name the name of the robot.
+    * @return the batch of the robot.
+    */
+   private RobotBatch batch(String name) {
+      RobotBatch b = batches_.get(name);
+      if (b == null) {
+         b = new RobotBatch(name);
+         b.robot = allRobots_.get(name);
+         batches_.put(name, b);
+      }
+      if (!b.pending) {
+         b.pending = true;
+         pending_.add(b);
+      }
+      return b;
+   }
+
+   /**
+    * Applies everything collected in the specified batch to its robot. The robot is created from
+    * the earliest snapshot if it does not exist yet, and the rest of the snapshots are given to
+    * the merger of the robot. A death adds every held snapshot before it. A death of a robot that
+    * does not exist is ignored.
+    *
+    * @param b the batch to apply.
+    */
+   private void apply(RobotBatch b) {
+      IRobotSnapshot first = null;
+      if (b.robot == null) {
+         first = earliest(b.snapshots, earliest(b.relayed, null));
+         if (first == null) {
+            return;
+         }
+         b.robot = robotFactory_.create(first, robot_);
+         allRobots_.put(b.name, b.robot);
+         found_.add(b.robot);
+         heats_.track(b.robot);
+      }
+      if (b.merger == null) {
+         b.merger = new SnapshotMerger(b.robot, reorderWindow_);
+      }
+
+      for (int i = 0; i < b.snapshots.size(); i++) {
+         if (b.snapshots.get(i) != first) {
+            b.merger.offer(b.snapshots.get(i), true);
+         }
+      }
+      for (int i = 0; i < b.relayed.size(); i++) {
+         if (b.relayed.get(i) != first) {
+            b.merger.offer(b.relayed.get(i), false);
+         }
+      }
+      if (b.death != null) {
+         b.merger.flush();
+         detector_.update(b.robot);
+         b.robot.add(snapshotFactory_.create(b.death, b.robot.getSnapshot()));
+         heats_.died(b.name);
+         grid_.update(b.robot);
+      } else if (first != null) {
+         detector_.update(b.robot);
+         grid_.update(b.robot);
+      }
+      if (!b.merging && b.merger.getPending() > 0) {
+         b.merging = true;
+         merging_.add(b);
+      }
+   }
+
+   /**
+    * Adds the snapshots that are final to every robot whose merger holds snapshots.
+    */
+   private void merge() {
+      long time = robot_.getTime();
+      int round = robot_.getRoundNum();
+      for (int i = merging_.size() - 1; i >= 0; i--) {
+         RobotBatch b = merging_.get(i);
+         if (b.merger.advance(time, round) > 0) {
+            detector_.update(b.robot);
+            grid_.update(b.robot);
+         }
+         if (b.merger.getPending() == 0) {
+            b.merging = false;
+            merging_.set(i, merging_.get(merging_.size() - 1));
+            merging_.remove(merging_.size() - 1);
+         }
+      }
+   }
+
+   /**
+    * Returns the earliest of the specified snapshots and the specified snapshot.
+    *
+    * @param snapshots the snapshots.
+    * @param earliest the earliest snapshot so far or <code>null</code>.
+    * @return the earliest snapshot or <code>null</code> if there are none.
+    */
+   private static IRobotSnapshot earliest(List<IRobotSnapshot> snapshots, IRobotSnapshot earliest) {
+      for (int i = 0; i < snapshots.size(); i++) {
+         IRobotSnapshot s = snapshots.get(i);
+         if (earliest == null || s.getRound() < earliest.getRound()
+               || (s.getRound() == earliest.getRound() && s.getTime() < earliest.getTime())) {
+            earliest = s;
+         }
       }
+      return earliest;
    }
 
    /**
@@ -234,6 +708,50 @@ public final class RobotManager implements EventHandler, MessageHandler, RobotFo
       return r != null ? r : robotFactory_.createEnemy();
    }
 
+   /**
+    * Adds every living robot within the specified distance of the specified point to the specified
+    * list. The most recent snapshot of each robot is used.
+    *
+    * @param x the <code>x</code> coordinate of the point.
+    * @param y the <code>y</code> coordinate of the point.
+    * @param radius the distance from the point.
+    * @param result the list to add the robots to.
+    * @return the list of robots.
+    */
+   public List<IRobot> getRobotsWithin(double x, double y, double radius, List<IRobot> result) {
+      return grid_.within(x, y, radius, result);
+   }
+
+   /**
+    * Adds every living robot inside the specified bounding box to the specified list. The most
+    * recent snapshot of each robot is used.
+    *
+    * @param minX the smallest <code>x</code> coordinate of the box.
+    * @param minY the smallest <code>y</code> coordinate of the box.
+    * @param maxX the largest <code>x</code> coordinate of the box.
+    * @param maxY the largest <code>y</code> coordinate of the box.
+    * @param result the list to add the robots to.
+    * @return the list of robots.
+    */
+   public List<IRobot> getRobotsInside(double minX, double minY, double maxX, double maxY, List<IRobot> result) {
+      return grid_.inside(minX, minY, maxX, maxY, result);
+   }
+
+   /**
+    * Adds the specified number of living robots closest to the specified point to the specified
+    * list, closest first. Fewer robots are added if not enough are alive. The most recent snapshot
+    * of each robot is used.
+    *
+    * @param x the <code>x</code> coordinate of the point.
+    * @param y the <code>y</code> coordinate of the point.
+    * @param k the number of robots to find.
+    * @param result the list to add the robots to.
+    * @return the list of robots.
+    */
+   public List<IRobot> getNearestRobots(double x, double y, int k, List<IRobot> result) {
+      return grid_.nearest(x, y, k, result);
+   }
+
    @Override
    public void addRobotFoundListener(RobotFoundListener listener) {
       robotFoundListeners.add(listener);
@@ -244,9 +762,25 @@ public final class RobotManager implements EventHandler, MessageHandler, RobotFo
       robotFoundListeners.remove(listener);
    }
 
+   @Override
+   public void addRobotFiredListener(RobotFiredListener listener) {
+      robotFiredListeners.add(listener);
+   }
+
+   @Override
+   public void removeRobotFiredListener(RobotFiredListener listener) {
+      robotFiredListeners.remove(listener);
+   }
+
    private void notifyRobotFound(RobotFoundEvent e) {
       for (RobotFoundListener l : robotFoundListeners) {
          l.handleRobotFound(e);
       }
    }
+
+   private void notifyRobotFired(RobotFiredEvent e) {
+      for (RobotFiredListener l : robotFiredListeners) {
+         l.handleRobotFired(e);
+      }
+   }
 }
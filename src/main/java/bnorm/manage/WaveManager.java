@@ -0,0 +1,487 @@
+package bnorm.manage;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import bnorm.virtual.IPoint;
+import bnorm.virtual.IWave;
+import bnorm.virtual.Points;
+
+/**
+ * The {@link WaveManager} <code>class</code> keeps track of the waves that are still moving across
+ * the battlefield. Every wave is given a break time when it is added, which is the first tick at
+ * which the wave has reached its target, or, without a target, every corner of the battlefield. The
+ * waves are kept in a set ordered by break time, so the broken waves of a tick are removed in
+ * <code>O(log n)</code> each without looking at the waves that are still moving. Each wave is also
+ * mapped by identity to its entry, so a wave whose bullet hits something is removed in
+ * <code>O(log n)</code> as well.
+ * <p>
+ * The waves are also grouped by velocity and ordered by fire time within each group, so
+ * {@link #getWavesCrossing(IPoint, long, List)} only looks at the waves whose front could be near
+ * the point at the tick instead of every wave. Bullet waves only have a few distinct velocities, so
+ * there are only a few groups.
+ *
+ * @param <W> the type of wave.
+ * @author Brian Norman
+ */
+public final class WaveManager<W extends IWave> {
+
+   /**
+    * Orders entries by break time and then by the order they were added.
+    */
+   private static final Comparator<Entry<?>> BREAK_ORDER = new Comparator<Entry<?>>() {
+      @Override
+      public int compare(Entry<?> e1, Entry<?> e2) {
+         int c = Long.compare(e1.breakTime, e2.breakTime);
+         return c != 0 ? c : Long.compare(e1.order, e2.order);
+      }
+   };
+
+   /**
+    * Orders entries by fire time and then by the order they were added.
+    */
+   private static final Comparator<Entry<?>> FIRE_ORDER = new Comparator<Entry<?>>() {
+      @Override
+      public int compare(Entry<?> e1, Entry<?> e2) {
+         int c = Long.compare(e1.time, e2.time);
+         return c != 0 ? c : Long.compare(e1.order, e2.order);
+      }
+   };
+
+   /**
+    * The width of the battlefield.
+    */
+   private final double width_;
+
+   /**
+    * The height of the battlefield.
+    */
+   private final double height_;
+
+   /**
+    * The waves that have not broken yet ordered by break time.
+    */
+   private final TreeSet<Entry<W>> queue_;
+
+   /**
+    * The entry of every wave in the queue keyed by the identity of the wave.
+    */
+   private final Map<W, Entry<W>> entries_;
+
+   /**
+    * The waves in the queue grouped by velocity.
+    */
+   private final Map<Double, Group<W>> groups_;
+
+   /**
+    * A view of the waves in the queue.
+    */
+   private final Collection<W> waves_;
+
+   /**
+    * The number of waves that have been added.
+    */
+   private long added_;
+
+   /**
+    * Creates a new empty wave manager for a battlefield of the specified size.
+    *
+    * @param width the width of the battlefield.
+    * @param height the height of the battlefield.
+    */
+   public WaveManager(double width, double height) {
+      this.width_ = width;
+      this.height_ = height;
+      this.queue_ = new TreeSet<Entry<W>>(BREAK_ORDER);
+      this.entries_ = new IdentityHashMap<W, Entry<W>>();
+      this.groups_ = new HashMap<Double, Group<W>>();
+      this.waves_ = new AbstractCollection<W>() {
+         @Override
+         public Iterator<W> iterator() {
+            final Iterator<Entry<W>> iter = queue_.iterator();
+            return new Iterator<W>() {
+               private Entry<W> last;
+
+               @Override
+               public boolean hasNext() {
+                  return iter.hasNext();
+               }
+
+               @Override
+               public W next() {
+                  last = iter.next();
+                  return last.wave;
+               }
+
+               @Override
+               public void remove() {
+                  iter.remove();
+                  entries_.remove(last.wave);
+                  ungroup(last);
+               }
+            };
+         }
+
+         @Override
+         public boolean contains(Object o) {
+            return entries_.containsKey(o);
+         }
+
+         @Override
+         public boolean remove(Object o) {
+            Entry<W> e = entries_.remove(o);
+            if (e == null) {
+               return false;
+            }
+            queue_.remove(e);
+            ungroup(e);
+            return true;
+         }
+
+         @Override
+         public int size() {
+            return queue_.size();
+         }
+      };
+   }
+
+   /**
+    * Adds the specified wave. The wave breaks once it has reached every corner of the battlefield.
+    *
+    * @param wave the wave to add.
+    * @return the break time of the wave.
+    * @throws NullPointerException if <code>wave</code> is <code>null</code>.
+    */
+   public long add(W wave) {
+      Objects.requireNonNull(wave, "IWave must not be null.");
+
+      double distSq = Math.max(Math.max(Points.distSq(wave, 0, 0), Points.distSq(wave, width_, 0)),
+                               Math.max(Points.distSq(wave, 0, height_), Points.distSq(wave, width_, height_)));
+      return add(wave, wave.getBreakTime(Math.sqrt(distSq)));
+   }
+
+   /**
+    * Adds the specified wave. The wave breaks once it has reached the specified target.
+    *
+    * @param wave the wave to add.
+    * @param target the target of the wave.
+    * @return the break time of the wave.
+    * @throws NullPointerException if <code>wave</code> or <code>target</code> is <code>null</code>.
+    */
+   public long add(W wave, IPoint target) {
+      Objects.requireNonNull(wave, "IWave must not be null.");
+      Objects.requireNonNull(target, "IPoint must not be null.");
+
+      return add(wave, wave.getBreakTime(target));
+   }
+
+   /**
+    * Adds the specified wave with the specified break time. A wave that is already in the manager
+    * is moved to the new break time.
+    *
+    * @param wave the wave to add.
+    * @param breakTime the first tick at which the wave is broken.
+    * @return the break time of the wave.
+    */
+   private long add(W wave, long breakTime) {
+      Entry<W> e = new Entry<W>(wave, breakTime, added_++);
+      Entry<W> old = entries_.put(wave, e);
+      if (old != null) {
+         queue_.remove(old);
+         ungroup(old);
+      }
+      queue_.add(e);
+
+      Group<W> group = groups_.get(e.velocity);
+      if (group == null) {
+         group = new Group<W>();
+         groups_.put(e.velocity, group);
+      }
+      group.add(e);
+      return breakTime;
+   }
+
+   /**
+    * Removes the specified entry from its velocity group.
+    *
+    * @param e the entry to remove.
+    */
+   private void ungroup(Entry<W> e) {
+      Group<W> group = groups_.get(e.velocity);
+      if (group != null && group.entries.remove(e) && group.entries.isEmpty()) {
+         groups_.remove(e.velocity);
+      }
+   }
+
+   /**
+    * Removes the specified wave, for example when its bullet hits something. Waves are compared by
+    * identity.
+    *
+    * @param wave the wave to remove.
+    * @return if the wave was removed.
+    */
+   public boolean remove(W wave) {
+      return waves_.remove(wave);
+   }
+
+   /**
+    * Removes every wave that is broken at the specified time and adds them to the specified
+    * collection in the order they broke.
+    *
+    * @param currentTime the current round time.
+    * @param broken the collection to add the broken waves to or <code>null</code> if they are not
+    * needed.
+    * @return the number of waves removed.
+    */
+   public int removeBroken(long currentTime, Collection<? super W> broken) {
+      int count = 0;
+      Entry<W> e;
+      while (!queue_.isEmpty() && (e = queue_.first()).breakTime <= currentTime) {
+         queue_.pollFirst();
+         entries_.remove(e.wave);
+         ungroup(e);
+         if (broken != null) {
+            broken.add(e.wave);
+         }
+         count++;
+      }
+      return count;
+   }
+
+   /**
+    * Removes every wave.
+    */
+   public void clear() {
+      queue_.clear();
+      entries_.clear();
+      groups_.clear();
+   }
+
+   /**
+    * Returns the first tick at which a wave is broken or {@link Long#MAX_VALUE} if there are no
+    * waves.
+    *
+    * @return the next break time.
+    */
+   public long getNextBreakTime() {
+      return queue_.isEmpty() ? Long.MAX_VALUE : queue_.first().breakTime;
+   }
+
+   /**
+    * Returns all of the waves that have not been removed, in no particular order. The collection is
+    * a view and changes as waves are added and removed.
+    *
+    * @return the waves.
+    */
+   public Collection<W> getWaves() {
+      return waves_;
+   }
+
+   /**
+    * Returns the number of waves that have not been removed.
+    *
+    * @return the number of waves.
+    */
+   public int size() {
+      return queue_.size();
+   }
+
+   /**
+    * Adds every wave whose front crosses the specified point during the specified tick to the
+    * specified list. A wave crosses a point during a tick if the point is farther from the origin
+    * of the wave than the front was at the end of the previous tick but not farther than the front
+    * at the end of the tick.
+    * <p>
+    * Only the waves that could be near the point are looked at. Within each velocity group the
+    * origins of the waves lie in a known box, so the point is between a known least and greatest
+    * distance from every origin, and only the waves fired in the range of ticks whose front could
+    * be between those distances at the tick are looked at. Those waves are then pruned by their own
+    * distance band before any distance to the point is computed: waves whose front at the end of
+    * the tick does not reach the point along either axis, and waves whose front at the end of the
+    * previous tick has already passed the point by Manhattan distance, which is never less than the
+    * true distance, are skipped.
+    *
+    * @param point the point.
+    * @param time the round time.
+    * @param result the list to add the waves to.
+    * @return the list of waves.
+    */
+   public List<W> getWavesCrossing(IPoint point, long time, List<W> result) {
+      double x = point.getX();
+      double y = point.getY();
+      for (Map.Entry<Double, Group<W>> g : groups_.entrySet()) {
+         double velocity = g.getKey();
+         if (!(velocity > 0)) {
+            continue;
+         }
+
+         // The front crosses the point once v * (time - 1 - fired) < dist <= v * (time - fired)
+         Group<W> group = g.getValue();
+         double dx = Math.max(Math.max(group.minX - x, x - group.maxX), 0.0);
+         double dy = Math.max(Math.max(group.minY - y, y - group.maxY), 0.0);
+         double near = Math.sqrt(dx * dx + dy * dy);
+         dx = Math.max(x - group.minX, group.maxX - x);
+         dy = Math.max(y - group.minY, group.maxY - y);
+         double far = Math.sqrt(dx * dx + dy * dy);
+         long from = (long) Math.floor(time - 1 - far / velocity);
+         long to = Math.min(time - 1, (long) Math.ceil(time - near / velocity));
+         if (from > to) {
+            continue;
+         }
+
+         for (Entry<W> e : group.entries.subSet(new Entry<W>(from, Long.MIN_VALUE), true,
+                                                new Entry<W>(to, Long.MAX_VALUE), true)) {
+            crossing(e.wave, x, y, time, result);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Adds the specified wave to the specified list if its front crosses the specified point during
+    * the specified tick.
+    *
+    * @param wave the wave.
+    * @param x the <code>x</code> coordinate of the point.
+    * @param y the <code>y</code> coordinate of the point.
+    * @param time the round time.
+    * @param result the list to add the wave to.
+    */
+   private static <W extends IWave> void crossing(W wave, double x, double y, long time, List<W> result) {
+      double after = wave.dist(time);
+      if (!(after > 0)) {
+         return;
+      }
+      double dx = Math.abs(wave.getX() - x);
+      double dy = Math.abs(wave.getY() - y);
+      if (dx > after || dy > after) {
+         return;
+      }
+      double before = wave.dist(time - 1);
+      if (before > 0 && dx + dy <= before) {
+         return;
+      }
+      double distSq = dx * dx + dy * dy;
+      if (distSq <= after * after && (before <= 0 || distSq > before * before)) {
+         result.add(wave);
+      }
+   }
+
+   /**
+    * A wave in the queue along with its break time.
+    *
+    * @param <W> the type of wave.
+    */
+   private static final class Entry<W extends IWave> {
+
+      /**
+       * The wave.
+       */
+      private final W wave;
+
+      /**
+       * The first tick at which the wave is broken.
+       */
+      private final long breakTime;
+
+      /**
+       * The order in which the wave was added.
+       */
+      private final long order;
+
+      /**
+       * The fire time of the wave.
+       */
+      private final long time;
+
+      /**
+       * The velocity of the wave.
+       */
+      private final double velocity;
+
+      /**
+       * Creates a new entry.
+       *
+       * @param wave the wave.
+       * @param breakTime the first tick at which the wave is broken.
+       * @param order the order in which the wave was added.
+       */
+      private Entry(W wave, long breakTime, long order) {
+         this.wave = wave;
+         this.breakTime = breakTime;
+         this.order = order;
+         this.time = wave.getTime();
+         this.velocity = wave.getVelocity();
+      }
+
+      /**
+       * Creates a new entry without a wave that is used to search a group by fire time.
+       *
+       * @param time the fire time.
+       * @param order the order in which the wave was added.
+       */
+      private Entry(long time, long order) {
+         this.wave = null;
+         this.breakTime = 0;
+         this.order = order;
+         this.time = time;
+         this.velocity = 0.0;
+      }
+   }
+
+   /**
+    * The waves of a single velocity ordered by fire time, along with a box around their origins.
+    * The box covers every wave added since the group was created and is not shrunk when waves are
+    * removed.
+    *
+    * @param <W> the type of wave.
+    */
+   private static final class Group<W extends IWave> {
+
+      /**
+       * The waves of the group ordered by fire time.
+       */
+      private final TreeSet<Entry<W>> entries = new TreeSet<Entry<W>>(FIRE_ORDER);
+
+      /**
+       * The least <code>x</code> coordinate of an origin.
+       */
+      private double minX = Double.POSITIVE_INFINITY;
+
+      /**
+       * The greatest <code>x</code> coordinate of an origin.
+       */
+      private double maxX = Double.NEGATIVE_INFINITY;
+
+      /**
+       * The least <code>y</code> coordinate of an origin.
+       */
+      private double minY = Double.POSITIVE_INFINITY;
+
+      /**
+       * The greatest <code>y</code> coordinate of an origin.
+       */
+      private double maxY = Double.NEGATIVE_INFINITY;
+
+      /**
+       * Adds the specified entry to the group.
+       *
+       * @param e the entry to add.
+       */
+      private void add(Entry<W> e) {
+         entries.add(e);
+         minX = Math.min(minX, e.wave.getX());
+         maxX = Math.max(maxX, e.wave.getX());
+         minY = Math.min(minY, e.wave.getY());
+         maxY = Math.max(maxY, e.wave.getY());
+      }
+   }
+}
@@ -0,0 +1,591 @@
+package bnorm.messages;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import bnorm.robots.IRobotSnapshot;
+import bnorm.robots.IRobotSnapshotFactory;
+
+/**
+ * A compact binary wire format for {@link Message}s. Instead of letting Robocode serialize a
+ * message object graph, a robot encodes the message into a <code>byte[]</code> and sends that,
+ * and the receiver decodes it again without any reflection.
+ * <p>
+ * Every encoded message starts with a type tag byte and the time the message was sent. Primitive
+ * fields are written with a reusable {@link ByteBuffer}. Robot names are interned to small ids:
+ * the first time a codec encodes a name it writes the complement of the new id followed by the
+ * name, and after that only the id. Receivers keep the ids of each sender separately, so every
+ * message encoded by a codec must be sent to the same teammates, usually with
+ * <code>broadcastMessage</code>, and the codec should be created again each round along with the
+ * codecs of the teammates.
+ * <p>
+ * The snapshots of a {@link RobotBatchMessage} are delta-encoded against the last snapshot of the
+ * same robot that the codec sent in a batch. Robocode delivers the messages of a robot in the
+ * order they were sent, so the receiver always has the same base. Fields that did not change are
+ * left out and fields that did are sent as a <code>float</code> change. The base is the value the
+ * receiver rebuilds, not the exact value, so rounding errors never add up.
+ * <p>
+ * The layout of each message type:
+ * <ul>
+ * <li>{@link #ROBOT_SNAPSHOT}: name, x, y, energy, heading and velocity as <code>double</code>s,
+ * time as an <code>int</code> and round as a <code>short</code>.</li>
+ * <li>{@link #ROBOT_BATCH}: the number of snapshots as a <code>short</code>, then for each
+ * snapshot the name and a flags byte. A {@link #FULL} snapshot is laid out as above. Otherwise
+ * the time change is an unsigned <code>byte</code>, or an <code>int</code> with
+ * {@link #LONG_TIME}, followed by the change of each field that has its flag set.</li>
+ * </ul>
+ *
+ * @author Brian Norman
+ */
+public final class MessageCodec {
+
+   /**
+    * The type tag of a {@link RobotSnapshotMessage}.
+    */
+   public static final byte ROBOT_SNAPSHOT = 1;
+
+   /**
+    * The type tag of a {@link RobotBatchMessage}.
+    */
+   public static final byte ROBOT_BATCH = 2;
+
+   /**
+    * The flag of a batched snapshot with a changed x coordinate.
+    */
+   public static final int X = 1;
+
+   /**
+    * The flag of a batched snapshot with a changed y coordinate.
+    */
+   public static final int Y = 1 << 1;
+
+   /**
+    * The flag of a batched snapshot with a changed energy.
+    */
+   public static final int ENERGY = 1 << 2;
+
+   /**
+    * The flag of a batched snapshot with a changed heading.
+    */
+   public static final int HEADING = 1 << 3;
+
+   /**
+    * The flag of a batched snapshot with a changed velocity.
+    */
+   public static final int VELOCITY = 1 << 4;
+
+   /**
+    * The flag of a batched snapshot whose time change does not fit in a byte.
+    */
+   public static final int LONG_TIME = 1 << 5;
+
+   /**
+    * The flag of a batched snapshot that is sent whole.
+    */
+   public static final int FULL = 1 << 7;
+
+   /**
+    * The most names a codec can intern.
+    */
+   public static final int MAX_NAMES = Short.MAX_VALUE;
+
+   /**
+    * The number of fields of a snapshot that can be sent as a change.
+    */
+   private static final int FIELDS = 5;
+
+   /**
+    * The index of the x coordinate in the state of a sent snapshot. The flag of each field that can
+    * be sent as a change is one shifted by its index.
+    */
+   private static final int STATE_X = 0;
+
+   /**
+    * The index of the y coordinate in the state of a sent snapshot.
+    */
+   private static final int STATE_Y = 1;
+
+   /**
+    * The index of the energy in the state of a sent snapshot.
+    */
+   private static final int STATE_ENERGY = 2;
+
+   /**
+    * The index of the heading in the state of a sent snapshot.
+    */
+   private static final int STATE_HEADING = 3;
+
+   /**
+    * The index of the velocity in the state of a sent snapshot.
+    */
+   private static final int STATE_VELOCITY = 4;
+
+   /**
+    * The index of the time in the state of a sent snapshot.
+    */
+   private static final int STATE_TIME = 5;
+
+   /**
+    * The index of the round in the state of a sent snapshot.
+    */
+   private static final int STATE_ROUND = 6;
+
+   /**
+    * The size of the state of a sent snapshot.
+    */
+   private static final int STATE_SIZE = 7;
+
+   /**
+    * The initial size of the encoding buffer in bytes.
+    */
+   private static final int INITIAL_CAPACITY = 256;
+
+   /**
+    * The factory used to create decoded snapshots.
+    */
+   private final IRobotSnapshotFactory snapshotFactory;
+
+   /**
+    * The ids of the names this codec has encoded.
+    */
+   private final Map<String, Integer> encodedNames;
+
+   /**
+    * The last snapshot of each name this codec has sent in a batch, indexed by id.
+    */
+   private final List<double[]> encodedStates;
+
+   /**
+    * The ids of the snapshots encoded by the current message.
+    */
+   private final List<Integer> pendingIds;
+
+   /**
+    * The snapshots encoded by the current message, which become the last sent snapshots once the
+    * message is encoded.
+    */
+   private final List<double[]> pendingStates;
+
+   /**
+    * The names and last snapshots each sender has sent, keyed by the name of the sender.
+    */
+   private final Map<String, Peer> peers;
+
+   /**
+    * The reusable encoding buffer.
+    */
+   private ByteBuffer buffer;
+
+   /**
+    * Creates a new codec that has not interned any names.
+    *
+    * @param snapshotFactory the factory used to create decoded snapshots.
+    * @throws NullPointerException if <code>snapshotFactory</code> is null.
+    */
+   public MessageCodec(IRobotSnapshotFactory snapshotFactory) {
+      this.snapshotFactory = Objects.requireNonNull(snapshotFactory, "IRobotSnapshotFactory must not be null.");
+      this.encodedNames = new HashMap<String, Integer>();
+      this.encodedStates = new ArrayList<double[]>();
+      this.pendingIds = new ArrayList<Integer>();
+      this.pendingStates = new ArrayList<double[]>();
+      this.peers = new HashMap<String, Peer>();
+      this.buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+   }
+
+   /**
+    * Forgets every interned name and every base snapshot. This must happen at the same time for the
+    * sender and every receiver.
+    */
+   public void clear() {
+      encodedNames.clear();
+      encodedStates.clear();
+      peers.clear();
+   }
+
+   /**
+    * Encodes the specified message.
+    *
+    * @param message the message to encode.
+    * @return the encoded message.
+    * @throws NullPointerException if <code>message</code> is null.
+    * @throws IllegalArgumentException if the message type has no binary encoding.
+    */
+   public byte[] encode(Message message) {
+      Objects.requireNonNull(message, "Message must not be null.");
+      while (true) {
+         int names = encodedNames.size();
+         pendingIds.clear();
+         pendingStates.clear();
+         try {
+            // Called through Buffer so the class also links on Java 8, where ByteBuffer does not
+            // override these methods with covariant returns
+            ((Buffer) buffer).clear();
+            write(message);
+            byte[] bytes = new byte[buffer.position()];
+            ((Buffer) buffer).flip();
+            buffer.get(bytes);
+            for (int i = 0; i < pendingIds.size(); i++) {
+               int id = pendingIds.get(i);
+               while (encodedStates.size() <= id) {
+                  encodedStates.add(null);
+               }
+               encodedStates.set(id, pendingStates.get(i));
+            }
+            return bytes;
+         } catch (BufferOverflowException e) {
+            // Names interned by the failed attempt must be defined again by the next one
+            forget(names);
+            buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+         }
+      }
+   }
+
+   /**
+    * Decodes the specified message that was sent by the specified robot.
+    *
+    * @param sender the name of the robot that sent the message.
+    * @param bytes the encoded message.
+    * @return the decoded message.
+    * @throws NullPointerException if any argument is null.
+    * @throws IOException if the message is not a valid encoded message.
+    */
+   public Message decode(String sender, byte[] bytes) throws IOException {
+      Objects.requireNonNull(sender, "Sender must not be null.");
+      Objects.requireNonNull(bytes, "Bytes must not be null.");
+
+      ByteBuffer in = ByteBuffer.wrap(bytes);
+      try {
+         byte type = in.get();
+         long time = in.getInt();
+         switch (type) {
+            case ROBOT_SNAPSHOT:
+               return new RobotSnapshotMessage(readSnapshot(peer(sender), in), sender, time);
+            case ROBOT_BATCH:
+               return new RobotBatchMessage(readBatch(peer(sender), in), sender, time);
+            default:
+               throw new IOException("Unknown message type (" + type + ").");
+         }
+      } catch (BufferUnderflowException e) {
+         throw new IOException("Message is too short (" + bytes.length + ").", e);
+      }
+   }
+
+   /**
+    * Writes the specified message to the encoding buffer.
+    *
+    * @param message the message to write.
+    */
+   private void write(Message message) {
+      if (message instanceof RobotSnapshotMessage) {
+         buffer.put(ROBOT_SNAPSHOT);
+         buffer.putInt((int) message.getTime());
+         writeSnapshot(((RobotSnapshotMessage) message).getSnapshot());
+      } else if (message instanceof RobotBatchMessage) {
+         List<IRobotSnapshot> snapshots = ((RobotBatchMessage) message).getSnapshots();
+         if (snapshots.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many snapshots in batch (" + snapshots.size() + ").");
+         }
+         buffer.put(ROBOT_BATCH);
+         buffer.putInt((int) message.getTime());
+         buffer.putShort((short) snapshots.size());
+         for (int i = 0; i < snapshots.size(); i++) {
+            writeDelta(snapshots.get(i));
+         }
+      } else {
+         throw new IllegalArgumentException("Message has no binary encoding (" + message.getClass().getName() + ").");
+      }
+   }
+
+   /**
+    * Writes the specified snapshot to the encoding buffer.
+    *
+    * @param snapshot the snapshot to write.
+    */
+   private void writeSnapshot(IRobotSnapshot snapshot) {
+      writeName(snapshot.getName());
+      writeFields(snapshot);
+   }
+
+   /**
+    * Writes the fields of the specified snapshot to the encoding buffer without the name.
+    *
+    * @param snapshot the snapshot to write.
+    */
+   private void writeFields(IRobotSnapshot snapshot) {
+      buffer.putDouble(snapshot.getX());
+      buffer.putDouble(snapshot.getY());
+      buffer.putDouble(snapshot.getEnergy());
+      buffer.putDouble(snapshot.getHeading());
+      buffer.putDouble(snapshot.getVelocity());
+      buffer.putInt((int) snapshot.getTime());
+      buffer.putShort((short) snapshot.getRound());
+   }
+
+   /**
+    * Writes the specified snapshot to the encoding buffer as a change from the last snapshot of
+    * the same robot sent in a batch. The snapshot is sent whole if there is no earlier snapshot of
+    * the robot, or it is from another round or not newer.
+    *
+    * @param snapshot the snapshot to write.
+    */
+   private void writeDelta(IRobotSnapshot snapshot) {
+      int id = writeName(snapshot.getName());
+      double[] base = encodedState(id);
+      double[] state = new double[STATE_SIZE];
+      if (base == null || base[STATE_ROUND] != snapshot.getRound() || base[STATE_TIME] >= snapshot.getTime()) {
+         buffer.put((byte) FULL);
+         writeFields(snapshot);
+         state[STATE_X] = snapshot.getX();
+         state[STATE_Y] = snapshot.getY();
+         state[STATE_ENERGY] = snapshot.getEnergy();
+         state[STATE_HEADING] = snapshot.getHeading();
+         state[STATE_VELOCITY] = snapshot.getVelocity();
+      } else {
+         double[] values = {snapshot.getX(), snapshot.getY(), snapshot.getEnergy(), snapshot.getHeading(),
+               snapshot.getVelocity()};
+         long delta = snapshot.getTime() - (long) base[STATE_TIME];
+         int flags = delta > 0xFF ? LONG_TIME : 0;
+         for (int i = 0; i < FIELDS; i++) {
+            state[i] = base[i];
+            if (values[i] != base[i]) {
+               flags |= 1 << i;
+            }
+         }
+
+         buffer.put((byte) flags);
+         if ((flags & LONG_TIME) != 0) {
+            buffer.putInt((int) delta);
+         } else {
+            buffer.put((byte) delta);
+         }
+         for (int i = 0; i < FIELDS; i++) {
+            if ((flags & (1 << i)) != 0) {
+               float change = (float) (values[i] - base[i]);
+               buffer.putFloat(change);
+               state[i] = base[i] + change;
+            }
+         }
+      }
+      state[STATE_TIME] = snapshot.getTime();
+      state[STATE_ROUND] = snapshot.getRound();
+      pendingIds.add(id);
+      pendingStates.add(state);
+   }
+
+   /**
+    * Returns the last snapshot of the specified name that was encoded in a batch, including the
+    * snapshots of the current message.
+    *
+    * @param id the id of the name.
+    * @return the last snapshot or <code>null</code> if there is none.
+    */
+   private double[] encodedState(int id) {
+      for (int i = pendingIds.size() - 1; i >= 0; i--) {
+         if (pendingIds.get(i) == id) {
+            return pendingStates.get(i);
+         }
+      }
+      return id < encodedStates.size() ? encodedStates.get(id) : null;
+   }
+
+   /**
+    * Reads a snapshot that was sent by the specified peer.
+    *
+    * @param peer the robot that sent the snapshot.
+    * @param in the buffer to read from.
+    * @return the snapshot.
+    * @throws IOException if the snapshot refers to a name that was never defined.
+    */
+   private IRobotSnapshot readSnapshot(Peer peer, ByteBuffer in) throws IOException {
+      return readFields(peer.names.get(readName(peer, in)), in);
+   }
+
+   /**
+    * Reads a batch of snapshots that was sent by the specified peer.
+    *
+    * @param peer the robot that sent the batch.
+    * @param in the buffer to read from.
+    * @return the snapshots.
+    * @throws IOException if a snapshot refers to a name that was never defined or is a change from
+    *            a snapshot that was never sent.
+    */
+   private List<IRobotSnapshot> readBatch(Peer peer, ByteBuffer in) throws IOException {
+      int count = in.getShort();
+      if (count < 0) {
+         throw new IOException("Batch has a negative size (" + count + ").");
+      }
+
+      List<IRobotSnapshot> snapshots = new ArrayList<IRobotSnapshot>(count);
+      for (int i = 0; i < count; i++) {
+         int id = readName(peer, in);
+         int flags = in.get() & 0xFF;
+         double[] state = new double[STATE_SIZE];
+         if ((flags & FULL) != 0) {
+            IRobotSnapshot snapshot = readFields(peer.names.get(id), in);
+            state[STATE_X] = snapshot.getX();
+            state[STATE_Y] = snapshot.getY();
+            state[STATE_ENERGY] = snapshot.getEnergy();
+            state[STATE_HEADING] = snapshot.getHeading();
+            state[STATE_VELOCITY] = snapshot.getVelocity();
+            state[STATE_TIME] = snapshot.getTime();
+            state[STATE_ROUND] = snapshot.getRound();
+            snapshots.add(snapshot);
+         } else {
+            double[] base = id < peer.states.size() ? peer.states.get(id) : null;
+            if (base == null) {
+               throw new IOException("Change from a snapshot that was never sent (" + peer.names.get(id) + ").");
+            }
+            long delta = (flags & LONG_TIME) != 0 ? in.getInt() : in.get() & 0xFF;
+            for (int f = 0; f < FIELDS; f++) {
+               state[f] = base[f];
+               if ((flags & (1 << f)) != 0) {
+                  state[f] += in.getFloat();
+               }
+            }
+            state[STATE_TIME] = base[STATE_TIME] + delta;
+            state[STATE_ROUND] = base[STATE_ROUND];
+            snapshots.add(snapshotFactory.create(peer.names.get(id), state[STATE_X], state[STATE_Y],
+                  state[STATE_ENERGY], state[STATE_HEADING], state[STATE_VELOCITY], (long) state[STATE_TIME],
+                  (int) state[STATE_ROUND]));
+         }
+
+         while (peer.states.size() <= id) {
+            peer.states.add(null);
+         }
+         peer.states.set(id, state);
+      }
+      return snapshots;
+   }
+
+   /**
+    * Reads the fields of a snapshot with the specified name.
+    *
+    * @param name the name of the robot.
+    * @param in the buffer to read from.
+    * @return the snapshot.
+    */
+   private IRobotSnapshot readFields(String name, ByteBuffer in) {
+      double x = in.getDouble();
+      double y = in.getDouble();
+      double energy = in.getDouble();
+      double heading = in.getDouble();
+      double velocity = in.getDouble();
+      long time = in.getInt();
+      int round = in.getShort();
+      return snapshotFactory.create(name, x, y, energy, heading, velocity, time, round);
+   }
+
+   /**
+    * Returns the state of the specified sender, creating it if needed.
+    *
+    * @param sender the name of the sender.
+    * @return the state of the sender.
+    */
+   private Peer peer(String sender) {
+      Peer peer = peers.get(sender);
+      if (peer == null) {
+         peer = new Peer();
+         peers.put(sender, peer);
+      }
+      return peer;
+   }
+
+   /**
+    * Writes the id of the specified name to the encoding buffer, defining the id the first time
+    * the name is written.
+    *
+    * @param name the name to write.
+    * @return the id of the name.
+    */
+   private int writeName(String name) {
+      Integer id = encodedNames.get(name);
+      if (id != null) {
+         buffer.putShort(id.shortValue());
+         return id;
+      }
+
+      int next = encodedNames.size();
+      if (next >= MAX_NAMES) {
+         throw new IllegalStateException("Too many names to intern (" + next + ").");
+      }
+      encodedNames.put(name, next);
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      buffer.putShort((short) ~next);
+      buffer.putShort((short) bytes.length);
+      buffer.put(bytes);
+      return next;
+   }
+
+   /**
+    * Reads the id of a name that was sent by the specified peer, remembering the name if it is
+    * defined.
+    *
+    * @param peer the robot that sent the name.
+    * @param in the buffer to read from.
+    * @return the id of the name.
+    * @throws IOException if the name was never defined.
+    */
+   private static int readName(Peer peer, ByteBuffer in) throws IOException {
+      List<String> names = peer.names;
+      int id = in.getShort();
+      if (id >= 0) {
+         if (id >= names.size() || names.get(id) == null) {
+            throw new IOException("Name was never defined (" + id + ").");
+         }
+         return id;
+      }
+
+      id = ~id;
+      byte[] bytes = new byte[in.getShort() & 0xFFFF];
+      in.get(bytes);
+      while (names.size() <= id) {
+         names.add(null);
+      }
+      names.set(id, new String(bytes, StandardCharsets.UTF_8));
+      return id;
+   }
+
+   /**
+    * Forgets the names that were interned after the specified number of names.
+    *
+    * @param count the number of names to keep.
+    */
+   private void forget(int count) {
+      if (encodedNames.size() > count) {
+         List<String> added = new ArrayList<String>();
+         for (Map.Entry<String, Integer> entry : encodedNames.entrySet()) {
+            if (entry.getValue() >= count) {
+               added.add(entry.getKey());
+            }
+         }
+         for (String name : added) {
+            encodedNames.remove(name);
+         }
+      }
+   }
+
+   /**
+    * The names and last batched snapshots a single sender has sent.
+    */
+   private static final class Peer {
+
+      /**
+       * The names the sender has defined, indexed by id.
+       */
+      final List<String> names = new ArrayList<String>();
+
+      /**
+       * The last batched snapshot of each name, indexed by id.
+       */
+      final List<double[]> states = new ArrayList<double[]>();
+   }
+}
@@ -0,0 +1,54 @@
+package bnorm.messages;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import bnorm.robots.IRobotSnapshot;
+
+/**
+ * A {@link Message} containing every fresh {@link IRobotSnapshot} a robot collected during one
+ * turn, so teammates can share their whole radar picture with a single message.
+ * 
+ * @author Brian Norman
+ * @version 1.0
+ */
+public class RobotBatchMessage extends Message {
+
+   /**
+    * Determines if a deserialized file is compatible with this class. Maintainers must change this
+    * value if and only if the new version of this class is not compatible with old versions.
+    */
+   private static final long serialVersionUID = -5260953147261983412L;
+
+   /**
+    * The robot snapshots that are being sent.
+    */
+   private ArrayList<IRobotSnapshot> snapshots_;
+
+   /**
+    * Base constructor for the robot batch message.
+    * 
+    * @param snapshots
+    *           the robot snapshots that are being sent.
+    * @param sender
+    *           the the name of the robot that is sending the message.
+    * @param time
+    *           the Robocode time at which the message is being sent.
+    */
+   public RobotBatchMessage(Collection<? extends IRobotSnapshot> snapshots, String sender, long time) {
+      super(sender, time);
+      this.snapshots_ = new ArrayList<IRobotSnapshot>(snapshots);
+   }
+
+   /**
+    * Returns the snapshots that are being sent, in the order they were collected.
+    * 
+    * @return the sent robot snapshots.
+    */
+   public List<IRobotSnapshot> getSnapshots() {
+      return Collections.unmodifiableList(snapshots_);
+   }
+
+}
@@ -0,0 +1,174 @@
+package bnorm.robocode.robot;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size histogram of durations in nanoseconds. Every bucket is allocated when the histogram is created so
+ * recording a duration never allocates.
+ * <p>
+ * Durations are bucketed by their highest set bit and the {@link #SUB_BITS} bits below it, so a bucket covers at most
+ * <code>1 / 2^SUB_BITS</code> of its lower bound. Percentiles are reported as the upper bound of the bucket they fall
+ * in and are at most that fraction too high. The maximum is exact.
+ *
+ * @author Brian Norman
+ */
+final class LatencyHistogram {
+
+   /**
+    * The number of bits below the highest set bit used to pick a bucket.
+    */
+   static final int SUB_BITS = 3;
+
+   /**
+    * The number of buckets for each highest set bit.
+    */
+   private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+   /**
+    * The counts of each bucket.
+    */
+   private final long[] counts;
+
+   /**
+    * The number of recorded durations.
+    */
+   private long count;
+
+   /**
+    * The sum of the recorded durations.
+    */
+   private long total;
+
+   /**
+    * The largest recorded duration.
+    */
+   private long max;
+
+   /**
+    * Creates a new empty histogram.
+    */
+   LatencyHistogram() {
+      this.counts = new long[(Long.SIZE - SUB_BITS + 1) * SUB_BUCKETS];
+   }
+
+   /**
+    * Records the specified duration. Negative durations are recorded as zero.
+    *
+    * @param nanos the duration in nanoseconds.
+    */
+   void record(long nanos) {
+      long n = Math.max(0, nanos);
+      counts[index(n)]++;
+      count++;
+      total += n;
+      if (n > max) {
+         max = n;
+      }
+   }
+
+   /**
+    * Adds every duration recorded by the specified histogram to this histogram.
+    *
+    * @param other the histogram to add.
+    */
+   void add(LatencyHistogram other) {
+      for (int i = 0; i < counts.length; i++) {
+         counts[i] += other.counts[i];
+      }
+      count += other.count;
+      total += other.total;
+      max = Math.max(max, other.max);
+   }
+
+   /**
+    * Removes every recorded duration.
+    */
+   void clear() {
+      Arrays.fill(counts, 0);
+      count = 0;
+      total = 0;
+      max = 0;
+   }
+
+   /**
+    * Returns the number of recorded durations.
+    *
+    * @return the number of recorded durations.
+    */
+   long getCount() {
+      return count;
+   }
+
+   /**
+    * Returns the sum of the recorded durations in nanoseconds.
+    *
+    * @return the sum of the recorded durations.
+    */
+   long getTotal() {
+      return total;
+   }
+
+   /**
+    * Returns the largest recorded duration in nanoseconds.
+    *
+    * @return the largest recorded duration.
+    */
+   long getMax() {
+      return max;
+   }
+
+   /**
+    * Returns the duration in nanoseconds that the specified fraction of the recorded durations are less than or
+    * equal to. Returns zero if nothing has been recorded.
+    *
+    * @param fraction the fraction between <code>0</code> and <code>1</code>.
+    * @return the duration at the fraction.
+    * @throws IllegalArgumentException if <code>fraction</code> is not between zero and one.
+    */
+   long getPercentile(double fraction) {
+      if (!(fraction >= 0.0 && fraction <= 1.0)) {
+         throw new IllegalArgumentException("Fraction must be between zero and one (" + fraction + ").");
+      } else if (count == 0) {
+         return 0;
+      }
+
+      long rank = Math.max(1, (long) Math.ceil(fraction * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+         seen += counts[i];
+         if (seen >= rank) {
+            return Math.min(upperBound(i), max);
+         }
+      }
+      return max;
+   }
+
+   /**
+    * Returns the bucket of the specified non-negative duration.
+    *
+    * @param n the duration.
+    * @return the bucket index.
+    */
+   static int index(long n) {
+      if (n < SUB_BUCKETS) {
+         return (int) n;
+      }
+      int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(n) - SUB_BITS;
+      return (shift + 1) * SUB_BUCKETS + (int) ((n >>> shift) & (SUB_BUCKETS - 1));
+   }
+
+   /**
+    * Returns the largest duration that falls in the specified bucket.
+    *
+    * @param index the bucket index.
+    * @return the upper bound of the bucket.
+    */
+   static long upperBound(int index) {
+      if (index < SUB_BUCKETS) {
+         return index;
+      }
+      int shift = index / SUB_BUCKETS - 1;
+      long low = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+      return low + (1L << shift) - 1;
+   }
+}
@@ -0,0 +1,309 @@
+package bnorm.robocode.robot;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import bnorm.utils.Format;
+
+/**
+ * Measures how long each listener of a {@link RegisterRobot} takes to handle each type of event. Profiling is off
+ * until {@link #setEnabled(boolean)} is called and costs a single field read per listener call while it is off.
+ * <p>
+ * Durations are recorded per listener and per {@link ListenerType} into {@link LatencyHistogram}s, which are created
+ * the first time a listener handles a type and never allocate after that. The profiler also follows the listener
+ * calls of the current turn. When a {@link robocode.SkippedTurnEvent} arrives, the slowest listener call of the turn
+ * that was skipped is blamed, so the listeners that cause skipped turns can be found.
+ *
+ * @author Brian Norman
+ */
+public final class ListenerProfiler {
+
+   /**
+    * The number of nanoseconds in a millisecond.
+    */
+   private static final double NANOS_PER_MILLI = 1.0E6;
+
+   /**
+    * The statistics of each listener keyed by the listener. Identity is used so listeners that override
+    * <code>equals</code> are still kept apart.
+    */
+   private final Map<Object, Stats[]> listeners;
+
+   /**
+    * The statistics in the order they were created, which is the order they are reported.
+    */
+   private final List<Stats> stats;
+
+   /**
+    * If durations are being recorded.
+    */
+   private boolean enabled;
+
+   /**
+    * The total duration of the listener calls of the current turn.
+    */
+   private long turnTotal;
+
+   /**
+    * The slowest listener call of the current turn.
+    */
+   private long turnWorst;
+
+   /**
+    * The statistics of the slowest listener call of the current turn or <code>null</code> if nothing was called.
+    */
+   private Stats turnWorstStats;
+
+   /**
+    * The number of skipped turns in the current round.
+    */
+   private int roundSkips;
+
+   /**
+    * The number of skipped turns in the battle.
+    */
+   private int battleSkips;
+
+   /**
+    * Creates a new profiler that is turned off.
+    */
+   public ListenerProfiler() {
+      this.listeners = new IdentityHashMap<Object, Stats[]>();
+      this.stats = new ArrayList<Stats>();
+      this.enabled = false;
+   }
+
+   /**
+    * Returns true if durations are being recorded.
+    *
+    * @return if the profiler is enabled.
+    */
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   /**
+    * Turns the recording of durations on or off. Recorded durations are kept when the profiler is turned off.
+    *
+    * @param enabled if durations should be recorded.
+    */
+   public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+   }
+
+   /**
+    * Returns the start time of a listener call, or zero if the profiler is turned off.
+    *
+    * @return the start time in nanoseconds.
+    */
+   long start() {
+      return enabled ? System.nanoTime() : 0L;
+   }
+
+   /**
+    * Records the duration of a listener call that began at the specified start time.
+    *
+    * @param type the type of the listener.
+    * @param listener the listener that was called.
+    * @param start the value returned by {@link #start()} before the call.
+    */
+   void stop(ListenerType type, Object listener, long start) {
+      if (!enabled || start == 0L) {
+         return;
+      }
+
+      long elapsed = System.nanoTime() - start;
+      Stats s = stats(type, listener);
+      s.round.record(elapsed);
+
+      turnTotal += elapsed;
+      if (elapsed > turnWorst) {
+         turnWorst = elapsed;
+         turnWorstStats = s;
+      }
+   }
+
+   /**
+    * Starts a new turn. Should be called before any listener handles an event of the turn.
+    */
+   void turn() {
+      turnTotal = 0L;
+      turnWorst = 0L;
+      turnWorstStats = null;
+   }
+
+   /**
+    * Blames the slowest listener call of the current turn for a skipped turn and prints it to the specified stream.
+    * Robocode delivers a skipped turn before the status of the next turn, so the current turn is the one that was
+    * skipped.
+    *
+    * @param skippedTurn the time of the skipped turn.
+    * @param out the stream to print to.
+    */
+   void skipped(long skippedTurn, PrintStream out) {
+      if (!enabled) {
+         return;
+      }
+
+      roundSkips++;
+      battleSkips++;
+      if (turnWorstStats != null) {
+         turnWorstStats.roundSkips++;
+         out.println("Skipped turn " + skippedTurn + ": " + turnWorstStats.name + " took " + millis(turnWorst)
+               + " of " + millis(turnTotal) + " ms");
+      } else {
+         out.println("Skipped turn " + skippedTurn + ": no listener was called");
+      }
+   }
+
+   /**
+    * Prints the statistics of the current round to the specified stream and folds them into the battle statistics.
+    *
+    * @param round the round number.
+    * @param out the stream to print to.
+    */
+   void reportRound(int round, PrintStream out) {
+      if (stats.isEmpty()) {
+         return;
+      }
+
+      out.println("Listener profile for round " + round + " (" + roundSkips + " skipped turns):");
+      for (Stats s : stats) {
+         if (s.round.getCount() > 0) {
+            out.println(format(s.name, s.round, s.roundSkips));
+         }
+         s.battle.add(s.round);
+         s.battleSkips += s.roundSkips;
+         s.round.clear();
+         s.roundSkips = 0;
+      }
+      roundSkips = 0;
+   }
+
+   /**
+    * Prints the statistics of the whole battle to the specified stream. Any statistics of the current round that
+    * were not reported yet are included.
+    *
+    * @param out the stream to print to.
+    */
+   void reportBattle(PrintStream out) {
+      if (stats.isEmpty()) {
+         return;
+      }
+
+      out.println("Listener profile for battle (" + battleSkips + " skipped turns):");
+      for (Stats s : stats) {
+         s.battle.add(s.round);
+         s.battleSkips += s.roundSkips;
+         s.round.clear();
+         s.roundSkips = 0;
+         if (s.battle.getCount() > 0) {
+            out.println(format(s.name, s.battle, s.battleSkips));
+         }
+      }
+      roundSkips = 0;
+   }
+
+   /**
+    * Returns the statistics of the specified listener for the specified type, creating them if needed.
+    *
+    * @param type the type of the listener.
+    * @param listener the listener.
+    * @return the statistics.
+    */
+   private Stats stats(ListenerType type, Object listener) {
+      Stats[] types = listeners.get(listener);
+      if (types == null) {
+         types = new Stats[ListenerType.values().length];
+         listeners.put(listener, types);
+      }
+
+      Stats s = types[type.ordinal()];
+      if (s == null) {
+         s = new Stats(type.getLabel() + " " + name(listener));
+         types[type.ordinal()] = s;
+         stats.add(s);
+      }
+      return s;
+   }
+
+   /**
+    * Returns a readable name for the specified listener.
+    *
+    * @param listener the listener.
+    * @return the name of the listener.
+    */
+   private static String name(Object listener) {
+      Class<?> c = listener.getClass();
+      return c.getSimpleName().isEmpty() ? c.getName() : c.getSimpleName();
+   }
+
+   /**
+    * Formats a line of a report.
+    *
+    * @param name the name of the statistics.
+    * @param histogram the recorded durations.
+    * @param skips the number of skipped turns blamed on the listener.
+    * @return the formatted line.
+    */
+   private static String format(String name, LatencyHistogram histogram, int skips) {
+      return "  " + name + ": n=" + histogram.getCount() + " p50=" + millis(histogram.getPercentile(0.5)) + " p99="
+            + millis(histogram.getPercentile(0.99)) + " max=" + millis(histogram.getMax()) + " total="
+            + millis(histogram.getTotal()) + " ms skips=" + skips;
+   }
+
+   /**
+    * Formats the specified number of nanoseconds as milliseconds.
+    *
+    * @param nanos the number of nanoseconds.
+    * @return the formatted number of milliseconds.
+    */
+   private static String millis(long nanos) {
+      return Format.dec3(nanos / NANOS_PER_MILLI);
+   }
+
+   /**
+    * The recorded durations of a single listener for a single type.
+    */
+   private static final class Stats {
+
+      /**
+       * The name used in reports.
+       */
+      private final String name;
+
+      /**
+       * The durations of the current round.
+       */
+      private final LatencyHistogram round;
+
+      /**
+       * The durations of the previous rounds of the battle.
+       */
+      private final LatencyHistogram battle;
+
+      /**
+       * The number of skipped turns of the current round blamed on the listener.
+       */
+      private int roundSkips;
+
+      /**
+       * The number of skipped turns of the previous rounds blamed on the listener.
+       */
+      private int battleSkips;
+
+      /**
+       * Creates new empty statistics with the specified name.
+       *
+       * @param name the name used in reports.
+       */
+      private Stats(String name) {
+         this.name = name;
+         this.round = new LatencyHistogram();
+         this.battle = new LatencyHistogram();
+      }
+   }
+}
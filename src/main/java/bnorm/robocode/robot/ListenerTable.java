@@ -0,0 +1,127 @@
+package bnorm.robocode.robot;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+import bnorm.robocode.robot.listener.RobocodeEventListener;
+
+/**
+ * The listeners of a {@link RegisterRobot} grouped by {@link ListenerType}. Each type has its own array whose
+ * component type is the listener interface of the type, so dispatching an event is an indexed loop over an array
+ * that needs no casts and creates no objects.
+ * <p>
+ * The arrays are copied on write. Adding or removing a listener replaces the array of the type, and the array that
+ * was returned by {@link #get(ListenerType)} before the change is never modified. Listeners can therefore be added
+ * and removed while an event is being dispatched: the dispatch finishes with the listeners it started with and the
+ * change applies from the next event.
+ *
+ * @author Brian Norman
+ */
+final class ListenerTable {
+
+   /**
+    * Every listener type. Kept so that {@link ListenerType#values()} does not have to be copied on every call.
+    */
+   private static final ListenerType[] TYPES = ListenerType.values();
+
+   /**
+    * The listeners of each type indexed by the ordinal of the type.
+    */
+   private final RobocodeEventListener[][] listeners;
+
+   /**
+    * Creates a new table without any listeners.
+    */
+   ListenerTable() {
+      this.listeners = new RobocodeEventListener[TYPES.length][];
+      for (ListenerType type : TYPES) {
+         listeners[type.ordinal()] = newArray(type, 0);
+      }
+   }
+
+   /**
+    * Returns the listeners of the specified type. The returned array must not be modified.
+    *
+    * @param <L> the listener interface of the type.
+    * @param type the type of the listeners.
+    * @return the listeners of the type.
+    */
+   @SuppressWarnings("unchecked")
+   <L extends RobocodeEventListener> L[] get(ListenerType type) {
+      // The array was created with the listener interface of the type as its component type
+      return (L[]) listeners[type.ordinal()];
+   }
+
+   /**
+    * Adds the specified listener to every type whose listener interface it implements.
+    *
+    * @param listener the listener to add.
+    * @throws NullPointerException if <code>listener</code> is <code>null</code>.
+    */
+   void register(RobocodeEventListener listener) {
+      if (listener == null) {
+         throw new NullPointerException("RobocodeEventListener must not be null.");
+      }
+
+      for (ListenerType type : TYPES) {
+         if (type.getListenerClass().isInstance(listener)) {
+            add(type, listener);
+         }
+      }
+   }
+
+   /**
+    * Adds the specified listener to the end of the listeners of the specified type. A listener can be added more
+    * than once, and is then called once for each time it was added.
+    *
+    * @param type the type of the listener.
+    * @param listener the listener to add.
+    * @return <code>true</code>.
+    * @throws NullPointerException if <code>listener</code> is <code>null</code>.
+    * @throws ClassCastException if <code>listener</code> does not implement the listener interface of the type.
+    */
+   boolean add(ListenerType type, RobocodeEventListener listener) {
+      if (listener == null) {
+         throw new NullPointerException("RobocodeEventListener must not be null.");
+      }
+
+      RobocodeEventListener[] old = listeners[type.ordinal()];
+      RobocodeEventListener[] copy = newArray(type, old.length + 1);
+      System.arraycopy(old, 0, copy, 0, old.length);
+      copy[old.length] = type.getListenerClass().cast(listener);
+      listeners[type.ordinal()] = copy;
+      return true;
+   }
+
+   /**
+    * Removes the first occurrence of the specified listener from the listeners of the specified type.
+    *
+    * @param type the type of the listener.
+    * @param listener the listener to remove.
+    * @return if the listener was removed.
+    */
+   boolean remove(ListenerType type, Object listener) {
+      RobocodeEventListener[] old = listeners[type.ordinal()];
+      int index = Arrays.asList(old).indexOf(listener);
+      if (index < 0) {
+         return false;
+      }
+
+      RobocodeEventListener[] copy = newArray(type, old.length - 1);
+      System.arraycopy(old, 0, copy, 0, index);
+      System.arraycopy(old, index + 1, copy, index, old.length - index - 1);
+      listeners[type.ordinal()] = copy;
+      return true;
+   }
+
+   /**
+    * Creates a new array of the listener interface of the specified type.
+    *
+    * @param type the type of the listeners.
+    * @param length the length of the array.
+    * @return the new array.
+    */
+   private static RobocodeEventListener[] newArray(ListenerType type, int length) {
+      return (RobocodeEventListener[]) Array.newInstance(type.getListenerClass(), length);
+   }
+}
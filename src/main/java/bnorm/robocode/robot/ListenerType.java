@@ -0,0 +1,93 @@
+package bnorm.robocode.robot;
+
+import bnorm.robocode.robot.listener.BattleEndedEventListener;
+import bnorm.robocode.robot.listener.BulletHitBulletEventListener;
+import bnorm.robocode.robot.listener.BulletHitEventListener;
+import bnorm.robocode.robot.listener.BulletMissedEventListener;
+import bnorm.robocode.robot.listener.CustomEventListener;
+import bnorm.robocode.robot.listener.DeathEventListener;
+import bnorm.robocode.robot.listener.HitByBulletEventListener;
+import bnorm.robocode.robot.listener.HitRobotEventListener;
+import bnorm.robocode.robot.listener.HitWallEventListener;
+import bnorm.robocode.robot.listener.KeyEventListener;
+import bnorm.robocode.robot.listener.MessageEventListener;
+import bnorm.robocode.robot.listener.MouseEventListener;
+import bnorm.robocode.robot.listener.MouseWheelListener;
+import bnorm.robocode.robot.listener.PaintListener;
+import bnorm.robocode.robot.listener.RobocodeEventListener;
+import bnorm.robocode.robot.listener.RobotDeathEventListener;
+import bnorm.robocode.robot.listener.RoundEndedEventListener;
+import bnorm.robocode.robot.listener.ScannedRobotEventListener;
+import bnorm.robocode.robot.listener.SkippedTurnListener;
+import bnorm.robocode.robot.listener.StatusEventListener;
+import bnorm.robocode.robot.listener.TurnListener;
+import bnorm.robocode.robot.listener.WinEventListener;
+
+/**
+ * The types of listener that a {@link RegisterRobot} dispatches events to. Listeners that handle several Robocode
+ * callbacks, such as the mouse and key listeners, have a single type.
+ *
+ * @author Brian Norman
+ */
+enum ListenerType {
+   BULLET_HIT(BulletHitEventListener.class, "BulletHit"),
+   BULLET_HIT_BULLET(BulletHitBulletEventListener.class, "BulletHitBullet"),
+   BULLET_MISSED(BulletMissedEventListener.class, "BulletMissed"),
+   HIT_BY_BULLET(HitByBulletEventListener.class, "HitByBullet"),
+   HIT_ROBOT(HitRobotEventListener.class, "HitRobot"),
+   HIT_WALL(HitWallEventListener.class, "HitWall"),
+   ROBOT_DEATH(RobotDeathEventListener.class, "RobotDeath"),
+   SCANNED_ROBOT(ScannedRobotEventListener.class, "ScannedRobot"),
+   WIN(WinEventListener.class, "Win"),
+   ROUND_ENDED(RoundEndedEventListener.class, "RoundEnded"),
+   BATTLE_ENDED(BattleEndedEventListener.class, "BattleEnded"),
+   STATUS(StatusEventListener.class, "Status"),
+   MOUSE_WHEEL(MouseWheelListener.class, "MouseWheel"),
+   MOUSE(MouseEventListener.class, "Mouse"),
+   KEY(KeyEventListener.class, "Key"),
+   PAINT(PaintListener.class, "Paint"),
+   DEATH(DeathEventListener.class, "Death"),
+   SKIPPED_TURN(SkippedTurnListener.class, "SkippedTurn"),
+   CUSTOM(CustomEventListener.class, "Custom"),
+   MESSAGE(MessageEventListener.class, "Message"),
+   TURN(TurnListener.class, "Turn");
+
+   /**
+    * The listener interface of the type.
+    */
+   private final Class<? extends RobocodeEventListener> listenerClass;
+
+   /**
+    * The short name of the type used in reports.
+    */
+   private final String label;
+
+   /**
+    * Creates a new listener type with the specified listener interface and short name.
+    *
+    * @param listenerClass the listener interface of the type.
+    * @param label the short name of the type.
+    */
+   private ListenerType(Class<? extends RobocodeEventListener> listenerClass, String label) {
+      this.listenerClass = listenerClass;
+      this.label = label;
+   }
+
+   /**
+    * Returns the listener interface of the type.
+    *
+    * @return the listener interface.
+    */
+   Class<? extends RobocodeEventListener> getListenerClass() {
+      return listenerClass;
+   }
+
+   /**
+    * Returns the short name of the type used in reports.
+    *
+    * @return the short name of the type.
+    */
+   String getLabel() {
+      return label;
+   }
+}
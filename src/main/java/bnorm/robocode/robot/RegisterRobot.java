@@ -4,9 +4,7 @@ import java.awt.Graphics2D;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 import bnorm.robocode.robot.listener.BattleEndedEventListener;
 import bnorm.robocode.robot.listener.BulletHitBulletEventListener;
@@ -28,6 +26,7 @@ import bnorm.robocode.robot.listener.RoundEndedEventListener;
 import bnorm.robocode.robot.listener.ScannedRobotEventListener;
 import bnorm.robocode.robot.listener.SkippedTurnListener;
 import bnorm.robocode.robot.listener.StatusEventListener;
+import bnorm.robocode.robot.listener.TurnListener;
 import bnorm.robocode.robot.listener.WinEventListener;
 import robocode.BattleEndedEvent;
 import robocode.BulletHitBulletEvent;
@@ -49,48 +48,64 @@ import robocode.WinEvent;
 
 public class RegisterRobot extends TeamRobot {
 
-   private final List<BulletHitEventListener> bulletHitEventListeners;
-   private final List<BulletHitBulletEventListener> bulletHitBulletEventListeners;
-   private final List<BulletMissedEventListener> bulletMissedEventListeners;
-   private final List<HitByBulletEventListener> hitByBulletEventListeners;
-   private final List<HitRobotEventListener> hitRobotEventListeners;
-   private final List<HitWallEventListener> hitWallEventListeners;
-   private final List<RobotDeathEventListener> robotDeathEventListeners;
-   private final List<ScannedRobotEventListener> scannedRobotEventListeners;
-   private final List<WinEventListener> winEventListeners;
-   private final List<RoundEndedEventListener> roundEndedEventListeners;
-   private final List<BattleEndedEventListener> battleEndedEventListeners;
-   private final List<StatusEventListener> statusEventListeners;
-   private final List<MouseWheelListener> mouseWheelListeners;
-   private final List<MouseEventListener> mouseEventListeners;
-   private final List<KeyEventListener> keyEventListeners;
-   private final List<PaintListener> paintListeners;
-   private final List<DeathEventListener> deathEventListeners;
-   private final List<SkippedTurnListener> skippedTurnListeners;
-   private final List<CustomEventListener> customEventListeners;
-   private final List<MessageEventListener> messageEventListeners;
+   /**
+    * The registered listeners grouped by type.
+    */
+   private final ListenerTable listeners;
+
+   /**
+    * Measures how long each listener takes. Turned off unless {@link #setProfiling(boolean)} is called.
+    */
+   private final ListenerProfiler profiler;
 
    public RegisterRobot() {
-      this.bulletHitEventListeners = new ArrayList<>();
-      this.bulletHitBulletEventListeners = new ArrayList<>();
-      this.bulletMissedEventListeners = new ArrayList<>();
-      this.hitByBulletEventListeners = new ArrayList<>();
-      this.hitRobotEventListeners = new ArrayList<>();
-      this.hitWallEventListeners = new ArrayList<>();
-      this.robotDeathEventListeners = new ArrayList<>();
-      this.scannedRobotEventListeners = new ArrayList<>();
-      this.winEventListeners = new ArrayList<>();
-      this.roundEndedEventListeners = new ArrayList<>();
-      this.battleEndedEventListeners = new ArrayList<>();
-      this.statusEventListeners = new ArrayList<>();
-      this.mouseWheelListeners = new ArrayList<>();
-      this.mouseEventListeners = new ArrayList<>();
-      this.keyEventListeners = new ArrayList<>();
-      this.paintListeners = new ArrayList<>();
-      this.deathEventListeners = new ArrayList<>();
-      this.skippedTurnListeners = new ArrayList<>();
-      this.customEventListeners = new ArrayList<>();
-      this.messageEventListeners = new ArrayList<>();
+      this.listeners = new ListenerTable();
+      this.profiler = new ListenerProfiler();
+   }
+
+   /**
+    * Turns the profiling of listeners on or off. While profiling is on, the time each listener takes to handle each
+    * event is recorded. A summary per listener is printed to the robot console at the end of every round and at the
+    * end of the battle, and the slowest listener of every skipped turn is printed when the turn is skipped.
+    *
+    * @param profiling if listeners should be profiled.
+    */
+   public void setProfiling(boolean profiling) {
+      profiler.setEnabled(profiling);
+   }
+
+   /**
+    * Returns the profiler of the listeners.
+    *
+    * @return the listener profiler.
+    */
+   public ListenerProfiler getProfiler() {
+      return profiler;
+   }
+
+   /**
+    * Executes the pending commands and waits for the next turn, like {@link TeamRobot#execute()}. The events of the
+    * next turn are dispatched while waiting, so every {@link TurnListener} is told a turn begins before the call and
+    * that it ends once every event of the turn has been dispatched. Events that are dispatched outside of a call to
+    * this method, such as while a blocking movement call waits, are not part of a turn.
+    */
+   @Override
+   public void execute() {
+      TurnListener[] turnListeners = listeners.get(ListenerType.TURN);
+      for (int i = 0; i < turnListeners.length; i++) {
+         long start = profiler.start();
+         turnListeners[i].beginTurn();
+         profiler.stop(ListenerType.TURN, turnListeners[i], start);
+      }
+      try {
+         super.execute();
+      } finally {
+         for (int i = 0; i < turnListeners.length; i++) {
+            long start = profiler.start();
+            turnListeners[i].endTurn();
+            profiler.stop(ListenerType.TURN, turnListeners[i], start);
+         }
+      }
    }
 
    public void register(RobocodeEventListener... listeners) {
@@ -104,421 +119,458 @@ public class RegisterRobot extends TeamRobot {
    }
 
    public void register(RobocodeEventListener listener) {
-      if (listener instanceof BulletHitEventListener) {
-         addBulletHitEventListener((BulletHitEventListener) listener);
-      }
-      if (listener instanceof BulletHitBulletEventListener) {
-         addBulletHitBulletEventListener((BulletHitBulletEventListener) listener);
-      }
-      if (listener instanceof BulletMissedEventListener) {
-         addBulletMissedEventListener((BulletMissedEventListener) listener);
-      }
-      if (listener instanceof HitByBulletEventListener) {
-         addHitByBulletEventListener((HitByBulletEventListener) listener);
-      }
-      if (listener instanceof HitRobotEventListener) {
-         addHitRobotEventListener((HitRobotEventListener) listener);
-      }
-      if (listener instanceof HitWallEventListener) {
-         addHitWallEventListener((HitWallEventListener) listener);
-      }
-      if (listener instanceof RobotDeathEventListener) {
-         addRobotDeathEventListener((RobotDeathEventListener) listener);
-      }
-      if (listener instanceof ScannedRobotEventListener) {
-         addScannedRobotEventListener((ScannedRobotEventListener) listener);
-      }
-      if (listener instanceof WinEventListener) {
-         addWinEventListener((WinEventListener) listener);
-      }
-      if (listener instanceof RoundEndedEventListener) {
-         addRoundEndedEventListener((RoundEndedEventListener) listener);
-      }
-      if (listener instanceof BattleEndedEventListener) {
-         addBattleEndedEventListener((BattleEndedEventListener) listener);
-      }
-      if (listener instanceof StatusEventListener) {
-         addStatusEventListener((StatusEventListener) listener);
-      }
-      if (listener instanceof MouseWheelListener) {
-         addMouseWheelListener((MouseWheelListener) listener);
-      }
-      if (listener instanceof MouseEventListener) {
-         addMouseEventListener((MouseEventListener) listener);
-      }
-      if (listener instanceof KeyEventListener) {
-         addKeyEventListener((KeyEventListener) listener);
-      }
-      if (listener instanceof PaintListener) {
-         addPaintListener((PaintListener) listener);
-      }
-      if (listener instanceof DeathEventListener) {
-         addDeathEventListener((DeathEventListener) listener);
-      }
-      if (listener instanceof SkippedTurnListener) {
-         addSkippedTurnListener((SkippedTurnListener) listener);
-      }
-      if (listener instanceof CustomEventListener) {
-         addCustomEventListener((CustomEventListener) listener);
-      }
-      if (listener instanceof MessageEventListener) {
-         addMessageEventListener((MessageEventListener) listener);
-      }
+      listeners.register(listener);
    }
 
    public boolean addBulletHitEventListener(BulletHitEventListener listener) {
-      return bulletHitEventListeners.add(listener);
+      return listeners.add(ListenerType.BULLET_HIT, listener);
    }
 
    public boolean removeBulletHitEventListener(BulletHitEventListener listener) {
-      return bulletHitEventListeners.remove(listener);
+      return listeners.remove(ListenerType.BULLET_HIT, listener);
    }
 
    public boolean addBulletHitBulletEventListener(BulletHitBulletEventListener listener) {
-      return bulletHitBulletEventListeners.add(listener);
+      return listeners.add(ListenerType.BULLET_HIT_BULLET, listener);
    }
 
    public boolean removeBulletHitBulletEventListener(BulletHitBulletEventListener listener) {
-      return bulletHitBulletEventListeners.remove(listener);
+      return listeners.remove(ListenerType.BULLET_HIT_BULLET, listener);
    }
 
    public boolean addBulletMissedEventListener(BulletMissedEventListener listener) {
-      return bulletMissedEventListeners.add(listener);
+      return listeners.add(ListenerType.BULLET_MISSED, listener);
    }
 
    public boolean removeBulletMissedEventListener(BulletMissedEventListener listener) {
-      return bulletMissedEventListeners.remove(listener);
+      return listeners.remove(ListenerType.BULLET_MISSED, listener);
    }
 
    public boolean addHitByBulletEventListener(HitByBulletEventListener listener) {
-      return hitByBulletEventListeners.add(listener);
+      return listeners.add(ListenerType.HIT_BY_BULLET, listener);
    }
 
    public boolean removeHitByBulletEventListener(HitByBulletEventListener listener) {
-      return hitByBulletEventListeners.remove(listener);
+      return listeners.remove(ListenerType.HIT_BY_BULLET, listener);
    }
 
    public boolean addHitRobotEventListener(HitRobotEventListener listener) {
-      return hitRobotEventListeners.add(listener);
+      return listeners.add(ListenerType.HIT_ROBOT, listener);
    }
 
    public boolean removeHitRobotEventListener(HitRobotEventListener listener) {
-      return hitRobotEventListeners.remove(listener);
+      return listeners.remove(ListenerType.HIT_ROBOT, listener);
    }
 
    public boolean addHitWallEventListener(HitWallEventListener listener) {
-      return hitWallEventListeners.add(listener);
+      return listeners.add(ListenerType.HIT_WALL, listener);
    }
 
    public boolean removeHitWallEventListener(HitWallEventListener listener) {
-      return hitWallEventListeners.remove(listener);
+      return listeners.remove(ListenerType.HIT_WALL, listener);
    }
 
    public boolean addRobotDeathEventListener(RobotDeathEventListener listener) {
-      return robotDeathEventListeners.add(listener);
+      return listeners.add(ListenerType.ROBOT_DEATH, listener);
    }
 
    public boolean removeRobotDeathEventListener(RobotDeathEventListener listener) {
-      return robotDeathEventListeners.remove(listener);
+      return listeners.remove(ListenerType.ROBOT_DEATH, listener);
    }
 
    public boolean addScannedRobotEventListener(ScannedRobotEventListener listener) {
-      return scannedRobotEventListeners.add(listener);
+      return listeners.add(ListenerType.SCANNED_ROBOT, listener);
    }
 
    public boolean removeScannedRobotEventListener(ScannedRobotEventListener listener) {
-      return scannedRobotEventListeners.remove(listener);
+      return listeners.remove(ListenerType.SCANNED_ROBOT, listener);
    }
 
    public boolean addWinEventListener(WinEventListener listener) {
-      return winEventListeners.add(listener);
+      return listeners.add(ListenerType.WIN, listener);
    }
 
    public boolean removeWinEventListener(WinEventListener listener) {
-      return winEventListeners.remove(listener);
+      return listeners.remove(ListenerType.WIN, listener);
    }
 
    public boolean addRoundEndedEventListener(RoundEndedEventListener listener) {
-      return roundEndedEventListeners.add(listener);
+      return listeners.add(ListenerType.ROUND_ENDED, listener);
    }
 
    public boolean removeRoundEndedEventListener(RoundEndedEventListener listener) {
-      return roundEndedEventListeners.remove(listener);
+      return listeners.remove(ListenerType.ROUND_ENDED, listener);
    }
 
    public boolean addBattleEndedEventListener(BattleEndedEventListener listener) {
-      return battleEndedEventListeners.add(listener);
+      return listeners.add(ListenerType.BATTLE_ENDED, listener);
    }
 
    public boolean removeBattleEndedEventListener(BattleEndedEventListener listener) {
-      return battleEndedEventListeners.remove(listener);
+      return listeners.remove(ListenerType.BATTLE_ENDED, listener);
    }
 
    public boolean addStatusEventListener(StatusEventListener listener) {
-      return statusEventListeners.add(listener);
+      return listeners.add(ListenerType.STATUS, listener);
    }
 
    public boolean removeStatusEventListener(StatusEventListener listener) {
-      return statusEventListeners.remove(listener);
+      return listeners.remove(ListenerType.STATUS, listener);
    }
 
    public boolean addMouseWheelListener(MouseWheelListener listener) {
-      return mouseWheelListeners.add(listener);
+      return listeners.add(ListenerType.MOUSE_WHEEL, listener);
    }
 
    public boolean removeMouseWheelListener(MouseWheelListener listener) {
-      return mouseWheelListeners.remove(listener);
+      return listeners.remove(ListenerType.MOUSE_WHEEL, listener);
    }
 
    public boolean addMouseEventListener(MouseEventListener listener) {
-      return mouseEventListeners.add(listener);
+      return listeners.add(ListenerType.MOUSE, listener);
    }
 
    public boolean removeMouseEventListener(MouseEventListener listener) {
-      return mouseEventListeners.remove(listener);
+      return listeners.remove(ListenerType.MOUSE, listener);
    }
 
    public boolean addKeyEventListener(KeyEventListener listener) {
-      return keyEventListeners.add(listener);
+      return listeners.add(ListenerType.KEY, listener);
    }
 
    public boolean removeKeyEventListener(KeyEventListener listener) {
-      return keyEventListeners.remove(listener);
+      return listeners.remove(ListenerType.KEY, listener);
    }
 
    public boolean addPaintListener(PaintListener listener) {
-      return paintListeners.add(listener);
+      return listeners.add(ListenerType.PAINT, listener);
    }
 
    public boolean removePaintListener(PaintListener listener) {
-      return paintListeners.remove(listener);
+      return listeners.remove(ListenerType.PAINT, listener);
    }
 
    public boolean addDeathEventListener(DeathEventListener listener) {
-      return deathEventListeners.add(listener);
+      return listeners.add(ListenerType.DEATH, listener);
    }
 
    public boolean removeDeathEventListener(DeathEventListener listener) {
-      return deathEventListeners.remove(listener);
+      return listeners.remove(ListenerType.DEATH, listener);
    }
 
    public boolean addSkippedTurnListener(SkippedTurnListener listener) {
-      return skippedTurnListeners.add(listener);
+      return listeners.add(ListenerType.SKIPPED_TURN, listener);
    }
 
    public boolean removeSkippedTurnListener(SkippedTurnListener listener) {
-      return skippedTurnListeners.remove(listener);
+      return listeners.remove(ListenerType.SKIPPED_TURN, listener);
    }
 
    public boolean addCustomEventListener(CustomEventListener listener) {
-      return customEventListeners.add(listener);
+      return listeners.add(ListenerType.CUSTOM, listener);
    }
 
    public boolean removeCustomEventListener(CustomEventListener listener) {
-      return customEventListeners.remove(listener);
+      return listeners.remove(ListenerType.CUSTOM, listener);
    }
 
    public boolean addMessageEventListener(MessageEventListener listener) {
-      return messageEventListeners.add(listener);
+      return listeners.add(ListenerType.MESSAGE, listener);
    }
 
    public boolean removeMessageEventListener(MessageEventListener listener) {
-      return messageEventListeners.remove(listener);
+      return listeners.remove(ListenerType.MESSAGE, listener);
+   }
+
+   public boolean addTurnListener(TurnListener listener) {
+      return listeners.add(ListenerType.TURN, listener);
+   }
+
+   public boolean removeTurnListener(TurnListener listener) {
+      return listeners.remove(ListenerType.TURN, listener);
    }
 
    @Override
    public final void onBulletHit(BulletHitEvent event) {
-      for (BulletHitEventListener bulletHitEventListener : bulletHitEventListeners) {
-         bulletHitEventListener.onBulletHitEvent(event);
+      BulletHitEventListener[] bulletHitEventListeners = listeners.get(ListenerType.BULLET_HIT);
+      for (int i = 0; i < bulletHitEventListeners.length; i++) {
+         long start = profiler.start();
+         bulletHitEventListeners[i].onBulletHitEvent(event);
+         profiler.stop(ListenerType.BULLET_HIT, bulletHitEventListeners[i], start);
       }
    }
 
    @Override
    public final void onBulletHitBullet(BulletHitBulletEvent event) {
-      for (BulletHitBulletEventListener bulletHitBulletEventListener : bulletHitBulletEventListeners) {
-         bulletHitBulletEventListener.onBulletHitBulletEvent(event);
+      BulletHitBulletEventListener[] bulletHitBulletEventListeners = listeners.get(ListenerType.BULLET_HIT_BULLET);
+      for (int i = 0; i < bulletHitBulletEventListeners.length; i++) {
+         long start = profiler.start();
+         bulletHitBulletEventListeners[i].onBulletHitBulletEvent(event);
+         profiler.stop(ListenerType.BULLET_HIT_BULLET, bulletHitBulletEventListeners[i], start);
       }
    }
 
    @Override
    public final void onBulletMissed(BulletMissedEvent event) {
-      for (BulletMissedEventListener bulletMissedEventListener : bulletMissedEventListeners) {
-         bulletMissedEventListener.onBulletMissedEvent(event);
+      BulletMissedEventListener[] bulletMissedEventListeners = listeners.get(ListenerType.BULLET_MISSED);
+      for (int i = 0; i < bulletMissedEventListeners.length; i++) {
+         long start = profiler.start();
+         bulletMissedEventListeners[i].onBulletMissedEvent(event);
+         profiler.stop(ListenerType.BULLET_MISSED, bulletMissedEventListeners[i], start);
       }
    }
 
    @Override
    public final void onHitByBullet(HitByBulletEvent event) {
-      for (HitByBulletEventListener hitByBulletEventListener : hitByBulletEventListeners) {
-         hitByBulletEventListener.onHitByBulletEvent(event);
+      HitByBulletEventListener[] hitByBulletEventListeners = listeners.get(ListenerType.HIT_BY_BULLET);
+      for (int i = 0; i < hitByBulletEventListeners.length; i++) {
+         long start = profiler.start();
+         hitByBulletEventListeners[i].onHitByBulletEvent(event);
+         profiler.stop(ListenerType.HIT_BY_BULLET, hitByBulletEventListeners[i], start);
       }
    }
 
    @Override
    public final void onHitRobot(HitRobotEvent event) {
-      for (HitRobotEventListener hitRobotEventListener : hitRobotEventListeners) {
-         hitRobotEventListener.onHitRobotEvent(event);
+      HitRobotEventListener[] hitRobotEventListeners = listeners.get(ListenerType.HIT_ROBOT);
+      for (int i = 0; i < hitRobotEventListeners.length; i++) {
+         long start = profiler.start();
+         hitRobotEventListeners[i].onHitRobotEvent(event);
+         profiler.stop(ListenerType.HIT_ROBOT, hitRobotEventListeners[i], start);
       }
    }
 
    @Override
    public final void onHitWall(HitWallEvent event) {
-      for (HitWallEventListener hitWallEventListener : hitWallEventListeners) {
-         hitWallEventListener.onHitWallEvent(event);
+      HitWallEventListener[] hitWallEventListeners = listeners.get(ListenerType.HIT_WALL);
+      for (int i = 0; i < hitWallEventListeners.length; i++) {
+         long start = profiler.start();
+         hitWallEventListeners[i].onHitWallEvent(event);
+         profiler.stop(ListenerType.HIT_WALL, hitWallEventListeners[i], start);
       }
    }
 
    @Override
    public final void onRobotDeath(RobotDeathEvent event) {
-      for (RobotDeathEventListener robotDeathEventListener : robotDeathEventListeners) {
-         robotDeathEventListener.onRobotDeathEvent(event);
+      RobotDeathEventListener[] robotDeathEventListeners = listeners.get(ListenerType.ROBOT_DEATH);
+      for (int i = 0; i < robotDeathEventListeners.length; i++) {
+         long start = profiler.start();
+         robotDeathEventListeners[i].onRobotDeathEvent(event);
+         profiler.stop(ListenerType.ROBOT_DEATH, robotDeathEventListeners[i], start);
       }
    }
 
    @Override
    public final void onScannedRobot(ScannedRobotEvent event) {
-      for (ScannedRobotEventListener scannedRobotEventListener : scannedRobotEventListeners) {
-         scannedRobotEventListener.onScannedRobotEvent(event);
+      ScannedRobotEventListener[] scannedRobotEventListeners = listeners.get(ListenerType.SCANNED_ROBOT);
+      for (int i = 0; i < scannedRobotEventListeners.length; i++) {
+         long start = profiler.start();
+         scannedRobotEventListeners[i].onScannedRobotEvent(event);
+         profiler.stop(ListenerType.SCANNED_ROBOT, scannedRobotEventListeners[i], start);
       }
    }
 
    @Override
    public final void onWin(WinEvent event) {
-      for (WinEventListener winEventListener : winEventListeners) {
-         winEventListener.onWinEvent(event);
+      WinEventListener[] winEventListeners = listeners.get(ListenerType.WIN);
+      for (int i = 0; i < winEventListeners.length; i++) {
+         long start = profiler.start();
+         winEventListeners[i].onWinEvent(event);
+         profiler.stop(ListenerType.WIN, winEventListeners[i], start);
       }
    }
 
    @Override
    public final void onRoundEnded(RoundEndedEvent event) {
-      for (RoundEndedEventListener roundEndedEventListener : roundEndedEventListeners) {
-         roundEndedEventListener.onRoundEndedEvent(event);
+      RoundEndedEventListener[] roundEndedEventListeners = listeners.get(ListenerType.ROUND_ENDED);
+      for (int i = 0; i < roundEndedEventListeners.length; i++) {
+         long start = profiler.start();
+         roundEndedEventListeners[i].onRoundEndedEvent(event);
+         profiler.stop(ListenerType.ROUND_ENDED, roundEndedEventListeners[i], start);
       }
+      profiler.reportRound(event.getRound(), out);
    }
 
    @Override
    public final void onBattleEnded(BattleEndedEvent event) {
-      for (BattleEndedEventListener battleEndedEventListener : battleEndedEventListeners) {
-         battleEndedEventListener.onBattleEndedEvent(event);
+      BattleEndedEventListener[] battleEndedEventListeners = listeners.get(ListenerType.BATTLE_ENDED);
+      for (int i = 0; i < battleEndedEventListeners.length; i++) {
+         long start = profiler.start();
+         battleEndedEventListeners[i].onBattleEndedEvent(event);
+         profiler.stop(ListenerType.BATTLE_ENDED, battleEndedEventListeners[i], start);
       }
+      profiler.reportBattle(out);
    }
 
    @Override
    public final void onStatus(StatusEvent e) {
-      for (StatusEventListener statusEventListener : statusEventListeners) {
-         statusEventListener.onStatusEvent(e);
+      profiler.turn();
+      StatusEventListener[] statusEventListeners = listeners.get(ListenerType.STATUS);
+      for (int i = 0; i < statusEventListeners.length; i++) {
+         long start = profiler.start();
+         statusEventListeners[i].onStatusEvent(e);
+         profiler.stop(ListenerType.STATUS, statusEventListeners[i], start);
       }
    }
 
    @Override
    public final void onMouseWheelMoved(MouseWheelEvent e) {
-      for (MouseWheelListener mouseWheelListener : mouseWheelListeners) {
-         mouseWheelListener.onMouseWheelEvent(e);
+      MouseWheelListener[] mouseWheelListeners = listeners.get(ListenerType.MOUSE_WHEEL);
+      for (int i = 0; i < mouseWheelListeners.length; i++) {
+         long start = profiler.start();
+         mouseWheelListeners[i].onMouseWheelEvent(e);
+         profiler.stop(ListenerType.MOUSE_WHEEL, mouseWheelListeners[i], start);
       }
    }
 
    @Override
    public final void onMouseDragged(MouseEvent e) {
-      for (MouseEventListener mouseEventListener : mouseEventListeners) {
-         mouseEventListener.onMouseEvent(e);
+      MouseEventListener[] mouseEventListeners = listeners.get(ListenerType.MOUSE);
+      for (int i = 0; i < mouseEventListeners.length; i++) {
+         long start = profiler.start();
+         mouseEventListeners[i].onMouseEvent(e);
+         profiler.stop(ListenerType.MOUSE, mouseEventListeners[i], start);
       }
    }
 
    @Override
    public final void onMouseMoved(MouseEvent e) {
-      for (MouseEventListener mouseEventListener : mouseEventListeners) {
-         mouseEventListener.onMouseEvent(e);
+      MouseEventListener[] mouseEventListeners = listeners.get(ListenerType.MOUSE);
+      for (int i = 0; i < mouseEventListeners.length; i++) {
+         long start = profiler.start();
+         mouseEventListeners[i].onMouseEvent(e);
+         profiler.stop(ListenerType.MOUSE, mouseEventListeners[i], start);
       }
    }
 
    @Override
    public final void onMouseReleased(MouseEvent e) {
-      for (MouseEventListener mouseEventListener : mouseEventListeners) {
-         mouseEventListener.onMouseEvent(e);
+      MouseEventListener[] mouseEventListeners = listeners.get(ListenerType.MOUSE);
+      for (int i = 0; i < mouseEventListeners.length; i++) {
+         long start = profiler.start();
+         mouseEventListeners[i].onMouseEvent(e);
+         profiler.stop(ListenerType.MOUSE, mouseEventListeners[i], start);
       }
    }
 
    @Override
    public final void onMousePressed(MouseEvent e) {
-      for (MouseEventListener mouseEventListener : mouseEventListeners) {
-         mouseEventListener.onMouseEvent(e);
+      MouseEventListener[] mouseEventListeners = listeners.get(ListenerType.MOUSE);
+      for (int i = 0; i < mouseEventListeners.length; i++) {
+         long start = profiler.start();
+         mouseEventListeners[i].onMouseEvent(e);
+         profiler.stop(ListenerType.MOUSE, mouseEventListeners[i], start);
       }
    }
 
    @Override
    public final void onMouseExited(MouseEvent e) {
-      for (MouseEventListener mouseEventListener : mouseEventListeners) {
-         mouseEventListener.onMouseEvent(e);
+      MouseEventListener[] mouseEventListeners = listeners.get(ListenerType.MOUSE);
+      for (int i = 0; i < mouseEventListeners.length; i++) {
+         long start = profiler.start();
+         mouseEventListeners[i].onMouseEvent(e);
+         profiler.stop(ListenerType.MOUSE, mouseEventListeners[i], start);
       }
    }
 
    @Override
    public final void onMouseEntered(MouseEvent e) {
-      for (MouseEventListener mouseEventListener : mouseEventListeners) {
-         mouseEventListener.onMouseEvent(e);
+      MouseEventListener[] mouseEventListeners = listeners.get(ListenerType.MOUSE);
+      for (int i = 0; i < mouseEventListeners.length; i++) {
+         long start = profiler.start();
+         mouseEventListeners[i].onMouseEvent(e);
+         profiler.stop(ListenerType.MOUSE, mouseEventListeners[i], start);
       }
    }
 
    @Override
    public final void onMouseClicked(MouseEvent e) {
-      for (MouseEventListener mouseEventListener : mouseEventListeners) {
-         mouseEventListener.onMouseEvent(e);
+      MouseEventListener[] mouseEventListeners = listeners.get(ListenerType.MOUSE);
+      for (int i = 0; i < mouseEventListeners.length; i++) {
+         long start = profiler.start();
+         mouseEventListeners[i].onMouseEvent(e);
+         profiler.stop(ListenerType.MOUSE, mouseEventListeners[i], start);
       }
    }
 
    @Override
    public final void onKeyTyped(KeyEvent e) {
-      for (KeyEventListener keyEventListener : keyEventListeners) {
-         keyEventListener.onKeyEvent(e);
+      KeyEventListener[] keyEventListeners = listeners.get(ListenerType.KEY);
+      for (int i = 0; i < keyEventListeners.length; i++) {
+         long start = profiler.start();
+         keyEventListeners[i].onKeyEvent(e);
+         profiler.stop(ListenerType.KEY, keyEventListeners[i], start);
       }
    }
 
    @Override
    public final void onKeyReleased(KeyEvent e) {
-      for (KeyEventListener keyEventListener : keyEventListeners) {
-         keyEventListener.onKeyEvent(e);
+      KeyEventListener[] keyEventListeners = listeners.get(ListenerType.KEY);
+      for (int i = 0; i < keyEventListeners.length; i++) {
+         long start = profiler.start();
+         keyEventListeners[i].onKeyEvent(e);
+         profiler.stop(ListenerType.KEY, keyEventListeners[i], start);
       }
    }
 
    @Override
    public final void onKeyPressed(KeyEvent e) {
-      for (KeyEventListener keyEventListener : keyEventListeners) {
-         keyEventListener.onKeyEvent(e);
+      KeyEventListener[] keyEventListeners = listeners.get(ListenerType.KEY);
+      for (int i = 0; i < keyEventListeners.length; i++) {
+         long start = profiler.start();
+         keyEventListeners[i].onKeyEvent(e);
+         profiler.stop(ListenerType.KEY, keyEventListeners[i], start);
       }
    }
 
    @Override
    public final void onPaint(Graphics2D g) {
-      for (PaintListener paintListener : paintListeners) {
-         paintListener.onPaint(g);
+      PaintListener[] paintListeners = listeners.get(ListenerType.PAINT);
+      for (int i = 0; i < paintListeners.length; i++) {
+         long start = profiler.start();
+         paintListeners[i].onPaint(g);
+         profiler.stop(ListenerType.PAINT, paintListeners[i], start);
       }
    }
 
    @Override
    public final void onDeath(DeathEvent event) {
-      for (DeathEventListener deathEventListener : deathEventListeners) {
-         deathEventListener.onDeathEvent(event);
+      DeathEventListener[] deathEventListeners = listeners.get(ListenerType.DEATH);
+      for (int i = 0; i < deathEventListeners.length; i++) {
+         long start = profiler.start();
+         deathEventListeners[i].onDeathEvent(event);
+         profiler.stop(ListenerType.DEATH, deathEventListeners[i], start);
       }
    }
 
    @Override
    public final void onSkippedTurn(SkippedTurnEvent event) {
-      for (SkippedTurnListener skippedTurnListener : skippedTurnListeners) {
-         skippedTurnListener.onSkippedTurnEvent(event);
+      profiler.skipped(event.getSkippedTurn(), out);
+      SkippedTurnListener[] skippedTurnListeners = listeners.get(ListenerType.SKIPPED_TURN);
+      for (int i = 0; i < skippedTurnListeners.length; i++) {
+         long start = profiler.start();
+         skippedTurnListeners[i].onSkippedTurnEvent(event);
+         profiler.stop(ListenerType.SKIPPED_TURN, skippedTurnListeners[i], start);
       }
    }
 
    @Override
    public final void onCustomEvent(CustomEvent event) {
-      for (CustomEventListener customEventListener : customEventListeners) {
-         customEventListener.onCustomEvent(event);
+      CustomEventListener[] customEventListeners = listeners.get(ListenerType.CUSTOM);
+      for (int i = 0; i < customEventListeners.length; i++) {
+         long start = profiler.start();
+         customEventListeners[i].onCustomEvent(event);
+         profiler.stop(ListenerType.CUSTOM, customEventListeners[i], start);
       }
    }
 
    @Override
    public final void onMessageReceived(MessageEvent event) {
-      for (MessageEventListener messageEventListener : messageEventListeners) {
-         messageEventListener.onMessageEvent(event);
+      MessageEventListener[] messageEventListeners = listeners.get(ListenerType.MESSAGE);
+      for (int i = 0; i < messageEventListeners.length; i++) {
+         long start = profiler.start();
+         messageEventListeners[i].onMessageEvent(event);
+         profiler.stop(ListenerType.MESSAGE, messageEventListeners[i], start);
       }
    }
 }
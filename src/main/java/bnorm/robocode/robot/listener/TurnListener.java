@@ -0,0 +1,8 @@
+package bnorm.robocode.robot.listener;
+
+public interface TurnListener extends RobocodeEventListener {
+
+   void beginTurn();
+
+   void endTurn();
+}
@@ -0,0 +1,352 @@
+package bnorm.robots;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import robocode.Rules;
+
+/**
+ * Models the gun heat of every robot so that the earliest time each of them can fire next is
+ * known. Every gun starts a round at {@link #START_GUN_HEAT}, cools by the gun cooling rate each
+ * tick, and is heated by {@link Rules#getGunHeat(double)} each time the robot fires. Since bullets
+ * are detected at least a tick after they are fired, the heat is always measured from the fire
+ * time of the bullet.
+ * <p>
+ * The tracker is told of bullets by a {@link bnorm.manage.FireDetector}, which also uses it to
+ * know when a gun could have fired, and is advanced once every turn by the
+ * {@link bnorm.manage.RobotManager} that owns them both. Expensive work that only matters when a
+ * new bullet may be in the air, such as surfing simulations, can be skipped until
+ * {@link #getNextFireTime()}, the first tick any living tracked robot can fire. Teammates are
+ * tracked like any other robot, and can be left out with {@link #remove(String)}.
+ *
+ * @author Brian Norman
+ */
+public final class GunHeatTracker {
+
+   /**
+    * The gun cooling rate of a default battle.
+    */
+   public static final double DEFAULT_COOLING_RATE = 0.1;
+
+   /**
+    * The gun heat of every robot at the start of a round.
+    */
+   public static final double START_GUN_HEAT = 3.0;
+
+   /**
+    * The tolerance of heat comparisons.
+    */
+   private static final double TOLERANCE = 1.0E-6;
+
+   /**
+    * The heat of every tracked robot keyed by name.
+    */
+   private final Map<String, Heat> heats;
+
+   /**
+    * The gun cooling rate of the battle.
+    */
+   private double coolingRate;
+
+   /**
+    * The current match round.
+    */
+   private int round;
+
+   /**
+    * The current round time.
+    */
+   private long time;
+
+   /**
+    * Creates a new tracker for a battle with the default gun cooling rate.
+    */
+   public GunHeatTracker() {
+      this.heats = new HashMap<String, Heat>();
+      this.coolingRate = DEFAULT_COOLING_RATE;
+      this.round = 0;
+      this.time = 0;
+   }
+
+   /**
+    * Returns the gun cooling rate of the battle.
+    *
+    * @return the gun cooling rate.
+    */
+   public double getCoolingRate() {
+      return coolingRate;
+   }
+
+   /**
+    * Sets the gun cooling rate of the battle, such as from <code>getGunCoolingRate()</code>.
+    *
+    * @param coolingRate the gun cooling rate.
+    * @throws IllegalArgumentException if the cooling rate is not positive.
+    */
+   public void setCoolingRate(double coolingRate) {
+      if (!(coolingRate > 0.0)) {
+         throw new IllegalArgumentException("Cooling rate must be positive (" + coolingRate + ").");
+      }
+      this.coolingRate = coolingRate;
+   }
+
+   /**
+    * Returns the current round time of the tracker.
+    *
+    * @return the current time.
+    */
+   public long getTime() {
+      return time;
+   }
+
+   /**
+    * Returns the current match round of the tracker.
+    *
+    * @return the current round.
+    */
+   public int getRound() {
+      return round;
+   }
+
+   /**
+    * Advances the tracker to the specified time. Every robot is alive and every gun is hot again
+    * when a new round starts.
+    *
+    * @param time the current round time.
+    * @param round the current match round.
+    */
+   public void advance(long time, int round) {
+      if (round != this.round) {
+         this.round = round;
+         for (Heat heat : heats.values()) {
+            heat.start(round);
+         }
+      }
+      this.time = time;
+   }
+
+   /**
+    * Heats the gun of the robot with the specified name for a bullet fired at the specified time.
+    * A bullet fired before the last known bullet of the robot is ignored.
+    *
+    * @param name the name of the robot.
+    * @param round the match round of the bullet.
+    * @param time the round time the bullet was fired.
+    * @param power the power of the bullet.
+    */
+   public void fired(String name, int round, long time, double power) {
+      Heat heat = heat(name);
+      if (round > heat.round) {
+         heat.start(round);
+      } else if (round < heat.round) {
+         return;
+      }
+      if (time >= heat.time) {
+         heat.time = time;
+         heat.heat = Rules.getGunHeat(power);
+      }
+   }
+
+   /**
+    * Starts tracking the specified robot, which has the gun heat of the start of a round until it
+    * fires.
+    *
+    * @param robot the robot to track.
+    */
+   public void track(IRobot robot) {
+      heat(robot.getName()).dead = false;
+   }
+
+   /**
+    * Marks the robot with the specified name as dead until the next round, so it no longer holds
+    * back {@link #getNextFireTime()}.
+    *
+    * @param name the name of the robot.
+    */
+   public void died(String name) {
+      Heat heat = heats.get(name);
+      if (heat != null) {
+         heat.dead = true;
+      }
+   }
+
+   /**
+    * Stops tracking the robot with the specified name.
+    *
+    * @param name the name of the robot.
+    */
+   public void remove(String name) {
+      heats.remove(name);
+   }
+
+   /**
+    * Stops tracking every robot that is dead.
+    */
+   public void removeDead() {
+      for (Iterator<Heat> iter = heats.values().iterator(); iter.hasNext();) {
+         if (iter.next().dead) {
+            iter.remove();
+         }
+      }
+   }
+
+   /**
+    * Returns the number of ticks the specified gun heat takes to cool down.
+    *
+    * @param heat the gun heat.
+    * @return the number of ticks.
+    */
+   public long getCoolTime(double heat) {
+      return (long) Math.ceil(heat / coolingRate - TOLERANCE);
+   }
+
+   /**
+    * Returns the first round time the gun of the robot with the specified name could be cool in
+    * the specified round, according to the bullets heard so far. Unlike
+    * {@link #getNextFireTime(String)}, this may be before the current time.
+    *
+    * @param name the name of the robot.
+    * @param round the match round.
+    * @return the first time the gun could fire.
+    */
+   public long getReadyTime(String name, int round) {
+      Heat heat = heats.get(name);
+      if (heat == null || heat.round != round) {
+         return getCoolTime(START_GUN_HEAT);
+      }
+      return heat.time + getCoolTime(heat.heat);
+   }
+
+   /**
+    * Returns the first round time the gun of the robot with the specified name could be cool in
+    * the current round.
+    *
+    * @param name the name of the robot.
+    * @return the first time the gun could fire.
+    */
+   public long getReadyTime(String name) {
+      return getReadyTime(name, round);
+   }
+
+   /**
+    * Returns the gun heat of the robot with the specified name at the current time.
+    *
+    * @param name the name of the robot.
+    * @return the gun heat of the robot.
+    */
+   public double getHeat(String name) {
+      Heat heat = heats.get(name);
+      if (heat == null || heat.round != round) {
+         return Math.max(0.0, START_GUN_HEAT - coolingRate * time);
+      }
+      return Math.max(0.0, heat.heat - coolingRate * (time - heat.time));
+   }
+
+   /**
+    * Returns the first round time the robot with the specified name could fire. This is never
+    * before the current time.
+    *
+    * @param name the name of the robot.
+    * @return the next time the robot could fire.
+    */
+   public long getNextFireTime(String name) {
+      return Math.max(time, getReadyTime(name));
+   }
+
+   /**
+    * Returns the first round time any living tracked robot could fire, or
+    * {@link Long#MAX_VALUE} if there are none. This is never before the current time.
+    *
+    * @return the next time any robot could fire.
+    */
+   public long getNextFireTime() {
+      long next = Long.MAX_VALUE;
+      for (Map.Entry<String, Heat> entry : heats.entrySet()) {
+         if (!entry.getValue().dead) {
+            next = Math.min(next, getNextFireTime(entry.getKey()));
+         }
+      }
+      return next;
+   }
+
+   /**
+    * Returns if the robot with the specified name could fire at the current time.
+    *
+    * @param name the name of the robot.
+    * @return if the gun of the robot could be cool.
+    */
+   public boolean canFire(String name) {
+      return getReadyTime(name) <= time;
+   }
+
+   /**
+    * Returns if any living tracked robot could fire at the current time.
+    *
+    * @return if the gun of any robot could be cool.
+    */
+   public boolean canAnyFire() {
+      return getNextFireTime() <= time;
+   }
+
+   /**
+    * Forgets every robot.
+    */
+   public void clear() {
+      heats.clear();
+   }
+
+   /**
+    * Returns the heat of the robot with the specified name, tracking it if needed.
+    *
+    * @param name the name of the robot.
+    * @return the heat of the robot.
+    */
+   private Heat heat(String name) {
+      Heat heat = heats.get(name);
+      if (heat == null) {
+         heat = new Heat();
+         heat.start(round);
+         heats.put(name, heat);
+      }
+      return heat;
+   }
+
+   /**
+    * The gun heat of a single robot.
+    */
+   private static final class Heat {
+
+      /**
+       * The match round of the heat.
+       */
+      int round;
+
+      /**
+       * The round time of the heat.
+       */
+      long time;
+
+      /**
+       * The gun heat at the time.
+       */
+      double heat;
+
+      /**
+       * If the robot is dead.
+       */
+      boolean dead;
+
+      /**
+       * Starts the heat over for a new round.
+       *
+       * @param round the new round.
+       */
+      void start(int round) {
+         this.round = round;
+         this.time = 0;
+         this.heat = START_GUN_HEAT;
+         this.dead = false;
+      }
+   }
+}
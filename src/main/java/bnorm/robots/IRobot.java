@@ -3,8 +3,6 @@ package bnorm.robots;
 import java.util.ListIterator;
 import java.util.Set;
 
-import bnorm.events.RobotFiredSender;
-
 /**
  * Represents a Robocode robot. The basic representation of a robot is a map of
  * series. Each series is of robot snapshots representing the robot for a
@@ -17,7 +15,7 @@ import bnorm.events.RobotFiredSender;
  * @author Brian Norman (KID)
  * @version 1.2
  */
-public interface IRobot extends RobotFiredSender {
+public interface IRobot {
 
    /**
     * Returns the name of the robot.
@@ -106,6 +104,8 @@ public interface IRobot extends RobotFiredSender {
     * Returns an iterator of the robot for the specified match round and at the
     * specified time. If the exact time does not exist in the series, the
     * iterator is started where the value would be located in the series.
+    * Each step may create a new snapshot, so long scans should use
+    * {@link #getCursor(long, int)} instead.
     * 
     * @param time
     *           the time to start the iterator at.
@@ -115,6 +115,24 @@ public interface IRobot extends RobotFiredSender {
     */
    public ListIterator<IRobotSnapshot> getMovie(long time, int round);
 
+   /**
+    * Returns a cursor over the series of the specified match round, placed so
+    * that {@link IRobotCursor#next()} moves to the first snapshot at or after
+    * the specified time and {@link IRobotCursor#previous()} moves to the last
+    * snapshot before it. Unlike the iterators of {@link #getMovie(long, int)},
+    * which may create a new snapshot for every step, the cursor is one view
+    * that is moved through the series and reused by every step. See
+    * {@link IRobotCursor} for how it may be used.
+    * 
+    * @param time
+    *           the time to start the cursor at.
+    * @param round
+    *           the match round of the cursor.
+    * @return a cursor over the movie of the robot for the specified match
+    *         round.
+    */
+   public IRobotCursor getCursor(long time, int round);
+
    /**
     * Returns a set of all the match round values that are mapped to a series.
     * 
@@ -122,4 +140,13 @@ public interface IRobot extends RobotFiredSender {
     */
    public Set<Integer> getRounds();
 
+   /**
+    * Returns the pattern index of the movement of the robot. Every snapshot
+    * that is added after all earlier snapshots is added to the index, across
+    * all match rounds.
+    * 
+    * @return the pattern index of the robot.
+    */
+   public PatternIndex getPatterns();
+
 }
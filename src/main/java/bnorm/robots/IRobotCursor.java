@@ -0,0 +1,59 @@
+package bnorm.robots;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A movable view of the snapshots of one match round of a robot. The cursor is
+ * itself the snapshot it is viewing, and moving it changes its values in
+ * place, so walking through a movie with a cursor creates no objects. The
+ * cursor is reused by every move, so it must never be kept as a snapshot.
+ * Copy the values that are needed, or use {@link IRobot#getSnapshot(long, int)}
+ * for a snapshot that does not change.
+ * <p>
+ * The cursor moves like a {@link java.util.ListIterator}. It sits in the gap
+ * between two snapshots and views the snapshot it last moved over, so calling
+ * {@link #previous()} right after {@link #next()} views the same snapshot
+ * again. A new cursor from {@link IRobot#getCursor(long, int)} sits in the
+ * gap before the first snapshot at or after the time it is asked for, so
+ * {@link #next()} moves to that snapshot and {@link #previous()} moves to the
+ * last snapshot before it. The values of a new cursor may only be read after
+ * it has been moved.
+ * <p>
+ * A cursor is serialized as a copy of the snapshot it is viewing.
+ *
+ * @author Brian Norman
+ * @see IRobot#getCursor(long, int)
+ */
+public interface IRobotCursor extends IRobotSnapshot {
+
+   /**
+    * Returns true if there is a snapshot after the gap of the cursor.
+    *
+    * @return if there is a next snapshot.
+    */
+   public boolean hasNext();
+
+   /**
+    * Moves the cursor over the next snapshot and views it.
+    *
+    * @return the cursor.
+    * @throws NoSuchElementException if there is no next snapshot.
+    */
+   public IRobotCursor next();
+
+   /**
+    * Returns true if there is a snapshot before the gap of the cursor.
+    *
+    * @return if there is a previous snapshot.
+    */
+   public boolean hasPrevious();
+
+   /**
+    * Moves the cursor back over the previous snapshot and views it.
+    *
+    * @return the cursor.
+    * @throws NoSuchElementException if there is no previous snapshot.
+    */
+   public IRobotCursor previous();
+
+}
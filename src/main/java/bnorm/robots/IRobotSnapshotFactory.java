@@ -65,4 +65,29 @@ public interface IRobotSnapshotFactory {
     */
    public IRobotSnapshot create(IRobotSnapshot snapshot);
 
+   /**
+    * Returns a new snapshot with the specified information. This is used to
+    * rebuild snapshots that were sent between robots.
+    * 
+    * @param name
+    *           name of the robot.
+    * @param x
+    *           x coordinate of the robot.
+    * @param y
+    *           y coordinate of the robot.
+    * @param energy
+    *           energy of the robot.
+    * @param heading
+    *           heading of the robot.
+    * @param velocity
+    *           velocity of the robot.
+    * @param time
+    *           round time the information was retrieved.
+    * @param round
+    *           match round the information was retrieved.
+    * @return a new snapshot with the specified information.
+    */
+   public IRobotSnapshot create(String name, double x, double y, double energy, double heading, double velocity,
+         long time, int round);
+
 }
@@ -0,0 +1,449 @@
+package bnorm.robots;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import bnorm.base.Tank;
+import bnorm.utils.Utils;
+
+/**
+ * An index of the movement history of a robot for pattern matching. Each snapshot is turned into a
+ * symbol made from the velocity of the robot and how far it turned since the previous tick, and
+ * the symbols are added to a suffix automaton as the snapshots arrive. The automaton finds the
+ * longest earlier repeat of the most recent movement in constant time after each snapshot, and any
+ * other pattern in time proportional to its length, no matter how long the history is.
+ * <p>
+ * Snapshots that do not follow the previous snapshot by exactly one tick in the same round start a
+ * new run and get the {@link #GAP} symbol, and matches never cross a gap. Positions in the index
+ * count snapshots from the first snapshot added, across all rounds, and the snapshot at each
+ * position can be looked up to replay what the robot did after a match.
+ * <p>
+ * The index does not keep the snapshots that are added to it, only the round and time of each
+ * position in primitive arrays. Snapshots are looked up in the series of the robot the index
+ * belongs to, and a replay should use a cursor from
+ * {@link IRobot#getCursor(long, int)} at the time after the end of the match.
+ *
+ * @author Brian Norman
+ */
+public final class PatternIndex {
+
+   /**
+    * The number of velocity symbols, one per whole velocity.
+    */
+   public static final int VELOCITIES = 2 * (int) Tank.MAX_VELOCITY + 1;
+
+   /**
+    * The number of turn symbols, one per two degrees of turn.
+    */
+   public static final int TURNS = 11;
+
+   /**
+    * The number of movement symbols.
+    */
+   public static final int ALPHABET = VELOCITIES * TURNS;
+
+   /**
+    * The symbol of a snapshot that does not follow the previous snapshot.
+    */
+   public static final int GAP = ALPHABET;
+
+   /**
+    * The robot the index belongs to.
+    */
+   private final IRobot robot;
+
+   /**
+    * The symbol at each position.
+    */
+   private int[] symbols;
+
+   /**
+    * The match round of the snapshot at each position.
+    */
+   private int[] rounds;
+
+   /**
+    * The round time of the snapshot at each position.
+    */
+   private long[] times;
+
+   /**
+    * The heading of the snapshot at the last position.
+    */
+   private double heading;
+
+   /**
+    * The number of positions.
+    */
+   private int size;
+
+   /**
+    * The position of the most recent gap.
+    */
+   private int lastGap;
+
+   /**
+    * The length of the longest string in each state.
+    */
+   private int[] length;
+
+   /**
+    * The suffix link of each state.
+    */
+   private int[] link;
+
+   /**
+    * The end position of the first occurrence of the strings in each state.
+    */
+   private int[] firstEnd;
+
+   /**
+    * The first transition out of each state or <code>-1</code>.
+    */
+   private int[] head;
+
+   /**
+    * The number of states.
+    */
+   private int states;
+
+   /**
+    * The symbol of each transition.
+    */
+   private int[] edgeSymbol;
+
+   /**
+    * The state each transition goes to.
+    */
+   private int[] edgeTarget;
+
+   /**
+    * The next transition out of the same state or <code>-1</code>.
+    */
+   private int[] edgeNext;
+
+   /**
+    * The number of transitions.
+    */
+   private int edges;
+
+   /**
+    * The state of the whole history.
+    */
+   private int last;
+
+   /**
+    * Creates a new empty index of the specified robot.
+    *
+    * @param robot the robot whose snapshots are looked up.
+    * @throws NullPointerException if <code>robot</code> is null.
+    */
+   public PatternIndex(IRobot robot) {
+      this.robot = Objects.requireNonNull(robot, "IRobot must not be null.");
+      symbols = new int[1024];
+      rounds = new int[1024];
+      times = new long[1024];
+      length = new int[2048];
+      link = new int[2048];
+      firstEnd = new int[2048];
+      head = new int[2048];
+      edgeSymbol = new int[3072];
+      edgeTarget = new int[3072];
+      edgeNext = new int[3072];
+      clear();
+   }
+
+   /**
+    * Removes every snapshot from the index.
+    */
+   public void clear() {
+      size = 0;
+      lastGap = -1;
+      states = 0;
+      edges = 0;
+      last = newState(0, -1, -1);
+   }
+
+   /**
+    * Returns the symbol for a snapshot that follows the previous snapshot by one tick.
+    *
+    * @param previous the previous snapshot.
+    * @param snapshot the snapshot.
+    * @return the movement symbol.
+    */
+   public static int symbol(IRobotSnapshot previous, IRobotSnapshot snapshot) {
+      return symbol(previous.getHeading(), snapshot);
+   }
+
+   /**
+    * Returns the symbol for a snapshot that follows a snapshot with the specified heading by one
+    * tick.
+    *
+    * @param previous the heading of the previous snapshot.
+    * @param snapshot the snapshot.
+    * @return the movement symbol.
+    */
+   private static int symbol(double previous, IRobotSnapshot snapshot) {
+      int velocity = (int) Math.round(Utils.limit(-Tank.MAX_VELOCITY, snapshot.getVelocity(), Tank.MAX_VELOCITY));
+      double turn = Math.toDegrees(Utils.relative(snapshot.getHeading() - previous));
+      int half = TURNS / 2;
+      int turning = (int) Math.round(Utils.limit(-half, turn / 2.0, half));
+      return (velocity + (int) Tank.MAX_VELOCITY) * TURNS + turning + half;
+   }
+
+   /**
+    * Adds the next snapshot of the robot to the index.
+    *
+    * @param snapshot the snapshot.
+    * @throws NullPointerException if <code>snapshot</code> is null.
+    */
+   public void add(IRobotSnapshot snapshot) {
+      if (snapshot == null) {
+         throw new NullPointerException("IRobotSnapshot must not be null.");
+      }
+
+      int symbol;
+      if (size > 0 && rounds[size - 1] == snapshot.getRound() && times[size - 1] + 1 == snapshot.getTime()) {
+         symbol = symbol(heading, snapshot);
+      } else {
+         symbol = GAP;
+         lastGap = size;
+      }
+
+      if (size == symbols.length) {
+         symbols = Arrays.copyOf(symbols, size * 2);
+         rounds = Arrays.copyOf(rounds, size * 2);
+         times = Arrays.copyOf(times, size * 2);
+      }
+      symbols[size] = symbol;
+      rounds[size] = snapshot.getRound();
+      times[size] = snapshot.getTime();
+      heading = snapshot.getHeading();
+      extend(symbol, size);
+      size++;
+   }
+
+   /**
+    * Returns the number of snapshots in the index.
+    *
+    * @return the number of snapshots.
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Returns the snapshot at the specified position, looked up in the series of the robot. A new
+    * snapshot may be created for every call.
+    *
+    * @param position the position.
+    * @return the snapshot.
+    * @throws IndexOutOfBoundsException if the position is not in the index.
+    */
+   public IRobotSnapshot getSnapshot(int position) {
+      check(position);
+      return robot.getSnapshot(times[position], rounds[position]);
+   }
+
+   /**
+    * Returns the match round of the snapshot at the specified position.
+    *
+    * @param position the position.
+    * @return the match round.
+    * @throws IndexOutOfBoundsException if the position is not in the index.
+    */
+   public int getRound(int position) {
+      return rounds[check(position)];
+   }
+
+   /**
+    * Returns the round time of the snapshot at the specified position.
+    *
+    * @param position the position.
+    * @return the round time.
+    * @throws IndexOutOfBoundsException if the position is not in the index.
+    */
+   public long getTime(int position) {
+      return times[check(position)];
+   }
+
+   /**
+    * Returns the symbol at the specified position.
+    *
+    * @param position the position.
+    * @return the symbol.
+    * @throws IndexOutOfBoundsException if the position is not in the index.
+    */
+   public int getSymbol(int position) {
+      return symbols[check(position)];
+   }
+
+   /**
+    * Returns the length of the longest run of recent symbols that also happened earlier, without
+    * crossing a gap.
+    *
+    * @return the length of the longest match or <code>0</code> if there is none.
+    */
+   public int getMatchLength() {
+      int state = link[last];
+      if (state <= 0) {
+         return 0;
+      }
+      return Math.min(length[state], size - 1 - lastGap);
+   }
+
+   /**
+    * Returns the position where the earlier occurrence of the longest match ends. Replaying from the
+    * next position shows what the robot did after it last moved like it is moving now.
+    *
+    * @return the end of the earlier occurrence or <code>-1</code> if there is no match.
+    */
+   public int getMatchEnd() {
+      return getMatchLength() > 0 ? firstEnd[link[last]] : -1;
+   }
+
+   /**
+    * Finds the first occurrence of the specified pattern of symbols.
+    *
+    * @param pattern the symbols.
+    * @param offset the position of the first symbol of the pattern in the array.
+    * @param count the number of symbols in the pattern.
+    * @return the position where the first occurrence ends or <code>-1</code> if the pattern does
+    *         not occur.
+    */
+   public int find(int[] pattern, int offset, int count) {
+      int state = 0;
+      for (int i = 0; i < count; i++) {
+         state = transition(state, pattern[offset + i]);
+         if (state < 0) {
+            return -1;
+         }
+      }
+      return count > 0 ? firstEnd[state] : -1;
+   }
+
+   /**
+    * Adds a symbol to the end of the automaton.
+    *
+    * @param symbol the symbol.
+    * @param position the position of the symbol.
+    */
+   private void extend(int symbol, int position) {
+      int current = newState(length[last] + 1, -1, position);
+      int p = last;
+      while (p >= 0 && transition(p, symbol) < 0) {
+         addEdge(p, symbol, current);
+         p = link[p];
+      }
+
+      if (p < 0) {
+         link[current] = 0;
+      } else {
+         int q = transition(p, symbol);
+         if (length[p] + 1 == length[q]) {
+            link[current] = q;
+         } else {
+            int clone = newState(length[p] + 1, link[q], firstEnd[q]);
+            for (int e = head[q]; e >= 0; e = edgeNext[e]) {
+               addEdge(clone, edgeSymbol[e], edgeTarget[e]);
+            }
+            while (p >= 0 && transition(p, symbol) == q) {
+               setEdge(p, symbol, clone);
+               p = link[p];
+            }
+            link[q] = clone;
+            link[current] = clone;
+         }
+      }
+      last = current;
+   }
+
+   /**
+    * Creates a new state.
+    *
+    * @param len the length of the longest string in the state.
+    * @param suffix the suffix link of the state.
+    * @param end the end position of the first occurrence.
+    * @return the new state.
+    */
+   private int newState(int len, int suffix, int end) {
+      if (states == length.length) {
+         int capacity = states * 2;
+         length = Arrays.copyOf(length, capacity);
+         link = Arrays.copyOf(link, capacity);
+         firstEnd = Arrays.copyOf(firstEnd, capacity);
+         head = Arrays.copyOf(head, capacity);
+      }
+      length[states] = len;
+      link[states] = suffix;
+      firstEnd[states] = end;
+      head[states] = -1;
+      return states++;
+   }
+
+   /**
+    * Returns the state reached from a state by a symbol.
+    *
+    * @param state the state.
+    * @param symbol the symbol.
+    * @return the next state or <code>-1</code> if there is no transition.
+    */
+   private int transition(int state, int symbol) {
+      for (int e = head[state]; e >= 0; e = edgeNext[e]) {
+         if (edgeSymbol[e] == symbol) {
+            return edgeTarget[e];
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * Adds a transition out of a state.
+    *
+    * @param state the state.
+    * @param symbol the symbol of the transition.
+    * @param target the state the transition goes to.
+    */
+   private void addEdge(int state, int symbol, int target) {
+      if (edges == edgeSymbol.length) {
+         int capacity = edges * 2;
+         edgeSymbol = Arrays.copyOf(edgeSymbol, capacity);
+         edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+         edgeNext = Arrays.copyOf(edgeNext, capacity);
+      }
+      edgeSymbol[edges] = symbol;
+      edgeTarget[edges] = target;
+      edgeNext[edges] = head[state];
+      head[state] = edges++;
+   }
+
+   /**
+    * Redirects an existing transition out of a state.
+    *
+    * @param state the state.
+    * @param symbol the symbol of the transition.
+    * @param target the state the transition now goes to.
+    */
+   private void setEdge(int state, int symbol, int target) {
+      for (int e = head[state]; e >= 0; e = edgeNext[e]) {
+         if (edgeSymbol[e] == symbol) {
+            edgeTarget[e] = target;
+            return;
+         }
+      }
+   }
+
+   /**
+    * Checks that the specified position is in the index.
+    *
+    * @param position the position to check.
+    * @return the position.
+    * @throws IndexOutOfBoundsException if the position is not in the index.
+    */
+   private int check(int position) {
+      if (position < 0 || position >= size) {
+         throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+      }
+      return position;
+   }
+}
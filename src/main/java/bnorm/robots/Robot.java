@@ -1,15 +1,12 @@
 package bnorm.robots;
 
+import java.util.Collections;
 import java.util.Hashtable;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
-
-import bnorm.events.RobotFiredEvent;
-import bnorm.events.RobotFiredListener;
-import robocode.Rules;
+import java.util.TreeSet;
 
 /**
  * An abstract representation of a Robocode robot. Provides base functionality
@@ -21,6 +18,12 @@ import robocode.Rules;
  */
 class Robot implements IRobot {
 
+   /**
+    * The series of the rounds the robot has no snapshots in, which is never
+    * added to.
+    */
+   private static final TimeSeries EMPTY = new TimeSeries(0);
+
    /**
     * The name of the robot.
     */
@@ -29,12 +32,12 @@ class Robot implements IRobot {
    /**
     * The map of time series keyed by the match round.
     */
-   private Map<Integer, List<IRobotSnapshot>> rounds;
+   private Map<Integer, TimeSeries> rounds;
 
    /**
     * The round time series that was most recently added to.
     */
-   private List<IRobotSnapshot> movie;
+   private TimeSeries movie;
 
    /**
     * The most recent snapshot of the current match round. I.e., the last
@@ -43,9 +46,9 @@ class Robot implements IRobot {
    private IRobotSnapshot recent;
 
    /**
-    * All the listeners to {@link RobotFiredEvent}s.
+    * The pattern index of the snapshots that were added in order.
     */
-   private List<RobotFiredListener> robotFiredListeners;
+   private PatternIndex patterns;
 
    /**
     * Creates a new robot.
@@ -61,11 +64,10 @@ class Robot implements IRobot {
     */
    public Robot(String name) {
       this.name = name;
-      this.rounds = new Hashtable<Integer, List<IRobotSnapshot>>();
-      this.movie = new LinkedList<IRobotSnapshot>();
+      this.rounds = new Hashtable<Integer, TimeSeries>();
+      this.movie = new TimeSeries();
       this.recent = new RobotSnapshot();
-
-      this.robotFiredListeners = new LinkedList<RobotFiredListener>();
+      this.patterns = new PatternIndex(this);
    }
 
    /**
@@ -76,11 +78,13 @@ class Robot implements IRobot {
    protected Robot(IRobot robot) {
       this(robot.getName());
 
-      for (Integer i : robot.getRounds()) {
+      for (Integer i : new TreeSet<Integer>(robot.getRounds())) {
          ListIterator<IRobotSnapshot> movie = robot.getMovie(0, i);
-         rounds.put(i, this.movie = new LinkedList<IRobotSnapshot>());
+         rounds.put(i, this.movie = new TimeSeries());
          while (movie.hasNext()) {
-            this.movie.add(movie.next());
+            IRobotSnapshot snapshot = movie.next();
+            this.movie.add(snapshot);
+            patterns.add(snapshot);
          }
       }
 
@@ -114,29 +118,22 @@ class Robot implements IRobot {
 
       movie = rounds.get(snapshot.getRound());
       if (movie == null) {
-         rounds.put(snapshot.getRound(), movie = new LinkedList<IRobotSnapshot>());
+         rounds.put(snapshot.getRound(), movie = new TimeSeries());
       }
 
-      int index = getIndex(movie, snapshot.getTime());
-      if (index >= 0 && movie.get(index).getTime() == snapshot.getTime()) {
+      int index = movie.floorIndex(snapshot.getTime());
+      if (index >= 0 && movie.getTime(index) == snapshot.getTime()) {
          return false;
       }
 
       movie.add(index + 1, snapshot);
-      recent = movie.get(movie.size() - 1);
-
-      // Did the robot fire a bullet?
-      if (index > 0) {
-         IRobotSnapshot prev = movie.get(index);
-         double timeDiff = snapshot.getTime() - prev.getTime();
-         double energyDiff = snapshot.getEnergy() - prev.getEnergy();
-         double velocityDiff = snapshot.getVelocity() - prev.getVelocity();
-         if (timeDiff == 1 && energyDiff <= -Rules.MIN_BULLET_POWER && energyDiff >= -Rules.MAX_BULLET_POWER
-                 && velocityDiff >= -Rules.DECELERATION) {
-            // is it ramming someone?
-            // has the inactive timer expired
-            notify(new RobotFiredEvent(prev, Math.abs(energyDiff)));
+      if (index + 2 == movie.size()) {
+         recent = snapshot;
+         if (isNewest(snapshot)) {
+            patterns.add(snapshot);
          }
+      } else {
+         recent = movie.get(movie.size() - 1);
       }
 
       return true;
@@ -214,30 +211,48 @@ class Robot implements IRobot {
       return getMovie(rounds.get(round), time);
    }
 
+   /**
+    * {@inheritDoc}
+    *
+    * @throws IllegalArgumentException if <code>time</code> is less than zero
+    * or if <code>round</code> is less than zero.
+    */
    @Override
-   public Set<Integer> getRounds() {
-      return rounds.keySet();
+   public IRobotCursor getCursor(long time, int round) {
+      if (time < 0) {
+         throw new IllegalArgumentException("Time must not be less than zero (" + time + ").");
+      } else if (round < 0) {
+         throw new IllegalArgumentException("Round must not be less than zero (" + round + ").");
+      }
+
+      TimeSeries series = rounds.get(round);
+      return (series == null ? EMPTY : series).cursorFrom(time);
    }
 
    @Override
-   public void addRobotFiredListener(RobotFiredListener listener) {
-      robotFiredListeners.add(listener);
+   public Set<Integer> getRounds() {
+      return rounds.keySet();
    }
 
    @Override
-   public void removeRobotFiredListener(RobotFiredListener listener) {
-      robotFiredListeners.remove(listener);
+   public PatternIndex getPatterns() {
+      return patterns;
    }
 
    /**
-    * Notifies all the RobotFiredEvent listeners.
+    * Returns true if the specified snapshot is after every snapshot in the
+    * pattern index.
     *
-    * @param event the RobotFiredEvent.
+    * @param snapshot the snapshot.
+    * @return if the snapshot is the newest.
     */
-   protected void notify(RobotFiredEvent event) {
-      for (RobotFiredListener l : robotFiredListeners) {
-         l.handleRobotFired(event);
+   private boolean isNewest(IRobotSnapshot snapshot) {
+      if (patterns.size() == 0) {
+         return true;
       }
+      int last = patterns.size() - 1;
+      return snapshot.getRound() > patterns.getRound(last)
+              || (snapshot.getRound() == patterns.getRound(last) && snapshot.getTime() > patterns.getTime(last));
    }
 
    /**
@@ -246,6 +261,8 @@ class Robot implements IRobot {
     * does not appear in the series, then the index of the greatest time that
     * is still less than the specified time is return.
     * <p>
+    * The series is binary searched, so it should support fast random access.
+    * <p>
     * Properties:<br>
     * 1) If <code>getIndex(movie,time=t)</code> returns a snapshot for which
     * the time is equal to <code>t</code>, then the snapshot at index
@@ -270,25 +287,21 @@ class Robot implements IRobot {
          return -1;
       }
 
-      int index = movie.size() - 1;
-
-      long headDiff = Math.abs(time - movie.get(0).getTime());
-      long tailDiff = Math.abs(time - movie.get(movie.size() - 1).getTime());
+      if (movie instanceof TimeSeries) {
+         return ((TimeSeries) movie).floorIndex(time);
+      }
 
-      if (headDiff < tailDiff) {
-         index = -1;
-         ListIterator<? extends IRobotSnapshot> iter = movie.listIterator();
-         while (iter.hasNext() && iter.next().getTime() <= time) {
-            index++;
-         }
-      } else {
-         ListIterator<? extends IRobotSnapshot> iter = movie.listIterator(movie.size());
-         while (iter.hasPrevious() && iter.previous().getTime() > time) {
-            index--;
+      int low = -1;
+      int high = movie.size() - 1;
+      while (low < high) {
+         int mid = (low + high + 1) >>> 1;
+         if (movie.get(mid).getTime() <= time) {
+            low = mid;
+         } else {
+            high = mid - 1;
          }
       }
-
-      return index;
+      return low;
    }
 
    /**
@@ -308,7 +321,7 @@ class Robot implements IRobot {
       if (time < 0) {
          throw new IllegalArgumentException("Time must not be less than zero (" + time + ").");
       } else if (movie == null) {
-         return new LinkedList<IRobotSnapshot>().listIterator();
+         return Collections.<IRobotSnapshot>emptyListIterator();
       }
 
       if (time == 0) {
@@ -49,10 +49,9 @@ public class RobotSnapshotFactory implements IRobotSnapshotFactory {
                + robot.getTime() + ").");
       }
 
-      double x = Utils.projectX(robot.getX(), Math.toRadians(robot.getHeading()) + event.getBearingRadians(),
-            event.getDistance());
-      double y = Utils.projectY(robot.getY(), Math.toRadians(robot.getHeading()) + event.getBearingRadians(),
-            event.getDistance());
+      double angle = Math.toRadians(robot.getHeading()) + event.getBearingRadians();
+      double x = Utils.projectX(robot.getX(), angle, event.getDistance());
+      double y = Utils.projectY(robot.getY(), angle, event.getDistance());
       return new RobotSnapshot(event.getName(), x, y, event.getEnergy(), event.getHeadingRadians(),
             event.getVelocity(), event.getTime(), robot.getRoundNum());
    }
@@ -120,4 +119,20 @@ public class RobotSnapshotFactory implements IRobotSnapshotFactory {
       return new RobotSnapshot(snapshot);
    }
 
+   /**
+    * {@inheritDoc}
+    * 
+    * @throws NullPointerException
+    *            if <code>name</code> is null.
+    */
+   @Override
+   public IRobotSnapshot create(String name, double x, double y, double energy, double heading, double velocity,
+         long time, int round) {
+      if (name == null) {
+         throw new NullPointerException("Name must not be null.");
+      }
+
+      return new RobotSnapshot(name, x, y, energy, heading, velocity, time, round);
+   }
+
 }
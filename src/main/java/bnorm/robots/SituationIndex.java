@@ -0,0 +1,393 @@
+package bnorm.robots;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+import bnorm.utils.IPersistent;
+import bnorm.utils.KdTree;
+import bnorm.utils.Trig;
+import bnorm.virtual.Points;
+
+/**
+ * An index of the situations an enemy robot has been seen in, for finding the past situations
+ * that are most like the current one. Each situation is described by a vector of
+ * {@link Feature}s computed from our snapshot and the snapshot of the enemy at the same tick, and
+ * the index stores the snapshot of the enemy with it so a gun can replay what the enemy did next.
+ * <p>
+ * An index is meant to hold the history of a single enemy across all rounds of a battle and to be
+ * fed each snapshot of the enemy, in order, as it is scanned. It holds at most a fixed number of
+ * situations and forgets the oldest when it is full. Features are compared with a weighted squared
+ * distance, so the weights should also scale the features to similar ranges.
+ * <p>
+ * The most recent situations can be saved between battles, up to the save limit so the saved form
+ * stays small. Each situation is written as its features and the position, heading, velocity,
+ * energy and time of the enemy, all as <code>float</code>s except the time, after the features of
+ * the index. Saved situations can only be read back into an index with the same features. The
+ * movie of the enemy is not saved, so a restored snapshot has a round of <code>-1</code> and can
+ * not be replayed from, but it still tells where the enemy was and how it was moving.
+ *
+ * @author Brian Norman
+ */
+public final class SituationIndex implements IPersistent {
+
+   /**
+    * The default number of most recent situations that are saved.
+    */
+   public static final int DEFAULT_SAVE_LIMIT = 250;
+
+   /**
+    * The features that can describe a situation.
+    */
+   public enum Feature {
+
+      /**
+       * The distance between us and the enemy.
+       */
+      DISTANCE,
+
+      /**
+       * The speed of the enemy.
+       */
+      VELOCITY,
+
+      /**
+       * The change in the speed of the enemy since the previous snapshot.
+       */
+      ACCELERATION,
+
+      /**
+       * The velocity of the enemy perpendicular to the line from us to the enemy. Positive is
+       * clockwise around us.
+       */
+      LATERAL_VELOCITY,
+
+      /**
+       * The velocity of the enemy towards us.
+       */
+      ADVANCING_VELOCITY,
+
+      /**
+       * The distance from the enemy to the nearest wall.
+       */
+      WALL_DISTANCE,
+
+      /**
+       * The number of ticks since the enemy last slowed down.
+       */
+      TIME_SINCE_DECELERATION
+   }
+
+   /**
+    * The width of the battlefield.
+    */
+   private final double width;
+
+   /**
+    * The height of the battlefield.
+    */
+   private final double height;
+
+   /**
+    * The features of each situation.
+    */
+   private final Feature[] features;
+
+   /**
+    * The situations.
+    */
+   private final KdTree<IRobotSnapshot> tree;
+
+   /**
+    * The scratch vector of features.
+    */
+   private final double[] point;
+
+   /**
+    * The weight of each feature.
+    */
+   private double[] weights;
+
+   /**
+    * The number of most recent situations that are saved.
+    */
+   private int saveLimit;
+
+   /**
+    * The most recently added snapshot of the enemy.
+    */
+   private IRobotSnapshot last;
+
+   /**
+    * The time the enemy last slowed down as of the most recently added snapshot.
+    */
+   private long decelerationTime;
+
+   /**
+    * The change in speed of the enemy at the most recently added snapshot.
+    */
+   private double acceleration;
+
+   /**
+    * Creates a new empty index.
+    *
+    * @param width the width of the battlefield.
+    * @param height the height of the battlefield.
+    * @param capacity the maximum number of situations to hold.
+    * @param features the features of each situation.
+    * @throws IllegalArgumentException if there are no features or <code>capacity</code> is not
+    *            positive.
+    */
+   public SituationIndex(double width, double height, int capacity, Feature... features) {
+      if (features.length == 0) {
+         throw new IllegalArgumentException("Index must have at least one feature.");
+      }
+      this.width = width;
+      this.height = height;
+      this.features = features.clone();
+      this.tree = new KdTree<IRobotSnapshot>(features.length, capacity);
+      this.point = new double[features.length];
+      this.saveLimit = DEFAULT_SAVE_LIMIT;
+   }
+
+   /**
+    * Sets the number of most recent situations that are saved.
+    *
+    * @param saveLimit the number of situations to save.
+    * @throws IllegalArgumentException if the limit is negative.
+    */
+   public void setSaveLimit(int saveLimit) {
+      if (saveLimit < 0) {
+         throw new IllegalArgumentException("Save limit must not be negative (" + saveLimit + ").");
+      }
+      this.saveLimit = saveLimit;
+   }
+
+   /**
+    * Sets the weight of each feature, in the order the features were given to the constructor.
+    *
+    * @param weights the weights or <code>null</code> to weight all features equally.
+    * @throws IllegalArgumentException if there is not one weight per feature.
+    */
+   public void setWeights(double[] weights) {
+      if (weights != null && weights.length != features.length) {
+         throw new IllegalArgumentException(
+                 "Must have one weight per feature (" + weights.length + " != " + features.length + ").");
+      }
+      this.weights = weights == null ? null : weights.clone();
+   }
+
+   /**
+    * Returns the number of situations in the index.
+    *
+    * @return the number of situations.
+    */
+   public int size() {
+      return tree.size();
+   }
+
+   /**
+    * Adds the situation of the specified snapshots to the index.
+    *
+    * @param self our snapshot.
+    * @param enemy the snapshot of the enemy at the same time.
+    * @throws NullPointerException if either snapshot is null.
+    */
+   public void add(IRobotSnapshot self, IRobotSnapshot enemy) {
+      Objects.requireNonNull(self, "IRobotSnapshot must not be null.");
+      Objects.requireNonNull(enemy, "IRobotSnapshot must not be null.");
+
+      getFeatures(self, enemy, point);
+      tree.add(point, enemy);
+
+      acceleration = getAcceleration(enemy);
+      decelerationTime = getDecelerationTime(enemy);
+      last = enemy;
+   }
+
+   /**
+    * Finds the past situations most like the situation of the specified snapshots. The snapshots of
+    * the enemy in those situations are added to the result list from most to least alike.
+    *
+    * @param self our snapshot.
+    * @param enemy the snapshot of the enemy at the same time.
+    * @param k the maximum number of situations to find.
+    * @param result the list to add the snapshots to.
+    * @return the number of situations found.
+    * @throws NullPointerException if either snapshot is null.
+    */
+   public int nearest(IRobotSnapshot self, IRobotSnapshot enemy, int k, List<? super IRobotSnapshot> result) {
+      Objects.requireNonNull(self, "IRobotSnapshot must not be null.");
+      Objects.requireNonNull(enemy, "IRobotSnapshot must not be null.");
+
+      getFeatures(self, enemy, point);
+      return tree.nearest(point, weights, k, result);
+   }
+
+   @Override
+   public void write(DataOutput out) throws IOException {
+      out.writeInt(features.length);
+      for (Feature feature : features) {
+         out.writeUTF(feature.name());
+      }
+
+      int count = Math.min(tree.size(), saveLimit);
+      int first = tree.size() - count;
+      out.writeUTF(count > 0 ? tree.get(first, point).getName() : "");
+      out.writeInt(count);
+      for (int i = first; i < tree.size(); i++) {
+         IRobotSnapshot enemy = tree.get(i, point);
+         for (double value : point) {
+            out.writeFloat((float) value);
+         }
+         out.writeFloat((float) enemy.getX());
+         out.writeFloat((float) enemy.getY());
+         out.writeFloat((float) enemy.getHeading());
+         out.writeFloat((float) enemy.getVelocity());
+         out.writeFloat((float) enemy.getEnergy());
+         out.writeInt((int) enemy.getTime());
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    * <p>
+    * The saved situations replace every situation in the index, and the index starts over as if
+    * no snapshot of the enemy had been added yet.
+    */
+   @Override
+   public void read(DataInput in) throws IOException {
+      int savedFeatures = in.readInt();
+      if (savedFeatures != features.length) {
+         throw new IOException("Saved situations have different features (" + savedFeatures + " features).");
+      }
+      for (Feature feature : features) {
+         String saved = in.readUTF();
+         if (!feature.name().equals(saved)) {
+            throw new IOException("Saved situations have different features (" + saved + " != " + feature + ").");
+         }
+      }
+
+      String name = in.readUTF();
+      int count = in.readInt();
+      if (count < 0) {
+         throw new IOException("Saved situations have a negative count (" + count + ").");
+      }
+      float[] values = new float[count * features.length];
+      IRobotSnapshot[] enemies = new IRobotSnapshot[count];
+      for (int i = 0; i < count; i++) {
+         for (int f = 0; f < features.length; f++) {
+            values[i * features.length + f] = in.readFloat();
+         }
+         double x = in.readFloat();
+         double y = in.readFloat();
+         double heading = in.readFloat();
+         double velocity = in.readFloat();
+         double energy = in.readFloat();
+         enemies[i] = new RobotSnapshot(name, x, y, energy, heading, velocity, in.readInt(), -1);
+      }
+
+      tree.clear();
+      for (int i = 0; i < count; i++) {
+         for (int f = 0; f < features.length; f++) {
+            point[f] = values[i * features.length + f];
+         }
+         tree.add(point, enemies[i]);
+      }
+      last = null;
+      acceleration = 0.0;
+      decelerationTime = 0;
+   }
+
+   /**
+    * Computes the features of the situation of the specified snapshots.
+    *
+    * @param self our snapshot.
+    * @param enemy the snapshot of the enemy at the same time.
+    * @param out the array to write one value per feature to.
+    */
+   public void getFeatures(IRobotSnapshot self, IRobotSnapshot enemy, double[] out) {
+      double bearing = Trig.angle(enemy.getX() - self.getX(), enemy.getY() - self.getY());
+      double relative = enemy.getHeading() - bearing;
+      for (int i = 0; i < features.length; i++) {
+         switch (features[i]) {
+            case DISTANCE:
+               out[i] = Points.dist(self, enemy);
+               break;
+            case VELOCITY:
+               out[i] = Math.abs(enemy.getVelocity());
+               break;
+            case ACCELERATION:
+               out[i] = getAcceleration(enemy);
+               break;
+            case LATERAL_VELOCITY:
+               out[i] = enemy.getVelocity() * Trig.sin(relative);
+               break;
+            case ADVANCING_VELOCITY:
+               out[i] = -enemy.getVelocity() * Trig.cos(relative);
+               break;
+            case WALL_DISTANCE:
+               out[i] = Math.min(Math.min(enemy.getX(), width - enemy.getX()),
+                                 Math.min(enemy.getY(), height - enemy.getY()));
+               break;
+            case TIME_SINCE_DECELERATION:
+               out[i] = enemy.getTime() - getDecelerationTime(enemy);
+               break;
+         }
+      }
+   }
+
+   /**
+    * Returns true if the specified snapshot is the first snapshot after the most recently added
+    * snapshot in the same round.
+    *
+    * @param enemy the snapshot of the enemy.
+    * @return if the snapshot follows the most recently added snapshot.
+    */
+   private boolean isNext(IRobotSnapshot enemy) {
+      return last != null && last.getRound() == enemy.getRound() && last.getTime() < enemy.getTime();
+   }
+
+   /**
+    * Returns true if the specified snapshot is at the same time as the most recently added
+    * snapshot in the same round.
+    *
+    * @param enemy the snapshot of the enemy.
+    * @return if the snapshot matches the most recently added snapshot.
+    */
+   private boolean isLast(IRobotSnapshot enemy) {
+      return last != null && last.getRound() == enemy.getRound() && last.getTime() == enemy.getTime();
+   }
+
+   /**
+    * Returns the change in speed of the enemy as of the specified snapshot.
+    *
+    * @param enemy the snapshot of the enemy.
+    * @return the change in speed.
+    */
+   private double getAcceleration(IRobotSnapshot enemy) {
+      if (isNext(enemy)) {
+         return Math.abs(enemy.getVelocity()) - Math.abs(last.getVelocity());
+      } else if (isLast(enemy)) {
+         return acceleration;
+      }
+      return 0.0;
+   }
+
+   /**
+    * Returns the time the enemy last slowed down as of the specified snapshot.
+    *
+    * @param enemy the snapshot of the enemy.
+    * @return the time of the last deceleration.
+    */
+   private long getDecelerationTime(IRobotSnapshot enemy) {
+      if (isNext(enemy)) {
+         return Math.abs(enemy.getVelocity()) < Math.abs(last.getVelocity()) ? enemy.getTime() : decelerationTime;
+      } else if (isLast(enemy)) {
+         return decelerationTime;
+      }
+      return enemy.getTime();
+   }
+}
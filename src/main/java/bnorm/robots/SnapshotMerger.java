@@ -0,0 +1,236 @@
+package bnorm.robots;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Merges the snapshots of one robot that arrive from more than one source, such as the robot's own
+ * scans and the scans relayed by teammates, into the history of an {@link IRobot}.
+ * <p>
+ * Relayed snapshots arrive at least a turn late and often repeat a tick that was also scanned.
+ * Instead of adding each snapshot as it arrives, the merger holds them in a small reorder window
+ * sorted by time. When there are two snapshots of the same tick, an own scan replaces a relayed
+ * one, since it is exact and never older, and otherwise the first one is kept. A tick is final
+ * once it is more than the window behind the newest tick, and final ticks are added to the robot
+ * in order in one pass, so every snapshot is appended to the end of its history. A snapshot that
+ * arrives after its tick is final, such as a relayed scan that is older than the robot's latest
+ * own scan, is inserted into the history of the robot instead, and is only dropped if the history
+ * already has a snapshot of its tick.
+ * <p>
+ * Since every snapshot is appended, a {@link bnorm.manage.FireDetector} only ever compares a tick
+ * with the final tick before it. A window of <code>0</code> adds every snapshot the turn it arrives.
+ *
+ * @author Brian Norman
+ */
+public final class SnapshotMerger {
+
+   /**
+    * The robot the snapshots are added to.
+    */
+   private final IRobot robot;
+
+   /**
+    * The number of ticks a snapshot is held before it is final.
+    */
+   private int window;
+
+   /**
+    * The held snapshots sorted by round and time.
+    */
+   private IRobotSnapshot[] pending;
+
+   /**
+    * If each held snapshot is one of the robot's own scans.
+    */
+   private boolean[] own;
+
+   /**
+    * The number of held snapshots.
+    */
+   private int size;
+
+   /**
+    * The number of snapshots that were dropped because the robot already had a snapshot of their
+    * tick or a better snapshot of the tick was held.
+    */
+   private int dropped;
+
+   /**
+    * Creates a new merger for the specified robot.
+    *
+    * @param robot the robot to add the snapshots to.
+    * @param window the number of ticks a snapshot is held before it is final.
+    * @throws NullPointerException if <code>robot</code> is null.
+    * @throws IllegalArgumentException if the window is negative.
+    */
+   public SnapshotMerger(IRobot robot, int window) {
+      this.robot = Objects.requireNonNull(robot, "IRobot must not be null.");
+      setWindow(window);
+      this.pending = new IRobotSnapshot[4];
+      this.own = new boolean[4];
+      this.size = 0;
+      this.dropped = 0;
+   }
+
+   /**
+    * Returns the robot the snapshots are added to.
+    *
+    * @return the robot.
+    */
+   public IRobot getRobot() {
+      return robot;
+   }
+
+   /**
+    * Returns the number of ticks a snapshot is held before it is final.
+    *
+    * @return the window.
+    */
+   public int getWindow() {
+      return window;
+   }
+
+   /**
+    * Sets the number of ticks a snapshot is held before it is final. Held snapshots that are final
+    * under the new window are added at the next call to {@link #advance(long, int)}.
+    *
+    * @param window the number of ticks a snapshot is held before it is final.
+    * @throws IllegalArgumentException if the window is negative.
+    */
+   public void setWindow(int window) {
+      if (window < 0) {
+         throw new IllegalArgumentException("Window must not be negative (" + window + ").");
+      }
+      this.window = window;
+   }
+
+   /**
+    * Returns the number of snapshots that are held.
+    *
+    * @return the number of held snapshots.
+    */
+   public int getPending() {
+      return size;
+   }
+
+   /**
+    * Returns the number of snapshots that were dropped.
+    *
+    * @return the number of dropped snapshots.
+    */
+   public int getDropped() {
+      return dropped;
+   }
+
+   /**
+    * Holds the specified snapshot until its tick is final. If the robot already has a later tick
+    * of the same round, the snapshot is inserted into the history of the robot right away.
+    *
+    * @param snapshot the snapshot to hold.
+    * @param scanned if the snapshot is one of the robot's own scans instead of a relayed one.
+    * @return if the snapshot is held or was inserted.
+    * @throws NullPointerException if <code>snapshot</code> is null.
+    */
+   public boolean offer(IRobotSnapshot snapshot, boolean scanned) {
+      Objects.requireNonNull(snapshot, "IRobotSnapshot must not be null.");
+      IRobotSnapshot last = robot.getSnapshot();
+      if (compare(snapshot, last) <= 0) {
+         if (snapshot.getRound() == last.getRound() && snapshot.getTime() < last.getTime() && robot.add(snapshot)) {
+            return true;
+         }
+         dropped++;
+         return false;
+      }
+
+      int i = size;
+      while (i > 0 && compare(snapshot, pending[i - 1]) < 0) {
+         i--;
+      }
+      if (i > 0 && compare(snapshot, pending[i - 1]) == 0) {
+         dropped++;
+         if (scanned && !own[i - 1]) {
+            pending[i - 1] = snapshot;
+            own[i - 1] = true;
+            return true;
+         }
+         return false;
+      }
+
+      if (size == pending.length) {
+         pending = Arrays.copyOf(pending, size * 2);
+         own = Arrays.copyOf(own, size * 2);
+      }
+      System.arraycopy(pending, i, pending, i + 1, size - i);
+      System.arraycopy(own, i, own, i + 1, size - i);
+      pending[i] = snapshot;
+      own[i] = scanned;
+      size++;
+      return true;
+   }
+
+   /**
+    * Adds every held snapshot whose tick is final to the robot. The ticks of earlier rounds are
+    * final, and so are the ticks of the specified round that are more than the window behind the
+    * specified time or the newest held tick, whichever is later.
+    *
+    * @param time the current round time.
+    * @param round the current match round.
+    * @return the number of snapshots that were added.
+    */
+   public int advance(long time, int round) {
+      long newest = time;
+      if (size > 0 && pending[size - 1].getRound() == round) {
+         newest = Math.max(newest, pending[size - 1].getTime());
+      }
+      long horizon = newest - window;
+
+      int count = 0;
+      while (count < size
+            && (pending[count].getRound() < round
+                || (pending[count].getRound() == round && pending[count].getTime() <= horizon))) {
+         count++;
+      }
+      return finish(count);
+   }
+
+   /**
+    * Adds every held snapshot to the robot, such as when the robot dies or the round ends.
+    *
+    * @return the number of snapshots that were added.
+    */
+   public int flush() {
+      return finish(size);
+   }
+
+   /**
+    * Adds the specified number of the oldest held snapshots to the robot.
+    *
+    * @param count the number of snapshots to add.
+    * @return the number of snapshots that were added.
+    */
+   private int finish(int count) {
+      for (int i = 0; i < count; i++) {
+         robot.add(pending[i]);
+      }
+      System.arraycopy(pending, count, pending, 0, size - count);
+      System.arraycopy(own, count, own, 0, size - count);
+      Arrays.fill(pending, size - count, size, null);
+      size -= count;
+      return count;
+   }
+
+   /**
+    * Compares two snapshots by round and then by time.
+    *
+    * @param a the first snapshot.
+    * @param b the second snapshot.
+    * @return a negative number, zero, or a positive number if the first snapshot is before, at, or
+    *         after the second snapshot.
+    */
+   private static int compare(IRobotSnapshot a, IRobotSnapshot b) {
+      if (a.getRound() != b.getRound()) {
+         return a.getRound() < b.getRound() ? -1 : 1;
+      }
+      return Long.compare(a.getTime(), b.getTime());
+   }
+}
@@ -0,0 +1,454 @@
+package bnorm.robots;
+
+import java.io.NotSerializableException;
+import java.io.ObjectStreamException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import bnorm.utils.Utils;
+
+/**
+ * A time series of robot snapshots for a single match round. The snapshots
+ * are kept sorted by round time. Appending a snapshot that is newer than every
+ * other snapshot in the series is amortized constant time and looking up a
+ * round time is a binary search.
+ * <p>
+ * The series does not keep the snapshot objects that are added to it. Each
+ * snapshot is broken up into primitive columns, one array per field, so a
+ * long series is a handful of arrays instead of one object per tick. The name
+ * and round are shared by every snapshot of the series and are only stored
+ * once. {@link #get(int)} creates a new snapshot from the columns each time it
+ * is called, and so does every step of an iterator over the series. Code that
+ * scans through a lot of the series should use a {@link Cursor} instead, which
+ * reads the columns in place and is handed out through
+ * {@link IRobot#getCursor(long, int)}.
+ * <p>
+ * The series does not sort snapshots itself. It is up to the caller to insert
+ * each snapshot at the index returned by {@link #floorIndex(long)} plus one.
+ * Snapshots can only be added to the series, never replaced or removed.
+ *
+ * @author Brian Norman
+ */
+final class TimeSeries extends AbstractList<IRobotSnapshot> implements RandomAccess {
+
+   /**
+    * The initial capacity of a series when none is specified. A little more
+    * than a second of round time.
+    */
+   private static final int DEFAULT_CAPACITY = 64;
+
+   /**
+    * The name of the robot of every snapshot in the series.
+    */
+   private String name;
+
+   /**
+    * The match round of every snapshot in the series.
+    */
+   private int round;
+
+   /**
+    * The <code>x</code> coordinates of the snapshots.
+    */
+   private double[] x;
+
+   /**
+    * The <code>y</code> coordinates of the snapshots.
+    */
+   private double[] y;
+
+   /**
+    * The headings of the snapshots.
+    */
+   private double[] heading;
+
+   /**
+    * The velocities of the snapshots.
+    */
+   private double[] velocity;
+
+   /**
+    * The energies of the snapshots.
+    */
+   private double[] energy;
+
+   /**
+    * The round times of the snapshots.
+    */
+   private long[] time;
+
+   /**
+    * The number of snapshots in the series.
+    */
+   private int size;
+
+   /**
+    * Creates a new empty series with the default capacity.
+    */
+   TimeSeries() {
+      this(DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Creates a new empty series with the specified initial capacity.
+    *
+    * @param capacity the initial capacity of the series.
+    * @throws IllegalArgumentException if <code>capacity</code> is less than
+    * zero.
+    */
+   TimeSeries(int capacity) {
+      if (capacity < 0) {
+         throw new IllegalArgumentException("Capacity must not be less than zero (" + capacity + ").");
+      }
+
+      this.name = "";
+      this.round = -1;
+      this.x = new double[capacity];
+      this.y = new double[capacity];
+      this.heading = new double[capacity];
+      this.velocity = new double[capacity];
+      this.energy = new double[capacity];
+      this.time = new long[capacity];
+      this.size = 0;
+   }
+
+   /**
+    * Returns a new snapshot built from the columns at the specified index.
+    *
+    * @param index the index of the snapshot.
+    * @return a new snapshot.
+    * @throws IndexOutOfBoundsException if <code>index</code> is out of range.
+    */
+   @Override
+   public IRobotSnapshot get(int index) {
+      checkIndex(index, size - 1);
+      return new RobotSnapshot(name, x[index], y[index], energy[index], heading[index], velocity[index], time[index],
+                               round);
+   }
+
+   @Override
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Inserts the specified snapshot at the specified index. Inserting at the
+    * end of the series is amortized constant time. The first snapshot added
+    * to the series decides the name and round of the series.
+    *
+    * @param index the index at which to insert the snapshot.
+    * @param snapshot the snapshot to insert.
+    * @throws NullPointerException if <code>snapshot</code> is null.
+    * @throws IllegalArgumentException if the name or round of
+    * <code>snapshot</code> does not match the series.
+    * @throws IndexOutOfBoundsException if <code>index</code> is less than zero
+    * or greater than the size of the series.
+    */
+   @Override
+   public void add(int index, IRobotSnapshot snapshot) {
+      if (snapshot == null) {
+         throw new NullPointerException("IRobotSnapshot must not be null.");
+      } else if (size == 0) {
+         name = snapshot.getName();
+         round = snapshot.getRound();
+      } else if (!name.equals(snapshot.getName()) || round != snapshot.getRound()) {
+         throw new IllegalArgumentException(
+                 "Name and round of snapshot must match the series (" + name + ":" + round + " != "
+                         + snapshot.getName() + ":" + snapshot.getRound() + ").");
+      }
+      checkIndex(index, size);
+
+      if (size == time.length) {
+         grow(Math.max(DEFAULT_CAPACITY, size + (size >> 1)));
+      }
+
+      if (index < size) {
+         int length = size - index;
+         System.arraycopy(x, index, x, index + 1, length);
+         System.arraycopy(y, index, y, index + 1, length);
+         System.arraycopy(heading, index, heading, index + 1, length);
+         System.arraycopy(velocity, index, velocity, index + 1, length);
+         System.arraycopy(energy, index, energy, index + 1, length);
+         System.arraycopy(time, index, time, index + 1, length);
+      }
+
+      x[index] = snapshot.getX();
+      y[index] = snapshot.getY();
+      heading[index] = snapshot.getHeading();
+      velocity[index] = snapshot.getVelocity();
+      energy[index] = snapshot.getEnergy();
+      time[index] = snapshot.getTime();
+      size++;
+      modCount++;
+   }
+
+   /**
+    * Returns the round time of the snapshot at the specified index.
+    *
+    * @param index the index of the snapshot.
+    * @return the round time of the snapshot.
+    * @throws IndexOutOfBoundsException if <code>index</code> is out of range.
+    */
+   public long getTime(int index) {
+      checkIndex(index, size - 1);
+      return time[index];
+   }
+
+   /**
+    * Returns the energy of the snapshot at the specified index.
+    *
+    * @param index the index of the snapshot.
+    * @return the energy of the snapshot.
+    * @throws IndexOutOfBoundsException if <code>index</code> is out of range.
+    */
+   public double getEnergy(int index) {
+      checkIndex(index, size - 1);
+      return energy[index];
+   }
+
+   /**
+    * Returns the velocity of the snapshot at the specified index.
+    *
+    * @param index the index of the snapshot.
+    * @return the velocity of the snapshot.
+    * @throws IndexOutOfBoundsException if <code>index</code> is out of range.
+    */
+   public double getVelocity(int index) {
+      checkIndex(index, size - 1);
+      return velocity[index];
+   }
+
+   /**
+    * Returns the index of the snapshot with the greatest round time that is
+    * still less than or equal to the specified time. If every snapshot in the
+    * series is after the specified time, or the series is empty, then
+    * <code>-1</code> is returned.
+    * <p>
+    * Times at or after the end of the series are answered in constant time,
+    * all other times by binary search.
+    *
+    * @param time the time to search for.
+    * @return the index of the time, rounding down.
+    */
+   public int floorIndex(long time) {
+      long[] times = this.time;
+      if (size == 0 || time < times[0]) {
+         return -1;
+      } else if (time >= times[size - 1]) {
+         return size - 1;
+      }
+
+      int low = 0;
+      int high = size - 1;
+      while (low < high) {
+         int mid = (low + high + 1) >>> 1;
+         if (times[mid] <= time) {
+            low = mid;
+         } else {
+            high = mid - 1;
+         }
+      }
+      return low;
+   }
+
+   /**
+    * Returns a new cursor in the gap before the specified index, like
+    * {@link #listIterator(int)}. The cursor is not viewing a snapshot until it
+    * is moved.
+    *
+    * @param index the index of the first snapshot {@link Cursor#next()} moves
+    * to.
+    * @return a new cursor.
+    * @throws IndexOutOfBoundsException if <code>index</code> is out of range.
+    */
+   public Cursor cursor(int index) {
+      checkIndex(index, size);
+      return new Cursor(index);
+   }
+
+   /**
+    * Returns a new cursor in the gap before the first snapshot at or after the
+    * specified time, so that {@link Cursor#next()} moves to that snapshot and
+    * {@link Cursor#previous()} moves to the last snapshot before it.
+    *
+    * @param time the time to start the cursor at.
+    * @return a new cursor.
+    */
+   public Cursor cursorFrom(long time) {
+      return new Cursor(floorIndex(time - 1) + 1);
+   }
+
+   /**
+    * Grows every column to the specified capacity.
+    *
+    * @param capacity the new capacity of the columns.
+    */
+   private void grow(int capacity) {
+      x = Arrays.copyOf(x, capacity);
+      y = Arrays.copyOf(y, capacity);
+      heading = Arrays.copyOf(heading, capacity);
+      velocity = Arrays.copyOf(velocity, capacity);
+      energy = Arrays.copyOf(energy, capacity);
+      time = Arrays.copyOf(time, capacity);
+   }
+
+   /**
+    * Checks that the specified index is between zero and the specified
+    * maximum, inclusive.
+    *
+    * @param index the index to check.
+    * @param max the maximum allowed index.
+    * @throws IndexOutOfBoundsException if <code>index</code> is out of range.
+    */
+   private void checkIndex(int index, int max) {
+      if (index < 0 || index > max) {
+         throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+   }
+
+   /**
+    * A movable view of a single snapshot in the series. The cursor reads the
+    * columns of the series directly so moving it through the series creates
+    * no objects. The values of the cursor change as it is moved, so it should
+    * never be kept as a snapshot. Use {@link TimeSeries#get(int)} for that.
+    * <p>
+    * The cursor moves like a {@link java.util.ListIterator} and views the
+    * snapshot it last moved over. Inserting a snapshot before the position of
+    * the cursor shifts the snapshot the cursor is viewing. The series itself
+    * is not serializable, so a cursor is serialized as a copy of the snapshot
+    * it is viewing.
+    */
+   @SuppressWarnings("serial")
+   final class Cursor implements IRobotCursor {
+
+      /**
+       * The index of the snapshot {@link #next()} moves to.
+       */
+      private int cursor;
+
+      /**
+       * The index of the snapshot the cursor is viewing or <code>-1</code> if
+       * the cursor has not been moved.
+       */
+      private int index;
+
+      /**
+       * Creates a new cursor in the gap before the specified index.
+       *
+       * @param cursor the index of the snapshot {@link #next()} moves to.
+       */
+      private Cursor(int cursor) {
+         this.cursor = cursor;
+         this.index = -1;
+      }
+
+      /**
+       * Returns the index of the snapshot the cursor is viewing.
+       *
+       * @return the index of the snapshot or <code>-1</code> if the cursor has
+       * not been moved.
+       */
+      public int getIndex() {
+         return index;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return cursor < size;
+      }
+
+      @Override
+      public boolean hasPrevious() {
+         return cursor > 0;
+      }
+
+      @Override
+      public Cursor next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         index = cursor++;
+         return this;
+      }
+
+      @Override
+      public Cursor previous() {
+         if (!hasPrevious()) {
+            throw new NoSuchElementException();
+         }
+         index = --cursor;
+         return this;
+      }
+
+      /**
+       * Replaces the cursor with a copy of the snapshot it is viewing when it
+       * is serialized.
+       *
+       * @return a copy of the snapshot.
+       * @throws ObjectStreamException if the cursor has not been moved.
+       */
+      private Object writeReplace() throws ObjectStreamException {
+         if (index < 0) {
+            throw new NotSerializableException("Cursor is not viewing a snapshot.");
+         }
+         return get(index);
+      }
+
+      @Override
+      public String getName() {
+         return name;
+      }
+
+      @Override
+      public double getEnergy() {
+         return energy[index];
+      }
+
+      @Override
+      public long getTime() {
+         return time[index];
+      }
+
+      @Override
+      public int getRound() {
+         return round;
+      }
+
+      @Override
+      public double getX() {
+         return x[index];
+      }
+
+      @Override
+      public double getY() {
+         return y[index];
+      }
+
+      @Override
+      public double getDeltaX() {
+         return Utils.vectorX(heading[index], velocity[index]);
+      }
+
+      @Override
+      public double getDeltaY() {
+         return Utils.vectorY(heading[index], velocity[index]);
+      }
+
+      @Override
+      public double getHeading() {
+         return heading[index];
+      }
+
+      @Override
+      public double getVelocity() {
+         return velocity[index];
+      }
+
+      @Override
+      public String toString() {
+         return getClass().getSimpleName() + "[index=" + index + (index < 0 ? "" : ", " + get(index)) + "]";
+      }
+   }
+}
@@ -0,0 +1,141 @@
+package bnorm.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import bnorm.utils.IPersistent;
+import robocode.Rules;
+
+/**
+ * Statistics of the bullet powers a robot fires with. Each bin covers one tenth of power, from
+ * {@link Rules#MIN_BULLET_POWER} to {@link Rules#MAX_BULLET_POWER}, and the bins are a rolling
+ * average, so old bullets fade out at a rate set by the depth like in {@link GuessFactorStats}.
+ * <p>
+ * The statistics can be saved between battles. Bins are written as <code>float</code>s after the
+ * number of bins, and can only be read back into statistics with the same number of bins.
+ *
+ * @author Brian Norman
+ */
+public final class FirePowerStats implements IPersistent {
+
+   /**
+    * The number of bins, one per tenth of power.
+    */
+   public static final int BINS = (int) Math.round((Rules.MAX_BULLET_POWER - Rules.MIN_BULLET_POWER) * 10) + 1;
+
+   /**
+    * The number of bullets in the rolling average.
+    */
+   private final double depth;
+
+   /**
+    * The bins.
+    */
+   private final double[] bins;
+
+   /**
+    * Creates new empty statistics.
+    *
+    * @param depth the number of bullets in the rolling average.
+    * @throws IllegalArgumentException if the depth is not positive.
+    */
+   public FirePowerStats(double depth) {
+      if (!(depth > 0.0)) {
+         throw new IllegalArgumentException("Depth must be positive (" + depth + ").");
+      }
+      this.depth = depth;
+      this.bins = new double[BINS];
+   }
+
+   /**
+    * Returns the bin of the specified bullet power.
+    *
+    * @param power the bullet power.
+    * @return the nearest bin.
+    */
+   public static int getBin(double power) {
+      int bin = (int) Math.round((power - Rules.MIN_BULLET_POWER) * 10);
+      return Math.max(0, Math.min(BINS - 1, bin));
+   }
+
+   /**
+    * Returns the bullet power at the center of the specified bin.
+    *
+    * @param bin the bin.
+    * @return the bullet power.
+    */
+   public static double getPower(int bin) {
+      return Rules.MIN_BULLET_POWER + bin / 10.0;
+   }
+
+   /**
+    * Records a bullet fired with the specified power.
+    *
+    * @param power the bullet power.
+    * @param weight the weight of the bullet, usually the confidence it was detected with.
+    */
+   public void update(double power, double weight) {
+      double keep = depth / (depth + 1.0);
+      double add = 1.0 / (depth + 1.0);
+      int bin = getBin(power);
+      for (int i = 0; i < BINS; i++) {
+         bins[i] = bins[i] * keep + (i == bin ? weight * add : 0.0);
+      }
+   }
+
+   /**
+    * Returns the bullet power the robot fires with most often. With no statistics yet,
+    * {@link Rules#MAX_BULLET_POWER} is returned.
+    *
+    * @return the most likely bullet power.
+    */
+   public double getBestPower() {
+      int best = BINS - 1;
+      for (int i = 0; i < BINS; i++) {
+         if (bins[i] > bins[best]) {
+            best = i;
+         }
+      }
+      return getPower(best);
+   }
+
+   /**
+    * Returns the fraction of bullets fired with the power of the bin of the specified power, or
+    * <code>0</code> with no statistics yet.
+    *
+    * @param power the bullet power.
+    * @return the fraction of bullets.
+    */
+   public double getDensity(double power) {
+      double total = 0.0;
+      for (int i = 0; i < BINS; i++) {
+         total += bins[i];
+      }
+      return total > 0.0 ? bins[getBin(power)] / total : 0.0;
+   }
+
+   @Override
+   public void write(DataOutput out) throws IOException {
+      out.writeInt(BINS);
+      for (double b : bins) {
+         out.writeFloat((float) b);
+      }
+   }
+
+   @Override
+   public void read(DataInput in) throws IOException {
+      int savedBins = in.readInt();
+      if (savedBins != BINS) {
+         throw new IOException("Saved statistics have a different shape (" + savedBins + " bins).");
+      }
+
+      float[] saved = new float[savedBins];
+      for (int i = 0; i < savedBins; i++) {
+         saved[i] = in.readFloat();
+      }
+      for (int i = 0; i < savedBins; i++) {
+         bins[i] = saved[i];
+      }
+   }
+}
@@ -0,0 +1,239 @@
+package bnorm.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
+
+import bnorm.utils.IPersistent;
+
+/**
+ * Guess factor statistics kept under several segmentations at once. Each segment of each
+ * segmentation has a buffer of bins over guess factors from <code>-1</code> to <code>1</code>, and
+ * all of the buffers are slices of one flat array. A wave that breaks updates the matching buffer
+ * of every segmentation in one pass, and aiming sums the matching buffers and picks the highest
+ * bin.
+ * <p>
+ * Updates are smoothed with a kernel that falls off with the square of the distance in bins, and
+ * each buffer is a rolling average, so old visits fade out at a rate set by the depth. The
+ * features of a situation can be anything that is known at fire time, such as the features
+ * computed by a {@link bnorm.robots.SituationIndex}, as long as the same vector is used to update
+ * and to aim.
+ * <p>
+ * The statistics can be saved between battles. Bins are written as <code>float</code>s after the
+ * number of bins and buffers, and can only be read back into statistics with the same shape.
+ *
+ * @author Brian Norman
+ */
+public final class GuessFactorStats implements IPersistent {
+
+   /**
+    * The segmentations.
+    */
+   private final Segmentation[] segmentations;
+
+   /**
+    * The offset of the first buffer of each segmentation in {@link #buffers}.
+    */
+   private final int[] offsets;
+
+   /**
+    * The number of bins in each buffer.
+    */
+   private final int bins;
+
+   /**
+    * The number of visits in the rolling average.
+    */
+   private final double depth;
+
+   /**
+    * The width of the smoothing kernel in bins.
+    */
+   private final double bandwidth;
+
+   /**
+    * Every buffer of every segmentation.
+    */
+   private final double[] buffers;
+
+   /**
+    * The scratch buffer of kernel values or summed bins.
+    */
+   private final double[] scratch;
+
+   /**
+    * Creates new empty statistics.
+    *
+    * @param bins the number of bins in each buffer, which must be odd so there is a center bin.
+    * @param depth the number of visits in the rolling average.
+    * @param bandwidth the width of the smoothing kernel in bins.
+    * @param segmentations the segmentations to keep statistics under.
+    * @throws IllegalArgumentException if the number of bins is not odd and at least three, the
+    *            depth or bandwidth is not positive, or there are no segmentations.
+    */
+   public GuessFactorStats(int bins, double depth, double bandwidth, Segmentation... segmentations) {
+      if (bins < 3 || bins % 2 == 0) {
+         throw new IllegalArgumentException("Bins must be odd and at least 3 (" + bins + ").");
+      } else if (!(depth > 0.0)) {
+         throw new IllegalArgumentException("Depth must be positive (" + depth + ").");
+      } else if (!(bandwidth > 0.0)) {
+         throw new IllegalArgumentException("Bandwidth must be positive (" + bandwidth + ").");
+      } else if (segmentations.length == 0) {
+         throw new IllegalArgumentException("Must have at least one segmentation.");
+      }
+
+      this.segmentations = segmentations.clone();
+      this.offsets = new int[segmentations.length];
+      this.bins = bins;
+      this.depth = depth;
+      this.bandwidth = bandwidth;
+
+      int size = 0;
+      for (int i = 0; i < segmentations.length; i++) {
+         offsets[i] = size;
+         size += Objects.requireNonNull(segmentations[i], "Segmentation must not be null.").getSegments() * bins;
+      }
+      this.buffers = new double[size];
+      this.scratch = new double[bins];
+   }
+
+   /**
+    * Returns the number of bins in each buffer.
+    *
+    * @return the number of bins.
+    */
+   public int getBins() {
+      return bins;
+   }
+
+   /**
+    * Returns the bin of the specified guess factor.
+    *
+    * @param guessFactor the guess factor.
+    * @return the nearest bin.
+    */
+   public int getBin(double guessFactor) {
+      return (int) Math.round(getFractionalBin(guessFactor));
+   }
+
+   /**
+    * Returns the guess factor at the center of the specified bin.
+    *
+    * @param bin the bin.
+    * @return the guess factor.
+    */
+   public double getGuessFactor(int bin) {
+      return 2.0 * bin / (bins - 1) - 1.0;
+   }
+
+   /**
+    * Records that a wave fired in the situation with the specified features broke at the specified
+    * guess factor.
+    *
+    * @param features the features of the situation when the wave was fired.
+    * @param guessFactor the guess factor the target was at when the wave broke.
+    * @param weight the weight of the visit, usually <code>1</code>.
+    */
+   public void update(double[] features, double guessFactor, double weight) {
+      double center = getFractionalBin(guessFactor);
+      for (int i = 0; i < bins; i++) {
+         double distance = (i - center) / bandwidth;
+         scratch[i] = weight / (1.0 + distance * distance);
+      }
+
+      double keep = depth / (depth + 1.0);
+      double add = 1.0 / (depth + 1.0);
+      for (int s = 0; s < segmentations.length; s++) {
+         int base = offsets[s] + segmentations[s].getSegment(features) * bins;
+         for (int i = 0; i < bins; i++) {
+            buffers[base + i] = buffers[base + i] * keep + scratch[i] * add;
+         }
+      }
+   }
+
+   /**
+    * Returns the guess factor most likely to hit a target in the situation with the specified
+    * features. With no statistics yet, the center guess factor, <code>0</code>, is returned.
+    *
+    * @param features the features of the situation.
+    * @return the best guess factor.
+    */
+   public double getBestGuessFactor(double[] features) {
+      sum(features);
+      int best = bins / 2;
+      for (int i = 0; i < bins; i++) {
+         if (scratch[i] > scratch[best]) {
+            best = i;
+         }
+      }
+      return getGuessFactor(best);
+   }
+
+   /**
+    * Returns the summed statistics of the bin of the specified guess factor in the situation with
+    * the specified features.
+    *
+    * @param features the features of the situation.
+    * @param guessFactor the guess factor.
+    * @return the summed statistics of the bin.
+    */
+   public double getDensity(double[] features, double guessFactor) {
+      sum(features);
+      return scratch[getBin(guessFactor)];
+   }
+
+   @Override
+   public void write(DataOutput out) throws IOException {
+      out.writeInt(bins);
+      out.writeInt(buffers.length);
+      for (double b : buffers) {
+         out.writeFloat((float) b);
+      }
+   }
+
+   @Override
+   public void read(DataInput in) throws IOException {
+      int savedBins = in.readInt();
+      int savedLength = in.readInt();
+      if (savedBins != bins || savedLength != buffers.length) {
+         throw new IOException("Saved statistics have a different shape (" + savedBins + " bins, " + savedLength + " values).");
+      }
+
+      float[] saved = new float[savedLength];
+      for (int i = 0; i < savedLength; i++) {
+         saved[i] = in.readFloat();
+      }
+      for (int i = 0; i < savedLength; i++) {
+         buffers[i] = saved[i];
+      }
+   }
+
+   /**
+    * Sums the matching buffer of every segmentation into the scratch buffer.
+    *
+    * @param features the features of the situation.
+    */
+   private void sum(double[] features) {
+      for (int i = 0; i < bins; i++) {
+         scratch[i] = 0.0;
+      }
+      for (int s = 0; s < segmentations.length; s++) {
+         int base = offsets[s] + segmentations[s].getSegment(features) * bins;
+         for (int i = 0; i < bins; i++) {
+            scratch[i] += buffers[base + i];
+         }
+      }
+   }
+
+   /**
+    * Returns the fractional bin of the specified guess factor, limited to the buffer.
+    *
+    * @param guessFactor the guess factor.
+    * @return the fractional bin.
+    */
+   private double getFractionalBin(double guessFactor) {
+      double bin = (guessFactor + 1.0) / 2.0 * (bins - 1);
+      return Math.min(Math.max(bin, 0.0), bins - 1);
+   }
+}
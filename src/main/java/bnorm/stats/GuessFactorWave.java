@@ -0,0 +1,128 @@
+package bnorm.stats;
+
+import bnorm.utils.Trig;
+import bnorm.utils.Utils;
+import bnorm.virtual.EscapeAngleCache;
+import bnorm.virtual.IPoint;
+import bnorm.virtual.IVector;
+import bnorm.virtual.Wave;
+
+/**
+ * A wave fired at a target that remembers what is needed to turn where the target is when the wave
+ * breaks into a guess factor. A guess factor is the angle of the target from the bearing it was
+ * at when the wave was fired, as a fraction of the maximum escape angle, and positive in the
+ * direction the target was moving.
+ *
+ * @author Brian Norman
+ */
+public class GuessFactorWave extends Wave {
+
+   /**
+    * The angle from the wave to the target when the wave was fired.
+    */
+   private final double bearing;
+
+   /**
+    * The direction the target was moving around the wave, <code>1</code> for clockwise and
+    * <code>-1</code> for counter-clockwise.
+    */
+   private final int direction;
+
+   /**
+    * The maximum escape angle of the target.
+    */
+   private final double escapeAngle;
+
+   /**
+    * The features of the situation when the wave was fired.
+    */
+   private final double[] features;
+
+   /**
+    * Creates a new wave.
+    *
+    * @param x the <code>x</code> coordinate of where the wave was fired.
+    * @param y the <code>y</code> coordinate of where the wave was fired.
+    * @param velocity the velocity of the wave.
+    * @param time the time the wave was fired.
+    * @param target the target when the wave was fired.
+    * @param features the features of the situation when the wave was fired, which are copied.
+    */
+   public GuessFactorWave(double x, double y, double velocity, long time, IVector target, double[] features) {
+      super(x, y, velocity, time);
+      this.bearing = Trig.angle(target.getX() - x, target.getY() - y);
+      this.direction = getDirection(bearing, target);
+      this.escapeAngle = EscapeAngleCache.getMaxEscapeAngle(velocity);
+      this.features = features.clone();
+   }
+
+   /**
+    * Returns the direction the target is moving around a point at the specified bearing.
+    *
+    * @param bearing the angle from the point to the target.
+    * @param target the target.
+    * @return <code>1</code> for clockwise or not moving and <code>-1</code> for
+    *         counter-clockwise.
+    */
+   public static int getDirection(double bearing, IVector target) {
+      double lateral = target.getVelocity() * Trig.sin(target.getHeading() - bearing);
+      return lateral < 0.0 ? -1 : 1;
+   }
+
+   /**
+    * Returns the angle from the wave to the target when the wave was fired.
+    *
+    * @return the bearing.
+    */
+   public double getBearing() {
+      return bearing;
+   }
+
+   /**
+    * Returns the direction the target was moving when the wave was fired.
+    *
+    * @return <code>1</code> for clockwise and <code>-1</code> for counter-clockwise.
+    */
+   public int getDirection() {
+      return direction;
+   }
+
+   /**
+    * Returns the maximum escape angle of the target.
+    *
+    * @return the maximum escape angle.
+    */
+   public double getEscapeAngle() {
+      return escapeAngle;
+   }
+
+   /**
+    * Returns the features of the situation when the wave was fired. The array must not be changed.
+    *
+    * @return the features.
+    */
+   public double[] getFeatures() {
+      return features;
+   }
+
+   /**
+    * Returns the guess factor of the specified point, limited to <code>[-1, 1]</code>.
+    *
+    * @param point the point, usually the target when the wave breaks.
+    * @return the guess factor of the point.
+    */
+   public double getGuessFactor(IPoint point) {
+      double offset = Utils.relative(Trig.angle(point.getX() - getX(), point.getY() - getY()) - bearing);
+      return Utils.limit(-1.0, direction * offset / escapeAngle, 1.0);
+   }
+
+   /**
+    * Returns the angle from the wave of the specified guess factor.
+    *
+    * @param guessFactor the guess factor.
+    * @return the angle of the guess factor.
+    */
+   public double getAngle(double guessFactor) {
+      return Utils.absolute(bearing + direction * guessFactor * escapeAngle);
+   }
+}
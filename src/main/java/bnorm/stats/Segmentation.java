@@ -0,0 +1,96 @@
+package bnorm.stats;
+
+import java.util.Arrays;
+
+/**
+ * A way of splitting situations into segments by slicing some of their features. Each sliced
+ * feature is cut at a list of ascending boundaries, so a feature with <code>n</code> boundaries
+ * has <code>n + 1</code> slices, and the segment of a situation is the combination of the slices
+ * its features fall in. A segmentation with no sliced features has a single segment.
+ *
+ * @author Brian Norman
+ */
+public final class Segmentation {
+
+   /**
+    * The index of each sliced feature in the feature vector.
+    */
+   private final int[] features;
+
+   /**
+    * The boundaries of each sliced feature.
+    */
+   private final double[][] slices;
+
+   /**
+    * The number of segments.
+    */
+   private final int segments;
+
+   /**
+    * Creates a new segmentation.
+    *
+    * @param features the index of each sliced feature in the feature vector.
+    * @param slices the ascending boundaries of each sliced feature.
+    * @throws IllegalArgumentException if there is not one list of boundaries per feature or the
+    *            boundaries are not ascending.
+    */
+   public Segmentation(int[] features, double[][] slices) {
+      if (features.length != slices.length) {
+         throw new IllegalArgumentException(
+                 "Must have boundaries for each feature (" + slices.length + " != " + features.length + ").");
+      }
+
+      this.features = features.clone();
+      this.slices = new double[slices.length][];
+      int segments = 1;
+      for (int i = 0; i < slices.length; i++) {
+         this.slices[i] = slices[i].clone();
+         for (int j = 1; j < slices[i].length; j++) {
+            if (!(slices[i][j - 1] < slices[i][j])) {
+               throw new IllegalArgumentException("Boundaries must be ascending (" + Arrays.toString(slices[i]) + ").");
+            }
+         }
+         segments *= slices[i].length + 1;
+      }
+      this.segments = segments;
+   }
+
+   /**
+    * Creates a new segmentation with a single segment.
+    *
+    * @return the unsegmented segmentation.
+    */
+   public static Segmentation none() {
+      return new Segmentation(new int[0], new double[0][]);
+   }
+
+   /**
+    * Returns the number of segments.
+    *
+    * @return the number of segments.
+    */
+   public int getSegments() {
+      return segments;
+   }
+
+   /**
+    * Returns the segment of the situation with the specified features.
+    *
+    * @param values the features of the situation.
+    * @return the segment, from <code>0</code> to <code>getSegments() - 1</code>.
+    */
+   public int getSegment(double[] values) {
+      int segment = 0;
+      for (int i = 0; i < features.length; i++) {
+         double value = values[features[i]];
+         double[] boundaries = slices[i];
+         int slice = 0;
+         while (slice < boundaries.length && value >= boundaries[slice]) {
+            slice++;
+         }
+         segment = segment * (boundaries.length + 1) + slice;
+      }
+      return segment;
+   }
+}
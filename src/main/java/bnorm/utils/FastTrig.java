@@ -0,0 +1,46 @@
+package bnorm.utils;
+
+/**
+ * A {@link ITrig} backend that uses {@link Math}. The JVM is free to replace these with intrinsics, so they are
+ * usually faster than {@link StrictTrig} but are only accurate to within one ulp and may differ between platforms.
+ *
+ * @author Brian Norman
+ * @version 1.0
+ */
+public final class FastTrig implements ITrig {
+
+   @Override
+   public double sin(double radians) {
+      return Math.sin(radians);
+   }
+
+   @Override
+   public double cos(double radians) {
+      return Math.cos(radians);
+   }
+
+   @Override
+   public double tan(double radians) {
+      return Math.tan(radians);
+   }
+
+   @Override
+   public double asin(double ratio) {
+      return Math.asin(ratio);
+   }
+
+   @Override
+   public double acos(double ratio) {
+      return Math.acos(ratio);
+   }
+
+   @Override
+   public double atan(double ratio) {
+      return Math.atan(ratio);
+   }
+
+   @Override
+   public double atan2(double x, double y) {
+      return Math.atan2(x, y);
+   }
+}
@@ -0,0 +1,31 @@
+package bnorm.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Learned state that can be saved between battles in a compact binary form.
+ *
+ * @author Brian Norman
+ */
+public interface IPersistent {
+
+   /**
+    * Writes the state to the specified output.
+    *
+    * @param out the output to write to.
+    * @throws IOException if the state cannot be written.
+    */
+   void write(DataOutput out) throws IOException;
+
+   /**
+    * Replaces the state with the state read from the specified input. If the saved state does not
+    * fit, such as when it was written with a different shape, an exception is thrown and the state
+    * is left unchanged.
+    *
+    * @param in the input to read from.
+    * @throws IOException if the state cannot be read or does not fit.
+    */
+   void read(DataInput in) throws IOException;
+}
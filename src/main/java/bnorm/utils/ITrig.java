@@ -0,0 +1,72 @@
+package bnorm.utils;
+
+/**
+ * A backend for the trigonometric functions of {@link Trig}. Different backends trade accuracy for speed. All angles
+ * are in radians.
+ *
+ * @author Brian Norman
+ * @version 1.0
+ * @see Trig#setBackend(ITrig)
+ */
+public interface ITrig {
+
+   /**
+    * Returns the sine of the specified angle.
+    *
+    * @param radians an angle in radians.
+    * @return the sine of the argument.
+    */
+   double sin(double radians);
+
+   /**
+    * Returns the cosine of the specified angle.
+    *
+    * @param radians an angle in radians.
+    * @return the cosine of the argument.
+    */
+   double cos(double radians);
+
+   /**
+    * Returns the tangent of the specified angle.
+    *
+    * @param radians an angle in radians.
+    * @return the tangent of the argument.
+    */
+   double tan(double radians);
+
+   /**
+    * Returns the arc sine of the specified ratio.
+    *
+    * @param ratio the ratio between sides.
+    * @return the arc sine of the argument.
+    */
+   double asin(double ratio);
+
+   /**
+    * Returns the arc cosine of the specified ratio.
+    *
+    * @param ratio the ratio between sides.
+    * @return the arc cosine of the argument.
+    */
+   double acos(double ratio);
+
+   /**
+    * Returns the arc tangent of the specified ratio.
+    *
+    * @param ratio the ratio between sides.
+    * @return the arc tangent of the argument.
+    */
+   double atan(double ratio);
+
+   /**
+    * Returns the angle <i>theta</i> of the rectangular coordinates (<code>x</code>,&nbsp;<code>y</code>) in Robocode
+    * polar coordinates. This is the same as {@link StrictMath#atan2(double, double)} with <code>x</code> and
+    * <code>y</code> in that order.
+    *
+    * @param x the abscissa coordinate.
+    * @param y the ordinate coordinate.
+    * @return the Robocode polar angle of the coordinates.
+    */
+   double atan2(double x, double y);
+
+}
@@ -0,0 +1,592 @@
+package bnorm.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A k-d tree of points with a fixed number of dimensions that finds the nearest neighbors of a
+ * query point under a weighted squared Euclidean distance. Points are added one at a time and the
+ * tree holds at most a fixed number of them; once it is full, adding a point evicts the oldest.
+ * <p>
+ * The coordinates of the points are kept in one flat array and the leaves of the tree are buckets
+ * of indexes into that array, so adding, evicting and querying do not allocate except when a
+ * bucket splits or the result buffers of a query first grow. Evicting a point does not shrink the
+ * bounds of the nodes it was in; the bounds stay correct but become looser, so queries are still
+ * exact.
+ *
+ * @param <T> the type of value stored with each point.
+ * @author Brian Norman
+ */
+public final class KdTree<T> {
+
+   /**
+    * The number of points in a bucket before it is split.
+    */
+   private static final int BUCKET_SIZE = 32;
+
+   /**
+    * The number of dimensions of each point.
+    */
+   private final int dimensions;
+
+   /**
+    * The maximum number of points in the tree.
+    */
+   private final int capacity;
+
+   /**
+    * The coordinates of the points, <code>dimensions</code> values per slot.
+    */
+   private final double[] coordinates;
+
+   /**
+    * The value stored with each slot.
+    */
+   private final Object[] values;
+
+   /**
+    * The leaf holding each slot.
+    */
+   private final Node[] leaves;
+
+   /**
+    * The position of each slot in its leaf.
+    */
+   private final int[] positions;
+
+   /**
+    * The root of the tree.
+    */
+   private Node root;
+
+   /**
+    * The total number of points that have ever been added.
+    */
+   private long added;
+
+   /**
+    * The number of points in the tree.
+    */
+   private int size;
+
+   /**
+    * The squared distances of the current best matches, kept as a max heap.
+    */
+   private double[] heapDistances;
+
+   /**
+    * The slots of the current best matches, in the same order as {@link #heapDistances}.
+    */
+   private int[] heapSlots;
+
+   /**
+    * The number of current best matches.
+    */
+   private int heapSize;
+
+   /**
+    * Creates a new empty tree.
+    *
+    * @param dimensions the number of dimensions of each point.
+    * @param capacity the maximum number of points in the tree.
+    * @throws IllegalArgumentException if <code>dimensions</code> or <code>capacity</code> is not
+    *            positive.
+    */
+   public KdTree(int dimensions, int capacity) {
+      if (dimensions <= 0) {
+         throw new IllegalArgumentException("Dimensions must be positive (" + dimensions + ").");
+      } else if (capacity <= 0) {
+         throw new IllegalArgumentException("Capacity must be positive (" + capacity + ").");
+      }
+      this.dimensions = dimensions;
+      this.capacity = capacity;
+      this.coordinates = new double[dimensions * capacity];
+      this.values = new Object[capacity];
+      this.leaves = new Node[capacity];
+      this.positions = new int[capacity];
+      this.heapDistances = new double[0];
+      this.heapSlots = new int[0];
+      clear();
+   }
+
+   /**
+    * Returns the number of dimensions of each point.
+    *
+    * @return the number of dimensions.
+    */
+   public int getDimensions() {
+      return dimensions;
+   }
+
+   /**
+    * Returns the maximum number of points in the tree.
+    *
+    * @return the capacity.
+    */
+   public int getCapacity() {
+      return capacity;
+   }
+
+   /**
+    * Returns the number of points in the tree.
+    *
+    * @return the number of points.
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Removes every point from the tree.
+    */
+   public void clear() {
+      root = new Node(dimensions);
+      Arrays.fill(values, null);
+      Arrays.fill(leaves, null);
+      added = 0;
+      size = 0;
+   }
+
+   /**
+    * Adds a point to the tree, evicting the oldest point if the tree is full. The coordinates are
+    * copied.
+    *
+    * @param point the coordinates of the point.
+    * @param value the value to store with the point.
+    * @throws IllegalArgumentException if the point has the wrong number of dimensions.
+    */
+   public void add(double[] point, T value) {
+      check(point);
+      int slot = (int) (added % capacity);
+      if (leaves[slot] != null) {
+         remove(slot);
+      }
+
+      System.arraycopy(point, 0, coordinates, slot * dimensions, dimensions);
+      values[slot] = value;
+      added++;
+      size++;
+
+      Node node = root;
+      while (true) {
+         node.include(point);
+         if (node.slots == null) {
+            node = point[node.dimension] < node.split ? node.left : node.right;
+         } else {
+            break;
+         }
+      }
+
+      append(node, slot);
+      if (node.size > BUCKET_SIZE) {
+         split(node);
+      }
+   }
+
+   /**
+    * Returns the value of the point at the specified index and copies its coordinates to the
+    * specified array. Points are indexed by age, from the oldest point at <code>0</code> to the most
+    * recently added point at <code>size() - 1</code>.
+    *
+    * @param index the index of the point.
+    * @param point the array to copy the coordinates to.
+    * @return the value of the point.
+    * @throws IndexOutOfBoundsException if the index is not in the tree.
+    * @throws IllegalArgumentException if the array has the wrong number of dimensions.
+    */
+   public T get(int index, double[] point) {
+      if (index < 0 || index >= size) {
+         throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      check(point);
+      int slot = (int) ((added - size + index) % capacity);
+      System.arraycopy(coordinates, slot * dimensions, point, 0, dimensions);
+      @SuppressWarnings("unchecked")
+      T value = (T) values[slot];
+      return value;
+   }
+
+   /**
+    * Finds the nearest points to the query point. The values of the nearest points are added to the
+    * result list from nearest to farthest.
+    *
+    * @param query the coordinates of the query point.
+    * @param weights the weight of each dimension or <code>null</code> to weight all dimensions
+    *           equally.
+    * @param k the maximum number of points to find.
+    * @param result the list to add the values of the points to.
+    * @return the number of points found.
+    * @throws IllegalArgumentException if the query or the weights have the wrong number of
+    *            dimensions.
+    */
+   public int nearest(double[] query, double[] weights, int k, List<? super T> result) {
+      return nearest(query, weights, k, result, null);
+   }
+
+   /**
+    * Finds the nearest points to the query point. The values of the nearest points are added to the
+    * result list from nearest to farthest and their weighted squared distances are written to the
+    * distances array in the same order.
+    *
+    * @param query the coordinates of the query point.
+    * @param weights the weight of each dimension or <code>null</code> to weight all dimensions
+    *           equally.
+    * @param k the maximum number of points to find.
+    * @param result the list to add the values of the points to.
+    * @param distances the array to write the distances to or <code>null</code>.
+    * @return the number of points found.
+    * @throws IllegalArgumentException if the query or the weights have the wrong number of
+    *            dimensions.
+    */
+   public int nearest(double[] query, double[] weights, int k, List<? super T> result, double[] distances) {
+      check(query);
+      if (weights != null) {
+         check(weights);
+      }
+      if (k <= 0 || size == 0) {
+         return 0;
+      }
+
+      if (heapDistances.length < k) {
+         heapDistances = new double[k];
+         heapSlots = new int[k];
+      }
+      heapSize = 0;
+      search(root, query, weights, k);
+
+      // Pop the heap from farthest to nearest
+      int found = heapSize;
+      int start = result.size();
+      for (int i = 0; i < found; i++) {
+         result.add(null);
+      }
+      for (int i = found - 1; i >= 0; i--) {
+         int slot = heapSlots[0];
+         if (distances != null && i < distances.length) {
+            distances[i] = heapDistances[0];
+         }
+         @SuppressWarnings("unchecked")
+         T value = (T) values[slot];
+         result.set(start + i, value);
+         pop();
+      }
+      return found;
+   }
+
+   /**
+    * Searches the specified node for points nearer than the current best matches.
+    *
+    * @param node the node to search.
+    * @param query the coordinates of the query point.
+    * @param weights the weight of each dimension or <code>null</code>.
+    * @param k the maximum number of points to find.
+    */
+   private void search(Node node, double[] query, double[] weights, int k) {
+      if (node.slots != null) {
+         for (int i = 0; i < node.size; i++) {
+            int slot = node.slots[i];
+            double distance = distance(query, weights, slot * dimensions);
+            if (heapSize < k) {
+               push(distance, slot);
+            } else if (distance < heapDistances[0]) {
+               pop();
+               push(distance, slot);
+            }
+         }
+      } else {
+         Node near = query[node.dimension] < node.split ? node.left : node.right;
+         Node far = near == node.left ? node.right : node.left;
+         if (near.count > 0 && (heapSize < k || near.distance(query, weights) < heapDistances[0])) {
+            search(near, query, weights, k);
+         }
+         if (far.count > 0 && (heapSize < k || far.distance(query, weights) < heapDistances[0])) {
+            search(far, query, weights, k);
+         }
+      }
+   }
+
+   /**
+    * Returns the weighted squared distance between the query point and the point at the specified
+    * offset.
+    *
+    * @param query the coordinates of the query point.
+    * @param weights the weight of each dimension or <code>null</code>.
+    * @param offset the offset of the point in {@link #coordinates}.
+    * @return the weighted squared distance.
+    */
+   private double distance(double[] query, double[] weights, int offset) {
+      double sum = 0.0;
+      for (int d = 0; d < dimensions; d++) {
+         double delta = query[d] - coordinates[offset + d];
+         sum += weights == null ? delta * delta : weights[d] * delta * delta;
+      }
+      return sum;
+   }
+
+   /**
+    * Adds a match to the max heap.
+    *
+    * @param distance the squared distance of the match.
+    * @param slot the slot of the match.
+    */
+   private void push(double distance, int slot) {
+      int i = heapSize++;
+      while (i > 0) {
+         int parent = (i - 1) >> 1;
+         if (heapDistances[parent] >= distance) {
+            break;
+         }
+         heapDistances[i] = heapDistances[parent];
+         heapSlots[i] = heapSlots[parent];
+         i = parent;
+      }
+      heapDistances[i] = distance;
+      heapSlots[i] = slot;
+   }
+
+   /**
+    * Removes the farthest match from the max heap.
+    */
+   private void pop() {
+      int last = --heapSize;
+      double distance = heapDistances[last];
+      int slot = heapSlots[last];
+      int i = 0;
+      while (true) {
+         int child = 2 * i + 1;
+         if (child >= last) {
+            break;
+         }
+         if (child + 1 < last && heapDistances[child + 1] > heapDistances[child]) {
+            child++;
+         }
+         if (heapDistances[child] <= distance) {
+            break;
+         }
+         heapDistances[i] = heapDistances[child];
+         heapSlots[i] = heapSlots[child];
+         i = child;
+      }
+      heapDistances[i] = distance;
+      heapSlots[i] = slot;
+   }
+
+   /**
+    * Removes the point in the specified slot from its leaf.
+    *
+    * @param slot the slot to remove.
+    */
+   private void remove(int slot) {
+      Node leaf = leaves[slot];
+      int position = positions[slot];
+      int last = leaf.slots[--leaf.size];
+      leaf.slots[position] = last;
+      positions[last] = position;
+      leaves[slot] = null;
+      values[slot] = null;
+      size--;
+
+      // Keep the counts along the path so empty subtrees can be skipped
+      for (Node node = leaf; node != null; node = node.parent) {
+         node.count--;
+      }
+   }
+
+   /**
+    * Appends a slot to a leaf.
+    *
+    * @param leaf the leaf.
+    * @param slot the slot to append.
+    */
+   private void append(Node leaf, int slot) {
+      if (leaf.size == leaf.slots.length) {
+         leaf.slots = Arrays.copyOf(leaf.slots, leaf.size * 2);
+      }
+      positions[slot] = leaf.size;
+      leaves[slot] = leaf;
+      leaf.slots[leaf.size++] = slot;
+   }
+
+   /**
+    * Splits a full leaf at the mean of its widest dimension. A leaf whose points are all the same
+    * is left alone.
+    *
+    * @param leaf the leaf to split.
+    */
+   private void split(Node leaf) {
+      int dimension = -1;
+      double widest = 0.0;
+      for (int d = 0; d < dimensions; d++) {
+         double min = Double.POSITIVE_INFINITY;
+         double max = Double.NEGATIVE_INFINITY;
+         for (int i = 0; i < leaf.size; i++) {
+            double v = coordinates[leaf.slots[i] * dimensions + d];
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+         }
+         if (max - min > widest) {
+            widest = max - min;
+            dimension = d;
+         }
+      }
+      if (dimension < 0) {
+         return;
+      }
+
+      double mean = 0.0;
+      for (int i = 0; i < leaf.size; i++) {
+         mean += coordinates[leaf.slots[i] * dimensions + dimension];
+      }
+      mean /= leaf.size;
+
+      int[] slots = leaf.slots;
+      int count = leaf.size;
+      leaf.slots = null;
+      leaf.size = 0;
+      leaf.dimension = dimension;
+      leaf.split = mean;
+      leaf.left = new Node(leaf);
+      leaf.right = new Node(leaf);
+
+      double[] point = new double[dimensions];
+      for (int i = 0; i < count; i++) {
+         int slot = slots[i];
+         System.arraycopy(coordinates, slot * dimensions, point, 0, dimensions);
+         Node child = point[dimension] < mean ? leaf.left : leaf.right;
+         child.include(point);
+         append(child, slot);
+      }
+   }
+
+   /**
+    * Checks that the specified array has one value per dimension.
+    *
+    * @param array the array to check.
+    * @throws IllegalArgumentException if the array has the wrong length.
+    */
+   private void check(double[] array) {
+      if (array.length != dimensions) {
+         throw new IllegalArgumentException(
+                 "Array must have one value per dimension (" + array.length + " != " + dimensions + ").");
+      }
+   }
+
+   /**
+    * A node of the tree. A leaf has a bucket of slots and an inner node has two children.
+    */
+   private static final class Node {
+
+      /**
+       * The parent of the node or <code>null</code> for the root.
+       */
+      private final Node parent;
+
+      /**
+       * The smallest coordinate in each dimension of every point ever added below the node.
+       */
+      private final double[] min;
+
+      /**
+       * The largest coordinate in each dimension of every point ever added below the node.
+       */
+      private final double[] max;
+
+      /**
+       * The number of points below the node.
+       */
+      private int count;
+
+      /**
+       * The slots in the leaf or <code>null</code> if the node is not a leaf.
+       */
+      private int[] slots;
+
+      /**
+       * The number of slots in the leaf.
+       */
+      private int size;
+
+      /**
+       * The dimension the node is split on.
+       */
+      private int dimension;
+
+      /**
+       * The coordinate the node is split at. Points less than the split go left.
+       */
+      private double split;
+
+      /**
+       * The child with points less than the split.
+       */
+      private Node left;
+
+      /**
+       * The child with points greater than or equal to the split.
+       */
+      private Node right;
+
+      /**
+       * Creates a new empty root.
+       *
+       * @param dimensions the number of dimensions of each point.
+       */
+      private Node(int dimensions) {
+         this.parent = null;
+         this.min = new double[dimensions];
+         this.max = new double[dimensions];
+         Arrays.fill(min, Double.POSITIVE_INFINITY);
+         Arrays.fill(max, Double.NEGATIVE_INFINITY);
+         this.slots = new int[BUCKET_SIZE + 1];
+      }
+
+      /**
+       * Creates a new empty leaf.
+       *
+       * @param parent the parent of the leaf.
+       */
+      private Node(Node parent) {
+         this.parent = parent;
+         this.min = new double[parent.min.length];
+         this.max = new double[parent.max.length];
+         Arrays.fill(min, Double.POSITIVE_INFINITY);
+         Arrays.fill(max, Double.NEGATIVE_INFINITY);
+         this.slots = new int[BUCKET_SIZE + 1];
+      }
+
+      /**
+       * Grows the bounds of the node to include the point and counts it.
+       *
+       * @param point the coordinates of the point.
+       */
+      private void include(double[] point) {
+         for (int d = 0; d < point.length; d++) {
+            double v = point[d];
+            if (v < min[d]) {
+               min[d] = v;
+            }
+            if (v > max[d]) {
+               max[d] = v;
+            }
+         }
+         count++;
+      }
+
+      /**
+       * Returns the weighted squared distance from the query point to the bounds of the node.
+       *
+       * @param query the coordinates of the query point.
+       * @param weights the weight of each dimension or <code>null</code>.
+       * @return the weighted squared distance to the bounds.
+       */
+      private double distance(double[] query, double[] weights) {
+         double sum = 0.0;
+         for (int d = 0; d < query.length; d++) {
+            double v = query[d];
+            double delta = v < min[d] ? min[d] - v : v > max[d] ? v - max[d] : 0.0;
+            sum += weights == null ? delta * delta : weights[d] * delta * delta;
+         }
+         return sum;
+      }
+   }
+}
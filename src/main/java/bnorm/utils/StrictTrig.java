@@ -0,0 +1,46 @@
+package bnorm.utils;
+
+/**
+ * A {@link ITrig} backend that uses {@link StrictMath}. The results are exact to the last bit and the same on every
+ * platform, which makes this the slowest backend. This is the default backend of {@link Trig}.
+ *
+ * @author Brian Norman
+ * @version 1.0
+ */
+public final class StrictTrig implements ITrig {
+
+   @Override
+   public double sin(double radians) {
+      return StrictMath.sin(radians);
+   }
+
+   @Override
+   public double cos(double radians) {
+      return StrictMath.cos(radians);
+   }
+
+   @Override
+   public double tan(double radians) {
+      return StrictMath.tan(radians);
+   }
+
+   @Override
+   public double asin(double ratio) {
+      return StrictMath.asin(ratio);
+   }
+
+   @Override
+   public double acos(double ratio) {
+      return StrictMath.acos(ratio);
+   }
+
+   @Override
+   public double atan(double ratio) {
+      return StrictMath.atan(ratio);
+   }
+
+   @Override
+   public double atan2(double x, double y) {
+      return StrictMath.atan2(x, y);
+   }
+}
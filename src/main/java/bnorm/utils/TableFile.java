@@ -0,0 +1,182 @@
+package bnorm.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A utility class for reading and writing lookup table files, such as the tables used by {@link TableTrig}.
+ * <p>
+ * A table file is an 8 byte header followed by the raw table values. All values are little-endian:
+ * <ul>
+ * <li>bytes 0-3: the {@link #MAGIC} number.</li>
+ * <li>bytes 4-7: the number of values, <code>n</code>, as an <code>int</code>.</li>
+ * <li>bytes 8 to <code>8 + 8 * n</code>: the values as <code>double</code>s.</li>
+ * </ul>
+ * Table files are memory-mapped when loaded instead of being copied onto the heap, and each file is only mapped once
+ * per JVM. Every robot that loads the same file shares the same read-only table. The older format, a Java serialized
+ * <code>double[]</code>, can still be loaded but is read onto the heap.
+ * <p>
+ * Older table files can be rewritten in the new format by running this class with the files as arguments.
+ *
+ * <pre>
+ * java -cp target/classes bnorm.utils.TableFile lib/sine.table lib/tangent.table lib/acosine.table
+ * </pre>
+ *
+ * @author Brian Norman
+ * @version 1.0
+ */
+public final class TableFile {
+
+   /**
+    * The magic number at the start of every table file, which is the characters <code>TBL1</code> when read as
+    * little-endian bytes.
+    */
+   public static final int MAGIC = 0x314C4254;
+
+   /**
+    * The size of the table file header in bytes.
+    */
+   public static final int HEADER_SIZE = 8;
+
+   /**
+    * The first two bytes of a Java serialization stream.
+    */
+   private static final int SERIAL_MAGIC = 0xACED;
+
+   /**
+    * The tables that have already been loaded keyed by their canonical file path.
+    */
+   private static final Map<String, DoubleBuffer> TABLES = new HashMap<String, DoubleBuffer>();
+
+   /**
+    * Don't let anyone instantiate this class.
+    */
+   private TableFile() {
+   }
+
+   /**
+    * Returns the table stored in the specified file. The first time a file is loaded it is memory-mapped, every time
+    * after that the same table is returned. The returned table is read-only and should only be read with absolute
+    * gets, such as {@link DoubleBuffer#get(int)}, so that it can be shared.
+    *
+    * @param file the table file.
+    * @return the table in the file.
+    * @throws IOException if the file cannot be read or is not a table file.
+    */
+   public static DoubleBuffer load(File file) throws IOException {
+      String key = file.getCanonicalPath();
+      synchronized (TABLES) {
+         DoubleBuffer table = TABLES.get(key);
+         if (table == null) {
+            table = read(file);
+            TABLES.put(key, table);
+         }
+         return table;
+      }
+   }
+
+   /**
+    * Reads the table stored in the specified file without sharing it.
+    *
+    * @param file the table file.
+    * @return the table in the file.
+    * @throws IOException if the file cannot be read or is not a table file.
+    */
+   private static DoubleBuffer read(File file) throws IOException {
+      try (FileChannel channel = new FileInputStream(file).getChannel()) {
+         long size = channel.size();
+         ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+         while (header.hasRemaining() && channel.read(header) >= 0) {
+            // Read until the header is full or the file ends
+         }
+
+         if (header.position() >= 2 && ((header.get(0) & 0xFF) << 8 | (header.get(1) & 0xFF)) == SERIAL_MAGIC) {
+            return DoubleBuffer.wrap(readSerialized(file)).asReadOnlyBuffer();
+         } else if (header.position() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a table file (" + file.getName() + ").");
+         }
+
+         int length = header.getInt(4);
+         if (length < 0 || HEADER_SIZE + 8L * length != size) {
+            throw new IOException("Table file has the wrong size (" + file.getName() + ").");
+         }
+
+         MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size - HEADER_SIZE);
+         return buffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+      }
+   }
+
+   /**
+    * Reads a table stored as a Java serialized <code>double[]</code>.
+    *
+    * @param file the serialized table file.
+    * @return the table in the file.
+    * @throws IOException if the file cannot be read or does not contain a <code>double[]</code>.
+    */
+   private static double[] readSerialized(File file) throws IOException {
+      try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+         Object table = in.readObject();
+         if (table instanceof double[]) {
+            return (double[]) table;
+         }
+         throw new IOException("Serialized file is not a table (" + file.getName() + ").");
+      } catch (ClassNotFoundException e) {
+         throw new IOException("Serialized file is not a table (" + file.getName() + ").", e);
+      }
+   }
+
+   /**
+    * Writes the specified table to the specified file in the table file format.
+    *
+    * @param file the file to write.
+    * @param table the table to write.
+    * @throws IOException if the file cannot be written.
+    */
+   public static void write(File file, double[] table) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 8 * table.length).order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(MAGIC).putInt(table.length);
+      buffer.asDoubleBuffer().put(table);
+      // Called through Buffer so the class also links on Java 8
+      ((Buffer) buffer).rewind();
+
+      try (FileChannel channel = new FileOutputStream(file).getChannel()) {
+         while (buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+      }
+   }
+
+   /**
+    * Rewrites each of the specified table files in the table file format. Files that are already in the table file
+    * format are left alone.
+    *
+    * @param args the paths of the table files.
+    * @throws IOException if a file cannot be read or written.
+    */
+   public static void main(String[] args) throws IOException {
+      for (String arg : args) {
+         File file = new File(arg);
+         DoubleBuffer table = read(file);
+         if (table.isDirect()) {
+            System.out.println("Already a table file: " + file);
+            continue;
+         }
+
+         double[] values = new double[table.capacity()];
+         table.get(values);
+         write(file, values);
+         System.out.println("Converted " + values.length + " values: " + file);
+      }
+   }
+}
@@ -0,0 +1,390 @@
+package bnorm.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link ITrig} backend that uses precomputed lookup tables with linear interpolation between entries. The tables
+ * are either loaded from a directory, such as the robot data directory, or generated the first time they are needed.
+ * Loaded tables are memory-mapped by {@link TableFile} and generated tables are kept in static fields, so every
+ * instance in the JVM shares the same read-only tables.
+ * <p>
+ * The tables have {@link #SIZE} entries and share the layout of the <code>sine.table</code>,
+ * <code>tangent.table</code> and <code>acosine.table</code> files:
+ * <ul>
+ * <li>sine: <code>sin(i * 2 * PI / SIZE)</code> for one full circle.</li>
+ * <li>tangent: <code>tan(i * PI / SIZE)</code> for one half circle.</li>
+ * <li>acosine: <code>acos(-1 + 2 * i / (SIZE - 2))</code> for the ratios <code>[-1, 1]</code>. The last entry is
+ * unused.</li>
+ * </ul>
+ * The arc tangent table, <code>atan(i / SIZE)</code> for the ratios <code>[0, 1]</code>, is never loaded and is
+ * always generated.
+ * <p>
+ * Maximum absolute error against {@link StrictMath}:
+ * <ul>
+ * <li>{@link #sin(double)} and {@link #cos(double)}: <code>3E-10</code> for angles within {@link #MAX_ANGLE} of
+ * zero. Larger angles fall back to {@link StrictMath}.</li>
+ * <li>{@link #atan(double)} and {@link #atan2(double, double)}: <code>1E-11</code>.</li>
+ * <li>{@link #acos(double)} and {@link #asin(double)}: <code>4E-10</code>. The slope of the arc cosine grows without
+ * bound near <code>-1</code> and <code>1</code>, so ratios beyond {@link #ACOSINE_LIMIT} use {@link Math}.</li>
+ * <li>{@link #tan(double)}: a relative error of <code>2E-8</code>. Angles within <code>4096</code> entries of a pole
+ * use {@link Math}.</li>
+ * </ul>
+ *
+ * @author Brian Norman
+ * @version 1.0
+ */
+public final class TableTrig implements ITrig {
+
+   /**
+    * The number of entries in each table.
+    */
+   public static final int SIZE = 1 << 17;
+
+   /**
+    * The file name of the sine table.
+    */
+   public static final String SINE_TABLE = "sine.table";
+
+   /**
+    * The file name of the tangent table.
+    */
+   public static final String TANGENT_TABLE = "tangent.table";
+
+   /**
+    * The file name of the arc cosine table.
+    */
+   public static final String ACOSINE_TABLE = "acosine.table";
+
+   /**
+    * The largest angle, positive or negative, that is looked up in the sine table. The fractional part of larger
+    * angles loses too much precision when scaled to a table index.
+    */
+   public static final double MAX_ANGLE = 1.0E6;
+
+   /**
+    * The largest ratio, positive or negative, that is looked up in the arc cosine table.
+    */
+   public static final double ACOSINE_LIMIT = 0.9;
+
+   /**
+    * The bit mask used to wrap a table index.
+    */
+   private static final int MASK = SIZE - 1;
+
+   /**
+    * The number of entries on either side of the pole of the tangent table that are not looked up.
+    */
+   private static final int TANGENT_POLE = 4096;
+
+   /**
+    * Converts an angle to a sine table index.
+    */
+   private static final double SINE_SCALE = SIZE / Trig.CIRCLE;
+
+   /**
+    * Converts an angle to a tangent table index.
+    */
+   private static final double TANGENT_SCALE = SIZE / Trig.HALF_CIRCLE;
+
+   /**
+    * Converts a ratio, offset by one, to an arc cosine table index.
+    */
+   private static final double ACOSINE_SCALE = (SIZE - 2) / 2.0;
+
+   /**
+    * The tables that have been generated keyed by their file name.
+    */
+   private static final Map<String, DoubleBuffer> GENERATED = new HashMap<String, DoubleBuffer>();
+
+   /**
+    * The directory to load tables from or <code>null</code> if the tables should always be generated.
+    */
+   private final File directory;
+
+   /**
+    * The sine table.
+    */
+   private DoubleBuffer sine;
+
+   /**
+    * The tangent table.
+    */
+   private DoubleBuffer tangent;
+
+   /**
+    * The arc cosine table.
+    */
+   private DoubleBuffer acosine;
+
+
+   /**
+    * Creates a new table backend that generates each table the first time it is needed.
+    */
+   public TableTrig() {
+      this(null);
+   }
+
+   /**
+    * Creates a new table backend that loads each table from the specified directory the first time it is needed. If
+    * a table file does not exist or cannot be read, the table is generated instead.
+    *
+    * @param directory the directory containing the table files.
+    */
+   public TableTrig(File directory) {
+      this.directory = directory;
+   }
+
+   @Override
+   public double sin(double radians) {
+      if (!(Math.abs(radians) <= MAX_ANGLE)) {
+         return StrictMath.sin(radians);
+      }
+      return lookup(sine(), radians * SINE_SCALE, 0);
+   }
+
+   @Override
+   public double cos(double radians) {
+      if (!(Math.abs(radians) <= MAX_ANGLE)) {
+         return StrictMath.cos(radians);
+      }
+      return lookup(sine(), radians * SINE_SCALE, SIZE / 4);
+   }
+
+   @Override
+   public double tan(double radians) {
+      if (!(Math.abs(radians) <= MAX_ANGLE)) {
+         return StrictMath.tan(radians);
+      }
+
+      double i = radians * TANGENT_SCALE;
+      int index = (int) (long) Math.floor(i) & MASK;
+      if (Math.abs(index - SIZE / 2) <= TANGENT_POLE) {
+         return Math.tan(radians);
+      }
+      return lookup(tangent(), i, 0);
+   }
+
+   @Override
+   public double asin(double ratio) {
+      return Trig.QUARTER_CIRCLE - acos(ratio);
+   }
+
+   @Override
+   public double acos(double ratio) {
+      if (!(Math.abs(ratio) <= ACOSINE_LIMIT)) {
+         return Math.acos(ratio);
+      }
+
+      DoubleBuffer table = acosine();
+      double i = (ratio + 1.0) * ACOSINE_SCALE;
+      int index = (int) i;
+      double a = table.get(index);
+      return a + (table.get(index + 1) - a) * (i - index);
+   }
+
+   @Override
+   public double atan(double ratio) {
+      double a = Math.abs(ratio);
+      if (a <= 1.0) {
+         return Math.copySign(arctangent(a), ratio);
+      } else if (a > 1.0) {
+         return Math.copySign(Trig.QUARTER_CIRCLE - arctangent(1.0 / a), ratio);
+      } else {
+         return Double.NaN;
+      }
+   }
+
+   @Override
+   public double atan2(double x, double y) {
+      double ax = Math.abs(x);
+      double ay = Math.abs(y);
+
+      double theta;
+      if (ax <= ay) {
+         if (ay == 0.0 || ay == Double.POSITIVE_INFINITY) {
+            return StrictMath.atan2(x, y);
+         }
+         theta = arctangent(ax / ay);
+      } else if (ax > ay) {
+         if (ax == Double.POSITIVE_INFINITY) {
+            return StrictMath.atan2(x, y);
+         }
+         theta = Trig.QUARTER_CIRCLE - arctangent(ay / ax);
+      } else {
+         return Double.NaN;
+      }
+
+      if (y < 0.0) {
+         theta = Trig.HALF_CIRCLE - theta;
+      }
+      return Math.copySign(theta, x);
+   }
+
+   /**
+    * Returns the interpolated value of a periodic table at the specified fractional index.
+    *
+    * @param table the table to look in.
+    * @param i the fractional index.
+    * @param offset the number of entries to shift the index by.
+    * @return the interpolated table value.
+    */
+   private static double lookup(DoubleBuffer table, double i, int offset) {
+      double floor = Math.floor(i);
+      int index = (int) (long) floor + offset;
+      double a = table.get(index & MASK);
+      return a + (table.get((index + 1) & MASK) - a) * (i - floor);
+   }
+
+   /**
+    * Returns the interpolated arc tangent of a ratio between <code>0</code> and <code>1</code>.
+    *
+    * @param ratio the ratio, between <code>0</code> and <code>1</code>.
+    * @return the arc tangent of the ratio.
+    */
+   private static double arctangent(double ratio) {
+      double[] table = Arctangent.TABLE;
+      double i = ratio * SIZE;
+      int index = Math.min((int) i, SIZE - 1);
+      double a = table[index];
+      return a + (table[index + 1] - a) * (i - index);
+   }
+
+   /**
+    * Returns the sine table, loading or generating it if needed.
+    *
+    * @return the sine table.
+    */
+   private DoubleBuffer sine() {
+      DoubleBuffer table = sine;
+      if (table == null) {
+         sine = table = table(SINE_TABLE);
+      }
+      return table;
+   }
+
+   /**
+    * Returns the tangent table, loading or generating it if needed.
+    *
+    * @return the tangent table.
+    */
+   private DoubleBuffer tangent() {
+      DoubleBuffer table = tangent;
+      if (table == null) {
+         tangent = table = table(TANGENT_TABLE);
+      }
+      return table;
+   }
+
+   /**
+    * Returns the arc cosine table, loading or generating it if needed.
+    *
+    * @return the arc cosine table.
+    */
+   private DoubleBuffer acosine() {
+      DoubleBuffer table = acosine;
+      if (table == null) {
+         acosine = table = table(ACOSINE_TABLE);
+      }
+      return table;
+   }
+
+   /**
+    * Returns the table with the specified file name. The table is loaded from the directory if possible and
+    * generated otherwise.
+    *
+    * @param name the file name of the table.
+    * @return the table.
+    */
+   private DoubleBuffer table(String name) {
+      DoubleBuffer table = load(name);
+      return table != null ? table : generate(name);
+   }
+
+   /**
+    * Loads the table with the specified file name from the directory. Returns <code>null</code> if there is no
+    * directory, the file does not exist, or the file does not contain a table of the right size.
+    *
+    * @param name the file name of the table.
+    * @return the loaded table or <code>null</code>.
+    */
+   private DoubleBuffer load(String name) {
+      if (directory == null) {
+         return null;
+      }
+
+      File file = new File(directory, name);
+      if (!file.isFile()) {
+         return null;
+      }
+
+      try {
+         DoubleBuffer table = TableFile.load(file);
+         if (table.capacity() == SIZE) {
+            return table;
+         }
+         System.err.println("Trouble reading table: " + file.getName());
+      } catch (IOException | SecurityException e) {
+         System.err.println("Trouble reading table: " + file.getName());
+      }
+      return null;
+   }
+
+   /**
+    * Returns the generated table with the specified file name. Each table is only generated once per JVM.
+    *
+    * @param name the file name of the table.
+    * @return the generated table.
+    */
+   private static DoubleBuffer generate(String name) {
+      synchronized (GENERATED) {
+         DoubleBuffer table = GENERATED.get(name);
+         if (table == null) {
+            double[] values = new double[SIZE];
+            switch (name) {
+               case SINE_TABLE:
+                  for (int i = 0; i < SIZE; i++) {
+                     values[i] = StrictMath.sin(i * Trig.CIRCLE / SIZE);
+                  }
+                  break;
+               case TANGENT_TABLE:
+                  for (int i = 0; i < SIZE; i++) {
+                     values[i] = StrictMath.tan(i * Trig.HALF_CIRCLE / SIZE);
+                  }
+                  break;
+               case ACOSINE_TABLE:
+                  for (int i = 0; i < SIZE - 1; i++) {
+                     values[i] = StrictMath.acos(-1.0 + 2.0 * i / (SIZE - 2));
+                  }
+                  values[SIZE - 1] = Double.NaN;
+                  break;
+               default:
+                  throw new IllegalArgumentException("Unknown table (" + name + ").");
+            }
+            table = DoubleBuffer.wrap(values).asReadOnlyBuffer();
+            GENERATED.put(name, table);
+         }
+         return table;
+      }
+   }
+
+   /**
+    * Holder of the arc tangent table, which is generated the first time it is used.
+    */
+   private static final class Arctangent {
+
+      /**
+       * The arc tangent table.
+       */
+      private static final double[] TABLE = new double[SIZE + 1];
+
+      static {
+         for (int i = 0; i < TABLE.length; i++) {
+            TABLE[i] = StrictMath.atan((double) i / SIZE);
+         }
+      }
+   }
+}
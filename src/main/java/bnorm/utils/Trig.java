@@ -1,13 +1,60 @@
 package bnorm.utils;
 
+import java.util.Objects;
+
 /**
- * A utility class for common trigonometric functions.
+ * A utility class for common trigonometric functions. The functions are computed by a selectable {@link ITrig}
+ * backend, which is {@link StrictTrig} unless changed with {@link #setMode(Mode)} or {@link #setBackend(ITrig)}.
  * 
  * @author Brian Norman
- * @version 1.1
+ * @version 1.2
  */
 public final class Trig {
 
+   /**
+    * The built in trigonometric backends.
+    */
+   public enum Mode {
+
+      /**
+       * Exact results using {@link StrictMath}. See {@link StrictTrig}.
+       */
+      STRICT(new StrictTrig()),
+
+      /**
+       * Intrinsic results using {@link Math}. See {@link FastTrig}.
+       */
+      FAST(new FastTrig()),
+
+      /**
+       * Interpolated lookup tables that are generated the first time they are needed. See {@link TableTrig}.
+       */
+      TABLE(new TableTrig());
+
+      /**
+       * The backend of the mode.
+       */
+      private final ITrig backend;
+
+      /**
+       * Creates a mode with the specified backend.
+       *
+       * @param backend the backend of the mode.
+       */
+      private Mode(ITrig backend) {
+         this.backend = backend;
+      }
+
+      /**
+       * Returns the backend of the mode.
+       *
+       * @return the backend of the mode.
+       */
+      public ITrig getBackend() {
+         return backend;
+      }
+   }
+
    /**
     * The {@link Double} representation of a complete circle in radians, which is 2*PI.
     */
@@ -23,12 +70,47 @@ public final class Trig {
     */
    public static final double QUARTER_CIRCLE = Math.PI / 2.0;
 
+   /**
+    * The backend that computes the trigonometric functions.
+    */
+   private static ITrig backend = Mode.STRICT.getBackend();
+
    /**
     * Don't let anyone instantiate this class.
     */
    private Trig() {
    }
 
+   /**
+    * Returns the backend that currently computes the trigonometric functions.
+    *
+    * @return the current backend.
+    */
+   public static ITrig getBackend() {
+      return backend;
+   }
+
+   /**
+    * Sets the backend that computes the trigonometric functions. Use this instead of {@link #setMode(Mode)} to use a
+    * backend that is not built in, such as a {@link TableTrig} that loads its tables from the robot data directory.
+    *
+    * @param backend the new backend.
+    * @throws NullPointerException if <code>backend</code> is null.
+    */
+   public static void setBackend(ITrig backend) {
+      Trig.backend = Objects.requireNonNull(backend, "ITrig must not be null.");
+   }
+
+   /**
+    * Sets the backend that computes the trigonometric functions to the backend of the specified mode.
+    *
+    * @param mode the built in backend to use.
+    * @throws NullPointerException if <code>mode</code> is null.
+    */
+   public static void setMode(Mode mode) {
+      setBackend(Objects.requireNonNull(mode, "Mode must not be null.").getBackend());
+   }
+
    /**
     * Returns the angle from the origin to the specified coordinates, <code>(x, y)</code>.
     * 
@@ -39,7 +121,7 @@ public final class Trig {
     * @return the angle to the specified coordinates.
     */
    public static double angle(double x, double y) {
-      return StrictMath.atan2(x, y);
+      return backend.atan2(x, y);
    }
 
    /**
@@ -50,7 +132,7 @@ public final class Trig {
     * @return the sine of the argument.
     */
    public static double sin(double radians) {
-      return StrictMath.sin(radians);
+      return backend.sin(radians);
    }
 
    /**
@@ -61,7 +143,7 @@ public final class Trig {
     * @return the cosine of the argument.
     */
    public static double cos(double radians) {
-      return StrictMath.cos(radians);
+      return backend.cos(radians);
    }
 
    /**
@@ -72,7 +154,7 @@ public final class Trig {
     * @return the tangent of the argument.
     */
    public static double tan(double radians) {
-      return StrictMath.tan(radians);
+      return backend.tan(radians);
    }
 
    /**
@@ -83,7 +165,7 @@ public final class Trig {
     * @return the arc sine of the argument.
     */
    public static double asin(double ratio) {
-      return StrictMath.asin(ratio);
+      return backend.asin(ratio);
    }
 
    /**
@@ -94,7 +176,7 @@ public final class Trig {
     * @return the arc cosine of the argument.
     */
    public static double acos(double ratio) {
-      return StrictMath.acos(ratio);
+      return backend.acos(ratio);
    }
 
    /**
@@ -105,7 +187,7 @@ public final class Trig {
     * @return the arc tangent of the argument.
     */
    public static double atan(double ratio) {
-      return StrictMath.atan(ratio);
+      return backend.atan(ratio);
    }
 
    /**
@@ -121,7 +203,7 @@ public final class Trig {
     *         in Cartesian coordinates.
     */
    public static double atan2(double x, double y) {
-      return StrictMath.atan2(x, y);
+      return backend.atan2(x, y);
    }
 
 }
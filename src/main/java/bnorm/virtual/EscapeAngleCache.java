@@ -0,0 +1,371 @@
+package bnorm.virtual;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import bnorm.base.Tank;
+import bnorm.utils.Trig;
+import robocode.RobocodeFileOutputStream;
+import robocode.Rules;
+
+/**
+ * A cache of precise maximum escape angles. The precise escape angle is how far, as an angle from
+ * the shooter, a target can get before a bullet reaches it when it orbits the shooter at full
+ * speed. Unlike <code>asin(MAX_VELOCITY / bulletSpeed)</code> it accounts for the target having
+ * to accelerate from its current lateral velocity, for its turn rate and for a wall in the way.
+ * <p>
+ * Angles are computed with a {@link MovementPredictor} on a grid of bullet power, distance,
+ * lateral velocity and distance to the wall ahead, and lookups linearly interpolate between the
+ * grid points. Each grid point is only simulated the first time a lookup needs it, after which it
+ * is a single read from a primitive array. The cache can be saved to and loaded from the robot
+ * data directory so later battles start warm.
+ * <p>
+ * The lateral velocity and the wall distance are both measured in the direction the angle is
+ * wanted for. Both sides of a target are found with two lookups:
+ *
+ * <pre>
+ * double clockwise = cache.getEscapeAngle(power, distance, lateralVelocity, clockwiseWall);
+ * double counter = cache.getEscapeAngle(power, distance, -lateralVelocity, counterWall);
+ * </pre>
+ *
+ * The target does not slide along the wall it hits, so the angles near walls are a little
+ * smaller than what a wall smoothing robot can reach.
+ *
+ * @author Brian Norman
+ */
+public final class EscapeAngleCache {
+
+   /**
+    * The magic number at the start of every saved cache, which is the characters <code>MEA1</code>.
+    */
+   public static final int MAGIC = 0x4D454131;
+
+   /**
+    * The bullet power grid.
+    */
+   private static final Axis POWER = new Axis(Rules.MIN_BULLET_POWER, Rules.MAX_BULLET_POWER, 15);
+
+   /**
+    * The distance grid.
+    */
+   private static final Axis DISTANCE = new Axis(50.0, 1250.0, 25);
+
+   /**
+    * The lateral velocity grid.
+    */
+   private static final Axis VELOCITY = new Axis(-Tank.MAX_VELOCITY, Tank.MAX_VELOCITY, 17);
+
+   /**
+    * The wall distance grid. Walls farther than the largest distance are treated as being at the
+    * largest distance.
+    */
+   private static final Axis WALL = new Axis(0.0, 400.0, 9);
+
+   /**
+    * The number of grid points.
+    */
+   private static final int SIZE = POWER.count * DISTANCE.count * VELOCITY.count * WALL.count;
+
+   /**
+    * How far the shooter is from the edges of the simulated battlefield other than the wall ahead.
+    */
+   private static final double FIELD_MARGIN = 2000.0;
+
+   /**
+    * The escape angle at each grid point or NaN if it has not been simulated yet. The wall
+    * distance is the fastest changing index.
+    */
+   private final float[] angles;
+
+   /**
+    * The simulators for each wall distance, created the first time they are needed.
+    */
+   private final MovementPredictor[] predictors;
+
+   /**
+    * The lower grid index of each dimension for the lookup in progress.
+    */
+   private final int[] index;
+
+   /**
+    * The fraction between the lower and upper grid index of each dimension for the lookup in
+    * progress.
+    */
+   private final double[] fraction;
+
+   /**
+    * Creates a new empty cache.
+    */
+   public EscapeAngleCache() {
+      angles = new float[SIZE];
+      Arrays.fill(angles, Float.NaN);
+      predictors = new MovementPredictor[WALL.count];
+      index = new int[4];
+      fraction = new double[4];
+   }
+
+   /**
+    * Returns the simple maximum escape angle for the specified bullet speed, which assumes the
+    * target is already moving at full speed perpendicular to the bullet.
+    *
+    * @param bulletSpeed the speed of the bullet.
+    * @return the simple maximum escape angle.
+    */
+   public static double getMaxEscapeAngle(double bulletSpeed) {
+      return Trig.asin(Tank.MAX_VELOCITY / bulletSpeed);
+   }
+
+   /**
+    * Returns the largest angle a target can reach in one direction before a bullet reaches it.
+    * Inputs outside of the grid are clamped to the grid.
+    *
+    * @param power the power of the bullet.
+    * @param distance the distance from the shooter to the target.
+    * @param lateralVelocity the velocity of the target in the direction of the angle.
+    * @param wallDistance the distance the target can move in the direction of the angle before it
+    *           hits a wall.
+    * @return the escape angle in radians.
+    */
+   public double getEscapeAngle(double power, double distance, double lateralVelocity, double wallDistance) {
+      POWER.locate(power, index, fraction, 0);
+      DISTANCE.locate(distance, index, fraction, 1);
+      VELOCITY.locate(lateralVelocity, index, fraction, 2);
+      WALL.locate(wallDistance, index, fraction, 3);
+
+      double angle = 0.0;
+      for (int corner = 0; corner < 16; corner++) {
+         double weight = 1.0;
+         int cell = 0;
+         for (int d = 0; d < 4; d++) {
+            int upper = (corner >> d) & 1;
+            weight *= upper == 0 ? 1.0 - fraction[d] : fraction[d];
+            cell = cell * count(d) + index[d] + upper;
+         }
+         if (weight != 0.0) {
+            angle += weight * angle(cell);
+         }
+      }
+      return angle;
+   }
+
+   /**
+    * Simulates every grid point that has not been simulated yet.
+    */
+   public void warmUp() {
+      for (int cell = 0; cell < SIZE; cell++) {
+         angle(cell);
+      }
+   }
+
+   /**
+    * Returns the number of grid points that have been simulated.
+    *
+    * @return the number of simulated grid points.
+    */
+   public int getComputed() {
+      int computed = 0;
+      for (float a : angles) {
+         if (a == a) {
+            computed++;
+         }
+      }
+      return computed;
+   }
+
+   /**
+    * Loads the grid points saved in the specified file into the cache. Grid points in the file
+    * that have not been simulated do not replace grid points in the cache.
+    *
+    * @param file the file to load.
+    * @return if the file was loaded.
+    */
+   public boolean load(File file) {
+      try (DataInputStream in = new DataInputStream(new GZIPInputStream(new FileInputStream(file)))) {
+         if (in.readInt() != MAGIC || in.readInt() != SIZE) {
+            System.err.println("Trouble reading escape angles: " + file.getName());
+            return false;
+         }
+
+         float[] saved = new float[SIZE];
+         for (int i = 0; i < SIZE; i++) {
+            saved[i] = in.readFloat();
+         }
+         for (int i = 0; i < SIZE; i++) {
+            if (saved[i] == saved[i]) {
+               angles[i] = saved[i];
+            }
+         }
+         return true;
+      } catch (IOException | SecurityException e) {
+         return false;
+      }
+   }
+
+   /**
+    * Saves the cache to the specified file in the robot data directory.
+    *
+    * @param file the file to save to.
+    * @return if the file was saved.
+    */
+   public boolean save(File file) {
+      try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new RobocodeFileOutputStream(file)))) {
+         out.writeInt(MAGIC);
+         out.writeInt(SIZE);
+         for (float a : angles) {
+            out.writeFloat(a);
+         }
+         return true;
+      } catch (IOException | SecurityException e) {
+         System.err.println("Trouble writing escape angles: " + file.getName());
+         return false;
+      }
+   }
+
+   /**
+    * Returns the escape angle at the specified grid point, simulating it if needed.
+    *
+    * @param cell the grid point.
+    * @return the escape angle.
+    */
+   private double angle(int cell) {
+      float a = angles[cell];
+      if (a != a) {
+         int wall = cell % WALL.count;
+         int rest = cell / WALL.count;
+         int velocity = rest % VELOCITY.count;
+         rest /= VELOCITY.count;
+         int distance = rest % DISTANCE.count;
+         int power = rest / DISTANCE.count;
+
+         a = (float) simulate(Rules.getBulletSpeed(POWER.value(power)), DISTANCE.value(distance),
+                              VELOCITY.value(velocity), wall);
+         angles[cell] = a;
+      }
+      return a;
+   }
+
+   /**
+    * Simulates a target orbiting the shooter clockwise at full speed until the bullet reaches it.
+    * The shooter is south of the target and the wall is to the east.
+    *
+    * @param bulletSpeed the speed of the bullet.
+    * @param distance the distance from the shooter to the target.
+    * @param velocity the starting velocity of the target.
+    * @param wall the wall distance grid index.
+    * @return the angle the target reached.
+    */
+   private double simulate(double bulletSpeed, double distance, double velocity, int wall) {
+      MovementPredictor predictor = predictors[wall];
+      if (predictor == null) {
+         double width = FIELD_MARGIN + WALL.value(wall) + MovementPredictor.WALL_MARGIN;
+         double height = 2 * FIELD_MARGIN + DISTANCE.max;
+         predictors[wall] = predictor = new MovementPredictor(width, height);
+      }
+
+      double x = FIELD_MARGIN;
+      double y = FIELD_MARGIN;
+      predictor.reset(x, y + distance, Trig.QUARTER_CIRCLE, velocity);
+      predictor.setMove(Double.POSITIVE_INFINITY);
+
+      double radius = 0.0;
+      do {
+         double bearing = Trig.angle(predictor.getX() - x, predictor.getY() - y);
+         predictor.setTurnTo(bearing + Trig.QUARTER_CIRCLE);
+         predictor.step();
+         radius += bulletSpeed;
+      } while (radius < Points.dist(x, y, predictor.getX(), predictor.getY()));
+
+      return Trig.angle(predictor.getX() - x, predictor.getY() - y);
+   }
+
+   /**
+    * Returns the number of grid points in the specified dimension.
+    *
+    * @param d the dimension.
+    * @return the number of grid points.
+    */
+   private static int count(int d) {
+      switch (d) {
+         case 0:
+            return POWER.count;
+         case 1:
+            return DISTANCE.count;
+         case 2:
+            return VELOCITY.count;
+         default:
+            return WALL.count;
+      }
+   }
+
+   /**
+    * A dimension of evenly spaced grid points.
+    */
+   private static final class Axis {
+
+      /**
+       * The value of the first grid point.
+       */
+      private final double min;
+
+      /**
+       * The value of the last grid point.
+       */
+      private final double max;
+
+      /**
+       * The number of grid points.
+       */
+      private final int count;
+
+      /**
+       * The distance between grid points.
+       */
+      private final double step;
+
+      /**
+       * Creates a new axis.
+       *
+       * @param min the value of the first grid point.
+       * @param max the value of the last grid point.
+       * @param count the number of grid points.
+       */
+      private Axis(double min, double max, int count) {
+         this.min = min;
+         this.max = max;
+         this.count = count;
+         this.step = (max - min) / (count - 1);
+      }
+
+      /**
+       * Returns the value of the specified grid point.
+       *
+       * @param i the grid index.
+       * @return the value of the grid point.
+       */
+      private double value(int i) {
+         return i == count - 1 ? max : min + i * step;
+      }
+
+      /**
+       * Finds the grid points on either side of the specified value. The last grid point is never
+       * the lower side, so the upper side is always a valid grid point.
+       *
+       * @param v the value.
+       * @param index where to write the lower grid index.
+       * @param fraction where to write the fraction between the grid points.
+       * @param d the dimension to write.
+       */
+      private void locate(double v, int[] index, double[] fraction, int d) {
+         double i = (Math.min(Math.max(v, min), max) - min) / step;
+         int lower = Math.min((int) i, count - 2);
+         index[d] = lower;
+         fraction[d] = i - lower;
+      }
+   }
+}
@@ -0,0 +1,23 @@
+package bnorm.virtual;
+
+/**
+ * Interface for the commands a robot gives during a movement prediction. The policy is asked for
+ * its commands once before every predicted tick, much like a robot sets its commands before
+ * calling <code>execute()</code>. Commands that are not changed carry over to the next tick.
+ *
+ * @author Brian Norman
+ * @see MovementPredictor
+ */
+public interface IMovementPolicy {
+
+   /**
+    * Sets the commands of the robot for the next tick. The current state of the robot can be read
+    * from the predictor and the commands are set with {@link MovementPredictor#setTurn(double)},
+    * {@link MovementPredictor#setMove(double)} and {@link MovementPredictor#setMaxVelocity(double)}.
+    *
+    * @param predictor the predictor running the prediction.
+    * @param tick the number of ticks since the start of the prediction.
+    */
+   void command(MovementPredictor predictor, int tick);
+
+}
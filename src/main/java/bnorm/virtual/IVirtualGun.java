@@ -0,0 +1,32 @@
+package bnorm.virtual;
+
+import bnorm.robots.IRobotSnapshot;
+
+/**
+ * Interface for a targeting strategy that can be scored by a {@link VirtualGunArray}. At fire
+ * time every gun in the array proposes the angle it would fire at, and the array keeps track of
+ * which of those angles would have hit.
+ *
+ * @author Brian Norman
+ */
+public interface IVirtualGun {
+
+   /**
+    * Returns the name of the gun.
+    *
+    * @return the name of the gun.
+    */
+   String getName();
+
+   /**
+    * Returns the angle the gun would fire a bullet at the specified target.
+    *
+    * @param source where the bullet is fired from.
+    * @param target the target.
+    * @param bulletSpeed the speed of the bullet.
+    * @param features the features of the current situation, shared by every gun in the array.
+    * @return the angle to fire at.
+    */
+   double aim(IPoint source, IRobotSnapshot target, double bulletSpeed, double[] features);
+
+}
@@ -42,6 +42,40 @@ public interface IWave extends IPoint {
     */
    public boolean isActive(long currentTime, IPoint target);
 
+   /**
+    * Returns the first tick at which the wave has traveled at least the
+    * specified distance. If the wave never travels that far then
+    * {@link Long#MAX_VALUE} is returned.
+    *
+    * @param distance the distance from where the wave started.
+    * @return the first tick the wave reaches the distance.
+    */
+   long getBreakTime(double distance);
+
+   /**
+    * Returns the first tick at which the wave has reached the specified
+    * point. The wave is not active against the point at and after this time,
+    * so <code>isActive(currentTime, point)</code> is the same as
+    * <code>isActive(currentTime) && currentTime < getBreakTime(point)</code>.
+    *
+    * @param point the point the wave is moving towards.
+    * @return the first tick the wave reaches the point.
+    */
+   long getBreakTime(IPoint point);
+
+   /**
+    * Returns the first tick at which the wave has reached the specified
+    * target, assuming that the target keeps moving in a straight line at a
+    * constant velocity. The position of the target is its position at the
+    * specified time. If the wave never catches the target then
+    * {@link Long#MAX_VALUE} is returned.
+    *
+    * @param target the moving target.
+    * @param time the time of the position of the target.
+    * @return the first tick the wave reaches the target.
+    */
+   long getBreakTime(IVector target, long time);
+
    /**
     * Returns the distance the wave has traveled from where it started as of
     * the specified time.
@@ -0,0 +1,176 @@
+package bnorm.virtual;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of the states of a robot over consecutive ticks, as written by a
+ * {@link MovementPredictor}. The state at index <code>0</code> is the state the prediction started
+ * from and the state at index <code>i</code> is the state <code>i</code> ticks later. The buffer
+ * grows as needed but never shrinks, so predicting many paths into the same buffer does not
+ * allocate once it is large enough.
+ *
+ * @author Brian Norman
+ */
+public final class MovementPath {
+
+   /**
+    * The <code>x</code> coordinates of the robot.
+    */
+   private double[] x;
+
+   /**
+    * The <code>y</code> coordinates of the robot.
+    */
+   private double[] y;
+
+   /**
+    * The headings of the robot.
+    */
+   private double[] heading;
+
+   /**
+    * The velocities of the robot.
+    */
+   private double[] velocity;
+
+   /**
+    * If the robot hit a wall during the tick that ended in each state.
+    */
+   private boolean[] hitWall;
+
+   /**
+    * The number of states in the path.
+    */
+   private int size;
+
+   /**
+    * Creates a new empty path with room for the specified number of ticks after the start.
+    *
+    * @param ticks the initial number of ticks the path has room for.
+    * @throws IllegalArgumentException if <code>ticks</code> is negative.
+    */
+   public MovementPath(int ticks) {
+      if (ticks < 0) {
+         throw new IllegalArgumentException("Ticks must not be negative (" + ticks + ").");
+      }
+      x = new double[ticks + 1];
+      y = new double[ticks + 1];
+      heading = new double[ticks + 1];
+      velocity = new double[ticks + 1];
+      hitWall = new boolean[ticks + 1];
+   }
+
+   /**
+    * Creates a new empty path.
+    */
+   public MovementPath() {
+      this(32);
+   }
+
+   /**
+    * Returns the number of states in the path, which is one more than the number of ticks that
+    * were predicted.
+    *
+    * @return the number of states.
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Returns the <code>x</code> coordinate of the robot at the specified index.
+    *
+    * @param index the number of ticks after the start.
+    * @return the <code>x</code> coordinate.
+    */
+   public double getX(int index) {
+      return x[check(index)];
+   }
+
+   /**
+    * Returns the <code>y</code> coordinate of the robot at the specified index.
+    *
+    * @param index the number of ticks after the start.
+    * @return the <code>y</code> coordinate.
+    */
+   public double getY(int index) {
+      return y[check(index)];
+   }
+
+   /**
+    * Returns the heading of the robot at the specified index.
+    *
+    * @param index the number of ticks after the start.
+    * @return the heading.
+    */
+   public double getHeading(int index) {
+      return heading[check(index)];
+   }
+
+   /**
+    * Returns the velocity of the robot at the specified index.
+    *
+    * @param index the number of ticks after the start.
+    * @return the velocity.
+    */
+   public double getVelocity(int index) {
+      return velocity[check(index)];
+   }
+
+   /**
+    * Returns true if the robot hit a wall during the tick that ended at the specified index.
+    *
+    * @param index the number of ticks after the start.
+    * @return if the robot hit a wall.
+    */
+   public boolean isHitWall(int index) {
+      return hitWall[check(index)];
+   }
+
+   /**
+    * Removes every state from the path.
+    */
+   public void clear() {
+      size = 0;
+   }
+
+   /**
+    * Adds a state to the end of the path.
+    *
+    * @param x the <code>x</code> coordinate.
+    * @param y the <code>y</code> coordinate.
+    * @param heading the heading.
+    * @param velocity the velocity.
+    * @param hitWall if the robot hit a wall.
+    */
+   void add(double x, double y, double heading, double velocity, boolean hitWall) {
+      if (size == this.x.length) {
+         int capacity = size + (size >> 1) + 1;
+         this.x = Arrays.copyOf(this.x, capacity);
+         this.y = Arrays.copyOf(this.y, capacity);
+         this.heading = Arrays.copyOf(this.heading, capacity);
+         this.velocity = Arrays.copyOf(this.velocity, capacity);
+         this.hitWall = Arrays.copyOf(this.hitWall, capacity);
+      }
+      this.x[size] = x;
+      this.y[size] = y;
+      this.heading[size] = heading;
+      this.velocity[size] = velocity;
+      this.hitWall[size] = hitWall;
+      size++;
+   }
+
+   /**
+    * Checks that the specified index is within the path.
+    *
+    * @param index the index to check.
+    * @return the index.
+    * @throws IndexOutOfBoundsException if the index is not within the path.
+    */
+   private int check(int index) {
+      if (index < 0 || index >= size) {
+         throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return index;
+   }
+}
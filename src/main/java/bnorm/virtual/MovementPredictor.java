@@ -0,0 +1,485 @@
+package bnorm.virtual;
+
+import java.util.Objects;
+
+import bnorm.base.Tank;
+import bnorm.utils.Utils;
+import robocode.Rules;
+
+/**
+ * Predicts the movement of a robot one tick at a time using the same rules as Robocode 1.8. Each
+ * tick the robot first turns, at a rate that depends on its velocity before the tick, then
+ * accelerates or decelerates towards the distance it has left to move, then moves along its new
+ * heading. If the robot ends the tick past a wall it is moved back along its heading until it is
+ * against the wall and it stops. Collisions with other robots are not predicted.
+ * <p>
+ * A predictor holds the state of a single robot and is meant to be reused. Nothing is allocated
+ * while predicting, so thousands of candidate paths can be predicted every tick into the same
+ * {@link MovementPath}.
+ *
+ * @author Brian Norman
+ */
+public final class MovementPredictor {
+
+   /**
+    * The closest the center of a robot can be to a wall.
+    */
+   public static final double WALL_MARGIN = 16.0;
+
+   /**
+    * The width of the battlefield.
+    */
+   private final double width;
+
+   /**
+    * The height of the battlefield.
+    */
+   private final double height;
+
+   /**
+    * The <code>x</code> coordinate of the robot.
+    */
+   private double x;
+
+   /**
+    * The <code>y</code> coordinate of the robot.
+    */
+   private double y;
+
+   /**
+    * The heading of the robot.
+    */
+   private double heading;
+
+   /**
+    * The velocity of the robot.
+    */
+   private double velocity;
+
+   /**
+    * The angle the robot has left to turn.
+    */
+   private double turnRemaining;
+
+   /**
+    * The distance the robot has left to move.
+    */
+   private double moveRemaining;
+
+   /**
+    * The maximum velocity of the robot.
+    */
+   private double maxVelocity;
+
+   /**
+    * If the robot cannot stop before the end of its move.
+    */
+   private boolean overDriving;
+
+   /**
+    * If the robot hit a wall during the last tick.
+    */
+   private boolean hitWall;
+
+   /**
+    * Creates a new predictor for a battlefield of the specified size.
+    *
+    * @param width the width of the battlefield.
+    * @param height the height of the battlefield.
+    * @throws IllegalArgumentException if the battlefield cannot fit a robot.
+    */
+   public MovementPredictor(double width, double height) {
+      if (!(width > 2 * WALL_MARGIN) || !(height > 2 * WALL_MARGIN)) {
+         throw new IllegalArgumentException("Battlefield is too small (" + width + "x" + height + ").");
+      }
+      this.width = width;
+      this.height = height;
+   }
+
+   /**
+    * Sets the state of the robot to the specified vector and clears all of the commands.
+    *
+    * @param start the position, heading and velocity of the robot.
+    * @throws NullPointerException if <code>start</code> is null.
+    */
+   public void reset(IVector start) {
+      Objects.requireNonNull(start, "IVector must not be null.");
+      reset(start.getX(), start.getY(), start.getHeading(), start.getVelocity());
+   }
+
+   /**
+    * Sets the state of the robot and clears all of the commands.
+    *
+    * @param x the <code>x</code> coordinate of the robot.
+    * @param y the <code>y</code> coordinate of the robot.
+    * @param heading the heading of the robot.
+    * @param velocity the velocity of the robot.
+    */
+   public void reset(double x, double y, double heading, double velocity) {
+      this.x = x;
+      this.y = y;
+      this.heading = Utils.absolute(heading);
+      this.velocity = velocity;
+      this.turnRemaining = 0.0;
+      this.moveRemaining = 0.0;
+      this.maxVelocity = Tank.MAX_VELOCITY;
+      this.overDriving = false;
+      this.hitWall = false;
+   }
+
+   /**
+    * Predicts the path of a robot that starts at the specified vector and follows the specified
+    * policy. The path is cleared and then holds the start followed by the state after each tick.
+    *
+    * @param start the position, heading and velocity of the robot.
+    * @param policy the commands of the robot.
+    * @param ticks the number of ticks to predict.
+    * @param path the path to write the states to.
+    * @throws NullPointerException if any of the arguments are null.
+    * @throws IllegalArgumentException if <code>ticks</code> is negative.
+    */
+   public void predict(IVector start, IMovementPolicy policy, int ticks, MovementPath path) {
+      Objects.requireNonNull(policy, "IMovementPolicy must not be null.");
+      Objects.requireNonNull(path, "MovementPath must not be null.");
+      if (ticks < 0) {
+         throw new IllegalArgumentException("Ticks must not be negative (" + ticks + ").");
+      }
+
+      reset(start);
+      path.clear();
+      path.add(x, y, heading, velocity, false);
+      for (int tick = 0; tick < ticks; tick++) {
+         policy.command(this, tick);
+         step();
+         path.add(x, y, heading, velocity, hitWall);
+      }
+   }
+
+   /**
+    * Moves the robot forward one tick with the current commands.
+    */
+   public void step() {
+      updateHeading();
+      updateMovement();
+      hitWall = checkWallCollision();
+   }
+
+   // --------
+   // Commands
+   // --------
+
+   /**
+    * Sets the angle for the robot to turn. A positive angle turns to the right and a negative
+    * angle turns to the left.
+    *
+    * @param a the angle to turn.
+    */
+   public void setTurn(double a) {
+      turnRemaining = a;
+   }
+
+   /**
+    * Sets the robot to turn to the specified heading.
+    *
+    * @param angle the heading to turn to.
+    */
+   public void setTurnTo(double angle) {
+      turnRemaining = Utils.relative(angle - heading);
+   }
+
+   /**
+    * Sets the distance for the robot to move. A positive distance moves forwards and a negative
+    * distance moves backwards.
+    *
+    * @param d the distance to move.
+    */
+   public void setMove(double d) {
+      moveRemaining = d;
+   }
+
+   /**
+    * Sets the maximum velocity of the robot. The velocity is limited to
+    * <code>[0, MAX_VELOCITY]</code>.
+    *
+    * @param v the maximum velocity.
+    */
+   public void setMaxVelocity(double v) {
+      maxVelocity = Utils.limit(0.0, v, Tank.MAX_VELOCITY);
+   }
+
+   // -----
+   // State
+   // -----
+
+   /**
+    * Returns the width of the battlefield.
+    *
+    * @return the width of the battlefield.
+    */
+   public double getBattleFieldWidth() {
+      return width;
+   }
+
+   /**
+    * Returns the height of the battlefield.
+    *
+    * @return the height of the battlefield.
+    */
+   public double getBattleFieldHeight() {
+      return height;
+   }
+
+   /**
+    * Returns the <code>x</code> coordinate of the robot.
+    *
+    * @return the <code>x</code> coordinate.
+    */
+   public double getX() {
+      return x;
+   }
+
+   /**
+    * Returns the <code>y</code> coordinate of the robot.
+    *
+    * @return the <code>y</code> coordinate.
+    */
+   public double getY() {
+      return y;
+   }
+
+   /**
+    * Returns the heading of the robot.
+    *
+    * @return the heading.
+    */
+   public double getHeading() {
+      return heading;
+   }
+
+   /**
+    * Returns the velocity of the robot.
+    *
+    * @return the velocity.
+    */
+   public double getVelocity() {
+      return velocity;
+   }
+
+   /**
+    * Returns the angle the robot has left to turn.
+    *
+    * @return the turn remaining.
+    */
+   public double getTurnRemaining() {
+      return turnRemaining;
+   }
+
+   /**
+    * Returns the distance the robot has left to move.
+    *
+    * @return the move remaining.
+    */
+   public double getMoveRemaining() {
+      return moveRemaining;
+   }
+
+   /**
+    * Returns the maximum velocity of the robot.
+    *
+    * @return the maximum velocity.
+    */
+   public double getMaxVelocity() {
+      return maxVelocity;
+   }
+
+   /**
+    * Returns true if the robot hit a wall during the last tick.
+    *
+    * @return if the robot hit a wall.
+    */
+   public boolean isHitWall() {
+      return hitWall;
+   }
+
+   // -------
+   // Physics
+   // -------
+
+   /**
+    * Turns the robot as far towards its remaining turn as its velocity allows.
+    */
+   private void updateHeading() {
+      double turnRate = (0.4 + 0.6 * (1.0 - (Math.abs(velocity) / Rules.MAX_VELOCITY)))
+                        * Rules.MAX_TURN_RATE_RADIANS;
+      if (turnRemaining > 0.0) {
+         if (turnRemaining < turnRate) {
+            heading += turnRemaining;
+            turnRemaining = 0.0;
+         } else {
+            heading += turnRate;
+            turnRemaining -= turnRate;
+         }
+      } else if (turnRemaining < 0.0) {
+         if (turnRemaining > -turnRate) {
+            heading += turnRemaining;
+            turnRemaining = 0.0;
+         } else {
+            heading -= turnRate;
+            turnRemaining += turnRate;
+         }
+      }
+      heading = Utils.absolute(heading);
+   }
+
+   /**
+    * Changes the velocity of the robot towards its remaining move and moves it along its heading.
+    */
+   private void updateMovement() {
+      double distance = moveRemaining;
+      if (Double.isNaN(distance)) {
+         distance = 0.0;
+      }
+
+      velocity = getNewVelocity(velocity, distance, maxVelocity);
+
+      // An overdriving robot that has stopped has finished its move
+      if (robocode.util.Utils.isNear(velocity, 0.0) && overDriving) {
+         distance = 0.0;
+         overDriving = false;
+      }
+
+      // A robot that cannot stop before the end of its move will overdrive
+      if (Math.signum(distance * velocity) != -1) {
+         overDriving = getDistanceTraveledUntilStop(velocity, maxVelocity) > Math.abs(distance);
+      }
+
+      moveRemaining = distance - velocity;
+      if (velocity != 0.0) {
+         x += velocity * Math.sin(heading);
+         y += velocity * Math.cos(heading);
+      }
+   }
+
+   /**
+    * Moves the robot back inside the battlefield if it went past a wall.
+    *
+    * @return if the robot hit a wall.
+    */
+   private boolean checkWallCollision() {
+      boolean hit = false;
+      double adjustX = 0.0;
+      double adjustY = 0.0;
+
+      if (x > width - WALL_MARGIN) {
+         hit = true;
+         adjustX = width - WALL_MARGIN - x;
+      } else if (x < WALL_MARGIN) {
+         hit = true;
+         adjustX = WALL_MARGIN - x;
+      }
+
+      if (y > height - WALL_MARGIN) {
+         hit = true;
+         adjustY = height - WALL_MARGIN - y;
+      } else if (y < WALL_MARGIN) {
+         hit = true;
+         adjustY = WALL_MARGIN - y;
+      }
+
+      if (hit) {
+         // Back the robot up along its heading unless it is moving straight at the wall
+         if ((heading % (Math.PI / 2)) != 0.0) {
+            double tanHeading = Math.tan(heading);
+            if (adjustX == 0.0) {
+               adjustX = adjustY * tanHeading;
+            } else if (adjustY == 0.0) {
+               adjustY = adjustX / tanHeading;
+            } else if (Math.abs(adjustX / tanHeading) > Math.abs(adjustY)) {
+               adjustY = adjustX / tanHeading;
+            } else if (Math.abs(adjustY * tanHeading) > Math.abs(adjustX)) {
+               adjustX = adjustY * tanHeading;
+            }
+         }
+         x += adjustX;
+         y += adjustY;
+
+         x = Utils.limit(WALL_MARGIN, x, width - WALL_MARGIN);
+         y = Utils.limit(WALL_MARGIN, y, height - WALL_MARGIN);
+
+         moveRemaining = 0.0;
+         velocity = 0.0;
+      }
+      return hit;
+   }
+
+   /**
+    * Returns the velocity of a robot after one tick of moving towards the specified distance.
+    *
+    * @param velocity the velocity of the robot.
+    * @param distance the distance the robot has left to move.
+    * @param maxVelocity the maximum velocity of the robot.
+    * @return the new velocity of the robot.
+    */
+   static double getNewVelocity(double velocity, double distance, double maxVelocity) {
+      if (distance < 0.0) {
+         return -getNewVelocity(-velocity, -distance, maxVelocity);
+      }
+
+      double goalVelocity;
+      if (distance == Double.POSITIVE_INFINITY) {
+         goalVelocity = maxVelocity;
+      } else {
+         goalVelocity = Math.min(getMaxVelocity(distance), maxVelocity);
+      }
+
+      if (velocity >= 0.0) {
+         return Math.max(velocity - Rules.DECELERATION, Math.min(goalVelocity, velocity + Rules.ACCELERATION));
+      }
+      return Math.max(velocity - Rules.ACCELERATION, Math.min(goalVelocity, velocity + maxDecel(-velocity)));
+   }
+
+   /**
+    * Returns the fastest a robot can move and still stop after exactly the specified distance.
+    *
+    * @param distance the distance the robot has left to move.
+    * @return the maximum velocity.
+    */
+   static double getMaxVelocity(double distance) {
+      double decelTime = Math.max(1, Math.ceil((Math.sqrt((4 * 2 / Rules.DECELERATION) * distance + 1) - 1) / 2));
+      if (decelTime == Double.POSITIVE_INFINITY) {
+         return Rules.MAX_VELOCITY;
+      }
+
+      double decelDist = (decelTime / 2.0) * (decelTime - 1) * Rules.DECELERATION;
+      return ((decelTime - 1) * Rules.DECELERATION) + ((distance - decelDist) / decelTime);
+   }
+
+   /**
+    * Returns how much a robot moving backwards at the specified speed can speed up towards moving
+    * forwards in one tick. The robot decelerates until it stops and accelerates after that.
+    *
+    * @param speed the speed of the robot.
+    * @return the change in velocity.
+    */
+   private static double maxDecel(double speed) {
+      double decelTime = speed / Rules.DECELERATION;
+      double accelTime = 1 - decelTime;
+      return Math.min(1, decelTime) * Rules.DECELERATION + Math.max(0, accelTime) * Rules.ACCELERATION;
+   }
+
+   /**
+    * Returns the distance a robot travels while braking to a stop.
+    *
+    * @param velocity the velocity of the robot.
+    * @param maxVelocity the maximum velocity of the robot.
+    * @return the braking distance.
+    */
+   private static double getDistanceTraveledUntilStop(double velocity, double maxVelocity) {
+      double distance = 0.0;
+      velocity = Math.abs(velocity);
+      while (velocity > 0.0) {
+         distance += (velocity = getNewVelocity(velocity, 0.0, maxVelocity));
+      }
+      return distance;
+   }
+}
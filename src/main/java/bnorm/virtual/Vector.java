@@ -12,25 +12,51 @@ import bnorm.utils.Utils;
  */
 public class Vector extends Point implements IVector {
 
+   /**
+    * The flag for when {@link #deltaX} has been computed.
+    */
+   private static final int DELTA_X = 1;
+
+   /**
+    * The flag for when {@link #deltaY} has been computed.
+    */
+   private static final int DELTA_Y = 1 << 1;
+
+   /**
+    * The flag for when {@link #heading} has been computed.
+    */
+   private static final int HEADING = 1 << 2;
+
+   /**
+    * The flag for when {@link #velocity} has been computed.
+    */
+   private static final int VELOCITY = 1 << 3;
+
    /**
     * The delta {@code x} of this Vector.
     */
-   private Double deltaX;
+   private double deltaX;
 
    /**
     * The delta {@code y} of this Vector.
     */
-   private Double deltaY;
+   private double deltaY;
 
    /**
     * The heading of this Vector.
     */
-   private Double heading;
+   private double heading;
 
    /**
     * The velocity of this Vector.
     */
-   private Double velocity;
+   private double velocity;
+
+   /**
+    * The bitmask of which of the above fields have been computed. The fields
+    * that are not known are lazily computed from the others.
+    */
+   private int known;
 
    /**
     * Creates a new Vector with the specified {@code (x, y)} coordinates,
@@ -48,8 +74,7 @@ public class Vector extends Point implements IVector {
       this.velocity = velocity;
 
       // Lazy initialize deltaX and deltaY
-      this.deltaX = null;
-      this.deltaY = null;
+      this.known = HEADING | VELOCITY;
    }
 
    /**
@@ -65,45 +90,58 @@ public class Vector extends Point implements IVector {
       this.deltaY = dy;
 
       // Lazy initialize heading and velocity
-      this.heading = null;
-      this.velocity = null;
+      this.known = DELTA_X | DELTA_Y;
    }
 
    @Override
    public double getDeltaX() {
-      if (deltaX == null) {
+      if ((known & DELTA_X) == 0) {
          deltaX = Utils.vectorX(heading, velocity);
+         known |= DELTA_X;
       }
       return deltaX;
    }
 
    @Override
    public double getDeltaY() {
-      if (deltaY == null) {
+      if ((known & DELTA_Y) == 0) {
          deltaY = Utils.vectorY(heading, velocity);
+         known |= DELTA_Y;
       }
       return deltaY;
    }
 
    @Override
    public double getHeading() {
-      if (heading == null) {
+      if ((known & HEADING) == 0) {
          heading = Trig.angle(deltaX, deltaY);
+         known |= HEADING;
       }
       return heading;
    }
 
    @Override
    public double getVelocity() {
-      if (velocity == null) {
+      if ((known & VELOCITY) == 0) {
          velocity = Points.dist(0.0, 0.0, deltaX, deltaY);
+         known |= VELOCITY;
       }
       return velocity;
    }
 
+   /**
+    * Returns true if the vector was created with, or has since computed, both
+    * its heading and velocity.
+    *
+    * @return if the heading and velocity are known.
+    */
+   private boolean isPolar() {
+      return (known & (HEADING | VELOCITY)) == (HEADING | VELOCITY);
+   }
+
    @Override
    public String toString() {
-      if (heading == null || velocity == null) {
+      if (!isPolar()) {
          return getClass().getSimpleName() + "[x=" + getX() + ", y=" + getY() + ", dx=" + getDeltaX() + ", dy="
                  + getDeltaY() + "]";
       } else {
@@ -116,7 +154,7 @@ public class Vector extends Point implements IVector {
    public boolean equals(Object obj) {
       if (obj instanceof IVector) {
          IVector v = (IVector) obj;
-         if (heading == null || velocity == null) {
+         if (!isPolar()) {
             return Utils.equal(getX(), v.getX()) && Utils.equal(getY(), v.getY()) && Utils
                     .equal(getDeltaX(), v.getDeltaX()) && Utils.equal(getDeltaY(), v.getDeltaY());
          } else {
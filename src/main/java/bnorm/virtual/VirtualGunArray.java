@@ -0,0 +1,235 @@
+package bnorm.virtual;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import bnorm.robots.IRobotSnapshot;
+import bnorm.utils.Trig;
+import bnorm.utils.Utils;
+
+/**
+ * An array of targeting strategies that are all scored against the same waves. When the robot
+ * fires, every gun proposes an angle and a single {@link VirtualGunWave} records all of them.
+ * Each tick the wave is checked against the target with a {@link WaveIntersection}, and once it
+ * has passed the target every gun whose angle was inside the covered angles scores a hit. Each gun
+ * keeps a rolling hit rate and the gun with the best rate is the one to fire with.
+ * <p>
+ * The features of the situation are computed once per shot and shared by every gun, and the
+ * array does all the wave bookkeeping, so a gun only costs its own aiming.
+ *
+ * @author Brian Norman
+ */
+public final class VirtualGunArray {
+
+   /**
+    * The guns in the array.
+    */
+   private final IVirtualGun[] guns;
+
+   /**
+    * The rolling hit rate of each gun.
+    */
+   private final double[] rates;
+
+   /**
+    * The number of waves each gun has been scored on.
+    */
+   private final int[] shots;
+
+   /**
+    * The number of shots in the rolling hit rate.
+    */
+   private final double depth;
+
+   /**
+    * The waves that have not been scored yet.
+    */
+   private final List<VirtualGunWave> waves;
+
+   /**
+    * Creates a new virtual gun array.
+    *
+    * @param depth the number of shots in the rolling hit rate.
+    * @param guns the guns in the array.
+    * @throws IllegalArgumentException if the depth is not positive or there are no guns.
+    */
+   public VirtualGunArray(double depth, IVirtualGun... guns) {
+      if (!(depth > 0.0)) {
+         throw new IllegalArgumentException("Depth must be positive (" + depth + ").");
+      } else if (guns.length == 0) {
+         throw new IllegalArgumentException("Must have at least one gun.");
+      }
+      for (IVirtualGun gun : guns) {
+         Objects.requireNonNull(gun, "IVirtualGun must not be null.");
+      }
+
+      this.guns = guns.clone();
+      this.rates = new double[guns.length];
+      this.shots = new int[guns.length];
+      this.depth = depth;
+      this.waves = new ArrayList<VirtualGunWave>();
+   }
+
+   /**
+    * Returns the number of guns in the array.
+    *
+    * @return the number of guns.
+    */
+   public int getGunCount() {
+      return guns.length;
+   }
+
+   /**
+    * Returns the gun at the specified index.
+    *
+    * @param gun the index of the gun.
+    * @return the gun.
+    */
+   public IVirtualGun getGun(int gun) {
+      return guns[gun];
+   }
+
+   /**
+    * Returns the rolling hit rate of the specified gun.
+    *
+    * @param gun the index of the gun.
+    * @return the hit rate.
+    */
+   public double getHitRate(int gun) {
+      return rates[gun];
+   }
+
+   /**
+    * Returns the number of waves the specified gun has been scored on.
+    *
+    * @param gun the index of the gun.
+    * @return the number of scored waves.
+    */
+   public int getShots(int gun) {
+      return shots[gun];
+   }
+
+   /**
+    * Returns the index of the gun with the best hit rate. Ties go to the gun added first.
+    *
+    * @return the index of the best gun.
+    */
+   public int getBestGun() {
+      int best = 0;
+      for (int i = 1; i < guns.length; i++) {
+         if (rates[i] > rates[best]) {
+            best = i;
+         }
+      }
+      return best;
+   }
+
+   /**
+    * Returns the waves that have not been scored yet.
+    *
+    * @return an unmodifiable view of the waves.
+    */
+   public List<VirtualGunWave> getWaves() {
+      return Collections.unmodifiableList(waves);
+   }
+
+   /**
+    * Asks every gun for its angle and records them in a new wave, which is fired at the angle of
+    * the best gun. Aim the real gun at the heading of the returned wave.
+    *
+    * @param source where the bullet is fired from.
+    * @param target the target.
+    * @param bulletSpeed the speed of the bullet.
+    * @param time the time the bullet is fired.
+    * @param features the features of the current situation, which are copied.
+    * @return the wave of the shot.
+    * @throws NullPointerException if the source or target is null.
+    */
+   public VirtualGunWave fire(IPoint source, IRobotSnapshot target, double bulletSpeed, long time,
+                              double[] features) {
+      Objects.requireNonNull(source, "IPoint must not be null.");
+      Objects.requireNonNull(target, "IRobotSnapshot must not be null.");
+
+      double[] shared = features == null ? new double[0] : features.clone();
+      double[] angles = new double[guns.length];
+      for (int i = 0; i < guns.length; i++) {
+         angles[i] = Utils.absolute(guns[i].aim(source, target, bulletSpeed, shared));
+      }
+
+      VirtualGunWave wave = new VirtualGunWave(source.getX(), source.getY(), bulletSpeed, angles[getBestGun()],
+                                               time, target.getName(), angles, shared);
+      waves.add(wave);
+      return wave;
+   }
+
+   /**
+    * Advances every wave fired at the target of the specified snapshot to the time of the snapshot,
+    * and scores the waves that have passed the target.
+    *
+    * @param target the snapshot of the target.
+    * @return the number of waves scored.
+    * @throws NullPointerException if <code>target</code> is null.
+    */
+   public int update(IRobotSnapshot target) {
+      Objects.requireNonNull(target, "IRobotSnapshot must not be null.");
+
+      int scored = 0;
+      long time = target.getTime();
+      for (int i = waves.size() - 1; i >= 0; i--) {
+         VirtualGunWave wave = waves.get(i);
+         if (!wave.getTarget().equals(target.getName())) {
+            continue;
+         }
+
+         WaveIntersection intersection = wave.getIntersection();
+         boolean touching = intersection.intersect(wave, target.getX(), target.getY(), time);
+         double passed = wave.dist(time - 1) - Points.dist(wave, target);
+         if ((intersection.isTouched() && !touching) || passed > WaveIntersection.ROBOT_HALF_SIZE * Math.sqrt(2)) {
+            score(wave, target);
+            waves.remove(i);
+            scored++;
+         }
+      }
+      return scored;
+   }
+
+   /**
+    * Removes every wave without scoring them, such as at the end of a round.
+    */
+   public void clear() {
+      waves.clear();
+   }
+
+   /**
+    * Scores every gun on a wave that has passed the target.
+    *
+    * @param wave the wave.
+    * @param target the last snapshot of the target.
+    */
+   private void score(VirtualGunWave wave, IRobotSnapshot target) {
+      WaveIntersection intersection = wave.getIntersection();
+      double reference;
+      double min;
+      double max;
+      if (intersection.isTouched()) {
+         reference = intersection.getReference();
+         min = intersection.getMinOffset();
+         max = intersection.getMaxOffset();
+      } else {
+         // The target was not seen while the wave passed it, so use its last position
+         reference = Trig.angle(target.getX() - wave.getX(), target.getY() - wave.getY());
+         max = Trig.atan(WaveIntersection.ROBOT_HALF_SIZE / Math.max(Points.dist(wave, target), 1.0));
+         min = -max;
+      }
+
+      for (int i = 0; i < guns.length; i++) {
+         double offset = Utils.relative(wave.getAngle(i) - reference);
+         double hit = offset >= min && offset <= max ? 1.0 : 0.0;
+         double n = Math.min(shots[i], depth);
+         rates[i] = (rates[i] * n + hit) / (n + 1.0);
+         shots[i]++;
+      }
+   }
+}
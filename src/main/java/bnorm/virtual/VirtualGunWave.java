@@ -0,0 +1,97 @@
+package bnorm.virtual;
+
+/**
+ * A wave fired by a {@link VirtualGunArray} that carries the angle proposed by every gun in the
+ * array. The heading of the wave is the angle the real bullet was fired at.
+ *
+ * @author Brian Norman
+ */
+public class VirtualGunWave extends VectorWave {
+
+   /**
+    * The name of the target.
+    */
+   private final String target;
+
+   /**
+    * The angle proposed by each gun.
+    */
+   private final double[] angles;
+
+   /**
+    * The features of the situation when the wave was fired.
+    */
+   private final double[] features;
+
+   /**
+    * The angles of the wave that passed through the target.
+    */
+   private final WaveIntersection intersection;
+
+   /**
+    * Creates a new wave.
+    *
+    * @param x the <code>x</code> coordinate of where the wave was fired.
+    * @param y the <code>y</code> coordinate of where the wave was fired.
+    * @param velocity the velocity of the wave.
+    * @param heading the angle the real bullet was fired at.
+    * @param time the time the wave was fired.
+    * @param target the name of the target.
+    * @param angles the angle proposed by each gun, which are not copied.
+    * @param features the features of the situation, which are not copied.
+    */
+   VirtualGunWave(double x, double y, double velocity, double heading, long time, String target, double[] angles,
+                  double[] features) {
+      super(x, y, velocity, heading, time);
+      this.target = target;
+      this.angles = angles;
+      this.features = features;
+      this.intersection = new WaveIntersection();
+   }
+
+   /**
+    * Returns the name of the target.
+    *
+    * @return the name of the target.
+    */
+   public String getTarget() {
+      return target;
+   }
+
+   /**
+    * Returns the angle proposed by the specified gun.
+    *
+    * @param gun the index of the gun in the array.
+    * @return the angle proposed by the gun.
+    */
+   public double getAngle(int gun) {
+      return angles[gun];
+   }
+
+   /**
+    * Returns the number of guns that proposed an angle.
+    *
+    * @return the number of guns.
+    */
+   public int getGunCount() {
+      return angles.length;
+   }
+
+   /**
+    * Returns the features of the situation when the wave was fired. The array must not be changed.
+    *
+    * @return the features.
+    */
+   public double[] getFeatures() {
+      return features;
+   }
+
+   /**
+    * Returns the angles of the wave that have passed through the target so far.
+    *
+    * @return the intersection of the wave and the target.
+    */
+   WaveIntersection getIntersection() {
+      return intersection;
+   }
+}
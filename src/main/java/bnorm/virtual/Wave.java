@@ -23,6 +23,11 @@ public class Wave extends Point implements IWave {
     */
    private long time;
 
+   /**
+    * The first tick at which the wave is no longer active.
+    */
+   private long expiry;
+
    /**
     * Creates a new blank wave. This wave is centered at negative infinity and has no speed and was created at time
     * <code>0</code>.
@@ -43,6 +48,12 @@ public class Wave extends Point implements IWave {
       super(x, y);
       this.velocity = velocity;
       this.time = time;
+      if (x >= 0 && y >= 0 && x <= Tank.MAX_BATTLEFIELD_WIDTH && y <= Tank.MAX_BATTLEFIELD_HEIGHT) {
+         // Active while the wave has not traveled farther than the diagonal
+         this.expiry = velocity > 0 ? after(Math.floor(Tank.MAX_BATTLEFIELD_DIAGONAL / velocity) + 1) : Long.MAX_VALUE;
+      } else {
+         this.expiry = Long.MIN_VALUE;
+      }
    }
 
    /**
@@ -66,13 +77,65 @@ public class Wave extends Point implements IWave {
 
    @Override
    public boolean isActive(long currentTime) {
-      return getX() >= 0 && getY() >= 0 && getX() <= Tank.MAX_BATTLEFIELD_WIDTH && getY() <= Tank.MAX_BATTLEFIELD_HEIGHT
-              && distSq(currentTime) <= Tank.MAX_BATTLEFIELD_DIAGONAL;
+      return currentTime < expiry;
    }
 
    @Override
    public boolean isActive(long currentTime, IPoint target) {
-      return isActive(currentTime) && distSq(currentTime) < Points.distSq(this, target);
+      return isActive(currentTime) && currentTime < getBreakTime(target);
+   }
+
+   @Override
+   public long getBreakTime(double distance) {
+      if (!(velocity > 0)) {
+         return Long.MAX_VALUE;
+      }
+      return after(Math.ceil(distance / velocity));
+   }
+
+   @Override
+   public long getBreakTime(IPoint point) {
+      return getBreakTime(Points.dist(this, point));
+   }
+
+   @Override
+   public long getBreakTime(IVector target, long time) {
+      // Position of the target relative to the wave when the wave started
+      double qx = target.getX() - getX() + target.getDeltaX() * (this.time - time);
+      double qy = target.getY() - getY() + target.getDeltaY() * (this.time - time);
+      double dx = target.getDeltaX();
+      double dy = target.getDeltaY();
+
+      // Solve |q + d * s| = velocity * s for the smallest s >= 0
+      double a = dx * dx + dy * dy - velocity * velocity;
+      double b = 2.0 * (qx * dx + qy * dy);
+      double c = qx * qx + qy * qy;
+      double s;
+      if (c == 0) {
+         s = 0;
+      } else if (a < 0) {
+         s = (-b - Math.sqrt(b * b - 4.0 * a * c)) / (2.0 * a);
+      } else if (a == 0) {
+         s = b < 0 ? -c / b : Double.POSITIVE_INFINITY;
+      } else {
+         double disc = b * b - 4.0 * a * c;
+         s = disc >= 0 && b < 0 ? (-b - Math.sqrt(disc)) / (2.0 * a) : Double.POSITIVE_INFINITY;
+      }
+      return after(Math.ceil(s));
+   }
+
+   /**
+    * Returns the tick that is the specified number of ticks after the wave
+    * started, saturating at {@link Long#MAX_VALUE}.
+    *
+    * @param ticks the number of ticks.
+    * @return the tick.
+    */
+   private long after(double ticks) {
+      if (!(ticks < Long.MAX_VALUE - time)) {
+         return Long.MAX_VALUE;
+      }
+      return time + (long) ticks;
    }
 
    @Override
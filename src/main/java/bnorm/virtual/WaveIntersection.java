@@ -0,0 +1,310 @@
+package bnorm.virtual;
+
+import bnorm.utils.Trig;
+import bnorm.utils.Utils;
+
+/**
+ * Computes the exact range of angles of a wave that pass through a robot. Each tick the front of a
+ * wave sweeps the ring between how far it had traveled at the end of the previous tick and how far
+ * it has traveled at the end of the tick. The part of the ring that overlaps the bounding box of a
+ * robot is covered by the angles between the two extreme points of the overlap, which are always
+ * corners of the box inside the ring or points where the edges of the box cross one of the two
+ * circles of the ring. Those points are found in closed form, so no sampling is needed.
+ * <p>
+ * An intersection is reused from wave to wave by calling {@link #reset()}, and calling
+ * {@link #intersect(IWave, double, double, long)} once per tick with the position of the robot at
+ * that tick accumulates the covered angles. Angles are kept as offsets from the angle from the
+ * wave to the robot at the first tick, so the range never wraps around. Nothing is allocated.
+ *
+ * @author Brian Norman
+ */
+public final class WaveIntersection {
+
+   /**
+    * Half of the width and height of the bounding box of a robot.
+    */
+   public static final double ROBOT_HALF_SIZE = 18.0;
+
+   /**
+    * The angle from the wave to the robot at the first tick the wave touched the robot.
+    */
+   private double reference;
+
+   /**
+    * The smallest covered angle relative to the reference angle.
+    */
+   private double minOffset;
+
+   /**
+    * The largest covered angle relative to the reference angle.
+    */
+   private double maxOffset;
+
+   /**
+    * The first tick the wave touched the robot.
+    */
+   private long firstTime;
+
+   /**
+    * The last tick the wave touched the robot.
+    */
+   private long lastTime;
+
+   /**
+    * If the wave has touched the robot.
+    */
+   private boolean touched;
+
+   /**
+    * The <code>x</code> coordinate of the wave being intersected.
+    */
+   private double waveX;
+
+   /**
+    * The <code>y</code> coordinate of the wave being intersected.
+    */
+   private double waveY;
+
+   /**
+    * If a point was found during the current tick.
+    */
+   private boolean found;
+
+   /**
+    * Creates a new empty intersection.
+    */
+   public WaveIntersection() {
+      reset();
+   }
+
+   /**
+    * Forgets all of the covered angles.
+    */
+   public void reset() {
+      reference = 0.0;
+      minOffset = Double.POSITIVE_INFINITY;
+      maxOffset = Double.NEGATIVE_INFINITY;
+      firstTime = Long.MAX_VALUE;
+      lastTime = Long.MIN_VALUE;
+      touched = false;
+   }
+
+   /**
+    * Adds the angles of the specified wave that pass through the bounding box of a robot centered
+    * on the specified coordinates during the specified tick.
+    *
+    * @param wave the wave.
+    * @param x the <code>x</code> coordinate of the center of the robot.
+    * @param y the <code>y</code> coordinate of the center of the robot.
+    * @param time the tick.
+    * @return if the wave touched the robot during the tick.
+    */
+   public boolean intersect(IWave wave, double x, double y, long time) {
+      double outer = wave.dist(time);
+      double inner = Math.max(0.0, wave.dist(time - 1));
+      if (!(outer > 0.0) || outer < inner) {
+         return false;
+      }
+
+      waveX = wave.getX();
+      waveY = wave.getY();
+      double minX = x - ROBOT_HALF_SIZE;
+      double maxX = x + ROBOT_HALF_SIZE;
+      double minY = y - ROBOT_HALF_SIZE;
+      double maxY = y + ROBOT_HALF_SIZE;
+
+      if (!touched) {
+         reference = Trig.angle(x - waveX, y - waveY);
+      }
+      found = false;
+
+      if (waveX >= minX && waveX <= maxX && waveY >= minY && waveY <= maxY) {
+         // The wave started inside of the robot so every angle passes through it until the ring
+         // passes the farthest corner
+         double farX = Math.max(waveX - minX, maxX - waveX);
+         double farY = Math.max(waveY - minY, maxY - waveY);
+         if (inner * inner <= farX * farX + farY * farY) {
+            found = true;
+            minOffset = -Math.PI;
+            maxOffset = Math.PI;
+         }
+      } else {
+         double innerSq = inner * inner;
+         double outerSq = outer * outer;
+         corner(minX, minY, innerSq, outerSq);
+         corner(minX, maxY, innerSq, outerSq);
+         corner(maxX, minY, innerSq, outerSq);
+         corner(maxX, maxY, innerSq, outerSq);
+
+         vertical(minX, minY, maxY, inner);
+         vertical(maxX, minY, maxY, inner);
+         horizontal(minY, minX, maxX, inner);
+         horizontal(maxY, minX, maxX, inner);
+         vertical(minX, minY, maxY, outer);
+         vertical(maxX, minY, maxY, outer);
+         horizontal(minY, minX, maxX, outer);
+         horizontal(maxY, minX, maxX, outer);
+      }
+
+      if (found) {
+         touched = true;
+         firstTime = Math.min(firstTime, time);
+         lastTime = Math.max(lastTime, time);
+      }
+      return found;
+   }
+
+   /**
+    * Returns true if the wave has touched the robot since the last reset.
+    *
+    * @return if any angles are covered.
+    */
+   public boolean isTouched() {
+      return touched;
+   }
+
+   /**
+    * Returns the angle from the wave to the center of the robot at the first tick the wave touched
+    * the robot. The offsets are relative to this angle.
+    *
+    * @return the reference angle.
+    */
+   public double getReference() {
+      return reference;
+   }
+
+   /**
+    * Returns the smallest covered angle relative to the reference angle.
+    *
+    * @return the smallest offset.
+    */
+   public double getMinOffset() {
+      return minOffset;
+   }
+
+   /**
+    * Returns the largest covered angle relative to the reference angle.
+    *
+    * @return the largest offset.
+    */
+   public double getMaxOffset() {
+      return maxOffset;
+   }
+
+   /**
+    * Returns the smallest covered angle.
+    *
+    * @return the smallest angle.
+    */
+   public double getMinAngle() {
+      return Utils.absolute(reference + minOffset);
+   }
+
+   /**
+    * Returns the largest covered angle.
+    *
+    * @return the largest angle.
+    */
+   public double getMaxAngle() {
+      return Utils.absolute(reference + maxOffset);
+   }
+
+   /**
+    * Returns the width of the covered angles or zero if the wave has not touched the robot.
+    *
+    * @return the width of the covered angles.
+    */
+   public double getWidth() {
+      return touched ? maxOffset - minOffset : 0.0;
+   }
+
+   /**
+    * Returns the first tick the wave touched the robot.
+    *
+    * @return the first tick.
+    */
+   public long getFirstTime() {
+      return firstTime;
+   }
+
+   /**
+    * Returns the last tick the wave touched the robot.
+    *
+    * @return the last tick.
+    */
+   public long getLastTime() {
+      return lastTime;
+   }
+
+   /**
+    * Adds the specified corner if it is inside of the ring.
+    *
+    * @param px the <code>x</code> coordinate of the corner.
+    * @param py the <code>y</code> coordinate of the corner.
+    * @param innerSq the squared inner radius of the ring.
+    * @param outerSq the squared outer radius of the ring.
+    */
+   private void corner(double px, double py, double innerSq, double outerSq) {
+      double distSq = Points.distSq(waveX, waveY, px, py);
+      if (distSq >= innerSq && distSq <= outerSq) {
+         add(px, py);
+      }
+   }
+
+   /**
+    * Adds the points where a circle around the wave crosses a vertical edge.
+    *
+    * @param ex the <code>x</code> coordinate of the edge.
+    * @param minY the smallest <code>y</code> coordinate of the edge.
+    * @param maxY the largest <code>y</code> coordinate of the edge.
+    * @param radius the radius of the circle.
+    */
+   private void vertical(double ex, double minY, double maxY, double radius) {
+      double dx = ex - waveX;
+      double h = radius * radius - dx * dx;
+      if (h >= 0.0) {
+         double root = Math.sqrt(h);
+         if (waveY + root >= minY && waveY + root <= maxY) {
+            add(ex, waveY + root);
+         }
+         if (waveY - root >= minY && waveY - root <= maxY) {
+            add(ex, waveY - root);
+         }
+      }
+   }
+
+   /**
+    * Adds the points where a circle around the wave crosses a horizontal edge.
+    *
+    * @param ey the <code>y</code> coordinate of the edge.
+    * @param minX the smallest <code>x</code> coordinate of the edge.
+    * @param maxX the largest <code>x</code> coordinate of the edge.
+    * @param radius the radius of the circle.
+    */
+   private void horizontal(double ey, double minX, double maxX, double radius) {
+      double dy = ey - waveY;
+      double h = radius * radius - dy * dy;
+      if (h >= 0.0) {
+         double root = Math.sqrt(h);
+         if (waveX + root >= minX && waveX + root <= maxX) {
+            add(waveX + root, ey);
+         }
+         if (waveX - root >= minX && waveX - root <= maxX) {
+            add(waveX - root, ey);
+         }
+      }
+   }
+
+   /**
+    * Widens the covered angles to include the specified point.
+    *
+    * @param px the <code>x</code> coordinate of the point.
+    * @param py the <code>y</code> coordinate of the point.
+    */
+   private void add(double px, double py) {
+      double offset = Utils.relative(Trig.angle(px - waveX, py - waveY) - reference);
+      minOffset = Math.min(minOffset, offset);
+      maxOffset = Math.max(maxOffset, offset);
+      found = true;
+   }
+}
@@ -0,0 +1,145 @@
+package bnorm.manage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.events.RobotFiredEvent;
+import bnorm.events.RobotFiredListener;
+import bnorm.robots.Enemy;
+import bnorm.robots.IRobot;
+import bnorm.robots.RobotSnapshotFactory;
+import robocode.Bullet;
+import robocode.BulletHitEvent;
+import robocode.Event;
+import robocode.HitByBulletEvent;
+import robocode.HitRobotEvent;
+
+/**
+ * A group of unit tests for {@link FireDetector}.
+ *
+ * @author Brian Norman
+ */
+public class FireDetectorTest {
+
+   /**
+    * The snapshot factory of the tests.
+    */
+   private static final RobotSnapshotFactory SNAPSHOTS = new RobotSnapshotFactory();
+
+   /**
+    * Test method for {@link FireDetector#update(IRobot)} with an energy ledger.
+    */
+   @Test
+   public void testUpdate() {
+      FireDetector detector = new FireDetector();
+      List<RobotFiredEvent> fired = listen(detector);
+      IRobot enemy = new Enemy("A");
+
+      add(detector, enemy, 100.0, 0.0, 39);
+      add(detector, enemy, 98.0, 0.0, 40);
+      Assert.assertEquals(1, fired.size());
+      Assert.assertEquals(2.0, fired.get(0).getFirepower(), 1.0E-9);
+      Assert.assertEquals(39, fired.get(0).getFireTime());
+      Assert.assertEquals(1.0, fired.get(0).getConfidence(), 0.0);
+      Assert.assertEquals(39 + 14, detector.getGunHeatTracker().getReadyTime("A"));
+
+      // Our bullet hits, their bullet hits us, and we ram each other
+      detector.onBulletHitEvent(at(new BulletHitEvent("A", 88.0, bullet(2.0, "Me", "A")), 41));
+      add(detector, enemy, 88.0, 0.0, 41);
+      detector.onHitByBulletEvent(at(new HitByBulletEvent(0.0, bullet(1.0, "A", "Me")), 43));
+      add(detector, enemy, 91.0, 0.0, 43);
+      detector.onHitRobotEvent(at(new HitRobotEvent("A", 0.0, 90.4, false), 44));
+      add(detector, enemy, 90.4, 8.0, 44);
+      add(detector, enemy, 90.4, 8.0, 45);
+      Assert.assertEquals("Nothing should be fired.", 1, fired.size());
+
+      // A wall hit at full speed
+      add(detector, enemy, 87.4, FireDetector.WALL_MARGIN, 0.0, 46);
+      Assert.assertEquals("Nothing should be fired.", 1, fired.size());
+
+      // A bullet somewhere in a gap, which is fired as soon as the gun is cool
+      add(detector, enemy, 85.9, 0.0, 60);
+      Assert.assertEquals(2, fired.size());
+      Assert.assertEquals(1.5, fired.get(1).getFirepower(), 1.0E-9);
+      Assert.assertEquals(53, fired.get(1).getFireTime());
+      Assert.assertEquals(1.0 / 7.0, fired.get(1).getConfidence(), 1.0E-12);
+      Assert.assertEquals(46, fired.get(1).getSnapshot().getTime());
+
+      // A bullet while the gun should still be hot
+      add(detector, enemy, 84.9, 0.0, 61);
+      Assert.assertEquals(3, fired.size());
+      Assert.assertEquals(60, fired.get(2).getFireTime());
+      Assert.assertEquals(FireDetector.GUN_HEAT_CONFIDENCE, fired.get(2).getConfidence(), 0.0);
+   }
+
+   /**
+    * Test method for {@link FireDetector#update(IRobot)} when a robot speeds up into a wall.
+    */
+   @Test
+   public void testAccelerateIntoWall() {
+      FireDetector detector = new FireDetector();
+      List<RobotFiredEvent> fired = listen(detector);
+      IRobot enemy = new Enemy("A");
+
+      // Going 6 and then 7 into the wall, which is 2.5 damage
+      add(detector, enemy, 100.0, 100.0, 6.0, 40);
+      add(detector, enemy, 97.5, FireDetector.WALL_MARGIN, 0.0, 41);
+      Assert.assertTrue("Wall damage should not be a bullet.", fired.isEmpty());
+
+      // A bullet on the same tick as a wall hit
+      add(detector, enemy, 97.5, 100.0, 6.0, 60);
+      add(detector, enemy, 93.0, FireDetector.WALL_MARGIN, 0.0, 61);
+      Assert.assertEquals(1, fired.size());
+      Assert.assertEquals(2.0, fired.get(0).getFirepower(), 1.0E-9);
+      Assert.assertEquals(FireDetector.WALL_HIT_CONFIDENCE, fired.get(0).getConfidence(), 0.0);
+   }
+
+   /**
+    * Test method for {@link FireDetector#update(IRobot)} when a robot brakes during ticks that are
+    * not seen.
+    */
+   @Test
+   public void testBrakeDuringGap() {
+      FireDetector detector = new FireDetector();
+      List<RobotFiredEvent> fired = listen(detector);
+      IRobot enemy = new Enemy("A");
+
+      add(detector, enemy, 100.0, FireDetector.WALL_MARGIN + 40.0, 8.0, 40);
+      add(detector, enemy, 98.0, FireDetector.WALL_MARGIN, 0.0, 44);
+      Assert.assertEquals("A stop across a gap should not be a wall hit.", 1, fired.size());
+      Assert.assertEquals(2.0, fired.get(0).getFirepower(), 1.0E-9);
+      Assert.assertEquals(40, fired.get(0).getFireTime());
+   }
+
+   private static List<RobotFiredEvent> listen(FireDetector detector) {
+      final List<RobotFiredEvent> fired = new ArrayList<RobotFiredEvent>();
+      detector.addRobotFiredListener(new RobotFiredListener() {
+         @Override
+         public void handleRobotFired(RobotFiredEvent event) {
+            fired.add(event);
+         }
+      });
+      return fired;
+   }
+
+   private static void add(FireDetector detector, IRobot robot, double energy, double velocity, long time) {
+      add(detector, robot, energy, 100.0, velocity, time);
+   }
+
+   private static void add(FireDetector detector, IRobot robot, double energy, double x, double velocity, long time) {
+      robot.add(SNAPSHOTS.create(robot.getName(), x, 100.0, energy, 0.0, velocity, time, 0));
+      detector.update(robot);
+   }
+
+   private static Bullet bullet(double power, String owner, String victim) {
+      return new Bullet(0.0, 100.0, 100.0, power, owner, victim, false, 1);
+   }
+
+   private static <E extends Event> E at(E event, long time) {
+      event.setTime(time);
+      return event;
+   }
+}
@@ -0,0 +1,377 @@
+package bnorm.manage;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.events.RobotFiredEvent;
+import bnorm.events.RobotFoundEvent;
+import bnorm.robots.Enemy;
+import bnorm.robots.IRobotSnapshot;
+import bnorm.robots.RobotSnapshotFactory;
+import bnorm.stats.GuessFactorStats;
+import bnorm.stats.Segmentation;
+
+/**
+ * A group of unit tests for {@link KnowledgeStore}.
+ *
+ * @author Brian Norman
+ */
+public class KnowledgeStoreTest {
+
+   /**
+    * Deletes the specified temporary directory and the files in it.
+    *
+    * @param directory the directory to delete.
+    */
+   private static void delete(File directory) {
+      File[] files = directory.listFiles();
+      if (files != null) {
+         for (File file : files) {
+            file.delete();
+         }
+      }
+      directory.delete();
+   }
+
+   /**
+    * Creates a store that writes with plain file streams, since a {@link robocode.RobocodeFileOutputStream}
+    * can only be opened by a running robot.
+    *
+    * @param directory the directory of the store.
+    * @param quota the quota of the store.
+    * @return the store.
+    */
+   private static KnowledgeStore store(File directory, long quota) {
+      return new KnowledgeStore(directory, quota) {
+         @Override
+         OutputStream open(File file) throws IOException {
+            return new FileOutputStream(file);
+         }
+      };
+   }
+
+   /**
+    * Creates a store that fails to write a file that would not fit in the quota, like a
+    * {@link robocode.RobocodeFileOutputStream}.
+    *
+    * @param directory the directory of the store.
+    * @param quota the quota of the store.
+    * @return the store.
+    */
+   private static KnowledgeStore quotaStore(final File directory, final long quota) {
+      return new KnowledgeStore(directory, quota) {
+         @Override
+         OutputStream open(File file) throws IOException {
+            long used = 0;
+            File[] files = directory.listFiles();
+            for (int i = 0; files != null && i < files.length; i++) {
+               if (!files[i].equals(file)) {
+                  used += files[i].length();
+               }
+            }
+            final long room = quota - used;
+            return new FilterOutputStream(new FileOutputStream(file)) {
+               private long written;
+
+               @Override
+               public void write(int b) throws IOException {
+                  if (++written > room) {
+                     throw new IOException("Quota exceeded.");
+                  }
+                  super.write(b);
+               }
+            };
+         }
+      };
+   }
+
+   /**
+    * A test for the {@link KnowledgeStore#save()} and
+    * {@link KnowledgeStore#attach(String, String, bnorm.utils.IPersistent)} methods across battles.
+    */
+   @Test
+   public void testSaveAndAttach() throws IOException {
+      File directory = Files.createTempDirectory("knowledge").toFile();
+      try {
+         saveAndAttach(directory);
+      } finally {
+         delete(directory);
+      }
+   }
+
+   /**
+    * Saves statistics to the specified directory and restores them in a new store.
+    *
+    * @param directory the directory of the stores.
+    */
+   private static void saveAndAttach(File directory) {
+      double[] features = {};
+      GuessFactorStats stats = new GuessFactorStats(31, 10.0, 1.0, Segmentation.none());
+      stats.update(features, 0.6, 1.0);
+
+      KnowledgeStore first = store(directory, 1 << 20);
+      first.handleRobotFound(new RobotFoundEvent(new Enemy("sample.Walls 1.0")));
+      Assert.assertFalse(first.attach("sample.Walls 1.0", "gun", stats));
+      Assert.assertEquals(1, first.save());
+      Assert.assertTrue(first.getFile("sample.Walls 1.0").isFile());
+
+      KnowledgeStore second = store(directory, 1 << 20);
+      Assert.assertTrue(second.contains("sample.Walls 1.0", "gun"));
+      Assert.assertFalse(second.contains("sample.Walls 1.0", "movement"));
+      GuessFactorStats restored = new GuessFactorStats(31, 10.0, 1.0, Segmentation.none());
+      Assert.assertTrue(second.attach("sample.Walls 1.0", "gun", restored));
+      Assert.assertEquals(stats.getBestGuessFactor(features), restored.getBestGuessFactor(features), 0.0);
+      Assert.assertEquals(stats.getDensity(features, 0.6), restored.getDensity(features, 0.6), 1.0E-6);
+
+      // Statistics of another shape are left alone
+      GuessFactorStats other = new GuessFactorStats(21, 10.0, 1.0, Segmentation.none());
+      Assert.assertFalse(second.attach("sample.Walls 1.0", "gun", other));
+      Assert.assertEquals(0.0, other.getBestGuessFactor(features), 0.0);
+   }
+
+   /**
+    * A test for the {@link KnowledgeStore#save()} method when the files do not fit in the quota.
+    */
+   @Test
+   public void testSaveQuota() throws IOException {
+      File directory = Files.createTempDirectory("knowledge").toFile();
+      try {
+         saveQuota(directory);
+      } finally {
+         delete(directory);
+      }
+   }
+
+   /**
+    * Saves statistics of two enemies to the specified directory and trims them to one file.
+    *
+    * @param directory the directory of the stores.
+    */
+   private static void saveQuota(File directory) {
+      KnowledgeStore store = store(directory, 1 << 20);
+      store.attach("old", "gun", new GuessFactorStats(31, 10.0, 1.0, Segmentation.none()));
+      store.attach("new", "gun", new GuessFactorStats(31, 10.0, 1.0, Segmentation.none()));
+      Assert.assertEquals(2, store.save());
+
+      File old = store.getFile("old");
+      File recent = store.getFile("new");
+      Assert.assertTrue(old.setLastModified(recent.lastModified() - 60000));
+
+      store(directory, recent.length()).save();
+      Assert.assertFalse(old.exists());
+      Assert.assertTrue(recent.exists());
+   }
+
+   /**
+    * A test for the {@link KnowledgeStore#save()} method with an enemy that is found but never
+    * attached.
+    */
+   @Test
+   public void testSaveFound() throws IOException {
+      File directory = Files.createTempDirectory("knowledge").toFile();
+      try {
+         saveFound(directory);
+      } finally {
+         delete(directory);
+      }
+   }
+
+   /**
+    * Saves two enemies to the specified directory, finds only the older one in the next battle, and
+    * checks that it is kept over the other when trimming.
+    *
+    * @param directory the directory of the stores.
+    */
+   private static void saveFound(File directory) {
+      KnowledgeStore first = store(directory, 1 << 20);
+      first.attach("found", "gun", new GuessFactorStats(31, 10.0, 1.0, Segmentation.none()));
+      first.attach("missed", "gun", new GuessFactorStats(31, 10.0, 1.0, Segmentation.none()));
+      Assert.assertEquals(2, first.save());
+
+      File found = first.getFile("found");
+      File missed = first.getFile("missed");
+      long stale = missed.lastModified() - 60000;
+      Assert.assertTrue(found.setLastModified(stale - 60000));
+      Assert.assertTrue(missed.setLastModified(stale));
+
+      // The old file is kept while the new one is written, so rewriting it needs room for both
+      KnowledgeStore second = store(directory, 2 * found.length());
+      second.handleRobotFound(new RobotFoundEvent(new Enemy("found")));
+      Assert.assertEquals(1, second.save());
+      Assert.assertTrue(found.exists());
+      Assert.assertTrue(found.lastModified() > stale);
+      Assert.assertFalse(missed.exists());
+      Assert.assertTrue(store(directory, 1 << 20).contains("found", "gun"));
+   }
+
+   /**
+    * A test for the {@link KnowledgeStore#save()} method when old files must be deleted to make room
+    * for the new ones.
+    */
+   @Test
+   public void testSaveTrimFirst() throws IOException {
+      File directory = Files.createTempDirectory("knowledge").toFile();
+      try {
+         saveTrimFirst(directory);
+      } finally {
+         delete(directory);
+      }
+   }
+
+   /**
+    * Fills the quota of the specified directory with an old file and saves a new enemy that only
+    * fits once the old file is deleted.
+    *
+    * @param directory the directory of the stores.
+    */
+   private static void saveTrimFirst(File directory) {
+      KnowledgeStore first = store(directory, 1 << 20);
+      first.attach("old", "gun", new GuessFactorStats(31, 10.0, 1.0, Segmentation.none()));
+      Assert.assertEquals(1, first.save());
+      File old = first.getFile("old");
+      long quota = old.length() + old.length() / 2;
+
+      KnowledgeStore second = quotaStore(directory, quota);
+      second.attach("new", "gun", new GuessFactorStats(31, 10.0, 1.0, Segmentation.none()));
+      Assert.assertEquals(1, second.save());
+      Assert.assertFalse(old.exists());
+      Assert.assertTrue(second.getFile("new").exists());
+
+      // A file larger than the whole quota is not written at all
+      KnowledgeStore third = quotaStore(directory, 10);
+      third.attach("big", "gun", new GuessFactorStats(31, 10.0, 1.0, Segmentation.none()));
+      Assert.assertEquals(0, third.save());
+      Assert.assertFalse(third.getFile("big").exists());
+   }
+
+   /**
+    * A test for the {@link KnowledgeStore#save()} method when the directory holds files that are not
+    * knowledge files.
+    */
+   @Test
+   public void testSaveForeignFile() throws IOException {
+      File directory = Files.createTempDirectory("knowledge").toFile();
+      try {
+         saveForeignFile(directory);
+      } finally {
+         delete(directory);
+      }
+   }
+
+   /**
+    * Fills the quota of the specified directory with a foreign file and an old knowledge file and
+    * saves a new enemy that only fits once the old file is deleted.
+    *
+    * @param directory the directory of the stores.
+    */
+   private static void saveForeignFile(File directory) throws IOException {
+      KnowledgeStore first = store(directory, 1 << 20);
+      first.attach("old", "gun", new GuessFactorStats(31, 10.0, 1.0, Segmentation.none()));
+      Assert.assertEquals(1, first.save());
+      File old = first.getFile("old");
+      long length = old.length();
+
+      File foreign = new File(directory, "menu.draw");
+      try (OutputStream out = new FileOutputStream(foreign)) {
+         out.write(new byte[(int) length]);
+      }
+
+      KnowledgeStore second = quotaStore(directory, length * 5 / 2);
+      second.attach("new", "gun", new GuessFactorStats(31, 10.0, 1.0, Segmentation.none()));
+      Assert.assertEquals(1, second.save());
+      Assert.assertFalse(old.exists());
+      Assert.assertTrue(foreign.exists());
+      Assert.assertEquals(length, foreign.length());
+      Assert.assertTrue(store(directory, 1 << 20).contains("new", "gun"));
+   }
+
+   /**
+    * A test for the {@link KnowledgeStore#save()} method when writing a file fails part way.
+    */
+   @Test
+   public void testSaveFailedWrite() throws IOException {
+      File directory = Files.createTempDirectory("knowledge").toFile();
+      try {
+         saveFailedWrite(directory);
+      } finally {
+         delete(directory);
+      }
+   }
+
+   /**
+    * Saves an enemy to the specified directory and fails to save it again, which must leave the
+    * first file intact.
+    *
+    * @param directory the directory of the stores.
+    */
+   private static void saveFailedWrite(File directory) {
+      KnowledgeStore first = store(directory, 1 << 20);
+      first.attach("enemy", "gun", new GuessFactorStats(31, 10.0, 1.0, Segmentation.none()));
+      Assert.assertEquals(1, first.save());
+
+      KnowledgeStore second = new KnowledgeStore(directory, 1 << 20) {
+         @Override
+         OutputStream open(File file) throws IOException {
+            return new FilterOutputStream(new FileOutputStream(file)) {
+               @Override
+               public void write(int b) throws IOException {
+                  throw new IOException("Disk full.");
+               }
+            };
+         }
+      };
+      second.attach("enemy", "movement", new GuessFactorStats(31, 10.0, 1.0, Segmentation.none()));
+      Assert.assertEquals(0, second.save());
+
+      KnowledgeStore third = store(directory, 1 << 20);
+      Assert.assertTrue(third.contains("enemy", "gun"));
+      Assert.assertFalse(third.contains("enemy", "movement"));
+      Assert.assertEquals(1, directory.list().length);
+   }
+
+   /**
+    * A test for saving the statistics of a {@link FirePowerTracker} with the
+    * {@link KnowledgeStore#save()} method.
+    */
+   @Test
+   public void testFirePowerTracker() throws IOException {
+      File directory = Files.createTempDirectory("knowledge").toFile();
+      try {
+         firePowerTracker(directory);
+      } finally {
+         delete(directory);
+      }
+   }
+
+   /**
+    * Tracks the fire power of an enemy, saves it to the specified directory and restores it in a
+    * new battle.
+    *
+    * @param directory the directory of the stores.
+    */
+   private static void firePowerTracker(File directory) {
+      KnowledgeStore first = store(directory, 1 << 20);
+      FirePowerTracker tracker = new FirePowerTracker(10.0, first);
+      Enemy enemy = new Enemy("sample.Walls 1.0");
+      first.handleRobotFound(new RobotFoundEvent(enemy));
+      tracker.handleRobotFound(new RobotFoundEvent(enemy));
+      IRobotSnapshot snapshot = new RobotSnapshotFactory().create("sample.Walls 1.0", 100, 100, 90, 0, 0, 30, 0);
+      tracker.handleRobotFired(new RobotFiredEvent(snapshot, 1.2));
+      tracker.handleRobotFired(new RobotFiredEvent(snapshot, 1.2));
+      Assert.assertEquals(1, first.save());
+
+      KnowledgeStore second = store(directory, 1 << 20);
+      Assert.assertTrue(second.contains("sample.Walls 1.0", FirePowerTracker.SECTION));
+      FirePowerTracker restored = new FirePowerTracker(10.0, second);
+      restored.handleRobotFound(new RobotFoundEvent(enemy));
+      Assert.assertEquals(1.2, restored.getStats("sample.Walls 1.0").getBestPower(), 1.0E-9);
+      Assert.assertEquals(3.0, new FirePowerTracker(10.0).getStats("sample.Walls 1.0").getBestPower(), 1.0E-9);
+   }
+}
@@ -0,0 +1,353 @@
+package bnorm.manage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.events.RobotFiredEvent;
+import bnorm.events.RobotFiredListener;
+import bnorm.events.RobotFoundEvent;
+import bnorm.events.RobotFoundListener;
+import bnorm.messages.MessageCodec;
+import bnorm.messages.RobotBatchMessage;
+import bnorm.messages.RobotSnapshotMessage;
+import bnorm.robots.IRobot;
+import bnorm.robots.IRobotSnapshot;
+import bnorm.robots.RobotFactory;
+import bnorm.robots.RobotSnapshotFactory;
+import bnorm.virtual.Points;
+import robocode.Event;
+import robocode.MessageEvent;
+import robocode.Robot;
+import robocode.RobotDeathEvent;
+import robocode.ScannedRobotEvent;
+
+/**
+ * Test class for {@link RobotManager}.
+ *
+ * @author Brian Norman
+ */
+public class RobotManagerTest {
+
+   /**
+    * Test method for {@link RobotManager#inEvents(Iterable)}.
+    */
+   @Test
+   public void testInEvents() {
+      TestRobot robot = new TestRobot();
+      final RobotManager manager = create(robot);
+      final List<String> notified = new ArrayList<String>();
+      manager.addRobotFoundListener(new RobotFoundListener() {
+         @Override
+         public void handleRobotFound(RobotFoundEvent event) {
+            // The whole turn should be applied before anyone is notified
+            Assert.assertEquals("Robot should have the snapshot of the whole turn.", 2,
+                                event.getRobot().getSnapshot().getTime());
+            Assert.assertEquals("Both robots should be known.", 2, manager.getRobots().size());
+            notified.add("found " + event.getRobot().getName());
+         }
+      });
+      manager.addRobotFiredListener(new RobotFiredListener() {
+         @Override
+         public void handleRobotFired(RobotFiredEvent event) {
+            notified.add("fired " + event.getSnapshot().getName() + " " + event.getFirepower());
+         }
+      });
+
+      robot.time = 2;
+      manager.inEvents(Arrays.<Event>asList(scan("A", 100.0, 2), scan("B", 100.0, 2), scan("Me", 100.0, 2)));
+      Assert.assertEquals("Found should be sent once per robot.", Arrays.asList("found A", "found B"), notified);
+      Assert.assertEquals("Own snapshots should be skipped.", 2, manager.getRobots().size());
+
+      notified.clear();
+      manager.beginTurn();
+      robot.time = 3;
+      manager.inEvent(scan("A", 100.0, 3));
+      manager.endTurn();
+      Assert.assertEquals("Turn should be applied when it ends.", 3, manager.getRobot("A").getSnapshot().getTime());
+
+      manager.beginTurn();
+      robot.time = 4;
+      manager.inEvent(scan("A", 98.0, 4));
+      Assert.assertEquals("Nothing should be applied during a turn.", 3, manager.getRobot("A").getSnapshot().getTime());
+      Assert.assertTrue("Nothing should be sent during a turn.", notified.isEmpty());
+      manager.endTurn();
+
+      Assert.assertEquals("Turn should be applied when it ends.", 4, manager.getRobot("A").getSnapshot().getTime());
+      Assert.assertEquals("Fired should be sent at the end of the turn.", Arrays.asList("fired A 2.0"), notified);
+   }
+
+   /**
+    * Test that the events a {@link bnorm.robocode.robot.RegisterRobot} dispatches between
+    * {@link RobotManager#beginTurn()} and {@link RobotManager#endTurn()} are applied together.
+    */
+   @Test
+   public void testTurnListener() {
+      TestRobot robot = new TestRobot();
+      RobotManager manager = create(robot);
+
+      robot.time = 5;
+      manager.beginTurn();
+      manager.onScannedRobotEvent(scan("A", 100.0, 5));
+      manager.onScannedRobotEvent(scan("B", 100.0, 5));
+      Assert.assertTrue("Nothing should be applied during a turn.", manager.getRobots().isEmpty());
+      manager.endTurn();
+
+      Assert.assertEquals(2, manager.getRobots().size());
+      Assert.assertEquals(5, manager.getRobot("A").getSnapshot().getTime());
+      Assert.assertEquals(5, manager.getRobot("B").getSnapshot().getTime());
+      Assert.assertEquals("Gun heat should be advanced with the turn.", 5, manager.getGunHeatTracker().getTime());
+      Assert.assertEquals("Found robots should have hot guns.", 30, manager.getGunHeatTracker().getNextFireTime());
+   }
+
+   /**
+    * Test method for {@link RobotManager#inEvent(Event)} with encoded {@link MessageEvent}s.
+    */
+   @Test
+   public void testEncodedMessage() {
+      RobotManager manager = create(new TestRobot());
+      RobotSnapshotFactory snapshots = new RobotSnapshotFactory();
+      MessageCodec codec = new MessageCodec(snapshots);
+      IRobotSnapshot snapshot = snapshots.create("A", 200.0, 100.0, 90.0, 0.0, 8.0, 7, 0);
+
+      manager.inEvent(new MessageEvent("Mate", codec.encode(new RobotSnapshotMessage(snapshot, "Mate", 8))));
+      IRobot enemy = manager.getRobot("A");
+      Assert.assertNotNull("Decoded snapshot should be added.", enemy);
+      Assert.assertEquals("Decoded snapshot should be added.", 7, enemy.getSnapshot().getTime());
+      Assert.assertEquals("Decoded snapshot should be added.", 200.0, enemy.getSnapshot().getX(), 0.0);
+
+      manager.inEvent(new MessageEvent("Other", codec.encode(new RobotSnapshotMessage(snapshot, "Mate", 9))));
+      Assert.assertEquals("Undecodable message should be skipped.", 1, manager.getRobots().size());
+   }
+
+   /**
+    * Test method for {@link RobotManager#takeScans()}.
+    */
+   @Test
+   public void testTakeScans() {
+      TestRobot robot = new TestRobot();
+      RobotManager manager = create(robot);
+      Assert.assertNull("There should be nothing to share.", manager.takeScans());
+
+      robot.time = 2;
+      manager.inEvents(Arrays.<Event>asList(scan("A", 100.0, 2), scan("B", 90.0, 2)));
+      RobotBatchMessage message = manager.takeScans();
+      Assert.assertEquals("Both scans should be shared.", 2, message.getSnapshots().size());
+      Assert.assertNull("Scans should only be shared once.", manager.takeScans());
+
+      robot.time = 3;
+      manager.inEvent(scan("A", 100.0, 3));
+      robot.time = 4;
+      Assert.assertNull("Old scans should not be shared.", manager.takeScans());
+
+      RobotManager mate = create(new TestRobot());
+      mate.inEvent(new MessageEvent("Mate", manager.getCodec().encode(message)));
+      Assert.assertEquals("Batch should be merged.", 2, mate.getRobots().size());
+      Assert.assertEquals("Batch should be merged.", 90.0, mate.getRobot("B").getSnapshot().getEnergy(), 0.0);
+   }
+
+   /**
+    * Test method for {@link RobotManager#setReorderWindow(int)} with snapshots relayed a turn late.
+    */
+   @Test
+   public void testReorderWindow() {
+      TestRobot robot = new TestRobot();
+      RobotManager manager = create(robot);
+      manager.setReorderWindow(1);
+      RobotSnapshotFactory snapshots = new RobotSnapshotFactory();
+      MessageCodec codec = new MessageCodec(snapshots);
+
+      robot.time = 1;
+      manager.inEvent(scan("A", 100.0, 1));
+      robot.time = 3;
+      manager.inEvent(scan("A", 98.0, 3));
+      Assert.assertEquals("Scan should be held.", 1, manager.getRobot("A").getSnapshot().getTime());
+
+      robot.time = 4;
+      IRobotSnapshot late = snapshots.create("A", 400.0, 400.0, 100.0, 0.0, 0.0, 2, 0);
+      manager.inEvent(new MessageEvent("Mate", codec.encode(new RobotSnapshotMessage(late, "Mate", 3))));
+      IRobot enemy = manager.getRobot("A");
+      Assert.assertEquals("Late snapshot should be merged.", 2, enemy.getSnapshot(2).getTime());
+      Assert.assertEquals("Held scan should be final.", 3, enemy.getSnapshot().getTime());
+   }
+
+   /**
+    * Test method for {@link RobotManager#setReorderWindow(int)} with the default window and a window
+    * that is changed after the robot is found.
+    */
+   @Test
+   public void testDefaultReorderWindow() {
+      TestRobot robot = new TestRobot();
+      RobotManager manager = create(robot);
+      RobotSnapshotFactory snapshots = new RobotSnapshotFactory();
+      MessageCodec codec = new MessageCodec(snapshots);
+
+      robot.time = 1;
+      manager.inEvent(scan("A", 100.0, 1));
+      robot.time = 3;
+      manager.inEvent(scan("A", 98.0, 3));
+      Assert.assertEquals("Scan should be added right away.", 3, manager.getRobot("A").getSnapshot().getTime());
+
+      robot.time = 4;
+      IRobotSnapshot late = snapshots.create("A", 400.0, 400.0, 100.0, 0.0, 0.0, 2, 0);
+      manager.inEvent(new MessageEvent("Mate", codec.encode(new RobotSnapshotMessage(late, "Mate", 3))));
+      IRobot enemy = manager.getRobot("A");
+      Assert.assertEquals("Late snapshot should be inserted.", 2, enemy.getSnapshot(2).getTime());
+      Assert.assertEquals(3, enemy.getSnapshot().getTime());
+
+      manager.setReorderWindow(1);
+      robot.time = 5;
+      manager.inEvent(scan("A", 98.0, 5));
+      Assert.assertEquals("Known robots should use the new window.", 3, enemy.getSnapshot().getTime());
+   }
+
+   /**
+    * Test method for {@link RobotManager#inEvent(Event)} with a {@link RobotDeathEvent}.
+    */
+   @Test
+   public void testDeath() {
+      TestRobot robot = new TestRobot();
+      RobotManager manager = create(robot);
+      RobotDeathEvent death = new RobotDeathEvent("A");
+      death.setTime(5);
+
+      manager.inEvent(death);
+      Assert.assertTrue("Death of an unknown robot should be ignored.", manager.getRobots().isEmpty());
+
+      robot.time = 4;
+      manager.inEvents(Arrays.<Event>asList(death, scan("A", 50.0, 4)));
+      IRobot enemy = manager.getRobot("A");
+      Assert.assertEquals("Death should be applied after the snapshots.", 5, enemy.getSnapshot().getTime());
+      Assert.assertEquals("Dead robot should have negative energy.", -1.0, enemy.getSnapshot().getEnergy(), 0.0);
+
+      try {
+         manager.endTurn();
+         Assert.fail("endTurn should throw an error.");
+      } catch (Exception e) {
+         Assert.assertTrue("endTurn should throw an IllegalStateException.", e instanceof IllegalStateException);
+      }
+   }
+
+   /**
+    * Test method for {@link RobotManager#getNearestRobots(double, double, int, List)},
+    * {@link RobotManager#getRobotsWithin(double, double, double, List)} and
+    * {@link RobotManager#getRobotsInside(double, double, double, double, List)}.
+    */
+   @Test
+   public void testSpatialQueries() {
+      TestRobot robot = new TestRobot();
+      RobotManager manager = create(robot);
+      Random random = new Random(11);
+
+      List<Event> events = new ArrayList<Event>();
+      for (robot.time = 1; robot.time <= 3; robot.time++) {
+         events.clear();
+         for (int i = 0; i < 30; i++) {
+            double dx = random.nextDouble() * 1000 - 500;
+            double dy = random.nextDouble() * 800 - 400;
+            ScannedRobotEvent event = new ScannedRobotEvent("R" + i, 100.0, Math.atan2(dx, dy), Math.hypot(dx, dy),
+                                                            0.0, 0.0);
+            event.setTime(robot.time);
+            events.add(event);
+         }
+         manager.inEvents(events);
+      }
+
+      RobotDeathEvent death = new RobotDeathEvent("R0");
+      death.setTime(robot.time);
+      manager.inEvent(death);
+
+      final List<IRobot> alive = new ArrayList<IRobot>(manager.getRobots());
+      alive.remove(manager.getRobot("R0"));
+      Assert.assertEquals("Nearest should stop at the number of living robots.", 29,
+                          manager.getNearestRobots(0, 0, 100, new ArrayList<IRobot>()).size());
+
+      for (int q = 0; q < 200; q++) {
+         final double x = random.nextDouble() * 1000 - 100;
+         final double y = random.nextDouble() * 800 - 100;
+         double radius = random.nextDouble() * 400;
+
+         List<IRobot> sorted = new ArrayList<IRobot>(alive);
+         Collections.sort(sorted, new Comparator<IRobot>() {
+            @Override
+            public int compare(IRobot a, IRobot b) {
+               return Double.compare(Points.distSq(a.getSnapshot(), x, y), Points.distSq(b.getSnapshot(), x, y));
+            }
+         });
+         Assert.assertEquals("Nearest should match a sort.", sorted.subList(0, 5),
+                             manager.getNearestRobots(x, y, 5, new ArrayList<IRobot>()));
+
+         HashSet<IRobot> within = new HashSet<IRobot>();
+         HashSet<IRobot> inside = new HashSet<IRobot>();
+         for (IRobot r : alive) {
+            IRobotSnapshot s = r.getSnapshot();
+            if (Points.distSq(s, x, y) <= radius * radius) {
+               within.add(r);
+            }
+            if (s.getX() >= x - radius && s.getX() <= x + radius && s.getY() >= y && s.getY() <= y + radius) {
+               inside.add(r);
+            }
+         }
+         Assert.assertEquals("Within should match a linear scan.", within,
+                             new HashSet<IRobot>(manager.getRobotsWithin(x, y, radius, new ArrayList<IRobot>())));
+         Assert.assertEquals("Inside should match a linear scan.", inside, new HashSet<IRobot>(
+               manager.getRobotsInside(x - radius, y, x + radius, y + radius, new ArrayList<IRobot>())));
+      }
+   }
+
+   private static RobotManager create(Robot robot) {
+      RobotSnapshotFactory snapshots = new RobotSnapshotFactory();
+      return RobotManager.create(robot, new RobotFactory(snapshots), snapshots);
+   }
+
+   private static ScannedRobotEvent scan(String name, double energy, long time) {
+      ScannedRobotEvent event = new ScannedRobotEvent(name, energy, 0.0, 100.0, 0.0, 0.0);
+      event.setTime(time);
+      return event;
+   }
+
+   /**
+    * A robot that is not in a battle.
+    */
+   private static final class TestRobot extends Robot {
+
+      private long time;
+
+      @Override
+      public String getName() {
+         return "Me";
+      }
+
+      @Override
+      public long getTime() {
+         return time;
+      }
+
+      @Override
+      public double getX() {
+         return 400.0;
+      }
+
+      @Override
+      public double getY() {
+         return 300.0;
+      }
+
+      @Override
+      public double getHeading() {
+         return 0.0;
+      }
+
+      @Override
+      public int getRoundNum() {
+         return 0;
+      }
+   }
+}
@@ -0,0 +1,157 @@
+package bnorm.manage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.virtual.Point;
+import bnorm.virtual.Points;
+import bnorm.virtual.Wave;
+
+/**
+ * Test class for {@link WaveManager}.
+ *
+ * @author Brian Norman
+ */
+public class WaveManagerTest {
+
+   /**
+    * Test method for {@link WaveManager#removeBroken(long, java.util.Collection)}.
+    */
+   @Test
+   public void testRemoveBroken() {
+      WaveManager<Wave> manager = new WaveManager<Wave>(800, 600);
+      Wave slow = new Wave(100, 100, 10, 0);
+      Wave fast = new Wave(100, 100, 20, 0);
+      Wave field = new Wave(0, 0, 100, 0);
+
+      Assert.assertEquals("Break time of slow wave is wrong.", 10, manager.add(slow, new Point(100, 200)));
+      Assert.assertEquals("Break time of fast wave is wrong.", 5, manager.add(fast, new Point(100, 200)));
+      Assert.assertEquals("Break time of field wave is wrong.", 10, manager.add(field));
+      Assert.assertEquals("Next break time should be 5.", 5, manager.getNextBreakTime());
+
+      List<Wave> broken = new ArrayList<Wave>();
+      Assert.assertEquals("No wave should break at time 4.", 0, manager.removeBroken(4, broken));
+      Assert.assertEquals("One wave should break at time 5.", 1, manager.removeBroken(5, broken));
+      Assert.assertEquals("Fast wave should break first.", Arrays.asList(fast), broken);
+      Assert.assertEquals("Two waves should be left.", 2, manager.getWaves().size());
+
+      broken.clear();
+      Assert.assertEquals("Two waves should break at time 20.", 2, manager.removeBroken(20, broken));
+      Assert.assertEquals("Waves should break in the order they were added.", Arrays.asList(slow, field), broken);
+      Assert.assertEquals("No waves should be left.", 0, manager.size());
+      Assert.assertEquals("Next break time should be MAX_VALUE.", Long.MAX_VALUE, manager.getNextBreakTime());
+   }
+
+   /**
+    * Test method for {@link WaveManager#getWavesCrossing(bnorm.virtual.IPoint, long, List)}.
+    */
+   @Test
+   public void testGetWavesCrossing() {
+      WaveManager<Wave> manager = new WaveManager<Wave>(800, 600);
+      Wave wave = new Wave(100, 100, 10, 0);
+      manager.add(wave);
+
+      Point point = new Point(100, 145);
+      for (long time = 0; time < 20; time++) {
+         List<Wave> crossing = manager.getWavesCrossing(point, time, new ArrayList<Wave>());
+         Assert.assertEquals("Wave should only cross at time 5 (" + time + ").", time == 5 ? 1 : 0, crossing.size());
+      }
+
+      Assert.assertTrue("Wave should be removed.", manager.remove(wave));
+      Assert.assertFalse("Wave should not be removed twice.", manager.remove(wave));
+   }
+
+   /**
+    * Test method for {@link WaveManager#add(bnorm.virtual.IWave, bnorm.virtual.IPoint)}.
+    */
+   @Test
+   public void testBreakTime() {
+      WaveManager<Wave> manager = new WaveManager<Wave>(800, 600);
+      Wave exact = new Wave(100, 100, 10, 3);
+      Wave inexact = new Wave(100, 100, 11, 3);
+      Point target = new Point(100, 200);
+
+      Assert.assertEquals("Wave should break on the tick it reaches the target.", 13, manager.add(exact, target));
+      Assert.assertEquals("Wave should break on the tick it passes the target.", 13, manager.add(inexact, target));
+      Assert.assertEquals("No wave should break before reaching the target.", 0, manager.removeBroken(12, null));
+      Assert.assertEquals("Both waves should break at time 13.", 2, manager.removeBroken(13, null));
+   }
+
+   /**
+    * Test method for {@link WaveManager#remove(bnorm.virtual.IWave)}.
+    */
+   @Test
+   public void testRemove() {
+      WaveManager<Wave> manager = new WaveManager<Wave>(800, 600);
+      Wave first = new Wave(100, 100, 10, 0);
+      Wave second = new Wave(100, 100, 10, 0);
+      Wave other = new Wave(50, 100, 10, 0);
+      manager.add(first);
+      manager.add(second);
+      manager.add(other);
+
+      Assert.assertTrue("Equal waves should both be kept.", manager.getWaves().contains(second));
+      Assert.assertTrue("Second wave should be removed.", manager.remove(second));
+      Assert.assertFalse("Equal wave should not be removed in its place.", manager.remove(second));
+      Assert.assertEquals("Two waves should be left.", 2, manager.size());
+
+      List<Wave> broken = new ArrayList<Wave>();
+      manager.removeBroken(Long.MAX_VALUE - 1, broken);
+      Assert.assertEquals("Only the first wave should be left of the equal waves.", 2, broken.size());
+      Assert.assertSame("First wave should be left.", first, broken.get(0));
+      Assert.assertFalse("Broken wave should not be removed.", manager.remove(first));
+
+      manager.add(first);
+      Iterator<Wave> iter = manager.getWaves().iterator();
+      iter.next();
+      iter.remove();
+      Assert.assertFalse("Wave removed by the view should not be removed again.", manager.remove(first));
+      Assert.assertEquals("No waves should be left.", 0, manager.size());
+   }
+
+   /**
+    * Test method for {@link WaveManager#getWavesCrossing(bnorm.virtual.IPoint, long, List)}.
+    */
+   @Test
+   public void testGetWavesCrossingPruned() {
+      WaveManager<Wave> manager = new WaveManager<Wave>(800, 600);
+      List<Wave> waves = new ArrayList<Wave>();
+      Random random = new Random(11);
+      double[] speeds = { 11.0, 14.0, 17.0, 19.7 };
+      for (int i = 0; i < 120; i++) {
+         Wave wave = new Wave(random.nextDouble() * 800, random.nextDouble() * 600, speeds[random.nextInt(speeds.length)],
+                              random.nextInt(100));
+         waves.add(wave);
+         manager.add(wave);
+      }
+
+      for (long time = 0; time < 200; time++) {
+         if (time % 20 == 10) {
+            Wave wave = waves.remove(random.nextInt(waves.size()));
+            Assert.assertTrue("Wave should be removed.", manager.remove(wave));
+         }
+         for (int i = 0; i < 10; i++) {
+            Point point = new Point(random.nextDouble() * 900 - 50, random.nextDouble() * 700 - 50);
+            List<Wave> expected = new ArrayList<Wave>();
+            for (Wave wave : waves) {
+               double distSq = Points.distSq(wave, point);
+               double after = wave.dist(time);
+               double before = wave.dist(time - 1);
+               if (after > 0 && distSq <= after * after && (before <= 0 || distSq > before * before)) {
+                  expected.add(wave);
+               }
+            }
+            List<Wave> crossing = manager.getWavesCrossing(point, time, new ArrayList<Wave>());
+            Assert.assertEquals("Crossing waves are wrong (" + point + ", " + time + ").", expected.size(),
+                                crossing.size());
+            Assert.assertTrue("Crossing waves are wrong (" + point + ", " + time + ").", crossing.containsAll(expected));
+         }
+      }
+   }
+}
@@ -0,0 +1,152 @@
+package bnorm.messages;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.robots.IRobotSnapshot;
+import bnorm.robots.RobotSnapshotFactory;
+
+/**
+ * A group of unit tests for {@link MessageCodec}.
+ *
+ * @author Brian Norman
+ */
+public class MessageCodecTest {
+
+   /**
+    * A test for the {@link MessageCodec#encode(Message)} and
+    * {@link MessageCodec#decode(String, byte[])} methods.
+    *
+    * @throws IOException if the message cannot be decoded.
+    */
+   @Test
+   public void testEncodeDecode() throws IOException {
+      RobotSnapshotFactory factory = new RobotSnapshotFactory();
+      MessageCodec sender = new MessageCodec(factory);
+      MessageCodec receiver = new MessageCodec(factory);
+
+      IRobotSnapshot snapshot = factory.create("sample.Walls 1.0", 123.456, 654.321, 87.5, 1.25, -6.0, 42, 3);
+      byte[] first = sender.encode(new RobotSnapshotMessage(snapshot, "team.Bot 1.0 (1)", 43));
+      byte[] second = sender.encode(new RobotSnapshotMessage(snapshot, "team.Bot 1.0 (1)", 44));
+      Assert.assertEquals("The name should only be sent once.", first.length - 2 - 16, second.length);
+
+      for (byte[] bytes : new byte[][] {first, second}) {
+         RobotSnapshotMessage message = (RobotSnapshotMessage) receiver.decode("team.Bot 1.0 (1)", bytes);
+         IRobotSnapshot decoded = message.getSnapshot();
+         Assert.assertEquals("team.Bot 1.0 (1)", message.getSender());
+         Assert.assertEquals("sample.Walls 1.0", decoded.getName());
+         Assert.assertEquals(123.456, decoded.getX(), 0.0);
+         Assert.assertEquals(654.321, decoded.getY(), 0.0);
+         Assert.assertEquals(87.5, decoded.getEnergy(), 0.0);
+         Assert.assertEquals(1.25, decoded.getHeading(), 0.0);
+         Assert.assertEquals(-6.0, decoded.getVelocity(), 0.0);
+         Assert.assertEquals(42, decoded.getTime());
+         Assert.assertEquals(3, decoded.getRound());
+      }
+      Assert.assertEquals(44, receiver.decode("team.Bot 1.0 (1)", second).getTime());
+   }
+
+   /**
+    * A test for the {@link MessageCodec#encode(Message)} and
+    * {@link MessageCodec#decode(String, byte[])} methods with delta-encoded batches.
+    *
+    * @throws IOException if a message cannot be decoded.
+    */
+   @Test
+   public void testEncodeDecodeBatch() throws IOException {
+      RobotSnapshotFactory factory = new RobotSnapshotFactory();
+      MessageCodec sender = new MessageCodec(factory);
+      MessageCodec receiver = new MessageCodec(factory);
+
+      double x = 100.0;
+      double heading = 0.3;
+      int previous = Integer.MAX_VALUE;
+      for (int time = 1; time < 500; time++) {
+         x += 7.9;
+         heading += 0.0123;
+         IRobotSnapshot a = factory.create("A", x, 200.0, 100.0, heading, 7.9, time, 0);
+         IRobotSnapshot b = factory.create("B", 300.0, x, 100.0 - time * 0.1, 0.0, 0.0, time * 3, 0);
+         byte[] bytes = sender.encode(new RobotBatchMessage(Arrays.asList(a, b), "Mate", time));
+         if (time > 2) {
+            Assert.assertTrue("Changes should be smaller than whole snapshots.", bytes.length <= previous);
+         }
+         previous = bytes.length;
+
+         List<IRobotSnapshot> decoded = ((RobotBatchMessage) receiver.decode("Mate", bytes)).getSnapshots();
+         Assert.assertEquals(2, decoded.size());
+         for (int i = 0; i < 2; i++) {
+            IRobotSnapshot expected = i == 0 ? a : b;
+            IRobotSnapshot actual = decoded.get(i);
+            Assert.assertEquals(expected.getName(), actual.getName());
+            Assert.assertEquals(expected.getX(), actual.getX(), 1.0E-4);
+            Assert.assertEquals(expected.getY(), actual.getY(), 1.0E-4);
+            Assert.assertEquals(expected.getEnergy(), actual.getEnergy(), 1.0E-4);
+            Assert.assertEquals(expected.getHeading(), actual.getHeading(), 1.0E-4);
+            Assert.assertEquals(expected.getVelocity(), actual.getVelocity(), 1.0E-4);
+            Assert.assertEquals(expected.getTime(), actual.getTime());
+            Assert.assertEquals(expected.getRound(), actual.getRound());
+         }
+      }
+      // Header, then name, flags, time and two changes for each robot
+      Assert.assertEquals(7 + 2 * (2 + 1 + 1 + 8), previous);
+
+      // A new round is sent whole
+      IRobotSnapshot next = factory.create("A", 10.0, 20.0, 100.0, 0.0, 0.0, 1, 1);
+      byte[] bytes = sender.encode(new RobotBatchMessage(Arrays.asList(next), "Mate", 1));
+      IRobotSnapshot decoded = ((RobotBatchMessage) receiver.decode("Mate", bytes)).getSnapshots().get(0);
+      Assert.assertEquals(10.0, decoded.getX(), 0.0);
+      Assert.assertEquals(1, decoded.getRound());
+   }
+
+   /**
+    * A test for the {@link MessageCodec#decode(String, byte[])} method with names that were never
+    * defined by the sender.
+    */
+   @Test
+   public void testDecodeUndefined() {
+      RobotSnapshotFactory factory = new RobotSnapshotFactory();
+      MessageCodec sender = new MessageCodec(factory);
+      MessageCodec receiver = new MessageCodec(factory);
+
+      IRobotSnapshot snapshot = factory.create("sample.Walls 1.0", 100.0, 100.0, 100.0, 0.0, 0.0, 1, 0);
+      byte[] first = sender.encode(new RobotSnapshotMessage(snapshot, "A", 1));
+      byte[] second = sender.encode(new RobotSnapshotMessage(snapshot, "A", 2));
+      try {
+         receiver.decode("B", first);
+         receiver.decode("A", second);
+         Assert.fail("Names are interned per sender.");
+      } catch (IOException e) {
+         // Expected
+      }
+      try {
+         receiver.decode("A", new byte[] {MessageCodec.ROBOT_SNAPSHOT, 0});
+         Assert.fail("Message should be too short.");
+      } catch (IOException e) {
+         // Expected
+      }
+   }
+
+   /**
+    * A test that an encoded message is smaller than a serialized one.
+    *
+    * @throws IOException if the message cannot be serialized.
+    */
+   @Test
+   public void testEncodedSize() throws IOException {
+      RobotSnapshotFactory factory = new RobotSnapshotFactory();
+      IRobotSnapshot snapshot = factory.create("sample.Walls 1.0", 100.0, 100.0, 100.0, 0.0, 0.0, 1, 0);
+      RobotSnapshotMessage message = new RobotSnapshotMessage(snapshot, "A", 1);
+
+      ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+         out.writeObject(message);
+      }
+      Assert.assertTrue(new MessageCodec(factory).encode(message).length * 4 < serialized.size());
+   }
+}
@@ -0,0 +1,64 @@
+package bnorm.robocode.robot;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link LatencyHistogram}.
+ *
+ * @author Brian Norman
+ */
+public class LatencyHistogramTest {
+
+   /**
+    * Test method for {@link LatencyHistogram#index(long)} and {@link LatencyHistogram#upperBound(int)}.
+    */
+   @Test
+   public void testBuckets() {
+      long[] values = {0, 1, 7, 8, 9, 15, 16, 1000, 123456789, Long.MAX_VALUE};
+      for (long value : values) {
+         int index = LatencyHistogram.index(value);
+         long upper = LatencyHistogram.upperBound(index);
+         Assert.assertTrue("Upper bound of " + value + " should not be less than it.", upper >= value);
+         Assert.assertTrue("Upper bound of " + value + " is too large (" + upper + ").",
+                           upper - value <= value >> LatencyHistogram.SUB_BITS);
+         if (index > 0) {
+            Assert.assertTrue("Previous bucket of " + value + " should be below it.",
+                              LatencyHistogram.upperBound(index - 1) < value);
+         }
+      }
+   }
+
+   /**
+    * Test method for {@link LatencyHistogram#getPercentile(double)}.
+    */
+   @Test
+   public void testGetPercentile() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      Assert.assertEquals("Percentile of an empty histogram should be 0.", 0, histogram.getPercentile(0.5));
+
+      for (long n = 1; n <= 1000; n++) {
+         histogram.record(n * 1000);
+      }
+
+      Assert.assertEquals("Count should be 1000.", 1000, histogram.getCount());
+      Assert.assertEquals("Max should be 1000000.", 1000000, histogram.getMax());
+      Assert.assertEquals("Total should be 500500000.", 500500000, histogram.getTotal());
+
+      long p50 = histogram.getPercentile(0.5);
+      Assert.assertTrue("p50 should be close to 500000 (" + p50 + ").", p50 >= 500000 && p50 <= 500000 * 9 / 8);
+      long p99 = histogram.getPercentile(0.99);
+      Assert.assertTrue("p99 should be close to 990000 (" + p99 + ").", p99 >= 990000 && p99 <= 1000000);
+      Assert.assertEquals("p100 should be the max.", 1000000, histogram.getPercentile(1.0));
+
+      LatencyHistogram other = new LatencyHistogram();
+      other.record(5000000);
+      histogram.add(other);
+      Assert.assertEquals("Count should be 1001 after adding.", 1001, histogram.getCount());
+      Assert.assertEquals("Max should be 5000000 after adding.", 5000000, histogram.getMax());
+
+      histogram.clear();
+      Assert.assertEquals("Count should be 0 after clearing.", 0, histogram.getCount());
+      Assert.assertEquals("Percentile should be 0 after clearing.", 0, histogram.getPercentile(0.99));
+   }
+}
@@ -0,0 +1,77 @@
+package bnorm.robocode.robot;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.robocode.robot.listener.DeathEventListener;
+import bnorm.robocode.robot.listener.ScannedRobotEventListener;
+import bnorm.robocode.robot.listener.WinEventListener;
+import robocode.DeathEvent;
+import robocode.ScannedRobotEvent;
+
+/**
+ * Test class for {@link ListenerTable}.
+ *
+ * @author Brian Norman
+ */
+public class ListenerTableTest {
+
+   /**
+    * Test method for {@link ListenerTable#register(bnorm.robocode.robot.listener.RobocodeEventListener)}.
+    */
+   @Test
+   public void testRegister() {
+      ListenerTable table = new ListenerTable();
+      Both both = new Both();
+      table.register(both);
+
+      ScannedRobotEventListener[] scanned = table.get(ListenerType.SCANNED_ROBOT);
+      DeathEventListener[] death = table.get(ListenerType.DEATH);
+      WinEventListener[] win = table.get(ListenerType.WIN);
+      Assert.assertArrayEquals("Listener should be registered for scanned robots.", new Object[] {both}, scanned);
+      Assert.assertArrayEquals("Listener should be registered for deaths.", new Object[] {both}, death);
+      Assert.assertEquals("Listener should not be registered for wins.", 0, win.length);
+
+      try {
+         table.register(null);
+         Assert.fail("register should throw an error.");
+      } catch (Exception e) {
+         Assert.assertTrue("register should throw an NullPointerException.", e instanceof NullPointerException);
+      }
+   }
+
+   /**
+    * Test method for {@link ListenerTable#remove(ListenerType, Object)}.
+    */
+   @Test
+   public void testRemove() {
+      ListenerTable table = new ListenerTable();
+      Both first = new Both();
+      Both second = new Both();
+      table.add(ListenerType.DEATH, first);
+      table.add(ListenerType.DEATH, second);
+      table.add(ListenerType.DEATH, first);
+
+      DeathEventListener[] before = table.get(ListenerType.DEATH);
+      Assert.assertTrue("remove should return true.", table.remove(ListenerType.DEATH, first));
+      Assert.assertFalse("remove should return false.", table.remove(ListenerType.WIN, first));
+
+      DeathEventListener[] after = table.get(ListenerType.DEATH);
+      Assert.assertArrayEquals("Only the first occurrence should be removed.", new Object[] {second, first}, after);
+      Assert.assertArrayEquals("Earlier array should not change.", new Object[] {first, second, first}, before);
+   }
+
+   /**
+    * A listener of both scanned robots and deaths.
+    */
+   private static final class Both implements ScannedRobotEventListener, DeathEventListener {
+
+      @Override
+      public void onScannedRobotEvent(ScannedRobotEvent event) {
+      }
+
+      @Override
+      public void onDeathEvent(DeathEvent event) {
+      }
+   }
+}
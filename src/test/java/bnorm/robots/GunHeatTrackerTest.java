@@ -0,0 +1,84 @@
+package bnorm.robots;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link GunHeatTracker}.
+ *
+ * @author Brian Norman
+ */
+public class GunHeatTrackerTest {
+
+   /**
+    * Test method for {@link GunHeatTracker#getNextFireTime()} as the tracker is advanced and
+    * bullets are heard.
+    */
+   @Test
+   public void testNextFireTime() {
+      GunHeatTracker tracker = new GunHeatTracker();
+      Assert.assertEquals(Long.MAX_VALUE, tracker.getNextFireTime());
+      tracker.track(new Robot("A"));
+      tracker.track(new Robot("B"));
+
+      tracker.advance(10, 0);
+      Assert.assertEquals(30, tracker.getNextFireTime());
+      Assert.assertEquals(2.0, tracker.getHeat("A"), 1.0E-9);
+      Assert.assertFalse(tracker.canAnyFire());
+
+      // A fires as soon as it can, which is heard a tick later
+      tracker.advance(31, 0);
+      Assert.assertTrue(tracker.canAnyFire());
+      tracker.fired("A", 0, 30, 3.0);
+      Assert.assertEquals(46, tracker.getNextFireTime("A"));
+      Assert.assertEquals(1.5, tracker.getHeat("A"), 1.0E-9);
+      Assert.assertTrue("B should be cool.", tracker.canFire("B"));
+      Assert.assertEquals(31, tracker.getNextFireTime());
+
+      // B dies, so only A is left
+      tracker.died("B");
+      Assert.assertEquals(46, tracker.getNextFireTime());
+      tracker.advance(46, 0);
+      Assert.assertTrue(tracker.canAnyFire());
+      Assert.assertEquals(0.0, tracker.getHeat("A"), 0.0);
+
+      // Every robot is alive and every gun is hot at the start of the next round
+      tracker.advance(0, 1);
+      Assert.assertEquals(30, tracker.getNextFireTime("A"));
+      tracker.remove("A");
+      Assert.assertEquals(30, tracker.getNextFireTime());
+      tracker.died("B");
+      tracker.removeDead();
+      Assert.assertEquals(Long.MAX_VALUE, tracker.getNextFireTime());
+   }
+
+   /**
+    * Test method for {@link GunHeatTracker#fired(String, int, long, double)} with a cooling rate
+    * that is not the default and bullets that are heard late.
+    */
+   @Test
+   public void testFired() {
+      GunHeatTracker tracker = new GunHeatTracker();
+      tracker.setCoolingRate(0.2);
+      tracker.advance(20, 0);
+      tracker.fired("A", 0, 16, 1.0);
+      Assert.assertEquals(16 + 6, tracker.getNextFireTime("A"));
+      tracker.fired("A", 0, 10, 3.0);
+      Assert.assertEquals("Older bullets should be ignored.", 16 + 6, tracker.getNextFireTime("A"));
+      Assert.assertEquals(15, tracker.getReadyTime("A", 1));
+
+      // A bullet of the next round is heard before the tracker is advanced
+      tracker.fired("A", 1, 18, 1.0);
+      Assert.assertEquals(18 + 6, tracker.getReadyTime("A", 1));
+      tracker.fired("A", 0, 19, 3.0);
+      Assert.assertEquals("Bullets of earlier rounds should be ignored.", 18 + 6, tracker.getReadyTime("A", 1));
+
+      try {
+         tracker.setCoolingRate(0.0);
+         Assert.fail("setCoolingRate should throw an error.");
+      } catch (Exception e) {
+         Assert.assertTrue("setCoolingRate should throw an IllegalArgumentException.",
+                           e instanceof IllegalArgumentException);
+      }
+   }
+}
@@ -0,0 +1,108 @@
+package bnorm.robots;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link PatternIndex}.
+ *
+ * @author Brian Norman
+ */
+public class PatternIndexTest {
+
+   /**
+    * Test method for {@link PatternIndex#symbol(IRobotSnapshot, IRobotSnapshot)}.
+    */
+   @Test
+   public void testSymbol() {
+      RobotSnapshot previous = new RobotSnapshot("", 0, 0, 0, 1.0, 8, 1, 0);
+      Assert.assertEquals(16 * 11 + 5, PatternIndex.symbol(previous, new RobotSnapshot("", 0, 0, 0, 1.0, 8, 2, 0)));
+      Assert.assertEquals(0 * 11 + 0, PatternIndex.symbol(previous,
+                                                          new RobotSnapshot("", 0, 0, 0, 0.5, -8, 2, 0)));
+      Assert.assertEquals(8 * 11 + 10, PatternIndex.symbol(previous,
+                                                           new RobotSnapshot("", 0, 0, 0, 1.0 + Math.toRadians(10),
+                                                                             0.2, 2, 0)));
+   }
+
+   /**
+    * Test method for {@link PatternIndex#getMatchEnd()} against a linear search.
+    */
+   @Test
+   public void testGetMatchEnd() {
+      Random random = new Random(17);
+      PatternIndex index = new PatternIndex(new Robot());
+      double heading = 0.0;
+      long time = 0;
+      int round = 0;
+      for (int i = 0; i < 3000; i++) {
+         if (random.nextInt(200) == 0) {
+            round++;
+            time = 0;
+         } else if (random.nextInt(100) == 0) {
+            time += 5;
+         }
+         heading += Math.toRadians(2 * (random.nextInt(3) - 1));
+         index.add(new RobotSnapshot("", 0, 0, 0, heading, random.nextInt(3), time++, round));
+
+         // Longest suffix of the current run that ended at an earlier position
+         int n = index.size();
+         int run = 0;
+         while (run < n && index.getSymbol(n - 1 - run) != PatternIndex.GAP) {
+            run++;
+         }
+         int expectedLength = 0;
+         int expectedEnd = -1;
+         for (int end = 0; end < n - 1; end++) {
+            int length = 0;
+            while (length < run && length <= end && index.getSymbol(end - length) == index.getSymbol(n - 1 - length)) {
+               length++;
+            }
+            if (length > expectedLength) {
+               expectedLength = length;
+               expectedEnd = end;
+            }
+         }
+
+         Assert.assertEquals("Match length at " + i + " is wrong.", expectedLength, index.getMatchLength());
+         int end = index.getMatchEnd();
+         if (expectedLength == 0) {
+            Assert.assertEquals(-1, end);
+         } else {
+            Assert.assertTrue(end < n - 1);
+            for (int k = 0; k < expectedLength; k++) {
+               Assert.assertEquals(index.getSymbol(n - 1 - k), index.getSymbol(end - k));
+            }
+         }
+      }
+   }
+
+   /**
+    * Test method for {@link PatternIndex#find(int[], int, int)}.
+    */
+   @Test
+   public void testFind() {
+      Robot robot = new Robot();
+      PatternIndex index = robot.getPatterns();
+      double[] velocities = {1, 2, 3, 1, 2, 4, 1, 2, 3};
+      for (int i = 0; i < velocities.length; i++) {
+         robot.add(new RobotSnapshot("", i, 0, 0, 0, velocities[i], i, 0));
+      }
+
+      int[] pattern = new int[3];
+      for (int i = 0; i < 3; i++) {
+         pattern[i] = index.getSymbol(i + 3);
+      }
+      Assert.assertEquals("First 1, 2 should end at 4.", 4, index.find(pattern, 0, 2));
+      Assert.assertEquals(5, index.find(pattern, 0, 3));
+      Assert.assertEquals(-1, index.find(new int[] {pattern[2], pattern[2]}, 0, 2));
+      Assert.assertEquals(2, index.find(new int[] {index.getSymbol(1), index.getSymbol(2)}, 0, 2));
+      Assert.assertEquals("The first snapshot is a gap so only 2, 3 repeats.", 2, index.getMatchLength());
+      Assert.assertEquals(2, index.getMatchEnd());
+      Assert.assertEquals(3, index.getTime(index.getMatchEnd() + 1));
+      Assert.assertEquals(0, index.getRound(index.getMatchEnd() + 1));
+      Assert.assertEquals("Snapshot should be looked up in the robot.", new RobotSnapshot("", 3, 0, 0, 0, 1, 3, 0),
+                          index.getSnapshot(index.getMatchEnd() + 1));
+   }
+}
@@ -310,6 +310,11 @@ public class RobotTest {
       Assert.assertTrue("Movie should contain 5 elements.", iter.hasNext());
       Assert.assertEquals("Fifth element should be s8.", s8, iter.next());
 
+      PatternIndex patterns = r.getPatterns();
+      Assert.assertEquals("Only snapshots added in order should be indexed.", 2, patterns.size());
+      Assert.assertEquals("First indexed should be s4.", s4, patterns.getSnapshot(0));
+      Assert.assertEquals("Second indexed should be s8.", s8, patterns.getSnapshot(1));
+
       Assert.assertFalse("Adding the same snapshot again should Assert.fail.", r.add(s1));
       Assert.assertFalse("Adding the same snapshot again should Assert.fail.", r.add(s2));
       Assert.assertFalse("Adding the same snapshot again should Assert.fail.", r.add(s4));
@@ -723,6 +728,59 @@ public class RobotTest {
       Assert.assertFalse("Movie for round 2 should not have previous.", iter.hasPrevious());
    }
 
+   /**
+    * Test method for {@link Robot#getCursor(long, int)}.
+    */
+   @Test
+   public void testGetCursor() {
+      RobotSnapshot s1 = new RobotSnapshot("", 10, 0, 0, 0, 0, 1, 0);
+      RobotSnapshot s3 = new RobotSnapshot("", 30, 0, 0, 0, 0, 3, 0);
+      RobotSnapshot s4 = new RobotSnapshot("", 40, 0, 0, 0, 0, 4, 0);
+
+      Robot r = new Robot();
+      r.add(s1);
+      r.add(s3);
+      r.add(s4);
+
+      IRobotCursor cursor = r.getCursor(2, 0);
+      Assert.assertTrue("Cursor should have next.", cursor.hasNext());
+      Assert.assertSame("Moving the cursor should reuse the cursor.", cursor, cursor.next());
+      Assert.assertEquals("First element after time 2 should be s3.", s3.getTime(), cursor.getTime());
+      Assert.assertEquals("First element after time 2 should be s3.", 30.0, cursor.getX(), 0.0);
+      Assert.assertSame("Moving the cursor should reuse the cursor.", cursor, cursor.next());
+      Assert.assertEquals("Second element after time 2 should be s4.", s4.getTime(), cursor.getTime());
+      Assert.assertFalse("Cursor should not have next.", cursor.hasNext());
+      Assert.assertEquals("Previous element should be s4 again.", s4.getTime(), cursor.previous().getTime());
+      Assert.assertEquals("Previous element should then be s3.", s3.getTime(), cursor.previous().getTime());
+
+      cursor = r.getCursor(3, 0);
+      Assert.assertTrue("Cursor should have previous.", cursor.hasPrevious());
+      Assert.assertEquals("Last element before time 3 should be s1.", s1.getTime(), cursor.previous().getTime());
+      Assert.assertFalse("Cursor should not have previous.", cursor.hasPrevious());
+      Assert.assertEquals("Next element should be s1 again.", s1.getTime(), cursor.next().getTime());
+      Assert.assertEquals("Next element should then be s3.", s3.getTime(), cursor.next().getTime());
+
+      cursor = r.getCursor(5, 0);
+      Assert.assertEquals("Last element before time 5 should be s4.", s4.getTime(), cursor.previous().getTime());
+      Assert.assertEquals("Walking back should view s3.", s3.getTime(), cursor.previous().getTime());
+      Assert.assertEquals("Walking back should view s1.", s1.getTime(), cursor.previous().getTime());
+      Assert.assertFalse("Cursor should not have previous.", cursor.hasPrevious());
+
+      cursor = r.getCursor(0, 0);
+      Assert.assertFalse("Cursor at the start should not have previous.", cursor.hasPrevious());
+      Assert.assertEquals("First element should be s1.", s1.getTime(), cursor.next().getTime());
+      Assert.assertFalse("Cursor after the end should not have next.", r.getCursor(5, 0).hasNext());
+      Assert.assertFalse("Cursor of a missing round should not have next.", r.getCursor(0, 1).hasNext());
+
+      try {
+         r.getCursor(-1, 0);
+         Assert.fail("getCursor should throw an error.");
+      } catch (Exception e) {
+         Assert.assertTrue("getCursor should throw an IllegalArgumentException.",
+                           e instanceof IllegalArgumentException);
+      }
+   }
+
    /**
     * Test method for {@link Robot#getRounds()}.
     */
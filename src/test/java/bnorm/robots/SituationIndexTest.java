@@ -0,0 +1,116 @@
+package bnorm.robots;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.robots.SituationIndex.Feature;
+
+/**
+ * Test class for {@link SituationIndex}.
+ *
+ * @author Brian Norman
+ */
+public class SituationIndexTest {
+
+   /**
+    * Test method for {@link SituationIndex#getFeatures(IRobotSnapshot, IRobotSnapshot, double[])}.
+    */
+   @Test
+   public void testGetFeatures() {
+      SituationIndex index = new SituationIndex(800.0, 600.0, 100, Feature.DISTANCE, Feature.LATERAL_VELOCITY,
+                                                Feature.ADVANCING_VELOCITY, Feature.WALL_DISTANCE,
+                                                Feature.ACCELERATION, Feature.TIME_SINCE_DECELERATION);
+      RobotSnapshot self = new RobotSnapshot("Self", 400, 100, 100, 0, 0, 10, 0);
+
+      // The enemy is north of us driving east, which is clockwise around us
+      index.add(self, new RobotSnapshot("Enemy", 400, 300, 100, Math.PI / 2, 8, 10, 0));
+      index.add(self, new RobotSnapshot("Enemy", 400, 300, 100, Math.PI / 2, 6, 11, 0));
+      index.add(self, new RobotSnapshot("Enemy", 400, 300, 100, Math.PI / 2, 6, 12, 0));
+      RobotSnapshot enemy = new RobotSnapshot("Enemy", 400, 300, 100, Math.PI, 7, 13, 0);
+
+      double[] features = new double[6];
+      index.getFeatures(self, enemy, features);
+      Assert.assertEquals(200.0, features[0], 1.0E-9);
+      Assert.assertEquals(0.0, features[1], 1.0E-9);
+      Assert.assertEquals(7.0, features[2], 1.0E-9);
+      Assert.assertEquals(300.0, features[3], 1.0E-9);
+      Assert.assertEquals(1.0, features[4], 1.0E-9);
+      Assert.assertEquals(2.0, features[5], 1.0E-9);
+
+      index.add(self, enemy);
+      index.getFeatures(self, enemy, features);
+      Assert.assertEquals("Features of the last snapshot should not change once added.", 1.0, features[4], 1.0E-9);
+      Assert.assertEquals(2.0, features[5], 1.0E-9);
+   }
+
+   /**
+    * Test method for {@link SituationIndex#nearest(IRobotSnapshot, IRobotSnapshot, int, List)}.
+    */
+   @Test
+   public void testNearest() {
+      SituationIndex index = new SituationIndex(800.0, 600.0, 3, Feature.DISTANCE, Feature.VELOCITY);
+      index.setWeights(new double[] {1.0 / 100.0, 1.0});
+      RobotSnapshot self = new RobotSnapshot("Self", 0, 0, 100, 0, 0, 1, 0);
+
+      for (int time = 1; time <= 5; time++) {
+         index.add(self, new RobotSnapshot("Enemy", 100 * time, 0, 100, Math.PI / 2, time, time, 0));
+      }
+      Assert.assertEquals(3, index.size());
+
+      List<IRobotSnapshot> result = new ArrayList<IRobotSnapshot>();
+      RobotSnapshot enemy = new RobotSnapshot("Enemy", 110, 0, 100, Math.PI / 2, 1, 6, 0);
+      Assert.assertEquals(2, index.nearest(self, enemy, 2, result));
+      Assert.assertEquals("The closest situations should have been evicted.", 3, result.get(0).getTime());
+      Assert.assertEquals(4, result.get(1).getTime());
+   }
+
+   /**
+    * Test method for {@link SituationIndex#write(java.io.DataOutput)} and
+    * {@link SituationIndex#read(java.io.DataInput)}.
+    */
+   @Test
+   public void testWriteRead() throws IOException {
+      SituationIndex index = new SituationIndex(800.0, 600.0, 10, Feature.DISTANCE, Feature.VELOCITY);
+      RobotSnapshot self = new RobotSnapshot("Self", 0, 0, 100, 0, 0, 1, 0);
+      for (int time = 1; time <= 5; time++) {
+         index.add(self, new RobotSnapshot("Enemy", 100 * time, 0, 90, Math.PI / 2, time, time, 3));
+      }
+      index.setSaveLimit(3);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      index.write(new DataOutputStream(bytes));
+
+      SituationIndex restored = new SituationIndex(800.0, 600.0, 10, Feature.DISTANCE, Feature.VELOCITY);
+      restored.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+      Assert.assertEquals("Only the most recent situations should be saved.", 3, restored.size());
+
+      List<IRobotSnapshot> result = new ArrayList<IRobotSnapshot>();
+      RobotSnapshot enemy = new RobotSnapshot("Enemy", 310, 0, 100, Math.PI / 2, 3, 1, 0);
+      Assert.assertEquals(3, restored.nearest(self, enemy, 3, result));
+      IRobotSnapshot nearest = result.get(0);
+      Assert.assertEquals("Enemy", nearest.getName());
+      Assert.assertEquals(3, nearest.getTime());
+      Assert.assertEquals(300.0, nearest.getX(), 1.0E-4);
+      Assert.assertEquals(3.0, nearest.getVelocity(), 1.0E-6);
+      Assert.assertEquals(90.0, nearest.getEnergy(), 1.0E-6);
+      Assert.assertEquals("Restored snapshots should not have a round.", -1, nearest.getRound());
+      Assert.assertEquals("The oldest situations should not be saved.", 4, result.get(1).getTime());
+      Assert.assertEquals("The oldest situations should not be saved.", 5, result.get(2).getTime());
+
+      SituationIndex other = new SituationIndex(800.0, 600.0, 10, Feature.DISTANCE, Feature.ACCELERATION);
+      other.add(self, enemy);
+      try {
+         other.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+         Assert.fail("Situations with other features should not be read.");
+      } catch (IOException e) {
+         Assert.assertEquals("Index should be unchanged.", 1, other.size());
+      }
+   }
+}
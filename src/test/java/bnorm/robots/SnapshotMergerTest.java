@@ -0,0 +1,94 @@
+package bnorm.robots;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.events.RobotFiredEvent;
+import bnorm.events.RobotFiredListener;
+import bnorm.manage.FireDetector;
+
+/**
+ * Test class for {@link SnapshotMerger}.
+ *
+ * @author Brian Norman
+ */
+public class SnapshotMergerTest {
+
+   /**
+    * Test method for {@link SnapshotMerger#offer(IRobotSnapshot, boolean)} and
+    * {@link SnapshotMerger#advance(long, int)}.
+    */
+   @Test
+   public void testMerge() {
+      Robot robot = new Robot("A");
+      robot.add(snapshot(100.0, 1));
+      SnapshotMerger merger = new SnapshotMerger(robot, 1);
+
+      // Own scan of tick 3, then the relayed scans of ticks 2 and 3 arrive a tick late
+      Assert.assertTrue(merger.offer(snapshot(100.0, 3), true));
+      Assert.assertEquals(0, merger.advance(3, 0));
+      Assert.assertTrue(merger.offer(snapshot(99.0, 2), false));
+      Assert.assertFalse("Own scan should be kept.", merger.offer(snapshot(50.0, 3), false));
+      Assert.assertEquals(2, merger.getPending());
+      Assert.assertEquals(1, merger.advance(3, 0));
+      Assert.assertEquals(2, robot.getSnapshot().getTime());
+      Assert.assertEquals(1, merger.advance(4, 0));
+      Assert.assertEquals(3, robot.getSnapshot().getTime());
+      Assert.assertEquals("Own scan should be kept.", 100.0, robot.getSnapshot().getEnergy(), 0.0);
+
+      // A relayed scan is replaced by an own scan of the same tick
+      Assert.assertTrue(merger.offer(snapshot(80.0, 5), false));
+      Assert.assertTrue(merger.offer(snapshot(90.0, 5), true));
+      Assert.assertFalse("Ticks the robot has should be dropped.", merger.offer(snapshot(90.0, 2), false));
+      Assert.assertEquals(1, merger.flush());
+      Assert.assertEquals(90.0, robot.getSnapshot().getEnergy(), 0.0);
+      Assert.assertEquals(3, merger.getDropped());
+
+      // A late tick the robot does not have is inserted into its history
+      Assert.assertTrue(merger.offer(snapshot(95.0, 4), false));
+      Assert.assertEquals(95.0, robot.getSnapshot(4).getEnergy(), 0.0);
+      Assert.assertEquals(5, robot.getSnapshot().getTime());
+      Assert.assertEquals(0, merger.getPending());
+
+      // Earlier rounds are always final
+      Assert.assertTrue(merger.offer(new RobotSnapshot("A", 100.0, 100.0, 100.0, 0.0, 0.0, 7, 1), true));
+      Assert.assertEquals(1, merger.advance(0, 2));
+   }
+
+   /**
+    * Test that firing is only detected between final ticks when snapshots arrive out of order.
+    */
+   @Test
+   public void testFired() {
+      Robot robot = new Robot("A");
+      FireDetector detector = new FireDetector();
+      final List<Long> fired = new ArrayList<Long>();
+      detector.addRobotFiredListener(new RobotFiredListener() {
+         @Override
+         public void handleRobotFired(RobotFiredEvent event) {
+            fired.add(event.getSnapshot().getTime());
+         }
+      });
+      robot.add(snapshot(100.0, 31));
+      detector.update(robot);
+      SnapshotMerger merger = new SnapshotMerger(robot, 1);
+
+      merger.offer(snapshot(100.0, 32), true);
+      merger.offer(snapshot(97.0, 34), true);
+      merger.advance(34, 0);
+      detector.update(robot);
+      Assert.assertTrue("Nothing should be detected before the drop is final.", fired.isEmpty());
+      merger.offer(snapshot(100.0, 33), false);
+      merger.advance(35, 0);
+      detector.update(robot);
+      Assert.assertEquals("The late tick should fill the gap.", 1, fired.size());
+      Assert.assertEquals(33, fired.get(0).longValue());
+   }
+
+   private static IRobotSnapshot snapshot(double energy, long time) {
+      return new RobotSnapshot("A", 100.0, 100.0, energy, 0.0, 0.0, time, 0);
+   }
+}
@@ -0,0 +1,184 @@
+package bnorm.robots;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.util.ListIterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link TimeSeries}.
+ *
+ * @author Brian Norman
+ */
+public class TimeSeriesTest {
+
+   /**
+    * Test method for {@link TimeSeries#add(int, IRobotSnapshot)}.
+    */
+   @Test
+   public void testAdd() {
+      RobotSnapshot s1 = new RobotSnapshot("", 0, 0, 0, 0, 0, 1, 0);
+      RobotSnapshot s2 = new RobotSnapshot("", 0, 0, 0, 0, 0, 2, 0);
+      RobotSnapshot s4 = new RobotSnapshot("", 0, 0, 0, 0, 0, 4, 0);
+
+      TimeSeries series = new TimeSeries(1);
+      series.add(s1);
+      series.add(s4);
+      series.add(1, s2);
+
+      Assert.assertEquals("Series should contain 3 elements.", 3, series.size());
+      Assert.assertEquals("First element should be s1.", s1, series.get(0));
+      Assert.assertEquals("Second element should be s2.", s2, series.get(1));
+      Assert.assertEquals("Third element should be s4.", s4, series.get(2));
+      Assert.assertEquals("Time of the second element should be 2.", 2, series.getTime(1));
+
+      try {
+         series.add(5, s4);
+         Assert.fail("add should throw an error.");
+      } catch (Exception e) {
+         Assert.assertTrue("add should throw an IndexOutOfBoundsException.",
+                           e instanceof IndexOutOfBoundsException);
+      }
+
+      try {
+         series.add(0, null);
+         Assert.fail("add should throw an error.");
+      } catch (Exception e) {
+         Assert.assertTrue("add should throw an NullPointerException.", e instanceof NullPointerException);
+      }
+   }
+
+   /**
+    * Test method for {@link TimeSeries#floorIndex(long)}.
+    */
+   @Test
+   public void testFloorIndex() {
+      TimeSeries series = new TimeSeries();
+      Assert.assertEquals("Index returned for an empty series should be -1.", -1, series.floorIndex(3));
+
+      for (long time = 2; time <= 2000; time += 2) {
+         series.add(new RobotSnapshot("", 0, 0, 0, 0, 0, time, 0));
+      }
+
+      Assert.assertEquals("Index returned for time=0 should be -1.", -1, series.floorIndex(0));
+      Assert.assertEquals("Index returned for time=1 should be -1.", -1, series.floorIndex(1));
+      for (long time = 2; time <= 2000; time++) {
+         Assert.assertEquals("Index returned for time=" + time + " is wrong.", (int) (time / 2 - 1),
+                             series.floorIndex(time));
+      }
+      Assert.assertEquals("Index returned for time=5000 should be 999.", 999, series.floorIndex(5000));
+   }
+
+   /**
+    * Test method for {@link TimeSeries#listIterator(int)}.
+    */
+   @Test
+   public void testListIterator() {
+      TimeSeries series = new TimeSeries();
+      for (long time = 1; time <= 10; time++) {
+         series.add(new RobotSnapshot("", 0, 0, 0, 0, 0, time, 0));
+      }
+
+      ListIterator<IRobotSnapshot> iter = series.listIterator(series.floorIndex(5) + 1);
+      Assert.assertTrue("Iterator should have previous.", iter.hasPrevious());
+      Assert.assertEquals("Previous element should be at time 5.", 5, iter.previous().getTime());
+      Assert.assertEquals("Next element should be at time 5.", 5, iter.next().getTime());
+      Assert.assertEquals("Next element should be at time 6.", 6, iter.next().getTime());
+
+      series.add(new RobotSnapshot("", 0, 0, 0, 0, 0, 11, 0));
+      try {
+         iter.next();
+         Assert.fail("Iterator should fail after the series was modified.");
+      } catch (Exception e) {
+         Assert.assertTrue("Iterator should throw an ConcurrentModificationException.",
+                           e instanceof java.util.ConcurrentModificationException);
+      }
+   }
+
+   /**
+    * Test method for {@link TimeSeries#cursor(int)}.
+    */
+   @Test
+   public void testCursor() {
+      RobotSnapshot s1 = new RobotSnapshot("Name", 10, 20, 100, 1.5, 8, 1, 2);
+      RobotSnapshot s2 = new RobotSnapshot("Name", 15, 25, 98, 1.25, -2, 2, 2);
+
+      TimeSeries series = new TimeSeries();
+      series.add(s1);
+      series.add(s2);
+
+      Assert.assertEquals("First element should be s1.", s1, series.get(0));
+      Assert.assertEquals("Second element should be s2.", s2, series.get(1));
+
+      TimeSeries.Cursor cursor = series.cursor(0);
+      Assert.assertEquals("New cursor should not view a snapshot.", -1, cursor.getIndex());
+      Assert.assertFalse("Cursor should not have previous.", cursor.hasPrevious());
+      Assert.assertSame("Moving the cursor should return the cursor.", cursor, cursor.next());
+      Assert.assertEquals("Cursor should view s1.", s1, series.get(cursor.getIndex()));
+      Assert.assertEquals("Cursor x should be 10.", 10.0, cursor.getX(), 0.0);
+      Assert.assertEquals("Cursor energy should be 100.", 100.0, cursor.getEnergy(), 0.0);
+      Assert.assertEquals("Cursor delta x should match s1.", s1.getDeltaX(), cursor.getDeltaX(), 0.0);
+      Assert.assertTrue("Cursor should have previous.", cursor.hasPrevious());
+      Assert.assertTrue("Cursor should have next.", cursor.hasNext());
+
+      Assert.assertSame("Moving the cursor should return the cursor.", cursor, cursor.next());
+      Assert.assertEquals("Cursor name should be Name.", "Name", cursor.getName());
+      Assert.assertEquals("Cursor time should be 2.", 2, cursor.getTime());
+      Assert.assertEquals("Cursor round should be 2.", 2, cursor.getRound());
+      Assert.assertEquals("Cursor velocity should be -2.", -2.0, cursor.getVelocity(), 0.0);
+      Assert.assertFalse("Cursor should not have next.", cursor.hasNext());
+      Assert.assertEquals("Previous should view s2 again.", 2, cursor.previous().getTime());
+      Assert.assertEquals("Previous should then view s1.", 1, cursor.previous().getTime());
+      Assert.assertFalse("Cursor should not have previous.", cursor.hasPrevious());
+
+      try {
+         series.add(new RobotSnapshot("Other", 0, 0, 0, 0, 0, 3, 2));
+         Assert.fail("add should throw an error.");
+      } catch (Exception e) {
+         Assert.assertTrue("add should throw an IllegalArgumentException.", e instanceof IllegalArgumentException);
+      }
+   }
+
+   /**
+    * Returns the serialized form of the specified object.
+    *
+    * @param object the object to serialize.
+    * @return the serialized bytes.
+    * @throws IOException if the object cannot be serialized.
+    */
+   private static byte[] serialize(Object object) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+         out.writeObject(object);
+      }
+      return bytes.toByteArray();
+   }
+
+   /**
+    * Test method for serializing a {@link TimeSeries.Cursor}.
+    *
+    * @throws IOException if the cursor cannot be serialized.
+    */
+   @Test
+   public void testCursorSerializable() throws IOException {
+      RobotSnapshot s1 = new RobotSnapshot("Name", 10, 20, 100, 1.5, 8, 1, 2);
+      TimeSeries series = new TimeSeries();
+      series.add(s1);
+
+      TimeSeries.Cursor cursor = series.cursor(0);
+      try {
+         new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(cursor);
+         Assert.fail("Cursor that is not viewing a snapshot should not be serialized.");
+      } catch (NotSerializableException e) {
+         // Expected
+      }
+
+      cursor.next();
+      Assert.assertArrayEquals("Cursor should be serialized as a copy of s1.", serialize(series.get(0)),
+                               serialize(cursor));
+   }
+}
@@ -0,0 +1,76 @@
+package bnorm.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A group of unit tests for {@link FirePowerStats}.
+ *
+ * @author Brian Norman
+ */
+public class FirePowerStatsTest {
+
+   /**
+    * A test for the {@link FirePowerStats#getBin(double)} and {@link FirePowerStats#getPower(int)}
+    * methods.
+    */
+   @Test
+   public void testGetBin() {
+      Assert.assertEquals(30, FirePowerStats.BINS);
+      Assert.assertEquals(0, FirePowerStats.getBin(0.1));
+      Assert.assertEquals(19, FirePowerStats.getBin(2.0));
+      Assert.assertEquals(29, FirePowerStats.getBin(3.0));
+      Assert.assertEquals("Powers should be limited to the bins.", 29, FirePowerStats.getBin(5.0));
+      Assert.assertEquals(1.95, FirePowerStats.getPower(FirePowerStats.getBin(1.95)), 0.051);
+   }
+
+   /**
+    * A test for the {@link FirePowerStats#update(double, double)} method.
+    */
+   @Test
+   public void testUpdate() {
+      FirePowerStats stats = new FirePowerStats(10.0);
+      Assert.assertEquals("Empty statistics should expect full power.", 3.0, stats.getBestPower(), 1.0E-9);
+      Assert.assertEquals(0.0, stats.getDensity(2.0), 0.0);
+
+      for (int i = 0; i < 3; i++) {
+         stats.update(1.9, 1.0);
+      }
+      stats.update(3.0, 0.5);
+      Assert.assertEquals(1.9, stats.getBestPower(), 1.0E-9);
+      Assert.assertTrue(stats.getDensity(1.9) > stats.getDensity(3.0));
+      Assert.assertEquals(1.0, stats.getDensity(1.9) + stats.getDensity(3.0), 1.0E-9);
+   }
+
+   /**
+    * A test for the {@link FirePowerStats#write(java.io.DataOutput)} and
+    * {@link FirePowerStats#read(java.io.DataInput)} methods.
+    */
+   @Test
+   public void testWriteRead() throws IOException {
+      FirePowerStats stats = new FirePowerStats(10.0);
+      stats.update(0.5, 1.0);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      stats.write(new DataOutputStream(bytes));
+
+      FirePowerStats restored = new FirePowerStats(10.0);
+      restored.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+      Assert.assertEquals(0.5, restored.getBestPower(), 1.0E-9);
+      Assert.assertEquals(1.0, restored.getDensity(0.5), 1.0E-6);
+
+      bytes.reset();
+      new DataOutputStream(bytes).writeInt(FirePowerStats.BINS + 1);
+      try {
+         restored.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+         Assert.fail("Statistics of another shape should not be read.");
+      } catch (IOException e) {
+         Assert.assertEquals("Statistics should be unchanged.", 0.5, restored.getBestPower(), 1.0E-9);
+      }
+   }
+}
@@ -0,0 +1,74 @@
+package bnorm.stats;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.virtual.Point;
+import bnorm.virtual.Vector;
+
+/**
+ * A group of unit tests for {@link GuessFactorStats}.
+ *
+ * @author Brian Norman
+ */
+public class GuessFactorStatsTest {
+
+   /**
+    * A test for the {@link Segmentation#getSegment(double[])} method.
+    */
+   @Test
+   public void testGetSegment() {
+      Segmentation segmentation = new Segmentation(new int[] {1, 0}, new double[][] { {200.0, 400.0}, {4.0}});
+      Assert.assertEquals(6, segmentation.getSegments());
+      Assert.assertEquals(0, segmentation.getSegment(new double[] {2.0, 100.0}));
+      Assert.assertEquals(1, segmentation.getSegment(new double[] {4.0, 100.0}));
+      Assert.assertEquals(2, segmentation.getSegment(new double[] {2.0, 200.0}));
+      Assert.assertEquals(5, segmentation.getSegment(new double[] {8.0, 500.0}));
+      Assert.assertEquals(1, Segmentation.none().getSegments());
+      Assert.assertEquals(0, Segmentation.none().getSegment(new double[] {8.0, 500.0}));
+   }
+
+   /**
+    * A test for the {@link GuessFactorStats#getBestGuessFactor(double[])} method.
+    */
+   @Test
+   public void testGetBestGuessFactor() {
+      Segmentation distance = new Segmentation(new int[] {0}, new double[][] {{300.0}});
+      GuessFactorStats stats = new GuessFactorStats(31, 10.0, 1.0, Segmentation.none(), distance);
+      double[] near = {100.0};
+      double[] far = {500.0};
+      Assert.assertEquals(0.0, stats.getBestGuessFactor(near), 0.0);
+
+      stats.update(near, 0.8, 1.0);
+      stats.update(near, 0.8, 1.0);
+      stats.update(far, -0.6, 1.0);
+      Assert.assertEquals(stats.getGuessFactor(stats.getBin(0.8)), stats.getBestGuessFactor(near), 0.0);
+      Assert.assertEquals("The distance segment should outweigh the unsegmented buffer.",
+                          stats.getGuessFactor(stats.getBin(-0.6)), stats.getBestGuessFactor(far), 0.0);
+      Assert.assertTrue("The kernel should spread to the next bin.",
+                        stats.getDensity(near, stats.getGuessFactor(stats.getBin(0.8) - 1)) > 0.0);
+
+      // Newer visits outweigh older visits
+      for (int i = 0; i < 3; i++) {
+         stats.update(near, -1.0, 1.0);
+      }
+      Assert.assertEquals(-1.0, stats.getBestGuessFactor(near), 0.0);
+   }
+
+   /**
+    * A test for the {@link GuessFactorWave#getGuessFactor(bnorm.virtual.IPoint)} method.
+    */
+   @Test
+   public void testGetGuessFactor() {
+      // The target is north of the wave moving west, so counter-clockwise
+      GuessFactorWave wave = new GuessFactorWave(0.0, 0.0, 11.0, 0, new Vector(0.0, 100.0, -Math.PI / 2, 8.0),
+                                                 new double[] {100.0});
+      Assert.assertEquals(-1, wave.getDirection());
+      Assert.assertEquals(0.0, wave.getGuessFactor(new Point(0.0, 100.0)), 1.0E-12);
+      Assert.assertEquals(1.0, wave.getGuessFactor(new Point(-100.0, 0.0)), 1.0E-12);
+
+      double angle = wave.getAngle(0.5);
+      Point point = new Point(100.0 * Math.sin(angle), 100.0 * Math.cos(angle));
+      Assert.assertEquals(0.5, wave.getGuessFactor(point), 1.0E-9);
+   }
+}
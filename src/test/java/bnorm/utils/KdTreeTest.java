@@ -0,0 +1,131 @@
+package bnorm.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A group of unit tests for {@link KdTree}s.
+ *
+ * @author Brian Norman
+ */
+public class KdTreeTest {
+
+   /**
+    * A test for the {@link KdTree#nearest(double[], double[], int, List, double[])} method against a
+    * linear search, including after the oldest points have been evicted.
+    */
+   @Test
+   public void testNearest() {
+      Random random = new Random(16);
+      int capacity = 2000;
+      KdTree<Integer> tree = new KdTree<Integer>(3, capacity);
+      double[][] points = new double[5000][];
+      double[] weights = {1.0, 4.0, 0.25};
+
+      List<Integer> result = new ArrayList<Integer>();
+      double[] distances = new double[10];
+      for (int i = 0; i < points.length; i++) {
+         points[i] = new double[] {random.nextDouble(), random.nextDouble() * 10.0, Math.round(random.nextDouble() * 5)};
+         tree.add(points[i], i);
+         Assert.assertEquals(Math.min(i + 1, capacity), tree.size());
+
+         if (i % 250 == 0) {
+            double[] query = {random.nextDouble(), random.nextDouble() * 10.0, random.nextDouble() * 5};
+
+            // Linear search over the points still in the tree
+            int first = Math.max(0, i + 1 - capacity);
+            double[] expected = new double[i + 1 - first];
+            for (int j = first; j <= i; j++) {
+               expected[j - first] = distance(query, weights, points[j]);
+            }
+            Arrays.sort(expected);
+
+            result.clear();
+            int found = tree.nearest(query, weights, 10, result, distances);
+            Assert.assertEquals(Math.min(10, expected.length), found);
+            Assert.assertEquals(found, result.size());
+            for (int j = 0; j < found; j++) {
+               int index = result.get(j);
+               Assert.assertTrue("Evicted point " + index + " was found.", index >= first);
+               Assert.assertEquals(expected[j], distances[j], 1.0E-12);
+               Assert.assertEquals(expected[j], distance(query, weights, points[index]), 1.0E-12);
+            }
+         }
+      }
+
+      tree.clear();
+      result.clear();
+      Assert.assertEquals(0, tree.nearest(new double[3], null, 5, result));
+      Assert.assertTrue(result.isEmpty());
+   }
+
+   /**
+    * A test for {@link KdTree}s holding many copies of the same point.
+    */
+   @Test
+   public void testDuplicates() {
+      KdTree<String> tree = new KdTree<String>(2, 1000);
+      for (int i = 0; i < 500; i++) {
+         tree.add(new double[] {1.0, 1.0}, "same");
+      }
+      tree.add(new double[] {5.0, 5.0}, "other");
+
+      List<String> result = new ArrayList<String>();
+      Assert.assertEquals(1, tree.nearest(new double[] {6.0, 6.0}, null, 1, result));
+      Assert.assertEquals("other", result.get(0));
+
+      try {
+         tree.add(new double[3], "wrong");
+         Assert.fail("add should throw an error.");
+      } catch (Exception e) {
+         Assert.assertTrue("add should throw an IllegalArgumentException.", e instanceof IllegalArgumentException);
+      }
+   }
+
+   /**
+    * Returns the weighted squared distance between two points.
+    *
+    * @param a the first point.
+    * @param weights the weight of each dimension.
+    * @param b the second point.
+    * @return the weighted squared distance.
+    */
+   private static double distance(double[] a, double[] weights, double[] b) {
+      double sum = 0.0;
+      for (int d = 0; d < a.length; d++) {
+         sum += weights[d] * (a[d] - b[d]) * (a[d] - b[d]);
+      }
+      return sum;
+   }
+
+   /**
+    * A test for the {@link KdTree#get(int, double[])} method, including after the oldest points
+    * have been evicted.
+    */
+   @Test
+   public void testGet() {
+      KdTree<Integer> tree = new KdTree<Integer>(2, 5);
+      double[] point = new double[2];
+      for (int i = 0; i < 8; i++) {
+         tree.add(new double[] {i, -i}, i);
+      }
+
+      for (int i = 0; i < tree.size(); i++) {
+         Assert.assertEquals("Points should be indexed from the oldest.", Integer.valueOf(i + 3), tree.get(i, point));
+         Assert.assertEquals(i + 3, point[0], 0.0);
+         Assert.assertEquals(-i - 3, point[1], 0.0);
+      }
+
+      try {
+         tree.get(5, point);
+         Assert.fail("get should throw an error.");
+      } catch (IndexOutOfBoundsException e) {
+         // Expected
+      }
+   }
+}
@@ -0,0 +1,200 @@
+package bnorm.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A group of unit tests for {@link TableFile}.
+ *
+ * @author Brian Norman
+ */
+public class TableFileTest {
+
+   /**
+    * The values written to the test tables.
+    */
+   private static final double[] VALUES = { 1.5, -2.25, Math.PI, 0.0, Double.MAX_VALUE };
+
+   /**
+    * Creates a new empty temporary file.
+    *
+    * @return the file.
+    * @throws IOException if the file cannot be created.
+    */
+   private static File createTable() throws IOException {
+      return Files.createTempFile("table", ".table").toFile();
+   }
+
+   /**
+    * Writes the specified bytes to the specified file.
+    *
+    * @param file the file to write.
+    * @param bytes the bytes to write.
+    * @throws IOException if the file cannot be written.
+    */
+   private static void write(File file, byte[] bytes) throws IOException {
+      try (OutputStream out = new FileOutputStream(file)) {
+         out.write(bytes);
+      }
+   }
+
+   /**
+    * Asserts that the specified file cannot be loaded.
+    *
+    * @param message the message of the assertion.
+    * @param file the file to load.
+    */
+   private static void assertNotLoaded(String message, File file) {
+      try {
+         TableFile.load(file);
+         Assert.fail(message);
+      } catch (IOException e) {
+         // Expected
+      }
+   }
+
+   /**
+    * Test method for {@link TableFile#write(File, double[])} and {@link TableFile#load(File)}.
+    *
+    * @throws IOException if the table cannot be written or loaded.
+    */
+   @Test
+   public void testWriteLoad() throws IOException {
+      File file = createTable();
+      try {
+         TableFile.write(file, VALUES);
+
+         byte[] bytes = Files.readAllBytes(file.toPath());
+         Assert.assertEquals("Table file has the wrong size.", TableFile.HEADER_SIZE + 8 * VALUES.length, bytes.length);
+         Assert.assertEquals("Magic number should read TBL1.", "TBL1", new String(bytes, 0, 4, "US-ASCII"));
+
+         ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+         Assert.assertEquals("Magic number is wrong.", TableFile.MAGIC, buffer.getInt(0));
+         Assert.assertEquals("Count should be little-endian.", 5, bytes[4]);
+         Assert.assertEquals("Count is wrong.", VALUES.length, buffer.getInt(4));
+         for (int i = 0; i < VALUES.length; i++) {
+            Assert.assertEquals("Value should be little-endian (" + i + ").", Double.doubleToLongBits(VALUES[i]),
+                                buffer.getLong(TableFile.HEADER_SIZE + 8 * i));
+         }
+
+         DoubleBuffer table = TableFile.load(file);
+         Assert.assertTrue("Table should be memory-mapped.", table.isDirect());
+         Assert.assertTrue("Table should be read-only.", table.isReadOnly());
+         Assert.assertEquals("Table has the wrong size.", VALUES.length, table.capacity());
+         for (int i = 0; i < VALUES.length; i++) {
+            Assert.assertEquals("Table value is wrong (" + i + ").", VALUES[i], table.get(i), 0.0);
+         }
+      } finally {
+         file.delete();
+      }
+   }
+
+   /**
+    * Test method for {@link TableFile#load(File)} with files that are not table files.
+    *
+    * @throws IOException if a file cannot be written.
+    */
+   @Test
+   public void testBadHeader() throws IOException {
+      File file = createTable();
+      try {
+         assertNotLoaded("Empty file should not be loaded.", file);
+
+         ByteBuffer buffer = ByteBuffer.allocate(TableFile.HEADER_SIZE + 16).order(ByteOrder.LITTLE_ENDIAN);
+         buffer.putInt(TableFile.MAGIC + 1).putInt(2).putDouble(1.0).putDouble(2.0);
+         write(file, buffer.array());
+         assertNotLoaded("File with a bad magic number should not be loaded.", file);
+
+         buffer.putInt(0, TableFile.MAGIC).putInt(4, 3);
+         write(file, buffer.array());
+         assertNotLoaded("File with too large a count should not be loaded.", file);
+
+         buffer.putInt(4, -1);
+         write(file, buffer.array());
+         assertNotLoaded("File with a negative count should not be loaded.", file);
+
+         buffer.putInt(4, 2);
+         write(file, buffer.array());
+         Assert.assertEquals("File with the right count should be loaded.", 2, TableFile.load(file).capacity());
+      } finally {
+         file.delete();
+      }
+   }
+
+   /**
+    * Test method for {@link TableFile#load(File)} with a Java serialized <code>double[]</code>.
+    *
+    * @throws IOException if a file cannot be written or loaded.
+    */
+   @Test
+   public void testSerialized() throws IOException {
+      File file = createTable();
+      File other = createTable();
+      try {
+         try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+            out.writeObject(VALUES);
+         }
+         DoubleBuffer table = TableFile.load(file);
+         Assert.assertFalse("Serialized table should not be memory-mapped.", table.isDirect());
+         Assert.assertTrue("Serialized table should be read-only.", table.isReadOnly());
+         Assert.assertEquals("Table has the wrong size.", VALUES.length, table.capacity());
+         for (int i = 0; i < VALUES.length; i++) {
+            Assert.assertEquals("Table value is wrong (" + i + ").", VALUES[i], table.get(i), 0.0);
+         }
+
+         try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(other))) {
+            out.writeObject("sine");
+         }
+         assertNotLoaded("Serialized file that is not a table should not be loaded.", other);
+      } finally {
+         file.delete();
+         other.delete();
+      }
+   }
+
+   /**
+    * Test method for {@link TableFile#load(File)} loading the same file twice.
+    *
+    * @throws IOException if the table cannot be written or loaded.
+    */
+   @Test
+   public void testShared() throws IOException {
+      File file = createTable();
+      try {
+         TableFile.write(file, VALUES);
+         DoubleBuffer table = TableFile.load(file);
+         Assert.assertSame("Same file should share one table.", table, TableFile.load(file));
+
+         File alias = new File(new File(file.getParentFile(), "."), file.getName());
+         Assert.assertSame("Same file by another path should share one table.", table, TableFile.load(alias));
+      } finally {
+         file.delete();
+      }
+   }
+
+   /**
+    * Test method for {@link TableFile#load(File)} with the sine table shipped in <code>lib</code>.
+    *
+    * @throws IOException if the table cannot be loaded.
+    */
+   @Test
+   public void testSineTable() throws IOException {
+      DoubleBuffer table = TableFile.load(new File("lib", TableTrig.SINE_TABLE));
+      Assert.assertTrue("Sine table should be memory-mapped.", table.isDirect());
+      Assert.assertEquals("Sine table has the wrong size.", TableTrig.SIZE, table.capacity());
+      for (int i = 0; i < TableTrig.SIZE; i += 97) {
+         Assert.assertEquals("Sine table value is wrong (" + i + ").", StrictMath.sin(i * 2.0 * Math.PI / TableTrig.SIZE),
+                             table.get(i), 1.0E-15);
+      }
+   }
+}
@@ -0,0 +1,92 @@
+package bnorm.utils;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A group of unit tests for {@link TableTrig}. Checks the documented maximum errors against {@link StrictMath}.
+ *
+ * @author Brian Norman
+ */
+public class TableTrigTest {
+
+   /**
+    * The number of random values each function is tested with.
+    */
+   private static final int SAMPLES = 100000;
+
+   /**
+    * The backend being tested.
+    */
+   private final TableTrig trig = new TableTrig();
+
+   /**
+    * A test for the {@link TableTrig#sin(double)} and {@link TableTrig#cos(double)} methods.
+    */
+   @Test
+   public void testSinCos() {
+      Random random = new Random(1);
+      for (int i = 0; i < SAMPLES; i++) {
+         double angle = (random.nextDouble() - 0.5) * 100.0;
+         Assert.assertEquals(StrictMath.sin(angle), trig.sin(angle), 3.0E-10);
+         Assert.assertEquals(StrictMath.cos(angle), trig.cos(angle), 3.0E-10);
+      }
+
+      Assert.assertTrue(Double.isNaN(trig.sin(Double.NaN)));
+      Assert.assertTrue(Double.isNaN(trig.cos(Double.POSITIVE_INFINITY)));
+   }
+
+   /**
+    * A test for the {@link TableTrig#asin(double)} and {@link TableTrig#acos(double)} methods.
+    */
+   @Test
+   public void testAsinAcos() {
+      Random random = new Random(2);
+      for (int i = 0; i < SAMPLES; i++) {
+         double ratio = (random.nextDouble() - 0.5) * 2.0;
+         Assert.assertEquals(StrictMath.asin(ratio), trig.asin(ratio), 4.0E-10);
+         Assert.assertEquals(StrictMath.acos(ratio), trig.acos(ratio), 4.0E-10);
+      }
+
+      Assert.assertEquals(Trig.HALF_CIRCLE, trig.acos(-1.0), 4.0E-10);
+      Assert.assertEquals(0.0, trig.acos(1.0), 4.0E-10);
+      Assert.assertTrue(Double.isNaN(trig.acos(2.0)));
+   }
+
+   /**
+    * A test for the {@link TableTrig#atan(double)} and {@link TableTrig#atan2(double, double)} methods.
+    */
+   @Test
+   public void testAtan() {
+      Random random = new Random(3);
+      for (int i = 0; i < SAMPLES; i++) {
+         double ratio = (random.nextDouble() - 0.5) * 20.0;
+         Assert.assertEquals(StrictMath.atan(ratio), trig.atan(ratio), 1.0E-11);
+
+         double x = (random.nextDouble() - 0.5) * 1000.0;
+         double y = (random.nextDouble() - 0.5) * 1000.0;
+         Assert.assertEquals(StrictMath.atan2(x, y), trig.atan2(x, y), 1.0E-11);
+      }
+
+      Assert.assertEquals(StrictMath.atan2(0.0, -1.0), trig.atan2(0.0, -1.0), 0.0);
+      Assert.assertEquals(StrictMath.atan2(-0.0, -1.0), trig.atan2(-0.0, -1.0), 0.0);
+      Assert.assertEquals(StrictMath.atan2(1.0, 0.0), trig.atan2(1.0, 0.0), 0.0);
+      Assert.assertEquals(StrictMath.atan2(0.0, 0.0), trig.atan2(0.0, 0.0), 0.0);
+      Assert.assertTrue(Double.isNaN(trig.atan2(Double.NaN, 1.0)));
+   }
+
+   /**
+    * A test for the {@link TableTrig#tan(double)} method.
+    */
+   @Test
+   public void testTan() {
+      Random random = new Random(4);
+      for (int i = 0; i < SAMPLES; i++) {
+         double angle = (random.nextDouble() - 0.5) * 100.0;
+         double expected = StrictMath.tan(angle);
+         Assert.assertEquals(expected, trig.tan(angle), 2.0E-8 * Math.max(1.0, Math.abs(expected)));
+      }
+   }
+}
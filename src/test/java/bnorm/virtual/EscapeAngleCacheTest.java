@@ -0,0 +1,56 @@
+package bnorm.virtual;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import robocode.Rules;
+
+/**
+ * A group of unit tests for {@link EscapeAngleCache}s.
+ *
+ * @author Brian Norman
+ */
+public class EscapeAngleCacheTest {
+
+   /**
+    * A test for the {@link EscapeAngleCache#getEscapeAngle(double, double, double, double)} method.
+    */
+   @Test
+   public void testGetEscapeAngle() {
+      EscapeAngleCache cache = new EscapeAngleCache();
+      Assert.assertEquals(0, cache.getComputed());
+
+      double simple = EscapeAngleCache.getMaxEscapeAngle(Rules.getBulletSpeed(3.0));
+      double open = cache.getEscapeAngle(3.0, 500.0, 8.0, 400.0);
+      Assert.assertTrue("Orbiting should not beat the simple escape angle.", open < simple);
+      Assert.assertTrue("Orbiting should get most of the simple escape angle.", open > 0.8 * simple);
+      Assert.assertEquals("Only the grid point that was looked up should be simulated.", 1, cache.getComputed());
+
+      double reversing = cache.getEscapeAngle(3.0, 500.0, -8.0, 400.0);
+      double wall = cache.getEscapeAngle(3.0, 500.0, 8.0, 100.0);
+      Assert.assertTrue("Reversing should reach a smaller angle.", reversing < open);
+      Assert.assertTrue("A wall should limit the angle.", wall < open);
+      Assert.assertEquals("A robot against the wall cannot escape.", 0.0,
+                          cache.getEscapeAngle(3.0, 500.0, 8.0, 0.0), 1.0E-6);
+      Assert.assertTrue("Faster bullets should give a smaller angle.",
+                        cache.getEscapeAngle(0.1, 500.0, 8.0, 400.0) < open);
+
+      // Inputs between grid points are interpolated and inputs outside of the grid are clamped
+      double between = cache.getEscapeAngle(3.0, 500.0, 8.0, 125.0);
+      Assert.assertTrue(between > wall && between < cache.getEscapeAngle(3.0, 500.0, 8.0, 150.0));
+      Assert.assertEquals(open, cache.getEscapeAngle(3.0, 500.0, 8.0, 5000.0), 0.0);
+      Assert.assertEquals(open, cache.getEscapeAngle(5.0, 500.0, 12.0, 400.0), 0.0);
+   }
+
+   /**
+    * A test for the {@link EscapeAngleCache#load(File)} method.
+    */
+   @Test
+   public void testLoad() {
+      EscapeAngleCache cache = new EscapeAngleCache();
+      Assert.assertFalse(cache.load(new File("does-not-exist.mea")));
+      Assert.assertEquals(0, cache.getComputed());
+   }
+}
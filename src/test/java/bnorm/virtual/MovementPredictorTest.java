@@ -0,0 +1,144 @@
+package bnorm.virtual;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import robocode.Rules;
+
+/**
+ * A group of unit tests for {@link MovementPredictor}s.
+ *
+ * @author Brian Norman
+ */
+public class MovementPredictorTest {
+
+   /**
+    * A policy that moves forever in one direction without turning.
+    */
+   private static final IMovementPolicy FORWARD = new IMovementPolicy() {
+      @Override
+      public void command(MovementPredictor predictor, int tick) {
+         predictor.setMove(Double.POSITIVE_INFINITY);
+      }
+   };
+
+   /**
+    * A test for the {@link MovementPredictor#predict(IVector, IMovementPolicy, int, MovementPath)}
+    * method when moving a fixed distance.
+    */
+   @Test
+   public void testPredictMove() {
+      MovementPredictor predictor = new MovementPredictor(800.0, 600.0);
+      MovementPath path = new MovementPath(4);
+      final int[] calls = new int[1];
+      predictor.predict(new Vector(400.0, 100.0, 0.0, 0.0), new IMovementPolicy() {
+         @Override
+         public void command(MovementPredictor predictor, int tick) {
+            Assert.assertEquals(calls[0]++, tick);
+            if (tick == 0) {
+               predictor.setMove(100.0);
+            }
+         }
+      }, 30, path);
+
+      Assert.assertEquals(30, calls[0]);
+      Assert.assertEquals(31, path.size());
+      Assert.assertEquals(100.0, path.getY(0), 0.0);
+      for (int i = 1; i <= 8; i++) {
+         Assert.assertEquals("Velocity at tick " + i + " is wrong.", i, path.getVelocity(i), 0.0);
+      }
+      Assert.assertEquals(200.0, path.getY(30), 1.0E-9);
+      Assert.assertEquals(400.0, path.getX(30), 1.0E-9);
+      Assert.assertEquals(0.0, path.getVelocity(30), 0.0);
+      Assert.assertEquals(0.0, predictor.getMoveRemaining(), 1.0E-9);
+      Assert.assertFalse(path.isHitWall(30));
+   }
+
+   /**
+    * A test for the {@link MovementPredictor#step()} method when reversing direction.
+    */
+   @Test
+   public void testStepReverse() {
+      MovementPredictor predictor = new MovementPredictor(800.0, 600.0);
+      predictor.reset(400.0, 300.0, 0.0, 8.0);
+      predictor.setMove(Double.NEGATIVE_INFINITY);
+
+      double[] expected = {6.0, 4.0, 2.0, 0.0, -1.0, -2.0, -3.0};
+      for (double v : expected) {
+         predictor.step();
+         Assert.assertEquals(v, predictor.getVelocity(), 0.0);
+      }
+      Assert.assertEquals(300.0 + 12.0 - 6.0, predictor.getY(), 1.0E-9);
+   }
+
+   /**
+    * A test for the {@link MovementPredictor#step()} method when turning.
+    */
+   @Test
+   public void testStepTurn() {
+      MovementPredictor predictor = new MovementPredictor(800.0, 600.0);
+      predictor.reset(400.0, 300.0, 0.0, 0.0);
+      predictor.setTurn(-Math.PI);
+      predictor.step();
+      Assert.assertEquals(2 * Math.PI - Rules.MAX_TURN_RATE_RADIANS, predictor.getHeading(), 1.0E-12);
+      Assert.assertEquals(-Math.PI + Rules.MAX_TURN_RATE_RADIANS, predictor.getTurnRemaining(), 1.0E-12);
+
+      predictor.reset(400.0, 300.0, 0.0, 8.0);
+      predictor.setTurnTo(0.05);
+      predictor.setMove(Double.POSITIVE_INFINITY);
+      predictor.step();
+      Assert.assertEquals(0.05, predictor.getHeading(), 1.0E-12);
+
+      predictor.setTurn(1.0);
+      predictor.step();
+      Assert.assertEquals(0.05 + Rules.getTurnRateRadians(8.0), predictor.getHeading(), 1.0E-12);
+   }
+
+   /**
+    * A test for the {@link MovementPredictor#step()} method when hitting a wall.
+    */
+   @Test
+   public void testStepWall() {
+      MovementPredictor predictor = new MovementPredictor(800.0, 600.0);
+      MovementPath path = new MovementPath();
+      predictor.predict(new Vector(400.0, 570.0, 0.0, 8.0), FORWARD, 3, path);
+      Assert.assertEquals(578.0, path.getY(1), 0.0);
+      Assert.assertFalse(path.isHitWall(1));
+      Assert.assertEquals(584.0, path.getY(2), 0.0);
+      Assert.assertEquals(0.0, path.getVelocity(2), 0.0);
+      Assert.assertTrue(path.isHitWall(2));
+      Assert.assertEquals(584.0, path.getY(3), 0.0);
+      Assert.assertTrue("Driving into the wall should keep hitting it.", path.isHitWall(3));
+
+      // Hitting the wall at an angle backs the robot up along its heading
+      double step = 8.0 * Math.sin(Math.PI / 4);
+      predictor.predict(new Vector(770.0, 300.0, Math.PI / 4, 8.0), FORWARD, 3, path);
+      Assert.assertFalse(path.isHitWall(2));
+      Assert.assertTrue(path.isHitWall(3));
+      Assert.assertEquals(784.0, path.getX(3), 1.0E-9);
+      Assert.assertEquals(300.0 + 3 * step - (770.0 + 3 * step - 784.0), path.getY(3), 1.0E-9);
+   }
+
+   /**
+    * A test for the argument checks of
+    * {@link MovementPredictor#predict(IVector, IMovementPolicy, int, MovementPath)}.
+    */
+   @Test
+   public void testPredictArguments() {
+      MovementPredictor predictor = new MovementPredictor(800.0, 600.0);
+      try {
+         predictor.predict(new Vector(400.0, 300.0, 0.0, 0.0), FORWARD, -1, new MovementPath());
+         Assert.fail("predict should throw an error.");
+      } catch (Exception e) {
+         Assert.assertTrue("predict should throw an IllegalArgumentException.",
+                           e instanceof IllegalArgumentException);
+      }
+
+      try {
+         predictor.predict(null, FORWARD, 1, new MovementPath());
+         Assert.fail("predict should throw an error.");
+      } catch (Exception e) {
+         Assert.assertTrue("predict should throw an NullPointerException.", e instanceof NullPointerException);
+      }
+   }
+}
@@ -0,0 +1,120 @@
+package bnorm.virtual;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.robots.IRobotSnapshot;
+import bnorm.utils.Trig;
+
+/**
+ * A group of unit tests for {@link VirtualGunArray}s.
+ *
+ * @author Brian Norman
+ */
+public class VirtualGunArrayTest {
+
+   /**
+    * A gun that fires straight at the target.
+    */
+   private static final IVirtualGun HEAD_ON = new IVirtualGun() {
+      @Override
+      public String getName() {
+         return "Head-On";
+      }
+
+      @Override
+      public double aim(IPoint source, IRobotSnapshot target, double bulletSpeed, double[] features) {
+         return Trig.angle(target.getX() - source.getX(), target.getY() - source.getY());
+      }
+   };
+
+   /**
+    * A gun that fires where the target would be if it kept its velocity, one tick at a time.
+    */
+   private static final IVirtualGun LINEAR = new IVirtualGun() {
+      @Override
+      public String getName() {
+         return "Linear";
+      }
+
+      @Override
+      public double aim(IPoint source, IRobotSnapshot target, double bulletSpeed, double[] features) {
+         double x = target.getX();
+         double y = target.getY();
+         for (int t = 1; t * bulletSpeed < Points.dist(source.getX(), source.getY(), x, y); t++) {
+            x += target.getDeltaX();
+            y += target.getDeltaY();
+         }
+         return Trig.angle(x - source.getX(), y - source.getY());
+      }
+   };
+
+   /**
+    * Test method for {@link VirtualGunArray#update(IRobotSnapshot)}.
+    */
+   @Test
+   public void testUpdate() {
+      VirtualGunArray array = new VirtualGunArray(10.0, HEAD_ON, LINEAR);
+      Point source = new Point(400.0, 100.0);
+
+      // A target moving east along y = 400 that LINEAR hits and HEAD_ON misses
+      for (int shot = 0; shot < 3; shot++) {
+         long fireTime = shot * 100;
+         array.fire(source, new Target("Enemy", 200.0, 400.0, 8.0, fireTime), 14.0, fireTime, new double[] {1.0});
+         array.fire(source, new Target("Other", 200.0, 400.0, 8.0, fireTime), 14.0, fireTime, null);
+         for (long time = fireTime + 1; time < fireTime + 100; time++) {
+            array.update(new Target("Enemy", 200.0 + 8.0 * (time - fireTime), 400.0, 8.0, time));
+         }
+      }
+
+      Assert.assertEquals("Waves at the other target should not be scored.", 3, array.getWaves().size());
+      Assert.assertEquals(3, array.getShots(0));
+      Assert.assertEquals(0.0, array.getHitRate(0), 0.0);
+      Assert.assertEquals(1.0, array.getHitRate(1), 0.0);
+      Assert.assertEquals(1, array.getBestGun());
+      Assert.assertEquals("Linear", array.getGun(array.getBestGun()).getName());
+
+      VirtualGunWave wave = array.fire(source, new Target("Enemy", 200.0, 400.0, 8.0, 500), 14.0, 500, null);
+      Assert.assertEquals("The wave should be fired at the angle of the best gun.", wave.getAngle(1), wave.getHeading(),
+                          0.0);
+      array.clear();
+      Assert.assertTrue(array.getWaves().isEmpty());
+   }
+
+   /**
+    * A target driving east.
+    */
+   private static final class Target extends Vector implements IRobotSnapshot {
+
+      private static final long serialVersionUID = 1L;
+
+      private final String name;
+      private final long time;
+
+      Target(String name, double x, double y, double velocity, long time) {
+         super(x, y, Math.PI / 2, velocity);
+         this.name = name;
+         this.time = time;
+      }
+
+      @Override
+      public String getName() {
+         return name;
+      }
+
+      @Override
+      public double getEnergy() {
+         return 100.0;
+      }
+
+      @Override
+      public long getTime() {
+         return time;
+      }
+
+      @Override
+      public int getRound() {
+         return 0;
+      }
+   }
+}
@@ -0,0 +1,113 @@
+package bnorm.virtual;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.utils.Trig;
+import bnorm.utils.Utils;
+
+/**
+ * A group of unit tests for {@link WaveIntersection}s.
+ *
+ * @author Brian Norman
+ */
+public class WaveIntersectionTest {
+
+   /**
+    * A test for the {@link WaveIntersection#intersect(IWave, double, double, long)} method against a
+    * robot that is standing still directly north of the wave.
+    */
+   @Test
+   public void testIntersectStill() {
+      Wave wave = new Wave(100.0, 100.0, 11.0, 0);
+      WaveIntersection intersection = new WaveIntersection();
+      for (long time = 0; time < 30; time++) {
+         intersection.intersect(wave, 100.0, 300.0, time);
+      }
+
+      Assert.assertTrue(intersection.isTouched());
+      Assert.assertEquals(17, intersection.getFirstTime());
+      Assert.assertEquals(20, intersection.getLastTime());
+      Assert.assertEquals(0.0, intersection.getReference(), 1.0E-12);
+
+      // The widest part of the box is the near edge
+      double half = Trig.atan(18.0 / 182.0);
+      Assert.assertEquals(-half, intersection.getMinOffset(), 1.0E-12);
+      Assert.assertEquals(half, intersection.getMaxOffset(), 1.0E-12);
+      Assert.assertEquals(2 * half, intersection.getWidth(), 1.0E-12);
+      Assert.assertEquals(Utils.absolute(-half), intersection.getMinAngle(), 1.0E-12);
+
+      intersection.reset();
+      Assert.assertFalse(intersection.isTouched());
+      Assert.assertEquals(0.0, intersection.getWidth(), 0.0);
+   }
+
+   /**
+    * A test for the {@link WaveIntersection#intersect(IWave, double, double, long)} method when the
+    * wave starts inside of the robot.
+    */
+   @Test
+   public void testIntersectInside() {
+      Wave wave = new Wave(100.0, 100.0, 11.0, 0);
+      WaveIntersection intersection = new WaveIntersection();
+      Assert.assertTrue(intersection.intersect(wave, 110.0, 100.0, 1));
+      Assert.assertEquals(2 * Math.PI, intersection.getWidth(), 0.0);
+      Assert.assertFalse(intersection.intersect(wave, 110.0, 100.0, 10));
+   }
+
+   /**
+    * A test for the {@link WaveIntersection#intersect(IWave, double, double, long)} method against
+    * the angles of points sampled from inside of a moving robot.
+    */
+   @Test
+   public void testIntersectSampled() {
+      Random random = new Random(13);
+      WaveIntersection intersection = new WaveIntersection();
+      for (int test = 0; test < 200; test++) {
+         Wave wave = new Wave(400.0, 300.0, 11.0 + random.nextDouble() * 8.0, 0);
+         double heading = random.nextDouble() * Trig.CIRCLE;
+         double distance = 60.0 + random.nextDouble() * 300.0;
+         double x = Utils.projectX(wave.getX(), heading, distance);
+         double y = Utils.projectY(wave.getY(), heading, distance);
+         double moveX = random.nextDouble() * 10.0 - 5.0;
+         double moveY = random.nextDouble() * 10.0 - 5.0;
+
+         intersection.reset();
+         double reference = Double.NaN;
+         double min = Double.POSITIVE_INFINITY;
+         double max = Double.NEGATIVE_INFINITY;
+         for (long time = 1; time < 100; time++) {
+            double rx = x + moveX * time;
+            double ry = y + moveY * time;
+            boolean touched = intersection.intersect(wave, rx, ry, time);
+            if (touched && Double.isNaN(reference)) {
+               reference = Trig.angle(rx - wave.getX(), ry - wave.getY());
+            }
+
+            double inner = wave.dist(time - 1);
+            double outer = wave.dist(time);
+            for (int i = 0; i <= 72; i++) {
+               for (int j = 0; j <= 72; j++) {
+                  double px = rx - 18.0 + i * 0.5;
+                  double py = ry - 18.0 + j * 0.5;
+                  double d = Points.dist(wave.getX(), wave.getY(), px, py);
+                  if (d >= inner && d <= outer) {
+                     Assert.assertTrue("Sampled point at time " + time + " was missed.", touched);
+                     double offset = Utils.relative(Trig.angle(px - wave.getX(), py - wave.getY()) - reference);
+                     min = Math.min(min, offset);
+                     max = Math.max(max, offset);
+                  }
+               }
+            }
+         }
+
+         Assert.assertTrue("Test " + test + " was never touched.", intersection.isTouched());
+         Assert.assertTrue("Minimum is too large.", intersection.getMinOffset() <= min + 1.0E-12);
+         Assert.assertTrue("Maximum is too small.", intersection.getMaxOffset() >= max - 1.0E-12);
+         Assert.assertEquals("Minimum of test " + test + " is wrong.", min, intersection.getMinOffset(), 0.01);
+         Assert.assertEquals("Maximum of test " + test + " is wrong.", max, intersection.getMaxOffset(), 0.01);
+      }
+   }
+}
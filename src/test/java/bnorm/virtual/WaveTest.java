@@ -0,0 +1,65 @@
+package bnorm.virtual;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import bnorm.utils.Utils;
+
+/**
+ * A group of unit tests for {@link Wave}s.
+ *
+ * @author Brian Norman
+ */
+public class WaveTest {
+
+   /**
+    * A test for the {@link Wave#getBreakTime(IPoint)} and
+    * {@link Wave#isActive(long, IPoint)} methods.
+    */
+   @Test
+   public void testGetBreakTimePoint() {
+      Wave wave = new Wave(100.0, 100.0, 11.0, 20);
+      Point target = new Point(100.0, 210.0);
+      Assert.assertEquals(30, wave.getBreakTime(target));
+      Assert.assertEquals(31, wave.getBreakTime(new Point(100.0, 210.5)));
+      Assert.assertEquals(20, wave.getBreakTime(wave));
+
+      for (long time = wave.getTime(); time < 40; time++) {
+         boolean expected = wave.distSq(time) < Points.distSq(wave, target);
+         Assert.assertEquals("Activity at time " + time + " is wrong.", expected, wave.isActive(time, target));
+      }
+
+      Assert.assertEquals(Long.MAX_VALUE, new Wave(100.0, 100.0, 0.0, 20).getBreakTime(target));
+      Assert.assertFalse(new Wave(-1.0, 100.0, 11.0, 20).isActive(20));
+      Assert.assertTrue(new Wave(100.0, 100.0, 11.0, 20).isActive(100));
+   }
+
+   /**
+    * A test for the {@link Wave#getBreakTime(IVector, long)} method against a
+    * tick by tick simulation.
+    */
+   @Test
+   public void testGetBreakTimeVector() {
+      Random random = new Random(3);
+      for (int i = 0; i < 1000; i++) {
+         Wave wave = new Wave(random.nextDouble() * 800, random.nextDouble() * 600,
+                              11.0 + random.nextDouble() * 8.7, random.nextInt(50));
+         long time = wave.getTime() + random.nextInt(5);
+         Vector target = new Vector(random.nextDouble() * 800, random.nextDouble() * 600,
+                                    random.nextDouble() * 2 * Math.PI, random.nextDouble() * 16 - 8);
+
+         long expected = wave.getTime();
+         while (Utils.sqr(wave.dist(expected)) < Points.distSq(wave, target.getX()
+                 + target.getDeltaX() * (expected - time), target.getY() + target.getDeltaY() * (expected - time))) {
+            expected++;
+         }
+         Assert.assertEquals("Break time of wave " + i + " is wrong.", expected, wave.getBreakTime(target, time));
+      }
+
+      Wave slow = new Wave(100.0, 100.0, 5.0, 0);
+      Assert.assertEquals(Long.MAX_VALUE, slow.getBreakTime(new Vector(100.0, 200.0, 0.0, 8.0), 0));
+      Assert.assertEquals(8, slow.getBreakTime(new Vector(100.0, 200.0, Math.PI, 8.0), 0));
+   }
+}